@@ -0,0 +1,94 @@
+import type { UIEvent } from 'react'
+import { memo, useEffect, useRef, useState } from 'react'
+import { Badge } from './ui/Badge'
+import type { Interaction } from '../types/interaction'
+import { formatDateTime, truncate } from '../utils/format'
+
+// Rows have a fixed height so the visible window follows from the scroll offset alone, without measuring
+export const ROW_HEIGHT = 44
+const VIEWPORT_HEIGHT = 560
+// Rows rendered beyond each edge of the viewport, so fast scrolling does not show blank space
+const OVERSCAN = 10
+
+const cellClass = 'truncate border-b border-slate-100 px-3 py-2 text-slate-700'
+
+// Stripes follow the row's index in the page, not its position in the window
+type InteractionRowProps = {
+  interaction: Interaction
+  shaded: boolean
+}
+
+const InteractionRow = memo(function InteractionRow({ interaction, shaded }: InteractionRowProps) {
+  return (
+    <tr className={shaded ? 'bg-slate-50' : 'bg-white'} style={{ height: ROW_HEIGHT }}>
+      <td className={cellClass}>{formatDateTime(interaction.interactionDate)}</td>
+      <td className={cellClass}>{interaction.customerId}</td>
+      <td className={cellClass}>
+        <Badge variant="info">{interaction.interactionType}</Badge>
+      </td>
+      <td className={cellClass} title={interaction.feedback ?? undefined}>
+        {truncate(interaction.feedback ?? '', 120)}
+      </td>
+      <td className={cellClass} title={interaction.responsesFromCustomerSupport ?? undefined}>
+        {truncate(interaction.responsesFromCustomerSupport ?? '', 120)}
+      </td>
+    </tr>
+  )
+})
+
+/**
+ * Renders only the rows in and around the visible part of the table; spacer rows above and below keep the scroll
+ * height of the whole page. Scrolling re-renders only when the first visible row changes.
+ */
+export function InteractionsTable({ rows }: { rows: Interaction[] }) {
+  const scroller = useRef<HTMLDivElement>(null)
+  const [first, setFirst] = useState(0)
+
+  // A new page starts at its top
+  useEffect(() => {
+    if (scroller.current) {
+      scroller.current.scrollTop = 0
+    }
+    setFirst(0)
+  }, [rows])
+
+  const handleScroll = (event: UIEvent<HTMLDivElement>) => {
+    setFirst(Math.floor(event.currentTarget.scrollTop / ROW_HEIGHT))
+  }
+
+  const start = Math.max(0, first - OVERSCAN)
+  const end = Math.min(rows.length, first + Math.ceil(VIEWPORT_HEIGHT / ROW_HEIGHT) + OVERSCAN)
+
+  return (
+    <div
+      ref={scroller}
+      className="overflow-auto"
+      style={{ maxHeight: VIEWPORT_HEIGHT }}
+      onScroll={handleScroll}
+      data-testid="interactions-scroller"
+    >
+      <table className="w-full min-w-[720px] table-fixed border-collapse text-left text-sm">
+        <thead className="sticky top-0 z-10 bg-slate-50 text-slate-600">
+          <tr>
+            <th className="w-40 border-b border-slate-200 px-3 py-2">Timestamp</th>
+            <th className="w-28 border-b border-slate-200 px-3 py-2">Customer ID</th>
+            <th className="w-32 border-b border-slate-200 px-3 py-2">Interaction</th>
+            <th className="w-[28rem] border-b border-slate-200 px-3 py-2">Customer Message</th>
+            <th className="w-[28rem] border-b border-slate-200 px-3 py-2">Support Message</th>
+          </tr>
+        </thead>
+        <tbody>
+          {start > 0 && <tr aria-hidden="true" style={{ height: start * ROW_HEIGHT }} />}
+          {rows.slice(start, end).map((interaction, offset) => (
+            <InteractionRow
+              key={interaction.id ?? `${interaction.customerId}-${interaction.interactionDate}`}
+              interaction={interaction}
+              shaded={(start + offset) % 2 === 1}
+            />
+          ))}
+          {end < rows.length && <tr aria-hidden="true" style={{ height: (rows.length - end) * ROW_HEIGHT }} />}
+        </tbody>
+      </table>
+    </div>
+  )
+}
@@ -1,12 +1,13 @@
 import { act, renderHook, waitFor } from '@testing-library/react'
 import { useInteractions } from './useInteractions'
-import { fetchInteractions } from '../services/interactions'
-import type { Interaction } from '../types/interaction'
+import { fetchInteractionFacets, fetchInteractions } from '../services/interactions'
+import type { Interaction, InteractionFacets } from '../types/interaction'
 import type { Page } from '../types/pagination'
 
 jest.mock('../services/interactions')
 
 const mockFetchInteractions = fetchInteractions as jest.MockedFunction<typeof fetchInteractions>
+const mockFetchInteractionFacets = fetchInteractionFacets as jest.MockedFunction<typeof fetchInteractionFacets>
 
 const samplePage: Page<Interaction> = {
   content: [
@@ -39,7 +40,7 @@ test('loads interactions on mount', async () => {
 
   const { result } = renderHook(() => useInteractions())
 
-  expect(mockFetchInteractions).toHaveBeenCalledWith({ page: 0, size: 10 })
+  expect(mockFetchInteractions).toHaveBeenCalledWith({ page: 0, size: 10 }, expect.objectContaining({ signal: expect.any(AbortSignal) }))
 
   await waitFor(() => expect(result.current.loading).toBe(false))
   expect(result.current.data).toEqual(samplePage)
@@ -70,12 +71,15 @@ test('search applies filters and resets page', async () => {
     await result.current.search({ customerId: 456, interactionType: 'EMAIL' })
   })
 
-  expect(mockFetchInteractions).toHaveBeenLastCalledWith({
-    page: 0,
-    size: 10,
-    customerId: 456,
-    interactionType: 'EMAIL',
-  })
+  expect(mockFetchInteractions).toHaveBeenLastCalledWith(
+    {
+      page: 0,
+      size: 10,
+      customerId: 456,
+      interactionType: 'EMAIL',
+    },
+    expect.anything(),
+  )
   expect(result.current.data).toEqual(filteredPage)
 })
 
@@ -86,4 +90,142 @@ test('handles errors gracefully', async () => {
 
   await waitFor(() => expect(result.current.error).toBe('Network failure'))
   expect(result.current.loading).toBe(false)
-})
\ No newline at end of file
+})
+
+test('loads facet counts alongside results', async () => {
+  const facets: InteractionFacets = {
+    total: 1,
+    interactionTypes: { CHAT: 1 },
+    customerRatings: { '4': 1 },
+    interactionDates: { '2025-01-01': 1 },
+  }
+  mockFetchInteractions.mockResolvedValueOnce(samplePage)
+  mockFetchInteractionFacets.mockResolvedValueOnce(facets)
+
+  const { result } = renderHook(() => useInteractions())
+
+  await waitFor(() => expect(result.current.facets).toEqual(facets))
+  expect(mockFetchInteractionFacets).toHaveBeenCalledWith({ page: 0, size: 10 }, expect.anything())
+})
+
+test('paging does not reload facets', async () => {
+  mockFetchInteractions.mockResolvedValue(samplePage)
+  mockFetchInteractionFacets.mockResolvedValue({ total: 1, interactionTypes: {}, customerRatings: {}, interactionDates: {} })
+
+  const { result } = renderHook(() => useInteractions())
+
+  await waitFor(() => expect(result.current.loading).toBe(false))
+
+  await act(async () => {
+    await result.current.setPage(1)
+  })
+
+  expect(mockFetchInteractions).toHaveBeenLastCalledWith({ page: 1, size: 10 }, expect.anything())
+  expect(mockFetchInteractionFacets).toHaveBeenCalledTimes(1)
+})
+
+test('a newer search aborts the superseded request and ignores its outcome', async () => {
+  mockFetchInteractions.mockImplementationOnce(
+    (_query, options) =>
+      new Promise((_resolve, reject) => {
+        options?.signal?.addEventListener('abort', () => reject(new Error('canceled')))
+      }),
+  )
+  mockFetchInteractions.mockResolvedValueOnce(samplePage)
+
+  const { result } = renderHook(() => useInteractions())
+
+  await act(async () => {
+    await result.current.search({ customerId: 123 })
+  })
+
+  const [first, second] = mockFetchInteractions.mock.calls
+  expect(first[1]?.signal?.aborted).toBe(true)
+  expect(second[1]?.signal?.aborted).toBe(false)
+  expect(first[1]?.group).toBe(second[1]?.group)
+  expect(result.current.data).toEqual(samplePage)
+  expect(result.current.error).toBeNull()
+  expect(result.current.loading).toBe(false)
+})
+
+test('aborts requests in flight on unmount', async () => {
+  mockFetchInteractions.mockImplementationOnce(() => new Promise(() => undefined))
+
+  const { unmount } = renderHook(() => useInteractions())
+  unmount()
+
+  expect(mockFetchInteractions.mock.calls[0][1]?.signal?.aborted).toBe(true)
+})
+
+describe('page cache', () => {
+  const pageOf = (number: number): Page<Interaction> => ({
+    ...samplePage,
+    number,
+    totalElements: 30,
+    totalPages: 3,
+    first: number === 0,
+    last: number === 2,
+  })
+
+  beforeEach(() => {
+    mockFetchInteractions.mockImplementation((query) => Promise.resolve(pageOf(query.page ?? 0)))
+  })
+
+  afterEach(() => {
+    mockFetchInteractions.mockReset()
+  })
+
+  const requestedPages = () => mockFetchInteractions.mock.calls.map(([query]) => query.page)
+
+  test('prefetches the next page and serves it from the cache', async () => {
+    const { result } = renderHook(() => useInteractions())
+
+    await waitFor(() => expect(requestedPages()).toEqual([0, 1]))
+    // the prefetch must not share the group, or the server would cancel the shown page's query
+    expect(mockFetchInteractions.mock.calls[1][1]?.group).toBeUndefined()
+
+    await act(async () => {
+      await result.current.setPage(1)
+    })
+
+    expect(result.current.data.number).toBe(1)
+    expect(requestedPages()).toEqual([0, 1, 2])
+  })
+
+  test('paging back does not ask the server again', async () => {
+    const { result } = renderHook(() => useInteractions())
+    await waitFor(() => expect(result.current.loading).toBe(false))
+
+    await act(async () => {
+      await result.current.setPage(1)
+    })
+    await act(async () => {
+      await result.current.setPage(0)
+    })
+
+    expect(result.current.data.number).toBe(0)
+    expect(requestedPages()).toEqual([0, 1, 2])
+  })
+
+  test('joins a request that is already on its way instead of sending another', async () => {
+    const { result } = renderHook(() => useInteractions())
+
+    await act(async () => {
+      await Promise.all([result.current.search({ customerId: 7 }), result.current.search({ customerId: 7 })])
+    })
+
+    const firstPages = mockFetchInteractions.mock.calls.filter(([query]) => query.customerId === 7 && query.page === 0)
+    expect(firstPages).toHaveLength(1)
+  })
+
+  test('refresh drops cached pages', async () => {
+    const { result } = renderHook(() => useInteractions())
+    await waitFor(() => expect(requestedPages()).toEqual([0, 1]))
+
+    await act(async () => {
+      await result.current.refresh()
+    })
+
+    expect(requestedPages()).toEqual([0, 1, 0, 1])
+  })
+})
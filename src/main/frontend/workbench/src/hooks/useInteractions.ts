@@ -1,15 +1,58 @@
-import { useCallback, useEffect, useState } from 'react'
-import { fetchInteractions } from '../services/interactions'
+import { useCallback, useEffect, useRef, useState } from 'react'
+import type { MutableRefObject } from 'react'
+import { fetchInteractionFacets, fetchInteractions } from '../services/interactions'
 import { getErrorMessage } from '../services/api'
-import type { Interaction } from '../types/interaction'
+import type { Interaction, InteractionFacets } from '../types/interaction'
 import type { InteractionQuery } from '../types/api'
 import type { Page } from '../types/pagination'
 import { emptyPage } from '../types/pagination'
 
 const DEFAULT_PAGE_SIZE = 10
 
+// Pages kept for paging back and forth without asking the server again
+const MAX_CACHED_PAGES = 50
+const CACHE_TTL_MS = 60_000
+
+interface CachedPage {
+  promise: Promise<Page<Interaction>>
+  controller: AbortController
+  settled: boolean
+  fetchedAt: number
+}
+
+// Aborts the request held in the ref and puts a controller for the next one in its place
+const supersede = (request: MutableRefObject<AbortController | null>) => {
+  request.current?.abort()
+  const controller = new AbortController()
+  request.current = controller
+  return controller
+}
+
+// The same filters and paging give the same key, whatever order the query was put together in
+const queryKey = (query: InteractionQuery) =>
+  JSON.stringify(
+    Object.entries(query)
+      .filter(([, value]) => value !== undefined && value !== null && value !== '')
+      .sort(([a], [b]) => a.localeCompare(b)),
+  )
+
+// Drops a page that is still on its way; settled pages stay cached
+const forget = (pages: Map<string, CachedPage>, key: string) => {
+  const entry = pages.get(key)
+  if (entry && !entry.settled) {
+    entry.controller.abort()
+    pages.delete(key)
+  }
+}
+
+const clear = (pages: Map<string, CachedPage>) => {
+  pages.forEach((entry) => entry.controller.abort())
+  pages.clear()
+}
+
 export function useInteractions(initialQuery: InteractionQuery = {}) {
   const [data, setData] = useState<Page<Interaction>>(emptyPage(DEFAULT_PAGE_SIZE))
+  const [facets, setFacets] = useState<InteractionFacets | null>(null)
   const [loading, setLoading] = useState(false)
   const [error, setError] = useState<string | null>(null)
   const [query, setQuery] = useState<InteractionQuery>({
@@ -17,23 +60,119 @@ export function useInteractions(initialQuery: InteractionQuery = {}) {
     size: DEFAULT_PAGE_SIZE,
     ...initialQuery,
   })
+  // One group per hook instance lets the server cancel the query of a request this hook has given up on
+  const [group] = useState(() => Math.random().toString(36).slice(2))
+  const pages = useRef(new Map<string, CachedPage>())
+  const shown = useRef<string | null>(null)
+  const latest = useRef(0)
+  const facetsRequest = useRef<AbortController | null>(null)
+
+  // One request per page: a page that is cached, prefetched or already on its way is not asked for again.
+  // Prefetches go without the group, so the server does not take them for a newer search and cancel the shown one.
+  const fetchPage = useCallback(
+    (pageQuery: InteractionQuery, pageGroup?: string) => {
+      const key = queryKey(pageQuery)
+      const cached = pages.current.get(key)
+      if (cached && (!cached.settled || Date.now() - cached.fetchedAt < CACHE_TTL_MS)) {
+        pages.current.delete(key)
+        pages.current.set(key, cached)
+        return cached
+      }
+
+      const controller = new AbortController()
+      const entry = { controller, settled: false, fetchedAt: 0 } as CachedPage
+      entry.promise = fetchInteractions(pageQuery, { signal: controller.signal, group: pageGroup }).then(
+        (page) => {
+          entry.settled = true
+          entry.fetchedAt = Date.now()
+          return page
+        },
+        (err: unknown) => {
+          if (pages.current.get(key) === entry) {
+            pages.current.delete(key)
+          }
+          throw err
+        },
+      )
+      pages.current.set(key, entry)
+
+      // Maps iterate in insertion order, so the least recently used pages come first
+      for (const [oldKey, old] of pages.current) {
+        if (pages.current.size <= MAX_CACHED_PAGES) {
+          break
+        }
+        if (old.settled) {
+          pages.current.delete(oldKey)
+        }
+      }
+      return entry
+    },
+    [],
+  )
+
+  // A newer load aborts the page the previous one was still waiting for; only the latest one updates the state
+  const load = useCallback(
+    async (nextQuery: InteractionQuery) => {
+      const key = queryKey(nextQuery)
+      if (shown.current !== null && shown.current !== key) {
+        forget(pages.current, shown.current)
+      }
+      shown.current = key
+      const token = ++latest.current
 
-  const load = useCallback(async (nextQuery: InteractionQuery) => {
-    setLoading(true)
-    setError(null)
+      const entry = fetchPage(nextQuery, group)
+      // A cached page is swapped in without passing through the loading state
+      if (!entry.settled) {
+        setLoading(true)
+      }
+      setError(null)
+      try {
+        const response = await entry.promise
+        if (latest.current !== token) {
+          return
+        }
+        setData(response)
+        setQuery({ ...nextQuery, page: response.number, size: response.size })
+        if (!response.last) {
+          void fetchPage({ ...nextQuery, page: response.number + 1, size: response.size }).promise.catch(
+            () => undefined,
+          )
+        }
+      } catch (err) {
+        if (latest.current === token) {
+          setError(getErrorMessage(err))
+        }
+      } finally {
+        if (latest.current === token) {
+          setLoading(false)
+        }
+      }
+    },
+    [fetchPage, group],
+  )
+
+  // Facet counts are a nice-to-have; a failure here must not hide the results
+  const loadFacets = useCallback(async (nextQuery: InteractionQuery) => {
+    const controller = supersede(facetsRequest)
     try {
-      const response = await fetchInteractions(nextQuery)
-      setData(response)
-      setQuery({ ...nextQuery, page: response.number, size: response.size })
-    } catch (err) {
-      setError(getErrorMessage(err))
-    } finally {
-      setLoading(false)
+      const next = await fetchInteractionFacets(nextQuery, { signal: controller.signal, group })
+      if (!controller.signal.aborted) {
+        setFacets(next ?? null)
+      }
+    } catch {
+      if (!controller.signal.aborted) {
+        setFacets(null)
+      }
     }
-  }, [])
+  }, [group])
 
   useEffect(() => {
-    void load(query)
+    void Promise.all([load(query), loadFacets(query)])
+    return () => {
+      latest.current++
+      clear(pages.current)
+      facetsRequest.current?.abort()
+    }
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [])
 
@@ -44,12 +183,20 @@ export function useInteractions(initialQuery: InteractionQuery = {}) {
       page: filters.page ?? 0,
       size: filters.size ?? query.size ?? DEFAULT_PAGE_SIZE,
     }
-    await load(normalized)
+    await Promise.all([load(normalized), loadFacets(normalized)])
   }
 
-  const setPage = (page: number) => search({ page })
+  // Paging keeps the filters, so the facet counts are still current
+  const setPage = (page: number) => load({ ...query, page })
 
-  const refresh = () => load(query)
+  const setPageSize = (size: number) => load({ ...query, page: 0, size })
+
+  // Cached pages may predate the change that prompted the refresh
+  const refresh = () => {
+    shown.current = null
+    clear(pages.current)
+    return Promise.all([load(query), loadFacets(query)]).then(() => undefined)
+  }
 
-  return { data, loading, error, search, setPage, query, refresh }
+  return { data, facets, loading, error, search, setPage, setPageSize, query, refresh }
 }
@@ -1,5 +1,6 @@
 import { fireEvent, render, screen } from '@testing-library/react'
 import InteractionsPage from './InteractionsPage'
+import { ROW_HEIGHT } from '../components/InteractionsTable'
 import { useInteractions } from '../hooks/useInteractions'
 import type { Interaction } from '../types/interaction'
 import type { Page } from '../types/pagination'
@@ -32,11 +33,13 @@ const samplePage: Page<Interaction> = {
 
 const buildState = (overrides: Partial<ReturnType<typeof useInteractions>> = {}) => ({
   data: samplePage,
+  facets: null,
   loading: false,
   error: null,
   query: { page: 0, size: 10 },
   search: jest.fn(() => Promise.resolve()),
   setPage: jest.fn(() => Promise.resolve()),
+  setPageSize: jest.fn(() => Promise.resolve()),
   refresh: jest.fn(() => Promise.resolve()),
   ...overrides,
 })
@@ -62,6 +65,17 @@ test('renders interaction results and stats', () => {
   expect(screen.getByText('Page 1 of 1')).toBeInTheDocument()
 })
 
+test('marks estimated totals as approximate', () => {
+  mockUseInteractions.mockReturnValue(
+    buildState({ data: { ...samplePage, totalElements: 25000, totalPages: 2500, totalExact: false } }),
+  )
+
+  render(<InteractionsPage />)
+
+  expect(screen.getByText(/Showing\s+1\s+of\s+about\s+25000\s+records/)).toBeInTheDocument()
+  expect(screen.getByText('Page 1 of ~2500')).toBeInTheDocument()
+})
+
 test('shows loading state', () => {
   mockUseInteractions.mockReturnValue(buildState({ loading: true }))
 
@@ -146,4 +160,53 @@ test('pagination controls call setPage', () => {
 
   expect(setPage).toHaveBeenCalledWith(0)
   expect(setPage).toHaveBeenCalledWith(2)
-})
\ No newline at end of file
+})
+
+test('shows facet counts in the filter bar', () => {
+  mockUseInteractions.mockReturnValue(
+    buildState({
+      facets: { total: 7, interactionTypes: { CHAT: 4, EMAIL: 3 }, customerRatings: { '5': 6, '2': 1 }, interactionDates: {} },
+    }),
+  )
+
+  render(<InteractionsPage />)
+
+  expect(screen.getByRole('option', { name: 'Chat (4)' })).toBeInTheDocument()
+  expect(screen.getByRole('option', { name: 'Form (0)' })).toBeInTheDocument()
+  expect(screen.getByText('5★ 6')).toBeInTheDocument()
+})
+
+test('renders only the rows around the visible part of a large page', () => {
+  const content = Array.from({ length: 1000 }, (_, index) => ({
+    ...samplePage.content[0],
+    id: index + 1,
+    feedback: `Message ${index + 1}`,
+  }))
+  mockUseInteractions.mockReturnValue(
+    buildState({ data: { ...samplePage, content, size: 1000, totalElements: 1000 } }),
+  )
+
+  render(<InteractionsPage />)
+
+  expect(screen.getByText('Message 1')).toBeInTheDocument()
+  expect(screen.queryByText('Message 500')).not.toBeInTheDocument()
+  expect(screen.getAllByRole('row').length).toBeLessThan(50)
+
+  const scroller = screen.getByTestId('interactions-scroller')
+  Object.defineProperty(scroller, 'scrollTop', { configurable: true, value: 499 * ROW_HEIGHT })
+  fireEvent.scroll(scroller)
+
+  expect(screen.getByText('Message 500')).toBeInTheDocument()
+  expect(screen.queryByText('Message 1')).not.toBeInTheDocument()
+})
+
+test('changing the page size calls setPageSize', () => {
+  const setPageSize = jest.fn(() => Promise.resolve())
+  mockUseInteractions.mockReturnValue(buildState({ setPageSize }))
+
+  render(<InteractionsPage />)
+
+  fireEvent.change(screen.getByLabelText(/Rows per page/i), { target: { value: '200' } })
+
+  expect(setPageSize).toHaveBeenCalledWith(200)
+})
@@ -1,5 +1,6 @@
 import type { ChangeEvent, FormEvent } from 'react'
 import { useState } from 'react'
+import { InteractionsTable } from '../components/InteractionsTable'
 import { Alert } from '../components/ui/Alert'
 import { Badge } from '../components/ui/Badge'
 import { Button } from '../components/ui/Button'
@@ -8,9 +9,9 @@ import { Input } from '../components/ui/Input'
 import { Select } from '../components/ui/Select'
 import { useInteractions } from '../hooks/useInteractions'
 import { createInteraction, uploadCsv } from '../services/interactions'
+import { uploadFileInChunks } from '../services/uploads'
 import type { Interaction } from '../types/interaction'
 import type { InteractionType } from '../types/interaction'
-import { formatDateTime, truncate } from '../utils/format'
 
 const interactionTypeOptions: { label: string; value: InteractionType }[] = [
   { label: 'Chat', value: 'CHAT' },
@@ -19,6 +20,11 @@ const interactionTypeOptions: { label: string; value: InteractionType }[] = [
   { label: 'Form', value: 'FORM' },
 ]
 
+const pageSizeOptions = [10, 50, 200, 1000]
+
+// larger files go through resumable chunked uploads instead of a single multipart request
+const CHUNKED_UPLOAD_THRESHOLD = 16 * 1024 * 1024
+
 const defaultFormState = {
   customerId: '',
   interactionType: '',
@@ -28,7 +34,7 @@ const defaultFormState = {
 
 function InteractionsPage() {
   const [form, setForm] = useState(defaultFormState)
-  const { data, loading, error, search, setPage, refresh } = useInteractions()
+  const { data, facets, loading, error, search, setPage, setPageSize, refresh } = useInteractions()
   const [busy, setBusy] = useState(false)
   const [notice, setNotice] = useState<string | null>(null)
 
@@ -119,10 +125,11 @@ function InteractionsPage() {
                 value={form.interactionType}
                 onChange={handleChange}
               >
-                <option value="">Any</option>
+                <option value="">Any{facets ? ` (${facets.total})` : ''}</option>
                 {interactionTypeOptions.map((option) => (
                   <option key={option.value} value={option.value}>
                     {option.label}
+                    {facets ? ` (${facets.interactionTypes[option.value] ?? 0})` : ''}
                   </option>
                 ))}
               </Select>
@@ -149,6 +156,17 @@ function InteractionsPage() {
             </div>
           </div>
 
+          {facets && Object.keys(facets.customerRatings).length > 0 && (
+            <div className="flex flex-wrap items-center gap-2 text-sm text-slate-600" aria-label="Rating counts">
+              <span>Ratings:</span>
+              {Object.entries(facets.customerRatings).map(([rating, count]) => (
+                <Badge key={rating} variant="info">
+                  {rating}★ {count}
+                </Badge>
+              ))}
+            </div>
+          )}
+
           <div className="flex flex-wrap gap-2">
             <Button type="submit" loading={loading} aria-label="Apply filters">
               Apply filters
@@ -225,7 +243,15 @@ function InteractionsPage() {
                 if (!file) return
                 try {
                   setBusy(true)
-                  const { ingested } = await uploadCsv(file)
+                  const { ingested } =
+                    file.size > CHUNKED_UPLOAD_THRESHOLD
+                      ? await uploadFileInChunks(file, {
+                          onProgress: ({ sentBytes, totalBytes, ingested: soFar }) =>
+                            setNotice(
+                              `Uploading ${file.name}: ${Math.floor((sentBytes * 100) / totalBytes)}% sent, ${soFar} record${soFar === 1 ? '' : 's'} ingested…`,
+                            ),
+                        })
+                      : await uploadCsv(file)
                   setNotice(`${ingested} record${ingested === 1 ? '' : 's'} ingested from CSV.`)
                   await refresh()
                 } catch (err) {
@@ -247,57 +273,37 @@ function InteractionsPage() {
 
       <Card
         title="Results"
-        description={`Showing ${data.content.length} of ${totalElements} record${totalElements === 1 ? '' : 's'}`}
+        description={`Showing ${data.content.length} of ${data.totalExact === false ? 'about ' : ''}${totalElements} record${totalElements === 1 ? '' : 's'}`}
       >
         {loading ? (
           <div className="flex h-32 items-center justify-center text-slate-600">Loading interactions…</div>
         ) : data.content.length === 0 ? (
           <div className="py-6 text-sm text-slate-600">No interactions found for the selected criteria.</div>
         ) : (
-          <div className="overflow-x-auto">
-            <table className="w-full min-w-[720px] table-fixed border-collapse text-left text-sm">
-              <thead className="bg-slate-50 text-slate-600">
-                <tr>
-                  <th className="w-40 border-b border-slate-200 px-3 py-2">Timestamp</th>
-                  <th className="w-28 border-b border-slate-200 px-3 py-2">Customer ID</th>
-                  <th className="w-32 border-b border-slate-200 px-3 py-2">Interaction</th>
-                  <th className="w-[28rem] border-b border-slate-200 px-3 py-2">Customer Message</th>
-                  <th className="w-[28rem] border-b border-slate-200 px-3 py-2">Support Message</th>
-                </tr>
-              </thead>
-              <tbody>
-                {data.content.map((interaction) => (
-                  <tr
-                    key={interaction.id ?? `${interaction.customerId}-${interaction.interactionDate}`}
-                    className="odd:bg-white even:bg-slate-50"
-                  >
-                    <td className="border-b border-slate-100 px-3 py-2 align-top text-slate-800">
-                      {formatDateTime(interaction.interactionDate)}
-                    </td>
-                    <td className="border-b border-slate-100 px-3 py-2 align-top text-slate-800">
-                      {interaction.customerId}
-                    </td>
-                    <td className="border-b border-slate-100 px-3 py-2 align-top">
-                      <Badge variant="info">{interaction.interactionType}</Badge>
-                    </td>
-                    <td className="border-b border-slate-100 px-3 py-2 align-top text-slate-700">
-                      {truncate(interaction.feedback ?? '', 120)}
-                    </td>
-                    <td className="border-b border-slate-100 px-3 py-2 align-top text-slate-700">
-                      {truncate(interaction.responsesFromCustomerSupport ?? '', 120)}
-                    </td>
-                  </tr>
-                ))}
-              </tbody>
-            </table>
-          </div>
+          <InteractionsTable rows={data.content} />
         )}
 
         <div className="mt-4 flex flex-wrap items-center justify-between gap-3 text-sm text-slate-700">
           <span>
-            Page {currentPage} of {totalPages}
+            Page {currentPage} of {data.totalExact === false ? '~' : ''}{totalPages}
           </span>
-          <div className="flex gap-2">
+          <div className="flex items-center gap-2">
+            <label htmlFor="pageSize" className="whitespace-nowrap">
+              Rows per page
+            </label>
+            <Select
+              id="pageSize"
+              className="w-24"
+              value={data.size}
+              disabled={loading}
+              onChange={(e) => void setPageSize(Number(e.target.value))}
+            >
+              {pageSizeOptions.map((size) => (
+                <option key={size} value={size}>
+                  {size}
+                </option>
+              ))}
+            </Select>
             <Button
               type="button"
               variant="secondary"
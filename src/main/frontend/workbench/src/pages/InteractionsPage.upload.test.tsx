@@ -10,11 +10,13 @@ const mockUseInteractions = useInteractions as jest.MockedFunction<typeof useInt
 
 const buildState = (overrides: Partial<ReturnType<typeof useInteractions>> = {}) => ({
   data: { content: [], number: 0, size: 10, totalPages: 0, totalElements: 0, first: true, last: true, empty: true },
+  facets: null,
   loading: false,
   error: null,
   query: { page: 0, size: 10 },
   search: jest.fn(() => Promise.resolve()),
   setPage: jest.fn(() => Promise.resolve()),
+  setPageSize: jest.fn(() => Promise.resolve()),
   refresh: jest.fn(() => Promise.resolve()),
   ...overrides,
 })
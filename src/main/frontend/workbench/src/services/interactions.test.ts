@@ -1,5 +1,5 @@
 import { apiClient } from './api'
-import { createInteraction, fetchInteractions, uploadCsv } from './interactions'
+import { createInteraction, fetchInteractionFacets, fetchInteractions, uploadCsv } from './interactions'
 
 jest.mock('./api', () => {
   const get = jest.fn()
@@ -23,6 +23,28 @@ describe('interactions service', () => {
     expect(result.number).toBe(0)
   })
 
+  test('fetchInteractions passes the abort signal and the query group', async () => {
+    ;(apiClient.get as jest.Mock).mockResolvedValue({ data: { content: [], number: 0, size: 10, totalPages: 0, totalElements: 0 } })
+    const controller = new AbortController()
+
+    await fetchInteractions({ page: 0 }, { signal: controller.signal, group: 'view-1' })
+
+    expect(apiClient.get).toHaveBeenCalledWith('/interactions', {
+      params: { page: 0 },
+      signal: controller.signal,
+      headers: { 'X-Query-Group': 'view-1' },
+    })
+  })
+
+  test('fetchInteractionFacets forwards filters without paging', async () => {
+    ;(apiClient.get as jest.Mock).mockResolvedValue({ data: { total: 2, interactionTypes: { CHAT: 2 }, customerRatings: {}, interactionDates: {} } })
+
+    const result = await fetchInteractionFacets({ customerId: 42, page: 3, size: 10 })
+
+    expect(apiClient.get).toHaveBeenCalledWith('/interactions/facets', { params: { customerId: 42 } })
+    expect(result.interactionTypes.CHAT).toBe(2)
+  })
+
   test('createInteraction posts JSON body', async () => {
     const payload = { productId: 1, customerId: 2, interactionType: 'CHAT' as const, interactionDate: new Date().toISOString() }
     ;(apiClient.post as jest.Mock).mockResolvedValue({ data: { id: 99, ...payload } })
@@ -1,8 +1,25 @@
 import { apiClient } from './api'
-import type { Interaction } from '../types/interaction'
+import type { Interaction, InteractionFacets } from '../types/interaction'
 import type { InteractionQuery } from '../types/api'
 import type { Page } from '../types/pagination'
 
+/**
+ * Requests of one group to the same path supersede each other: the server cancels the query of the older one.
+ */
+export const QUERY_GROUP_HEADER = 'X-Query-Group'
+
+export interface RequestOptions {
+  // Aborts the request, e.g. when a newer one replaces it
+  signal?: AbortSignal
+  group?: string
+}
+
+const toConfig = (params: Record<string, unknown>, options: RequestOptions = {}) => ({
+  params,
+  ...(options.signal ? { signal: options.signal } : {}),
+  ...(options.group ? { headers: { [QUERY_GROUP_HEADER]: options.group } } : {}),
+})
+
 const toParams = (query: InteractionQuery) => {
   const params: Record<string, unknown> = {}
 
@@ -15,9 +32,16 @@ const toParams = (query: InteractionQuery) => {
   return params
 }
 
-export async function fetchInteractions(query: InteractionQuery): Promise<Page<Interaction>> {
+export async function fetchInteractions(query: InteractionQuery, options?: RequestOptions): Promise<Page<Interaction>> {
   const params = toParams(query)
-  const response = await apiClient.get<Page<Interaction>>('/interactions', { params })
+  const response = await apiClient.get<Page<Interaction>>('/interactions', toConfig(params, options))
+  return response.data
+}
+
+export async function fetchInteractionFacets(query: InteractionQuery, options?: RequestOptions): Promise<InteractionFacets> {
+  // Facets only depend on the filters, not on paging
+  const params = toParams({ ...query, page: undefined, size: undefined })
+  const response = await apiClient.get<InteractionFacets>('/interactions/facets', toConfig(params, options))
   return response.data
 }
 
@@ -0,0 +1,89 @@
+import { apiClient } from './api'
+import { CHECKSUM_HEADER, uploadFileInChunks } from './uploads'
+import type { UploadStatus } from '../types/upload'
+
+jest.mock('./api', () => {
+  const get = jest.fn()
+  const post = jest.fn()
+  const put = jest.fn()
+  return { apiClient: { get, post, put } }
+})
+
+const status = (overrides: Partial<UploadStatus> = {}): UploadStatus => ({
+  uploadId: 'u1',
+  fileName: 'big.csv',
+  size: 10,
+  chunkSize: 4,
+  chunkCount: 3,
+  state: 'RECEIVING',
+  receivedBytes: 0,
+  missingRanges: [{ start: 0, end: 10 }],
+  ingested: 0,
+  error: null,
+  ...overrides,
+})
+
+const file = () => new File(['0123456789'], 'big.csv', { type: 'text/csv', lastModified: 1 })
+
+describe('uploads service', () => {
+  beforeEach(() => {
+    jest.resetAllMocks()
+    localStorage.clear()
+    Object.defineProperty(globalThis, 'crypto', {
+      configurable: true,
+      value: { subtle: { digest: jest.fn(async () => new Uint8Array(32).fill(171).buffer) } },
+    })
+  })
+
+  test('sends every chunk with its checksum and resolves once ingested', async () => {
+    ;(apiClient.post as jest.Mock).mockResolvedValue({ data: status() })
+    ;(apiClient.put as jest.Mock).mockImplementation(async () => ({ data: status({ receivedBytes: 4 }) }))
+    ;(apiClient.get as jest.Mock).mockResolvedValue({ data: status({ state: 'COMPLETED', receivedBytes: 10, missingRanges: [], ingested: 2 }) })
+    const progress = jest.fn()
+
+    const result = await uploadFileInChunks(file(), { concurrency: 2, pollIntervalMs: 0, onProgress: progress })
+
+    expect(result.ingested).toBe(2)
+    expect(apiClient.post).toHaveBeenCalledWith('/uploads', { fileName: 'big.csv', size: 10, resumeKey: 'big.csv:10:1' })
+    const chunkUrls = (apiClient.put as jest.Mock).mock.calls.map(([url]) => url).sort()
+    expect(chunkUrls).toEqual(['/uploads/u1/chunks/0', '/uploads/u1/chunks/1', '/uploads/u1/chunks/2'])
+    expect((apiClient.put as jest.Mock).mock.calls[0][2].headers[CHECKSUM_HEADER]).toBe('ab'.repeat(32))
+    expect(progress).toHaveBeenLastCalledWith({ sentBytes: 10, totalBytes: 10, ingested: 2 })
+    expect(localStorage.length).toBe(0)
+  })
+
+  test('retries a chunk that failed in transit', async () => {
+    ;(apiClient.post as jest.Mock).mockResolvedValue({ data: status({ missingRanges: [{ start: 8, end: 10 }] }) })
+    ;(apiClient.put as jest.Mock)
+      .mockRejectedValueOnce({ isAxiosError: true, response: { status: 503 } })
+      .mockResolvedValue({ data: status({ receivedBytes: 10 }) })
+    ;(apiClient.get as jest.Mock).mockResolvedValue({ data: status({ state: 'COMPLETED', missingRanges: [], ingested: 2 }) })
+
+    await uploadFileInChunks(file(), { retryDelayMs: 0, pollIntervalMs: 0 })
+
+    expect(apiClient.put).toHaveBeenCalledTimes(2)
+    expect((apiClient.put as jest.Mock).mock.calls[1][0]).toBe('/uploads/u1/chunks/2')
+  })
+
+  test('resumes a remembered session and only sends the missing chunks', async () => {
+    localStorage.setItem('workbench.upload.big.csv:10:1', 'u1')
+    ;(apiClient.get as jest.Mock)
+      .mockResolvedValueOnce({ data: status({ receivedBytes: 8, missingRanges: [{ start: 4, end: 8 }] }) })
+      .mockResolvedValue({ data: status({ state: 'COMPLETED', missingRanges: [], ingested: 2 }) })
+    ;(apiClient.put as jest.Mock).mockResolvedValue({ data: status({ receivedBytes: 10 }) })
+
+    await uploadFileInChunks(file(), { pollIntervalMs: 0 })
+
+    expect(apiClient.post).not.toHaveBeenCalled()
+    expect(apiClient.put).toHaveBeenCalledTimes(1)
+    expect((apiClient.put as jest.Mock).mock.calls[0][0]).toBe('/uploads/u1/chunks/1')
+  })
+
+  test('rejects with the server error when ingestion fails', async () => {
+    ;(apiClient.post as jest.Mock).mockResolvedValue({ data: status({ missingRanges: [] }) })
+    ;(apiClient.get as jest.Mock).mockResolvedValue({ data: status({ state: 'FAILED', error: 'Failed to parse CSV row 3' }) })
+
+    await expect(uploadFileInChunks(file(), { pollIntervalMs: 0 })).rejects.toThrow('Failed to parse CSV row 3')
+    expect(localStorage.length).toBe(0)
+  })
+})
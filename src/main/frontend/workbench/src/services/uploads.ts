@@ -0,0 +1,174 @@
+import axios from 'axios'
+import { apiClient } from './api'
+import type { UploadProgress, UploadStatus } from '../types/upload'
+
+export const CHECKSUM_HEADER = 'X-Chunk-SHA256'
+
+export interface ChunkedUploadOptions {
+  concurrency?: number
+  maxRetries?: number
+  retryDelayMs?: number
+  pollIntervalMs?: number
+  onProgress?: (progress: UploadProgress) => void
+}
+
+const RESUME_KEY_PREFIX = 'workbench.upload.'
+
+// The server skips the records an earlier session with this key ingested, so a file sent again adds no row twice
+export function fileResumeKey(file: File): string {
+  return `${file.name}:${file.size}:${file.lastModified}`
+}
+
+export async function createUploadSession(file: File): Promise<UploadStatus> {
+  const response = await apiClient.post<UploadStatus>('/uploads', {
+    fileName: file.name,
+    size: file.size,
+    resumeKey: fileResumeKey(file),
+  })
+  return response.data
+}
+
+export async function getUploadStatus(uploadId: string): Promise<UploadStatus> {
+  const response = await apiClient.get<UploadStatus>(`/uploads/${uploadId}`)
+  return response.data
+}
+
+export async function uploadChunk(uploadId: string, index: number, chunk: ArrayBuffer, checksum: string): Promise<UploadStatus> {
+  const response = await apiClient.put<UploadStatus>(`/uploads/${uploadId}/chunks/${index}`, chunk, {
+    headers: { 'Content-Type': 'application/octet-stream', [CHECKSUM_HEADER]: checksum },
+  })
+  return response.data
+}
+
+/**
+ * Uploads a file in chunks, several at a time, retrying failed chunks with exponential backoff. The session id is
+ * remembered per file, so uploading the same file again after a failure or a page reload only sends the chunks the
+ * server is still missing. Resolves once the server has ingested the whole file.
+ */
+export async function uploadFileInChunks(file: File, options: ChunkedUploadOptions = {}): Promise<UploadStatus> {
+  const { concurrency = 4, maxRetries = 5, retryDelayMs = 500, pollIntervalMs = 1000, onProgress } = options
+  const resumeKey = `${RESUME_KEY_PREFIX}${fileResumeKey(file)}`
+
+  let status = await resumeSession(resumeKey)
+  if (!status) {
+    status = await createUploadSession(file)
+    localStorage.setItem(resumeKey, status.uploadId)
+  }
+
+  const { uploadId, chunkSize } = status
+  const pending = missingChunks(status)
+  let sentBytes = status.receivedBytes
+  let ingested = status.ingested
+  onProgress?.({ sentBytes, totalBytes: file.size, ingested })
+
+  const worker = async () => {
+    for (let index = pending.shift(); index !== undefined; index = pending.shift()) {
+      const chunk = await readChunk(file.slice(index * chunkSize, Math.min((index + 1) * chunkSize, file.size)))
+      const checksum = await sha256Hex(chunk)
+      const chunkIndex = index
+      const updated = await withRetry(() => uploadChunk(uploadId, chunkIndex, chunk, checksum), maxRetries, retryDelayMs)
+      if (updated.state === 'FAILED') {
+        throw new Error(updated.error ?? 'Upload failed')
+      }
+      sentBytes = Math.max(sentBytes, updated.receivedBytes)
+      ingested = Math.max(ingested, updated.ingested)
+      onProgress?.({ sentBytes, totalBytes: file.size, ingested })
+    }
+  }
+
+  try {
+    await Promise.all(Array.from({ length: Math.max(1, concurrency) }, worker))
+
+    for (;;) {
+      status = await getUploadStatus(uploadId)
+      onProgress?.({ sentBytes: status.receivedBytes, totalBytes: file.size, ingested: status.ingested })
+      if (status.state === 'COMPLETED') {
+        localStorage.removeItem(resumeKey)
+        return status
+      }
+      if (status.state === 'FAILED') {
+        localStorage.removeItem(resumeKey)
+        throw new Error(status.error ?? 'Upload failed')
+      }
+      await sleep(pollIntervalMs)
+    }
+  } catch (error) {
+    // stop the other workers; the session stays open, so uploading the same file again resumes it
+    pending.length = 0
+    throw error
+  }
+}
+
+async function resumeSession(resumeKey: string): Promise<UploadStatus | null> {
+  const uploadId = localStorage.getItem(resumeKey)
+  if (!uploadId) {
+    return null
+  }
+  try {
+    const status = await getUploadStatus(uploadId)
+    if (status.state !== 'FAILED') {
+      return status
+    }
+  } catch (error) {
+    if (!axios.isAxiosError(error) || error.response?.status !== 404) {
+      throw error
+    }
+  }
+  localStorage.removeItem(resumeKey)
+  return null
+}
+
+function missingChunks(status: UploadStatus): number[] {
+  const indices: number[] = []
+  status.missingRanges.forEach(({ start, end }) => {
+    for (let index = Math.floor(start / status.chunkSize); index * status.chunkSize < end; index++) {
+      indices.push(index)
+    }
+  })
+  return indices
+}
+
+async function withRetry<T>(send: () => Promise<T>, maxRetries: number, retryDelayMs: number): Promise<T> {
+  for (let attempt = 0; ; attempt++) {
+    try {
+      return await send()
+    } catch (error) {
+      if (attempt >= maxRetries || !isRetryable(error)) {
+        throw error
+      }
+      // exponential backoff with jitter so parallel chunks do not retry in lockstep
+      await sleep(retryDelayMs * 2 ** attempt * (0.5 + Math.random() / 2))
+    }
+  }
+}
+
+function isRetryable(error: unknown) {
+  if (!axios.isAxiosError(error)) {
+    return false
+  }
+  const status = error.response?.status
+  // no response means a network failure and a 400 may be a chunk corrupted in transit; a 409 means the upload
+  // failed or finished on the server, which no retry changes
+  return status === undefined || status === 400 || status === 429 || status >= 500
+}
+
+function readChunk(blob: Blob): Promise<ArrayBuffer> {
+  if (typeof blob.arrayBuffer === 'function') {
+    return blob.arrayBuffer()
+  }
+  return new Promise((resolve, reject) => {
+    const reader = new FileReader()
+    reader.onload = () => resolve(reader.result as ArrayBuffer)
+    reader.onerror = () => reject(reader.error)
+    reader.readAsArrayBuffer(blob)
+  })
+}
+
+async function sha256Hex(data: ArrayBuffer) {
+  const digest = await crypto.subtle.digest('SHA-256', data)
+  return Array.from(new Uint8Array(digest), (byte) => byte.toString(16).padStart(2, '0')).join('')
+}
+
+function sleep(ms: number) {
+  return new Promise((resolve) => setTimeout(resolve, ms))
+}
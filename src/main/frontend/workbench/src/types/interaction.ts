@@ -10,3 +10,10 @@ export interface Interaction {
   interactionDate: string
   responsesFromCustomerSupport?: string | null
 }
+
+export interface InteractionFacets {
+  total: number
+  interactionTypes: Partial<Record<InteractionType, number>>
+  customerRatings: Record<string, number>
+  interactionDates: Record<string, number>
+}
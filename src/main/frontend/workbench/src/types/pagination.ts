@@ -7,6 +7,8 @@ export interface Page<T> {
   first: boolean
   last: boolean
   empty: boolean
+  /** False when the server estimated or reused the total instead of counting it. */
+  totalExact?: boolean
 }
 
 export const emptyPage = <T>(size = 10): Page<T> => ({
@@ -0,0 +1,26 @@
+export type UploadState = 'RECEIVING' | 'INGESTING' | 'COMPLETED' | 'FAILED'
+
+export interface ByteRange {
+  start: number
+  end: number
+}
+
+export interface UploadStatus {
+  uploadId: string
+  fileName?: string | null
+  size: number
+  chunkSize: number
+  chunkCount: number
+  state: UploadState
+  receivedBytes: number
+  missingRanges: ByteRange[]
+  skipped?: number
+  ingested: number
+  error?: string | null
+}
+
+export interface UploadProgress {
+  sentBytes: number
+  totalBytes: number
+  ingested: number
+}
@@ -2,13 +2,19 @@ package com.s7fundops.customerworkbench;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class CustomerWorkbenchApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(CustomerWorkbenchApplication.class, args);
+        SpringApplication application = new SpringApplication(CustomerWorkbenchApplication.class);
+        // keep startup steps so /actuator/startup can report per-phase timings
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
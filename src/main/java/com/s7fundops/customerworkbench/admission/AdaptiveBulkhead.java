@@ -0,0 +1,221 @@
+package com.s7fundops.customerworkbench.admission;
+
+import com.s7fundops.customerworkbench.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limiter with a bounded wait queue and a gradient limit.
+ * <p>
+ * Each completed request is a sample of its service time, measured from the moment it got its permit, so time spent
+ * queueing for the permit, which the limit itself causes, never feeds back into the limit. Two moving averages track
+ * the service time: a short one over roughly the last {@value #SHORT_WINDOW} requests and a long-term baseline over
+ * roughly the last {@value #LONG_WINDOW}. While the short average stays within {@code latencyTolerance} times the
+ * baseline the limit grows by its square root, but only while at least half of it is in use, so an idle bulkhead does
+ * not drift up to its maximum. Beyond that the limit shrinks in proportion to the gradient between the two, down to
+ * half per sample, and a failure multiplies it by {@value #BACKOFF_RATIO}. Every change is smoothed and kept within
+ * {@code [minLimit, maxLimit]}. When the service time drops well below the baseline, the baseline decays towards it,
+ * so a burst of slow requests does not leave the bulkhead tolerating them for good.
+ * <p>
+ * Exposes {@code workbench.admission.limit}, {@code .in_flight} and {@code .queued} gauges, a
+ * {@code workbench.admission.rejected} counter and a {@code workbench.admission.queue_wait} timer, all tagged with the
+ * bulkhead name.
+ */
+public class AdaptiveBulkhead {
+
+    static final double BACKOFF_RATIO = 0.9;
+    static final int SHORT_WINDOW = 10;
+    static final int LONG_WINDOW = 600;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DECAY = 0.95;
+
+    private final String name;
+    private final AdmissionControlProperties.Bulkhead settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final LongSupplier nanoTime;
+
+    private double limit;
+    private double shortServiceNanos;
+    private double longServiceNanos;
+    private int inFlight;
+    private int queued;
+
+    private final Counter rejected;
+    private final Timer queueWait;
+
+    public AdaptiveBulkhead(String name, AdmissionControlProperties.Bulkhead settings, MeterRegistry meterRegistry) {
+        this(name, settings, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveBulkhead(String name, AdmissionControlProperties.Bulkhead settings, MeterRegistry meterRegistry,
+                     LongSupplier nanoTime) {
+        this.name = name;
+        this.nanoTime = nanoTime;
+        this.settings = settings;
+        this.limit = Math.clamp(settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit());
+
+        Gauge.builder("workbench.admission.limit", this, AdaptiveBulkhead::getLimit)
+                .description("Current concurrency limit")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("workbench.admission.in_flight", this, AdaptiveBulkhead::getInFlight)
+                .description("Requests holding a permit")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("workbench.admission.queued", this, AdaptiveBulkhead::getQueued)
+                .description("Requests waiting for a permit")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("workbench.admission.rejected")
+                .description("Requests rejected with 429")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("workbench.admission.queue_wait")
+                .description("Time admitted requests waited for a permit")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Suggested client back-off after a rejection, in whole seconds.
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, (settings.getMaxQueueWait().toMillis() + 999) / 1000);
+    }
+
+    /**
+     * Takes a permit, waiting in the queue up to {@code maxQueueWait} if the limit is reached.
+     *
+     * @return the permit, or {@code null} when the queue is full or the wait timed out
+     */
+    public Permit tryAcquire() throws InterruptedException {
+        long started = nanoTime.getAsLong();
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                if (queued >= settings.getQueueSize()) {
+                    rejected.increment();
+                    return null;
+                }
+                queued++;
+                try {
+                    long remaining = settings.getMaxQueueWait().toNanos();
+                    while (inFlight >= (int) limit) {
+                        if (remaining <= 0) {
+                            rejected.increment();
+                            return null;
+                        }
+                        remaining = permitReleased.awaitNanos(remaining);
+                    }
+                } finally {
+                    queued--;
+                }
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        long acquiredAt = nanoTime.getAsLong();
+        queueWait.record(Duration.ofNanos(acquiredAt - started));
+        return new Permit(acquiredAt);
+    }
+
+    double getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long acquiredAt, boolean failed) {
+        long serviceNanos = Math.max(1, nanoTime.getAsLong() - acquiredAt);
+        lock.lock();
+        try {
+            if (failed) {
+                limit = Math.max(settings.getMinLimit(), limit * BACKOFF_RATIO);
+            } else {
+                sample(serviceNanos);
+            }
+            inFlight--;
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sample(long serviceNanos) {
+        if (longServiceNanos == 0) {
+            shortServiceNanos = serviceNanos;
+            longServiceNanos = serviceNanos;
+            return;
+        }
+        shortServiceNanos += (serviceNanos - shortServiceNanos) / SHORT_WINDOW;
+        longServiceNanos += (serviceNanos - longServiceNanos) / LONG_WINDOW;
+        if (longServiceNanos > shortServiceNanos * 2) {
+            longServiceNanos *= BASELINE_DECAY;
+        }
+
+        double gradient = Math.clamp(settings.getLatencyTolerance() * longServiceNanos / shortServiceNanos,
+                MIN_GRADIENT, 1.0);
+        double target = limit * gradient;
+        if (gradient == 1.0 && inFlight * 2 >= limit) {
+            target += Math.sqrt(limit);
+        }
+        limit = Math.clamp(limit + (target - limit) * SMOOTHING, settings.getMinLimit(), settings.getMaxLimit());
+    }
+
+    /**
+     * A held slot. Must be released exactly once with the outcome of the request; the time it was held feeds the
+     * limit.
+     */
+    public final class Permit {
+
+        private final long acquiredAt;
+        private boolean released;
+
+        private Permit(long acquiredAt) {
+            this.acquiredAt = acquiredAt;
+        }
+
+        public void release(boolean failed) {
+            if (released) {
+                return;
+            }
+            released = true;
+            AdaptiveBulkhead.this.release(acquiredAt, failed);
+        }
+    }
+}
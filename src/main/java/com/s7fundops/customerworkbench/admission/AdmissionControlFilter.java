@@ -0,0 +1,82 @@
+package com.s7fundops.customerworkbench.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admits {@code /api} requests through one of two {@link AdaptiveBulkhead}s: multipart uploads and upload chunks
+ * go through the ingestion bulkhead, everything else through the interactive one. A queued request holds its request
+ * thread while it waits for a permit, but no database connection. Requests that cannot get a permit within the queue
+ * wait are rejected with {@code 429 Too Many Requests} and a {@code Retry-After} header, before the application does
+ * any work for them.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdaptiveBulkhead ingestion;
+    private final AdaptiveBulkhead interactive;
+
+    public AdmissionControlFilter(AdaptiveBulkhead ingestion, AdaptiveBulkhead interactive) {
+        this.ingestion = ingestion;
+        this.interactive = interactive;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveBulkhead bulkhead = isIngestion(request) ? ingestion : interactive;
+        AdaptiveBulkhead.Permit permit;
+        try {
+            permit = bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, bulkhead);
+            return;
+        }
+        if (permit == null) {
+            log.debug("Rejected {} {} at the {} bulkhead", request.getMethod(), request.getRequestURI(), bulkhead.getName());
+            reject(response, bulkhead);
+            return;
+        }
+
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            permit.release(failed);
+        }
+    }
+
+    static boolean isIngestion(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (HttpMethod.PUT.matches(request.getMethod())) {
+            return request.getRequestURI().startsWith("/api/uploads/");
+        }
+        return HttpMethod.POST.matches(request.getMethod())
+                && contentType != null
+                && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    private static void reject(HttpServletResponse response, AdaptiveBulkhead bulkhead) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(bulkhead.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many concurrent " + bulkhead.getName() + " requests, retry later\"}");
+    }
+}
@@ -26,6 +26,19 @@ public final class DataUtil {
             .registerModule(new JavaTimeModule())
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+    /**
+     * CSV column names in upload order, aligned with the {@code @CsvBindByName} annotations in {@link InteractionLogDto}.
+     */
+    static final String[] CSV_COLUMNS = {
+            "product_id",
+            "customer_id",
+            "interaction_type",
+            "customer_rating",
+            "feedback",
+            "timestamp",
+            "responses_from_customer_support"
+    };
+
     private DataUtil() {
     }
 
@@ -108,20 +121,9 @@ public final class DataUtil {
      * Convenience method returning the CSV header for {@link InteractionLogDto}.
      */
     public static String interactionCsvHeader() {
-        // Order aligned with @CsvBindByName annotations in InteractionLogDto
-        String[] header = new String[] {
-                "product_id",
-                "customer_id",
-                "interaction_type",
-                "customer_rating",
-                "feedback",
-                "timestamp",
-                "responses_from_customer_support"
-        };
-
         StringWriter out = new StringWriter();
         try (CSVWriter writer = new CSVWriter(out)) {
-            writer.writeNext(header, false);
+            writer.writeNext(CSV_COLUMNS, false);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to write CSV header", e);
         }
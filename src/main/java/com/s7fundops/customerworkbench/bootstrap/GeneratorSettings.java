@@ -0,0 +1,82 @@
+package com.s7fundops.customerworkbench.bootstrap;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Distribution settings for {@link InteractionDataGenerator}. The same settings and seed always produce the same
+ * rows, regardless of how many threads generate them.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeneratorSettings {
+
+    @Builder.Default
+    private long seed = 42L;
+
+    /**
+     * Distinct customer ids, drawn from {@code 1..customers}.
+     */
+    @Builder.Default
+    private int customers = 100_000;
+
+    /**
+     * Zipf exponent for customer popularity; {@code 0} is uniform, around {@code 1} is a typical long tail.
+     */
+    @Builder.Default
+    private double customerSkew = 1.0;
+
+    @Builder.Default
+    private int products = 5_000;
+
+    @Builder.Default
+    private double productSkew = 0.8;
+
+    /**
+     * Relative weights of ratings 1 through 5.
+     */
+    @Builder.Default
+    private double[] ratingWeights = {0.05, 0.07, 0.18, 0.35, 0.35};
+
+    /**
+     * Share of interactions without a rating.
+     */
+    @Builder.Default
+    private double missingRatingRate = 0.1;
+
+    /**
+     * Relative weights of CHAT, EMAIL, TICKET and FORM.
+     */
+    @Builder.Default
+    private double[] typeWeights = {0.4, 0.3, 0.2, 0.1};
+
+    @Builder.Default
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate = LocalDate.of(2024, 1, 1);
+
+    /**
+     * Interaction dates are spread uniformly over this period after {@link #startDate}.
+     */
+    @Builder.Default
+    private Duration dateSpread = Duration.ofDays(365);
+
+    @Builder.Default
+    private int minFeedbackLength = 20;
+
+    @Builder.Default
+    private int maxFeedbackLength = 200;
+
+    /**
+     * Number of distinct support responses; responses are picked from these templates with a Zipf skew.
+     */
+    @Builder.Default
+    private int responseTemplates = 200;
+}
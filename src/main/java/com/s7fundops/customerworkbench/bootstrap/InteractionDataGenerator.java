@@ -0,0 +1,324 @@
+package com.s7fundops.customerworkbench.bootstrap;
+
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionType;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic, high-volume generator for synthetic interactions, used for load and soak testing.
+ * <p>
+ * Rows are produced in fixed-size chunks; every chunk draws from its own {@link SplittableRandom} seeded from the
+ * settings seed and the chunk index. Output is therefore identical for the same settings whatever the thread count,
+ * and chunks can be rendered in parallel and written in order. Unlike {@link DataUtil#randomInteraction()}, values
+ * follow configurable distributions: Zipf-skewed customers, products and support responses, weighted ratings and
+ * interaction types, dates spread over a fixed window and feedback of bounded length.
+ * <p>
+ * Generated text is built from a lower-case word list without separators or quotes, so CSV and JSON fields never
+ * need escaping.
+ */
+public class InteractionDataGenerator {
+
+    static final int CHUNK_SIZE = 8192;
+
+    private static final InteractionType[] TYPES = {
+            InteractionType.CHAT, InteractionType.EMAIL, InteractionType.TICKET, InteractionType.FORM
+    };
+
+    private static final String[] WORDS = {
+            "account", "after", "again", "app", "billing", "broken", "call", "card", "cancel", "change",
+            "charged", "checkout", "confirm", "customer", "delay", "delivery", "device", "double", "email", "error",
+            "expected", "fast", "fixed", "great", "help", "invoice", "issue", "item", "late", "login",
+            "missing", "money", "new", "order", "package", "password", "payment", "please", "price", "problem",
+            "product", "quick", "refund", "reply", "return", "service", "shipping", "size", "slow", "status",
+            "still", "support", "thanks", "ticket", "today", "tracking", "update", "waiting", "week", "wrong"
+    };
+
+    /**
+     * Output formats for {@link #writeTo}.
+     */
+    public enum Format {
+        /**
+         * CSV with a header row, in the column order accepted by the upload endpoint.
+         */
+        CSV,
+        /**
+         * One JSON object per line, in the shape accepted by the create endpoint.
+         */
+        NDJSON
+    }
+
+    private final GeneratorSettings settings;
+    private final ZipfSampler customers;
+    private final ZipfSampler products;
+    private final ZipfSampler responses;
+    private final double[] ratingCdf;
+    private final double[] typeCdf;
+    private final String[] responseTexts;
+    private final long startEpochSecond;
+    private final long spreadSeconds;
+
+    public InteractionDataGenerator(GeneratorSettings settings) {
+        if (settings.getMinFeedbackLength() < 0 || settings.getMaxFeedbackLength() < settings.getMinFeedbackLength()) {
+            throw new IllegalArgumentException("feedback length bounds are invalid");
+        }
+        if (settings.getDateSpread().getSeconds() < 1) {
+            throw new IllegalArgumentException("dateSpread must be at least one second");
+        }
+        this.settings = settings;
+        this.customers = new ZipfSampler(settings.getCustomers(), settings.getCustomerSkew());
+        this.products = new ZipfSampler(settings.getProducts(), settings.getProductSkew());
+        this.responses = new ZipfSampler(settings.getResponseTemplates(), 1.0);
+        this.ratingCdf = cumulative(settings.getRatingWeights(), 5, "ratingWeights");
+        this.typeCdf = cumulative(settings.getTypeWeights(), TYPES.length, "typeWeights");
+        this.startEpochSecond = settings.getStartDate().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.spreadSeconds = settings.getDateSpread().getSeconds();
+
+        SplittableRandom templateRandom = new SplittableRandom(settings.getSeed() ^ 0x5DEECE66DL);
+        this.responseTexts = new String[settings.getResponseTemplates()];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < responseTexts.length; i++) {
+            text.setLength(0);
+            appendWords(text, templateRandom, 40 + templateRandom.nextInt(120));
+            responseTexts[i] = text.toString();
+        }
+    }
+
+    /**
+     * Generates {@code rows} interactions and hands them to {@code sink} in lists of at most {@code batchSize}.
+     * Runs on the calling thread, so the sink may write to the database in its own transaction per batch.
+     */
+    public void generate(long rows, int batchSize, Consumer<List<InteractionLogDto>> sink) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        Row row = new Row();
+        List<InteractionLogDto> batch = new ArrayList<>(batchSize);
+        for (long chunk = 0; chunk < chunkCount(rows); chunk++) {
+            SplittableRandom random = chunkRandom(chunk);
+            int size = chunkSize(chunk, rows);
+            for (int i = 0; i < size; i++) {
+                fill(row, random);
+                batch.add(row.toDto());
+                if (batch.size() == batchSize) {
+                    sink.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+        }
+    }
+
+    /**
+     * Renders {@code rows} interactions to {@code out} using {@code threads} worker threads. Chunks are rendered
+     * concurrently and written in order, with at most two chunks per thread buffered at a time. The stream is
+     * neither flushed nor closed.
+     */
+    public void writeTo(OutputStream out, Format format, long rows, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        if (format == Format.CSV) {
+            out.write((String.join(",", DataUtil.CSV_COLUMNS) + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        long chunks = chunkCount(rows);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "interaction-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        try {
+            long next = 0;
+            while (next < chunks || !pending.isEmpty()) {
+                while (next < chunks && pending.size() < threads * 2) {
+                    long chunk = next++;
+                    pending.add(pool.submit(() -> render(chunk, rows, format)));
+                }
+                out.write(pending.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while generating interactions");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to generate interactions", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    byte[] render(long chunk, long rows, Format format) {
+        SplittableRandom random = chunkRandom(chunk);
+        int size = chunkSize(chunk, rows);
+        Row row = new Row();
+        StringBuilder out = new StringBuilder(size * (settings.getMaxFeedbackLength() + 256));
+        for (int i = 0; i < size; i++) {
+            fill(row, random);
+            if (format == Format.CSV) {
+                appendCsv(out, row);
+            } else {
+                appendJson(out, row);
+            }
+        }
+        return out.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void fill(Row row, SplittableRandom random) {
+        row.customerId = customers.sample(random);
+        row.productId = products.sample(random);
+        row.type = TYPES[pick(typeCdf, random.nextDouble())];
+        row.rating = random.nextDouble() < settings.getMissingRatingRate()
+                ? 0
+                : pick(ratingCdf, random.nextDouble()) + 1;
+        row.date = LocalDateTime.ofEpochSecond(startEpochSecond + random.nextLong(spreadSeconds), 0, ZoneOffset.UTC);
+        row.feedback.setLength(0);
+        int length = settings.getMinFeedbackLength()
+                + random.nextInt(settings.getMaxFeedbackLength() - settings.getMinFeedbackLength() + 1);
+        appendWords(row.feedback, random, length);
+        row.response = responseTexts[responses.sample(random) - 1];
+    }
+
+    private static void appendCsv(StringBuilder out, Row row) {
+        out.append(row.productId).append(',')
+                .append(row.customerId).append(',')
+                .append(row.type.name()).append(',');
+        if (row.rating > 0) {
+            out.append(row.rating);
+        }
+        out.append(',').append(row.feedback).append(',');
+        appendDate(out, row.date, ' ');
+        out.append(',').append(row.response).append('\n');
+    }
+
+    private static void appendJson(StringBuilder out, Row row) {
+        out.append("{\"productId\":").append(row.productId)
+                .append(",\"customerId\":").append(row.customerId)
+                .append(",\"interactionType\":\"").append(row.type.name())
+                .append("\",\"customerRating\":");
+        if (row.rating > 0) {
+            out.append(row.rating);
+        } else {
+            out.append("null");
+        }
+        out.append(",\"feedback\":\"").append(row.feedback)
+                .append("\",\"interactionDate\":\"");
+        appendDate(out, row.date, 'T');
+        out.append("\",\"responsesFromCustomerSupport\":\"").append(row.response).append("\"}\n");
+    }
+
+    /**
+     * Appends {@code yyyy-MM-dd<separator>HH:mm:ss} without going through a formatter.
+     */
+    private static void appendDate(StringBuilder out, LocalDateTime date, char separator) {
+        out.append(date.getYear()).append('-');
+        pad(out, date.getMonthValue()).append('-');
+        pad(out, date.getDayOfMonth()).append(separator);
+        pad(out, date.getHour()).append(':');
+        pad(out, date.getMinute()).append(':');
+        pad(out, date.getSecond());
+    }
+
+    private static StringBuilder pad(StringBuilder out, int value) {
+        if (value < 10) {
+            out.append('0');
+        }
+        return out.append(value);
+    }
+
+    private static void appendWords(StringBuilder out, SplittableRandom random, int length) {
+        int start = out.length();
+        while (out.length() - start < length) {
+            if (out.length() > start) {
+                out.append(' ');
+            }
+            out.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+    }
+
+    private SplittableRandom chunkRandom(long chunk) {
+        return new SplittableRandom(settings.getSeed() * 0x9E3779B97F4A7C15L + chunk);
+    }
+
+    private static long chunkCount(long rows) {
+        return (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private static int chunkSize(long chunk, long rows) {
+        return (int) Math.min(CHUNK_SIZE, rows - chunk * CHUNK_SIZE);
+    }
+
+    private static int pick(double[] cdf, double value) {
+        for (int i = 0; i < cdf.length - 1; i++) {
+            if (value < cdf[i]) {
+                return i;
+            }
+        }
+        return cdf.length - 1;
+    }
+
+    private static double[] cumulative(double[] weights, int expected, String name) {
+        if (weights == null || weights.length != expected) {
+            throw new IllegalArgumentException(name + " must have " + expected + " entries");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException(name + " must not be negative");
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException(name + " must not all be zero");
+        }
+        double[] cdf = new double[weights.length];
+        double running = 0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i];
+            cdf[i] = running / total;
+        }
+        return cdf;
+    }
+
+    /**
+     * Mutable row reused within a chunk, so rendering to bytes does not allocate a DTO per row.
+     */
+    private static final class Row {
+        private int customerId;
+        private int productId;
+        private InteractionType type;
+        private int rating;
+        private LocalDateTime date;
+        private final StringBuilder feedback = new StringBuilder();
+        private String response;
+
+        private InteractionLogDto toDto() {
+            return InteractionLogDto.builder()
+                    .productId(productId)
+                    .customerId(customerId)
+                    .interactionType(type)
+                    .customerRating(rating > 0 ? rating : null)
+                    .feedback(feedback.toString())
+                    .interactionDate(date)
+                    .responsesFromCustomerSupport(response)
+                    .build();
+        }
+    }
+}
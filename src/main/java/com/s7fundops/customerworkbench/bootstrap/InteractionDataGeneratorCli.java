@@ -0,0 +1,119 @@
+package com.s7fundops.customerworkbench.bootstrap;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command line entry point for {@link InteractionDataGenerator}; runs without a Spring context.
+ * <p>
+ * Example, writing ten million gzipped CSV rows with eight threads:
+ * <pre>
+ * java -cp target/customer-workbench-0.0.1-SNAPSHOT.jar -Dloader.main=com.s7fundops.customerworkbench.bootstrap.InteractionDataGeneratorCli \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     --rows=10000000 --format=csv --output=interactions.csv.gz --threads=8 --seed=7
+ * </pre>
+ * Options: {@code --rows}, {@code --format} (csv, ndjson), {@code --output} (gzipped when it ends in {@code .gz}),
+ * {@code --threads}, {@code --seed}, {@code --customers}, {@code --customer-skew}, {@code --products},
+ * {@code --product-skew}, {@code --rating-weights}, {@code --missing-rating-rate}, {@code --type-weights},
+ * {@code --start-date}, {@code --days}, {@code --min-feedback}, {@code --max-feedback} and
+ * {@code --response-templates}. Weights are comma separated: five for ratings 1 through 5 and one per interaction type
+ * in the order CHAT, EMAIL, TICKET, FORM, e.g. {@code --type-weights=0.7,0.1,0.1,0.1}.
+ */
+public final class InteractionDataGeneratorCli {
+
+    private InteractionDataGeneratorCli() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parse(args);
+        long rows = Long.parseLong(options.getOrDefault("rows", "1000000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+        var format = InteractionDataGenerator.Format.valueOf(
+                options.getOrDefault("format", "csv").toUpperCase(Locale.ROOT));
+        String output = options.get("output");
+        if (output == null) {
+            throw new IllegalArgumentException("--output is required");
+        }
+
+        GeneratorSettings defaults = new GeneratorSettings();
+        GeneratorSettings settings = GeneratorSettings.builder()
+                .seed(Long.parseLong(options.getOrDefault("seed", Long.toString(defaults.getSeed()))))
+                .customers(intOption(options, "customers", defaults.getCustomers()))
+                .customerSkew(doubleOption(options, "customer-skew", defaults.getCustomerSkew()))
+                .products(intOption(options, "products", defaults.getProducts()))
+                .productSkew(doubleOption(options, "product-skew", defaults.getProductSkew()))
+                .ratingWeights(weightsOption(options, "rating-weights", defaults.getRatingWeights()))
+                .missingRatingRate(doubleOption(options, "missing-rating-rate", defaults.getMissingRatingRate()))
+                .typeWeights(weightsOption(options, "type-weights", defaults.getTypeWeights()))
+                .startDate(options.containsKey("start-date")
+                        ? LocalDate.parse(options.get("start-date"))
+                        : defaults.getStartDate())
+                .dateSpread(options.containsKey("days")
+                        ? Duration.ofDays(Long.parseLong(options.get("days")))
+                        : defaults.getDateSpread())
+                .minFeedbackLength(intOption(options, "min-feedback", defaults.getMinFeedbackLength()))
+                .maxFeedbackLength(intOption(options, "max-feedback", defaults.getMaxFeedbackLength()))
+                .responseTemplates(intOption(options, "response-templates", defaults.getResponseTemplates()))
+                .build();
+
+        InteractionDataGenerator generator = new InteractionDataGenerator(settings);
+        Path path = Path.of(output);
+        long started = System.nanoTime();
+        try (OutputStream out = open(path)) {
+            generator.writeTo(out, format, rows, threads);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf(Locale.ROOT, "Wrote %d rows to %s in %.1f s (%.0f rows/s, %d bytes)%n",
+                rows, path, seconds, rows / seconds, Files.size(path));
+    }
+
+    private static OutputStream open(Path path) throws IOException {
+        OutputStream file = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+        return path.toString().endsWith(".gz") ? new GZIPOutputStream(file, 1 << 16) : file;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int fallback) {
+        String value = options.get(name);
+        return value == null ? fallback : Integer.parseInt(value);
+    }
+
+    private static double doubleOption(Map<String, String> options, String name, double fallback) {
+        String value = options.get(name);
+        return value == null ? fallback : Double.parseDouble(value);
+    }
+
+    private static double[] weightsOption(Map<String, String> options, String name, double[] fallback) {
+        String value = options.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        String[] parts = value.split(",");
+        double[] weights = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Double.parseDouble(parts[i].trim());
+        }
+        return weights;
+    }
+}
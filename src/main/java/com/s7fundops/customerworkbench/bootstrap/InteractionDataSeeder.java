@@ -0,0 +1,99 @@
+package com.s7fundops.customerworkbench.bootstrap;
+
+import com.s7fundops.customerworkbench.config.SeedProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import com.s7fundops.customerworkbench.repositories.ShardedInteractionRepository;
+import com.s7fundops.customerworkbench.services.SupportResponseResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seeds an empty database with generated interactions. Only active with the {@code seed} profile.
+ * <p>
+ * Rows come from {@link InteractionDataGenerator}, so a given {@code workbench.seed.generator.seed} always produces
+ * the same data set.
+ * <p>
+ * Emptiness is checked with a single-row existence query, so startup cost does not depend on table size. Rows are
+ * written through the batched insert path, one transaction per batch, and only a summary is logged. The work is
+ * recorded as the {@code workbench.seed} step, visible on the {@code startup} actuator endpoint. With sharding enabled
+ * the shards are checked and seeded instead of the primary.
+ */
+@Slf4j
+@Component
+@Profile("seed")
+public class InteractionDataSeeder implements CommandLineRunner {
+
+    private final InteractionLogRepository interactionLogRepository;
+    private final InteractionLogMapper interactionLogMapper;
+    private final ShardedInteractionRepository shards;
+    private final SupportResponseResolver supportResponseResolver;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationStartup applicationStartup;
+    private final SeedProperties properties;
+
+    public InteractionDataSeeder(InteractionLogRepository interactionLogRepository,
+                                 InteractionLogMapper interactionLogMapper,
+                                 ShardedInteractionRepository shards,
+                                 SupportResponseResolver supportResponseResolver,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationStartup applicationStartup,
+                                 SeedProperties properties) {
+        this.interactionLogRepository = interactionLogRepository;
+        this.interactionLogMapper = interactionLogMapper;
+        this.shards = shards;
+        this.supportResponseResolver = supportResponseResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationStartup = applicationStartup;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(String... args) {
+        StartupStep step = applicationStartup.start("workbench.seed");
+        try {
+            boolean populated = shards.isEnabled() ? !shards.isEmpty() : interactionLogRepository.existsByIdIsNotNull();
+            if (populated) {
+                step.tag("seeded", "0");
+                log.info("InteractionLog data already present, skipping seed");
+                return;
+            }
+
+            long started = System.nanoTime();
+            int seeded = seed(properties.getRows(), Math.max(1, properties.getBatchSize()));
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            step.tag("seeded", Integer.toString(seeded));
+            log.info("Seeded {} interactions in batches of {} in {} ms", seeded, properties.getBatchSize(), elapsedMillis);
+        } finally {
+            step.end();
+        }
+    }
+
+    private int seed(int rows, int batchSize) {
+        AtomicInteger seeded = new AtomicInteger();
+        new InteractionDataGenerator(properties.getGenerator()).generate(rows, batchSize, dtos -> {
+            if (shards.isEnabled()) {
+                seeded.addAndGet(shards.insert(dtos).size());
+                return;
+            }
+            List<InteractionLog> batch = dtos.stream().map(interactionLogMapper::toEntity).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                supportResponseResolver.resolveAll(batch);
+                interactionLogRepository.insertBatch(batch);
+            });
+            seeded.addAndGet(batch.size());
+        });
+        return seeded.get();
+    }
+}
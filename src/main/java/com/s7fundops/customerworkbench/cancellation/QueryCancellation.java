@@ -0,0 +1,222 @@
+package com.s7fundops.customerworkbench.cancellation;
+
+import com.s7fundops.customerworkbench.config.QueryCancellationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds and cancels the JDBC statements of {@code /api} requests.
+ * <p>
+ * A request runs in a {@link Scope} opened by {@link QueryCancellationFilter}. Before each statement of the request's
+ * thread runs, it gets the time left until the scope's deadline as its JDBC query timeout, so the driver cancels it
+ * in the database once the route's limit is spent. A request that names a group in
+ * {@link #GROUP_HEADER} supersedes the previous request of the same group to the same path: that request's running
+ * statement is cancelled with {@link Statement#cancel()} and its further statements fail straight away. The frontend
+ * sends one group per view, so a search abandoned for a newer one stops holding a connection. A servlet thread
+ * blocked in JDBC cannot see its client disconnect, which is why supersession rather than the disconnect itself
+ * triggers the cancellation; the timeout bounds what nothing supersedes.
+ * <p>
+ * Only statements on the request's thread are covered, which leaves out shard fan-out and background work.
+ */
+@Slf4j
+@Component
+public class QueryCancellation implements QueryExecutionListener {
+
+    public static final String GROUP_HEADER = "X-Query-Group";
+
+    /**
+     * SQLState PostgreSQL reports for statements cancelled by a timeout or a cancel request.
+     */
+    private static final String QUERY_CANCELED = "57014";
+
+    private final QueryCancellationProperties properties;
+    private final List<Map.Entry<PathPattern, Duration>> timeouts;
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private final Map<String, Scope> groups = new ConcurrentHashMap<>();
+    private final Counter timeoutCount;
+    private final Counter supersededCount;
+
+    public QueryCancellation(QueryCancellationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.timeouts = properties.getTimeouts().entrySet().stream()
+                .map(entry -> Map.entry(PathPatternParser.defaultInstance.parse(entry.getKey()), entry.getValue()))
+                .sorted(Map.Entry.comparingByKey(PathPattern.SPECIFICITY_COMPARATOR))
+                .toList();
+        this.timeoutCount = cancelled(meterRegistry, "timeout");
+        this.supersededCount = cancelled(meterRegistry, "superseded");
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Opens the scope of a request on the current thread. {@code group} may be {@code null}; otherwise the previous
+     * scope of the same group and path is cancelled.
+     */
+    public Scope begin(String method, String path, String group) {
+        Duration timeout = "GET".equals(method) ? timeoutFor(path).orElse(null) : null;
+        String key = group != null && !group.isBlank() ? group + " " + method + " " + path : null;
+        Scope scope = new Scope(key, timeout != null ? System.nanoTime() + timeout.toNanos() : 0, timeout);
+        currentScope.set(scope);
+        if (key != null) {
+            Scope previous = groups.put(key, scope);
+            if (previous != null) {
+                previous.supersede();
+            }
+        }
+        return scope;
+    }
+
+    Optional<Duration> timeoutFor(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        return timeouts.stream()
+                .filter(entry -> entry.getKey().matches(container))
+                .map(Map.Entry::getValue)
+                .findFirst();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return;
+        }
+        if (scope.superseded) {
+            scope.stopped = true;
+            throw new QueryCancelledException("Superseded by a newer request");
+        }
+        if (scope.timeout != null) {
+            long remaining = scope.deadline - System.nanoTime();
+            if (remaining <= 0) {
+                scope.timedOut = true;
+                throw new QueryTimeoutException("Query time limit of %s exceeded".formatted(scope.timeout));
+            }
+            try {
+                // whole seconds are all JDBC offers; rounding up never cuts a statement short
+                int seconds = (int) TimeUnit.NANOSECONDS.toSeconds(remaining - 1) + 1;
+                execInfo.getStatement().setQueryTimeout(seconds);
+            } catch (SQLException e) {
+                log.debug("Could not set a query timeout", e);
+            }
+        }
+        scope.running = execInfo.getStatement();
+        if (scope.superseded) {
+            // superseded between the check above and publishing the statement
+            scope.cancelRunning();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return;
+        }
+        scope.running = null;
+        if (!scope.superseded && isCancellation(execInfo.getThrowable())) {
+            scope.timedOut = true;
+        }
+    }
+
+    private static boolean isCancellation(Throwable failure) {
+        return failure instanceof SQLTimeoutException
+                || failure instanceof SQLException sql && QUERY_CANCELED.equals(sql.getSQLState());
+    }
+
+    private static Counter cancelled(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("workbench.queries.cancelled")
+                .description("API requests whose statements were stopped, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The statements of one request, from {@link #begin} until {@link #close()}.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final String key;
+        private final long deadline;
+        private final Duration timeout;
+        private volatile Statement running;
+        private volatile boolean superseded;
+        private volatile boolean stopped;
+        private volatile boolean timedOut;
+
+        private Scope(String key, long deadline, Duration timeout) {
+            this.key = key;
+            this.deadline = deadline;
+            this.timeout = timeout;
+        }
+
+        /**
+         * Whether a statement ran out of the route's time limit.
+         */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         * Whether a newer request of the same group took over while this one still had statements to run.
+         */
+        public boolean isSuperseded() {
+            return stopped;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        private void supersede() {
+            superseded = true;
+            cancelRunning();
+        }
+
+        private void cancelRunning() {
+            Statement statement = running;
+            if (statement == null) {
+                return;
+            }
+            stopped = true;
+            try {
+                // drivers ignore a cancel once the statement has completed
+                statement.cancel();
+            } catch (SQLException e) {
+                log.debug("Could not cancel a superseded statement", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            currentScope.remove();
+            if (key != null) {
+                groups.remove(key, this);
+            }
+            if (stopped) {
+                supersededCount.increment();
+            } else if (timedOut) {
+                timeoutCount.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.s7fundops.customerworkbench.cancellation;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs every {@code /api} request in a {@link QueryCancellation.Scope} and answers the requests it stopped: a query
+ * that ran out of time gets {@code 503 Service Unavailable}, and a superseded request gets {@code 499}, the status
+ * proxies log for requests their client abandoned. Registered by
+ * {@link com.s7fundops.customerworkbench.config.QueryCancellationConfig}, which keeps it out of MVC test slices.
+ */
+@Slf4j
+public class QueryCancellationFilter extends OncePerRequestFilter {
+
+    /**
+     * Client Closed Request, which {@link HttpStatus} does not define.
+     */
+    static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final QueryCancellation queryCancellation;
+
+    public QueryCancellationFilter(QueryCancellation queryCancellation) {
+        this.queryCancellation = queryCancellation;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !queryCancellation.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (QueryCancellation.Scope scope = queryCancellation.begin(request.getMethod(), request.getRequestURI(),
+                request.getHeader(QueryCancellation.GROUP_HEADER))) {
+            try {
+                filterChain.doFilter(request, response);
+            } catch (ServletException | RuntimeException e) {
+                if (response.isCommitted() || !(scope.isSuperseded() || scope.isTimedOut())) {
+                    throw e;
+                }
+                response.reset();
+                if (scope.isSuperseded()) {
+                    log.debug("Stopped {} {}, superseded by a newer request", request.getMethod(),
+                            request.getRequestURI());
+                    response.setStatus(CLIENT_CLOSED_REQUEST);
+                    return;
+                }
+                log.info("{} {} exceeded its query time limit of {}", request.getMethod(), request.getRequestURI(),
+                        scope.getTimeout());
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"The query took longer than "
+                        + scope.getTimeout().toSeconds() + "s; narrow the filters and try again\"}");
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.s7fundops.customerworkbench.cancellation;
+
+/**
+ * Thrown instead of running a statement for a request that a newer request of its group has superseded.
+ */
+public class QueryCancelledException extends RuntimeException {
+
+    public QueryCancelledException(String message) {
+        super(message);
+    }
+}
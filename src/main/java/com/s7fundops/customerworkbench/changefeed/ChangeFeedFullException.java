@@ -0,0 +1,12 @@
+package com.s7fundops.customerworkbench.changefeed;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ChangeFeedFullException extends RuntimeException {
+
+    public ChangeFeedFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,137 @@
+package com.s7fundops.customerworkbench.changefeed;
+
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One subscriber's position in the {@link InteractionChangeFeed}. At most one sender runs per subscription at a time;
+ * it sends every matching change after the cursor and stops when it has caught up, so an idle subscription holds no
+ * thread.
+ */
+final class ChangeFeedSubscription {
+
+    private final InteractionChangeFeed feed;
+    private final SseEmitter emitter;
+    private final InteractionSearchCriteria criteria;
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    private volatile long cursor;
+    private volatile boolean resetPending;
+    private volatile boolean heartbeatDue;
+    private volatile boolean closed;
+
+    ChangeFeedSubscription(InteractionChangeFeed feed, SseEmitter emitter, InteractionSearchCriteria criteria,
+                           long cursor, boolean resetPending) {
+        this.feed = feed;
+        this.emitter = emitter;
+        this.criteria = criteria;
+        this.cursor = cursor;
+        this.resetPending = resetPending;
+    }
+
+    /**
+     * Starts a sender unless one is already running.
+     */
+    void signal() {
+        if (!closed && sending.compareAndSet(false, true)) {
+            feed.execute(this::send);
+        }
+    }
+
+    /**
+     * Closes the subscription when it has been lapped, even if its sender is stuck writing to a stalled client;
+     * otherwise queues a keep-alive that also carries the current position.
+     */
+    void heartbeat() {
+        if (closed) {
+            return;
+        }
+        if (!feed.isRetained(cursor)) {
+            feed.disconnectSlow(this);
+            return;
+        }
+        heartbeatDue = true;
+        signal();
+    }
+
+    /**
+     * Completes the response on a sender thread: completing waits for an in-progress write, which for a stalled
+     * client can take until the subscription times out.
+     */
+    void complete() {
+        if (!closed) {
+            closed = true;
+            feed.execute(emitter::complete);
+        }
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    static boolean matches(InteractionSearchCriteria criteria, InteractionLogDto interaction) {
+        return criteria.matches(interaction.getCustomerId(), interaction.getProductId(),
+                interaction.getInteractionType(), interaction.getInteractionDate());
+    }
+
+    private void send() {
+        try {
+            do {
+                sendPending();
+                sending.set(false);
+            } while (!closed && hasPending() && sending.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            // the client went away or the emitter already completed; the emitter callbacks remove us
+            closed = true;
+            sending.set(false);
+        }
+    }
+
+    private void sendPending() throws IOException {
+        if (resetPending) {
+            resetPending = false;
+            emitter.send(SseEmitter.event()
+                    .id(feed.eventId(cursor))
+                    .name(InteractionChangeFeed.RESET_EVENT)
+                    .data(Map.of("reason", "The requested position is no longer buffered; reload through the search API"),
+                            MediaType.APPLICATION_JSON));
+        }
+
+        while (!closed) {
+            List<InteractionChangeFeed.InteractionChange> changes = feed.readAfter(cursor, InteractionChangeFeed.SEND_BATCH_SIZE);
+            if (changes == null) {
+                feed.disconnectSlow(this);
+                return;
+            }
+            if (changes.isEmpty()) {
+                break;
+            }
+            for (InteractionChangeFeed.InteractionChange change : changes) {
+                if (change.interaction() != null && matches(criteria, change.interaction())) {
+                    emitter.send(SseEmitter.event()
+                            .id(feed.eventId(change.sequence()))
+                            .name(InteractionChangeFeed.INTERACTION_EVENT)
+                            .data(change.interaction(), MediaType.APPLICATION_JSON));
+                }
+                cursor = change.sequence();
+            }
+        }
+
+        if (heartbeatDue && !closed) {
+            heartbeatDue = false;
+            // an id without data moves the client's Last-Event-ID past changes its filter skipped
+            emitter.send(SseEmitter.event().id(feed.eventId(cursor)).comment("keep-alive"));
+        }
+    }
+
+    private boolean hasPending() {
+        return resetPending || heartbeatDue || feed.head() > cursor;
+    }
+}
@@ -0,0 +1,323 @@
+package com.s7fundops.customerworkbench.changefeed;
+
+import com.s7fundops.customerworkbench.config.ChangeFeedProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.services.InteractionsCreatedEvent;
+import com.s7fundops.customerworkbench.services.InteractionsErasedEvent;
+import com.s7fundops.customerworkbench.services.InteractionsUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Push feed of newly committed interactions for Server-Sent Events subscribers.
+ * <p>
+ * Committed interactions are appended to a fixed-size ring and numbered with a feed sequence in commit order.
+ * Subscribers do not get a queue of their own: each one keeps a cursor into the ring and a sender (a virtual thread
+ * while there is something to send) copies the entries after the cursor to its {@link SseEmitter}. Memory is
+ * therefore bounded by the ring whatever the number or speed of subscribers. A subscriber whose cursor has been
+ * overwritten is too slow for the feed and is disconnected; when it reconnects with its last event id it receives a
+ * {@code reset} event and has to re-read through the search API.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}, where the epoch identifies this process, so ids from before a restart
+ * are recognised and answered with {@code reset} rather than misread as positions in the new ring.
+ */
+@Slf4j
+@Component
+public class InteractionChangeFeed implements DisposableBean {
+
+    static final String INTERACTION_EVENT = "interaction";
+    static final String RESET_EVENT = "reset";
+    static final int SEND_BATCH_SIZE = 256;
+
+    private final InteractionLogMapper mapper;
+    private final ChangeFeedProperties properties;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final InteractionChange[] ring;
+    private long head;
+
+    private final Set<ChangeFeedSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+            .name("change-feed-sender-", 0)
+            .factory());
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("change-feed-heartbeat")
+            .daemon(true)
+            .factory());
+
+    private final Counter published;
+    private final Counter slowDisconnects;
+
+    public InteractionChangeFeed(InteractionLogMapper mapper, ChangeFeedProperties properties,
+                                 MeterRegistry meterRegistry) {
+        if (properties.getBufferSize() <= 0) {
+            throw new IllegalArgumentException("workbench.change-feed.buffer-size must be positive");
+        }
+        this.mapper = mapper;
+        this.properties = properties;
+        this.ring = new InteractionChange[properties.getBufferSize()];
+        this.published = Counter.builder("workbench.change_feed.published")
+                .description("Interactions published to the change feed")
+                .register(meterRegistry);
+        this.slowDisconnects = Counter.builder("workbench.change_feed.slow_disconnects")
+                .description("Subscribers disconnected for falling behind the ring buffer")
+                .register(meterRegistry);
+        Gauge.builder("workbench.change_feed.subscribers", subscriptions, Set::size)
+                .description("Open change feed subscriptions")
+                .register(meterRegistry);
+
+        long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes the interactions once their transaction has committed, or straight away for writes that ran without
+     * a transaction (group commit, single saves). Only the newest {@code bufferSize} rows of a large upload are
+     * mapped and kept; the sequence still advances past the others, so subscribers that needed them are reset.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionsCreated(InteractionsCreatedEvent event) {
+        List<InteractionLog> created = event.interactions();
+        int skipped = Math.max(0, created.size() - ring.length);
+        List<InteractionLogDto> retained = created.subList(skipped, created.size()).stream()
+                .map(mapper::toDto)
+                .toList();
+        append(skipped, retained);
+        published.increment(created.size());
+    }
+
+    /**
+     * Scrubs erased interactions from the ring once their batch has committed, so they are not sent to subscribers
+     * that are behind or resume: deleted interactions are skipped, redacted ones are sent without their free text.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onInteractionsErased(InteractionsErasedEvent event) {
+        scrub(Set.copyOf(event.ids()), event.mode());
+    }
+
+    /**
+     * Applies bulk updates to the interactions still in the ring once they have committed, so subscribers that are
+     * behind or resume get the current text and version instead of the one the interaction was created with.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionsUpdated(InteractionsUpdatedEvent event) {
+        Map<Long, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < event.interactions().size(); i++) {
+            positions.computeIfAbsent(event.interactions().get(i).getId(), id -> new ArrayList<>()).add(i);
+        }
+        update(event, positions);
+    }
+
+    /**
+     * Opens a subscription for the interactions matching {@code criteria}.
+     *
+     * @param lastEventId id of the last event the client saw, to resume after it; {@code null} for new rows only
+     * @throws ChangeFeedFullException when {@code maxSubscribers} subscriptions are already open
+     */
+    public SseEmitter subscribe(InteractionSearchCriteria criteria, String lastEventId) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("criteria is required");
+        }
+        if (subscriptions.size() >= properties.getMaxSubscribers()) {
+            throw new ChangeFeedFullException("Too many change feed subscribers, retry later");
+        }
+
+        long cursor;
+        boolean reset = false;
+        synchronized (this) {
+            Long resumeFrom = lastEventId != null ? parseSequence(lastEventId) : null;
+            if (resumeFrom != null && isRetained(resumeFrom)) {
+                cursor = resumeFrom;
+            } else {
+                cursor = head;
+                reset = lastEventId != null;
+            }
+        }
+
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        ChangeFeedSubscription subscription = new ChangeFeedSubscription(this, emitter, criteria, cursor, reset);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscription.close());
+        subscriptions.add(subscription);
+        subscription.signal();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    synchronized void append(int skipped, List<InteractionLogDto> interactions) {
+        head += skipped;
+        for (InteractionLogDto interaction : interactions) {
+            head++;
+            ring[slot(head)] = new InteractionChange(head, interaction);
+        }
+        // senders read under the same lock, so signalling from here cannot be missed
+        subscriptions.forEach(ChangeFeedSubscription::signal);
+    }
+
+    synchronized void scrub(Set<Long> ids, ErasureMode mode) {
+        for (int slot = 0; slot < ring.length; slot++) {
+            InteractionChange change = ring[slot];
+            if (change == null || change.interaction() == null || !ids.contains(change.interaction().getId())) {
+                continue;
+            }
+            InteractionLogDto scrubbed = null;
+            if (mode == ErasureMode.REDACT) {
+                InteractionLogDto held = change.interaction();
+                scrubbed = new InteractionLogDto(held.getId(), held.getProductId(), held.getCustomerId(),
+                        held.getInteractionType(), held.getCustomerRating(), null, held.getInteractionDate(), null,
+                        held.getVersion());
+            }
+            ring[slot] = new InteractionChange(change.sequence(), scrubbed);
+        }
+    }
+
+    /**
+     * Replaces the held copy of every updated interaction with the patches applied in order. A copy already at the
+     * patch's version or later, which another update got to first, is left as it is.
+     */
+    synchronized void update(InteractionsUpdatedEvent event, Map<Long, List<Integer>> positions) {
+        for (int slot = 0; slot < ring.length; slot++) {
+            InteractionChange change = ring[slot];
+            List<Integer> updates = change != null && change.interaction() != null
+                    ? positions.get(change.interaction().getId())
+                    : null;
+            if (updates == null) {
+                continue;
+            }
+            InteractionLogDto held = change.interaction();
+            for (int position : updates) {
+                Long version = event.interactions().get(position).getVersion();
+                if (held.getVersion() == null || held.getVersion() < version) {
+                    held = patched(held, event.patches().get(position), version);
+                }
+            }
+            ring[slot] = new InteractionChange(change.sequence(), held);
+        }
+    }
+
+    /**
+     * Up to {@code max} changes after {@code cursor}, oldest first; empty when the cursor is at the head and
+     * {@code null} when the changes after it have already been overwritten.
+     */
+    synchronized List<InteractionChange> readAfter(long cursor, int max) {
+        if (!isRetained(cursor)) {
+            return null;
+        }
+        List<InteractionChange> changes = new ArrayList<>((int) Math.min(max, head - cursor));
+        for (long sequence = cursor + 1; sequence <= head && changes.size() < max; sequence++) {
+            changes.add(ring[slot(sequence)]);
+        }
+        return changes;
+    }
+
+    synchronized boolean isRetained(long cursor) {
+        if (cursor < 0 || cursor > head) {
+            return false;
+        }
+        if (cursor == head) {
+            return true;
+        }
+        InteractionChange next = ring[slot(cursor + 1)];
+        return next != null && next.sequence() == cursor + 1;
+    }
+
+    synchronized long head() {
+        return head;
+    }
+
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    void execute(Runnable task) {
+        senders.execute(task);
+    }
+
+    void disconnectSlow(ChangeFeedSubscription subscription) {
+        slowDisconnects.increment();
+        log.debug("Disconnecting change feed subscriber that fell more than {} interactions behind", ring.length);
+        subscription.complete();
+    }
+
+    private Long parseSequence(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void heartbeat() {
+        for (ChangeFeedSubscription subscription : subscriptions) {
+            try {
+                subscription.heartbeat();
+            } catch (RuntimeException e) {
+                log.debug("Change feed heartbeat failed", e);
+            }
+        }
+    }
+
+    private static InteractionLogDto patched(InteractionLogDto held, InteractionPatch patch, Long version) {
+        String feedback = patch.isClearFeedback() ? null
+                : patch.getFeedback() != null ? patch.getFeedback() : held.getFeedback();
+        String response = patch.isClearResponsesFromCustomerSupport() ? null
+                : patch.getResponsesFromCustomerSupport() != null ? patch.getResponsesFromCustomerSupport()
+                : held.getResponsesFromCustomerSupport();
+        return new InteractionLogDto(held.getId(), held.getProductId(), held.getCustomerId(), held.getInteractionType(),
+                held.getCustomerRating(), feedback, held.getInteractionDate(), response, version);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        subscriptions.forEach(ChangeFeedSubscription::complete);
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(5, TimeUnit.SECONDS)) {
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One committed interaction and its position in the feed; the interaction is {@code null} once it was deleted.
+     */
+    record InteractionChange(long sequence, InteractionLogDto interaction) {
+    }
+}
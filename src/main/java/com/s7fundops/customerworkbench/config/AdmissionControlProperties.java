@@ -0,0 +1,69 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limits for {@code /api} requests, kept separately for bulk ingestion and for interactive traffic so
+ * uploads cannot take every request thread and connection.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.admission")
+public class AdmissionControlProperties {
+
+    /**
+     * When disabled every request is admitted.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Multipart CSV uploads.
+     */
+    private Bulkhead ingestion = new Bulkhead(2, 1, 8, 4, Duration.ofSeconds(5), 2.0);
+
+    /**
+     * Searches, lookups, facets and single creates.
+     */
+    private Bulkhead interactive = new Bulkhead(32, 4, 128, 64, Duration.ofMillis(500), 1.5);
+
+    @Data
+    public static class Bulkhead {
+
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        /**
+         * Requests allowed to wait for a permit; beyond that requests are rejected immediately.
+         */
+        private int queueSize;
+
+        /**
+         * Longest a queued request waits before it is rejected with 429.
+         */
+        private Duration maxQueueWait;
+
+        /**
+         * How far the recent service time may rise above its long-term baseline before the limit shrinks. Higher
+         * values tolerate noisier traffic, such as uploads of very different sizes.
+         */
+        private double latencyTolerance;
+
+        public Bulkhead() {
+        }
+
+        public Bulkhead(int initialLimit, int minLimit, int maxLimit, int queueSize, Duration maxQueueWait,
+                        double latencyTolerance) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.queueSize = queueSize;
+            this.maxQueueWait = maxQueueWait;
+            this.latencyTolerance = latencyTolerance;
+        }
+    }
+}
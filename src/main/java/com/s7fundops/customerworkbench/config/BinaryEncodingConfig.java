@@ -0,0 +1,87 @@
+package com.s7fundops.customerworkbench.config;
+
+import com.s7fundops.customerworkbench.model.InteractionType;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Registers compact binary encodings ({@code application/cbor} and {@code application/x-jackson-smile}) next to
+ * JSON. Clients opt in through the {@code Accept} header. Both encodings write {@link LocalDateTime} values as
+ * epoch milliseconds (UTC) and {@link InteractionType} by its stable storage code, which removes the bulk of the
+ * per-row string payload of a page. Other enums keep their names: ordinals would silently change meaning for clients
+ * whenever a constant is added or reordered.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryEncodingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(CBORMapper.builder()
+                        .addModule(compactModule())
+                        .build()))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(SmileMapper.builder()
+                        .addModule(compactModule())
+                        .build()));
+    }
+
+    static SimpleModule compactModule() {
+        return new SimpleModule("compact-encoding")
+                .addSerializer(LocalDateTime.class, new EpochMillisSerializer())
+                .addDeserializer(LocalDateTime.class, new EpochMillisDeserializer())
+                .addSerializer(InteractionType.class, new InteractionTypeCodeSerializer())
+                .addDeserializer(InteractionType.class, new InteractionTypeCodeDeserializer());
+    }
+
+    static class EpochMillisSerializer extends ValueSerializer<LocalDateTime> {
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializationContext ctxt) {
+            gen.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    static class EpochMillisDeserializer extends ValueDeserializer<LocalDateTime> {
+
+        @Override
+        public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(p.getLongValue()), ZoneOffset.UTC);
+        }
+    }
+
+    static class InteractionTypeCodeSerializer extends ValueSerializer<InteractionType> {
+
+        @Override
+        public void serialize(InteractionType value, JsonGenerator gen, SerializationContext ctxt) {
+            gen.writeNumber(value.getCode());
+        }
+    }
+
+    // codes are what the encoders write; names are accepted too, as in JSON
+    static class InteractionTypeCodeDeserializer extends ValueDeserializer<InteractionType> {
+
+        @Override
+        public InteractionType deserialize(JsonParser p, DeserializationContext ctxt) {
+            if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return InteractionType.fromCode(p.getShortValue());
+            }
+            return InteractionType.valueOf(p.getValueAsString());
+        }
+    }
+}
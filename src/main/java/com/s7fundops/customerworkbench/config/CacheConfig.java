@@ -0,0 +1,14 @@
+package com.s7fundops.customerworkbench.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables Spring's cache abstraction. Cache names and the Caffeine spec are set in {@code application.properties}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableCaching
+public class CacheConfig {
+
+    public static final String INTERACTION_FACETS = "interactionFacets";
+}
@@ -0,0 +1,35 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the Server-Sent Events change feed of newly committed interactions.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.change-feed")
+public class ChangeFeedProperties {
+
+    /**
+     * Recent interactions kept in memory for resuming subscribers. A subscriber that falls further behind than this
+     * is disconnected.
+     */
+    private int bufferSize = 10_000;
+
+    /**
+     * Concurrent subscribers; further subscriptions are refused with 503.
+     */
+    private int maxSubscribers = 256;
+
+    /**
+     * Interval of the keep-alive comment, which is also when lapped and dead subscribers are closed.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * Lifetime of one subscription; clients reconnect with their last event id afterwards.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,39 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for background jobs that delete or redact all interactions of a customer.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.erasure")
+public class ErasureProperties {
+
+    /**
+     * When disabled this instance accepts erasure requests but leaves running them to other instances.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Interactions deleted or redacted per transaction; small batches keep locks and each WAL burst short.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Wait after each batch, so erasures leave room for ingestion and searches.
+     */
+    private Duration pause = Duration.ofMillis(50);
+
+    /**
+     * How long a running job stays with its instance without progress before another instance resumes it.
+     */
+    private Duration leaseDuration = Duration.ofSeconds(60);
+
+    /**
+     * Wait between looking for jobs when there was none.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+}
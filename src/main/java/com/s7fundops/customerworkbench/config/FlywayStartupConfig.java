@@ -0,0 +1,26 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies {@code workbench.startup.flyway} to the startup migration. The mode is read when the migration runs rather
+ * than through a condition, so it can still be changed for an AOT-processed build.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class FlywayStartupConfig {
+
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(StartupProperties properties) {
+        return flyway -> {
+            switch (properties.getFlyway()) {
+                case MIGRATE -> flyway.migrate();
+                case VALIDATE -> flyway.validate();
+                case SKIP -> log.info("Skipping Flyway at startup (workbench.startup.flyway=SKIP)");
+            }
+        };
+    }
+}
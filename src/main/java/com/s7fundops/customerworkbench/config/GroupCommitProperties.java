@@ -0,0 +1,35 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for grouping concurrent single-interaction creates into one batched insert and commit.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.group-commit")
+public class GroupCommitProperties {
+
+    /**
+     * When disabled every create is written in its own transaction.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Flush as soon as this many creates are waiting.
+     */
+    private int maxBatchSize = 256;
+
+    /**
+     * Longest time a create waits for other creates to join its group before it is flushed.
+     */
+    private Duration maxDelay = Duration.ofMillis(5);
+
+    /**
+     * Longest time a create waits in the queue before it fails. A create whose group is already being written waits
+     * for that group's outcome instead.
+     */
+    private Duration maxWait = Duration.ofSeconds(30);
+}
@@ -0,0 +1,34 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the in-memory tier holding each active customer's most recent interactions.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.hot-tier")
+public class HotTierProperties {
+
+    /**
+     * When disabled every search goes to the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Most recent interactions kept per customer; customer searches whose page ends within this many rows are
+     * answered from memory.
+     */
+    private int ringSize = 50;
+
+    /**
+     * Estimated heap the tier may use; the least valuable customers are evicted beyond it.
+     */
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+
+    /**
+     * Customers loaded at startup, most recently active first.
+     */
+    private int warmCustomers = 1_000;
+}
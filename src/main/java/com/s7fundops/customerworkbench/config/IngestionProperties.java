@@ -0,0 +1,28 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for parsing uploaded interaction files.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.ingestion")
+public class IngestionProperties {
+
+    /**
+     * Parser for CSV uploads.
+     */
+    private CsvDecoder csvDecoder = CsvDecoder.FAST;
+
+    public enum CsvDecoder {
+        /**
+         * The purpose-built decoder; multipart uploads it rejects are parsed again with OpenCSV.
+         */
+        FAST,
+        /**
+         * OpenCSV bean binding only.
+         */
+        OPENCSV
+    }
+}
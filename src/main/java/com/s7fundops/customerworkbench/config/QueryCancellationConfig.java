@@ -0,0 +1,52 @@
+package com.s7fundops.customerworkbench.config;
+
+import com.s7fundops.customerworkbench.cancellation.QueryCancellation;
+import com.s7fundops.customerworkbench.cancellation.QueryCancellationFilter;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Registers the filter that scopes {@code /api} requests for {@link QueryCancellation}, right after admission
+ * control. The listener itself joins the data source wrapper of {@link QueryDiagnosticsConfig}; only when
+ * diagnostics are off do the data sources get a wrapper of their own.
+ */
+@Configuration(proxyBeanMethods = false)
+public class QueryCancellationConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "workbench.diagnostics", name = "enabled", havingValue = "false",
+            matchIfMissing = true)
+    static BeanPostProcessor queryCancellationDataSourcePostProcessor(
+            ObjectProvider<QueryCancellation> queryCancellation) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(queryCancellation.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<QueryCancellationFilter> queryCancellationFilter(QueryCancellation queryCancellation) {
+        FilterRegistrationBean<QueryCancellationFilter> registration =
+                new FilterRegistrationBean<>(new QueryCancellationFilter(queryCancellation));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
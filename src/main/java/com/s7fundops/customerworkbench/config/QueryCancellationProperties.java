@@ -0,0 +1,28 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for statement timeouts of {@code /api} reads and the cancellation of superseded requests.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.query-cancellation")
+public class QueryCancellationProperties {
+
+    /**
+     * When disabled no timeouts are set and superseded requests run to completion.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time limit for the statements of a {@code GET} request, by route pattern such as {@code /api/interactions} or
+     * {@code /api/interactions/{id}}. The most specific matching pattern applies; requests matching none, and all
+     * writes, run without a limit.
+     */
+    private Map<String, Duration> timeouts = new LinkedHashMap<>();
+}
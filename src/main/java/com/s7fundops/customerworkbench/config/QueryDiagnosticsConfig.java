@@ -0,0 +1,53 @@
+package com.s7fundops.customerworkbench.config;
+
+import com.s7fundops.customerworkbench.cancellation.QueryCancellation;
+import com.s7fundops.customerworkbench.diagnostics.QueryDiagnostics;
+import com.s7fundops.customerworkbench.diagnostics.QueryDiagnosticsFilter;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application data sources so every statement passes through {@link QueryDiagnostics} and
+ * {@link QueryCancellation}, and registers the filter that attributes statements to requests. Result set rows are
+ * only counted with {@code workbench.diagnostics.count-rows}, which proxies every JDBC call.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "workbench.diagnostics", name = "enabled", havingValue = "true")
+public class QueryDiagnosticsConfig {
+
+    // static and lazy: post-processors are created before regular beans such as the meter registry
+    @Bean
+    static BeanPostProcessor queryDiagnosticsDataSourcePostProcessor(
+            ObjectProvider<QueryDiagnostics> queryDiagnostics, ObjectProvider<QueryCancellation> queryCancellation,
+            ObjectProvider<QueryDiagnosticsProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    QueryDiagnostics listener = queryDiagnostics.getObject();
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .listener(queryCancellation.getObject());
+                    if (properties.getObject().isCountRows()) {
+                        builder.methodListener(listener).proxyResultSet();
+                    }
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    QueryDiagnosticsFilter queryDiagnosticsFilter(QueryDiagnostics queryDiagnostics) {
+        return new QueryDiagnosticsFilter(queryDiagnostics);
+    }
+}
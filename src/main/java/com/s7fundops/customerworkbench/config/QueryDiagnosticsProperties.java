@@ -0,0 +1,52 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for SQL statement diagnostics: per-request statement counts, slow query logging and the {@code queries}
+ * actuator endpoint.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.diagnostics")
+public class QueryDiagnosticsProperties {
+
+    /**
+     * When disabled the data source is not wrapped for diagnostics and no statements are recorded.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Whether result set rows are counted. This proxies every JDBC method call and every result set access, which
+     * costs an allocation per call, so it is meant for debugging only.
+     */
+    private boolean countRows = false;
+
+    /**
+     * Whether slow queries are logged and retained with their bind parameter values. These hold interaction text
+     * such as feedback and support responses, so they are left out unless explicitly enabled.
+     */
+    private boolean logParameters = false;
+
+    /**
+     * Statements taking at least this long are logged.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+    /**
+     * Whether slow SELECT statements are re-run with {@code EXPLAIN} and the plan logged alongside.
+     */
+    private boolean explainSlowQueries = true;
+
+    /**
+     * Number of recent slow queries kept for the actuator endpoint.
+     */
+    private int retainedSlowQueries = 50;
+
+    /**
+     * Number of recent per-request summaries kept for the actuator endpoint.
+     */
+    private int retainedRequests = 100;
+}
@@ -0,0 +1,70 @@
+package com.s7fundops.customerworkbench.config;
+
+import com.s7fundops.customerworkbench.datasource.ReadWriteRoutingDataSource;
+import com.s7fundops.customerworkbench.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes read-only transactions to a read replica when {@code workbench.datasource.replica.enabled} is set.
+ * <p>
+ * The auto-configured {@code dataSource} stays the primary pool, so connection details (including Docker Compose
+ * service connections) and {@code spring.datasource.hikari.*} sizing keep working; it is wrapped rather than replaced.
+ * The replica pool is deliberately not a {@link DataSource} bean, which would make the data source auto-configuration
+ * back off.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "workbench.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(ReplicaDataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(properties.getUrl());
+        replica.setUsername(properties.getUsername());
+        replica.setPassword(properties.getPassword());
+        replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+        replica.setMinimumIdle(properties.getMinimumIdle());
+        replica.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new ReplicaLagMonitor(replica, properties, meterRegistry);
+    }
+
+    // ordered so it wraps the pool before unordered post-processors such as the query diagnostics wrapper
+    @Bean
+    static BeanPostProcessor readWriteRoutingPostProcessor(ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RoutingPostProcessor(replicaLagMonitor, meterRegistry);
+    }
+
+    private record RoutingPostProcessor(ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                        ObjectProvider<MeterRegistry> meterRegistry)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource primary && "dataSource".equals(beanName)) {
+                return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary,
+                        replicaLagMonitor.getObject(), meterRegistry.getObject()));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return 0;
+        }
+    }
+}
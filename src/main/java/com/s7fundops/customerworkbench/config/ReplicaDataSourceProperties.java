@@ -0,0 +1,51 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Read replica used by read-only transactions. The primary keeps its usual {@code spring.datasource.*} settings,
+ * including {@code spring.datasource.hikari.maximum-pool-size}; the replica has its own, independently sized pool.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * When disabled every transaction uses the primary data source.
+     */
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    private int minimumIdle = 2;
+
+    /**
+     * How long a read waits for a replica connection before falling back to the primary.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Reads fall back to the primary while the replica is further behind than this.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * How often replica lag and availability are checked.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+
+    /**
+     * Query returning the replica lag in seconds. Defaults to the replay delay for PostgreSQL URLs; when empty for
+     * other databases only availability is checked.
+     */
+    private String lagQuery;
+}
@@ -0,0 +1,49 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the totals of paged interaction searches.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.search")
+public class SearchProperties {
+
+    /**
+     * How the total of a page is obtained when the page alone cannot tell it.
+     */
+    private CountStrategy countStrategy = CountStrategy.EXACT;
+
+    /**
+     * Estimated totals below this are replaced by an exact count, which is cheap at that size.
+     */
+    private long exactCountBelow = 10_000;
+
+    /**
+     * How long a cached total is reused; new interactions matching a cached filter drop it earlier.
+     */
+    private Duration countCacheTtl = Duration.ofSeconds(30);
+
+    /**
+     * Filter combinations whose totals are cached.
+     */
+    private long countCacheMaxSize = 10_000;
+
+    public enum CountStrategy {
+        /**
+         * A {@code count(*)} for every page.
+         */
+        EXACT,
+        /**
+         * The PostgreSQL planner's row estimate; exact on other databases and for small results.
+         */
+        ESTIMATED,
+        /**
+         * An exact count reused per filter combination for {@code count-cache-ttl}.
+         */
+        CACHED
+    }
+}
@@ -0,0 +1,28 @@
+package com.s7fundops.customerworkbench.config;
+
+import com.s7fundops.customerworkbench.bootstrap.GeneratorSettings;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the {@code seed} profile, which fills an empty database with generated interactions on startup.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.seed")
+public class SeedProperties {
+
+    /**
+     * Number of interactions to generate when the table is empty.
+     */
+    private int rows = 55;
+
+    /**
+     * Rows written per batched insert and transaction.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Seed and value distributions of the generated rows, bound from {@code workbench.seed.generator.*}.
+     */
+    private GeneratorSettings generator = new GeneratorSettings();
+}
@@ -0,0 +1,55 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interaction shards. When enabled, interactions live in the listed databases instead of the primary, placed by a
+ * hash of their customer id. The shard list must not be reordered or shrunk once data was written, because the
+ * position of a shard is part of every interaction id it issued.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.sharding")
+public class ShardingProperties {
+
+    /**
+     * When disabled interactions are stored in the primary data source.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Shard databases, addressed by their position in this list.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Most shards one request queries in parallel.
+     */
+    private int maxFanOut = 4;
+
+    /**
+     * Deepest row (page offset plus page size) a search spanning all shards may reach; each shard returns that many
+     * rows for the merge. Customer searches stay on one shard and are not limited.
+     */
+    private int maxMergeRows = 10_000;
+
+    /**
+     * Whether the Flyway migrations of the primary are applied to each shard at startup.
+     */
+    private boolean migrate = true;
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,32 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for what an instance does with the database schema at startup.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.startup")
+public class StartupProperties {
+
+    /**
+     * What Flyway does with the primary's schema at startup.
+     */
+    private FlywayMode flyway = FlywayMode.MIGRATE;
+
+    public enum FlywayMode {
+        /**
+         * Validate applied migrations and apply pending ones.
+         */
+        MIGRATE,
+        /**
+         * Only validate, failing the startup when migrations are pending or were changed; never writes.
+         */
+        VALIDATE,
+        /**
+         * Leave the schema to other instances; for read-only instances that must start fast.
+         */
+        SKIP
+    }
+}
@@ -0,0 +1,96 @@
+package com.s7fundops.customerworkbench.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for resumable chunked uploads of interaction CSV files.
+ */
+@Data
+@ConfigurationProperties(prefix = "workbench.uploads")
+public class UploadProperties {
+
+    /**
+     * Where received chunks are spooled until their upload has been ingested.
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "workbench-uploads");
+
+    /**
+     * Size of every chunk but the last.
+     */
+    private DataSize chunkSize = DataSize.ofMegabytes(8);
+
+    /**
+     * Largest file accepted for a chunked upload.
+     */
+    private DataSize maxFileSize = DataSize.ofGigabytes(20);
+
+    /**
+     * Uploads receiving or ingesting at the same time, each with its own ingestion; further sessions are refused.
+     */
+    private int maxSessions = 16;
+
+    /**
+     * Rows inserted and committed together while an upload is ingested.
+     */
+    private int ingestBatchSize = 5_000;
+
+    /**
+     * How long an upload may go without a chunk or status request before it is discarded.
+     */
+    private Duration sessionTimeout = Duration.ofHours(24);
+
+    /**
+     * How long the progress of an upload sent with a resume key is kept for a later session of the same file.
+     */
+    private Duration checkpointRetention = Duration.ofDays(7);
+
+    /**
+     * Ingestion shared by all instances through work items in the database.
+     */
+    private Distributed distributed = new Distributed();
+
+    @Data
+    public static class Distributed {
+
+        /**
+         * When enabled, received files are cut into work items that any instance may claim and ingest; otherwise the
+         * receiving instance ingests its uploads itself.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Approximate size of a work item; items end at a record boundary and each commits as one transaction.
+         */
+        private DataSize itemSize = DataSize.ofMegabytes(4);
+
+        /**
+         * Work items this instance ingests at the same time.
+         */
+        private int workers = 2;
+
+        /**
+         * How long a claimed item stays with its instance without a renewal; renewed while it is being ingested.
+         */
+        private Duration leaseDuration = Duration.ofSeconds(60);
+
+        /**
+         * Wait between looking for work when there was none, and between progress checks of a local upload.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Claims of an item before it is failed, so a file that crashes instances is not retried forever.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * How long finished work items are kept for status requests.
+         */
+        private Duration retention = Duration.ofDays(7);
+    }
+}
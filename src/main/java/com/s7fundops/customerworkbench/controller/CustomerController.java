@@ -0,0 +1,32 @@
+package com.s7fundops.customerworkbench.controller;
+
+import com.s7fundops.customerworkbench.model.CustomerTimelineDto;
+import com.s7fundops.customerworkbench.model.TimelineGranularity;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/customers")
+public class CustomerController {
+
+    private final InteractionService interactionService;
+
+    public CustomerController(InteractionService interactionService) {
+        this.interactionService = interactionService;
+    }
+
+    @GetMapping("/{customerId}/timeline")
+    public CustomerTimelineDto timeline(@PathVariable Integer customerId,
+                                        @RequestParam(defaultValue = "DAY") TimelineGranularity granularity) {
+        return interactionService.customerTimeline(customerId, granularity);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        Map<String, String> body = Map.of("error", ex.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+}
@@ -0,0 +1,49 @@
+package com.s7fundops.customerworkbench.controller;
+
+import com.s7fundops.customerworkbench.erasure.ErasureJobQueue;
+import com.s7fundops.customerworkbench.model.ErasureJobDto;
+import com.s7fundops.customerworkbench.model.ErasureRequest;
+import com.s7fundops.customerworkbench.services.NotFoundException;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Privacy erasure: deleting or redacting every interaction of a customer.
+ * <p>
+ * A request queues a job and returns at once; the job runs in the background in small batches and survives
+ * restarts. Clients poll the job for its progress.
+ */
+@RestController
+@RequestMapping("/api/erasures")
+public class ErasureController {
+
+    private final ErasureJobQueue jobQueue;
+
+    public ErasureController(ErasureJobQueue jobQueue) {
+        this.jobQueue = jobQueue;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ErasureJobDto> submit(@Valid @RequestBody ErasureRequest request) {
+        ErasureJobDto job = jobQueue.submit(request.getCustomerId(), request.getMode());
+        URI location = URI.create("/api/erasures/" + job.getId());
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ErasureJobDto status(@PathVariable long jobId) {
+        return jobQueue.find(jobId)
+                .orElseThrow(() -> new NotFoundException("Erasure job with id %d not found".formatted(jobId)));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        Map<String, String> body = Map.of("error", ex.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+}
@@ -0,0 +1,52 @@
+package com.s7fundops.customerworkbench.controller;
+
+import com.s7fundops.customerworkbench.changefeed.InteractionChangeFeed;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Server-Sent Events feed of newly committed interactions, filtered like {@code GET /api/interactions}.
+ * <p>
+ * Each interaction arrives as an {@code interaction} event. Browsers resume automatically with the
+ * {@code Last-Event-ID} header; other clients can pass {@code lastEventId}. A {@code reset} event means the feed no
+ * longer holds everything after that id and the client should reload through the search API.
+ */
+@RestController
+@RequestMapping("/api/interactions/stream")
+public class InteractionChangeFeedController {
+
+    private final InteractionChangeFeed changeFeed;
+
+    public InteractionChangeFeedController(InteractionChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Integer customerId,
+                             @RequestParam(required = false) Integer productId,
+                             @RequestParam(required = false) InteractionType interactionType,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+                             @RequestParam(required = false) String lastEventId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader) {
+        InteractionSearchCriteria criteria = InteractionSearchCriteria.builder()
+                .customerId(customerId)
+                .productId(productId)
+                .interactionType(interactionType)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+
+        return changeFeed.subscribe(criteria, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
@@ -1,14 +1,22 @@
 package com.s7fundops.customerworkbench.controller;
 
+import com.s7fundops.customerworkbench.model.FacetedSearchPage;
+import com.s7fundops.customerworkbench.model.InteractionBatchGetRequest;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateRequest;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateResult;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
 import com.s7fundops.customerworkbench.model.InteractionLogDto;
 import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
 import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.services.InteractionSearchStreamer;
 import com.s7fundops.customerworkbench.services.InteractionService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,9 +24,11 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,9 +37,11 @@ import java.util.Map;
 public class InteractionController {
 
     private final InteractionService interactionService;
+    private final InteractionSearchStreamer searchStreamer;
 
-    public InteractionController(InteractionService interactionService) {
+    public InteractionController(InteractionService interactionService, InteractionSearchStreamer searchStreamer) {
         this.interactionService = interactionService;
+        this.searchStreamer = searchStreamer;
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -52,20 +64,81 @@ public class InteractionController {
                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
                                           @PageableDefault(sort = "interactionDate", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable) {
-        InteractionSearchCriteria criteria = InteractionSearchCriteria.builder()
-                .customerId(customerId)
-                .productId(productId)
-                .interactionType(interactionType)
-                .startDate(startDate)
-                .endDate(endDate)
-                .build();
+        InteractionSearchCriteria criteria = buildCriteria(customerId, productId, interactionType, startDate, endDate);
 
         return interactionService.search(criteria, pageable);
     }
 
+    /**
+     * Same search and response shape as {@link #getAll}, plus the facet counts of the search under {@code facets},
+     * so a search screen needs one request instead of a second call to {@code /facets}. Ignored when streaming.
+     */
+    @GetMapping(params = {"facets=true", "streaming!=true"})
+    public FacetedSearchPage getAllWithFacets(@RequestParam(required = false) Integer customerId,
+                                              @RequestParam(required = false) Integer productId,
+                                              @RequestParam(required = false) InteractionType interactionType,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+                                              @PageableDefault(sort = "interactionDate", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable) {
+        InteractionSearchCriteria criteria = buildCriteria(customerId, productId, interactionType, startDate, endDate);
+
+        Page<InteractionLogDto> page = interactionService.search(criteria, pageable);
+        return new FacetedSearchPage(page, interactionService.facets(criteria));
+    }
+
+    /**
+     * Same search and response shape as {@link #getAll}, written straight from the JDBC result; meant for large
+     * pages and integrations. Only JSON is produced on this path.
+     */
+    @GetMapping(params = "streaming=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void streamAll(@RequestParam(required = false) Integer customerId,
+                          @RequestParam(required = false) Integer productId,
+                          @RequestParam(required = false) InteractionType interactionType,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+                          @PageableDefault(sort = "interactionDate", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable,
+                          HttpServletResponse response) throws IOException {
+        InteractionSearchCriteria criteria = buildCriteria(customerId, productId, interactionType, startDate, endDate);
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        searchStreamer.writeJson(criteria, pageable, response.getOutputStream());
+    }
+
+    @GetMapping("/facets")
+    public InteractionFacetsDto getFacets(@RequestParam(required = false) Integer customerId,
+                                          @RequestParam(required = false) Integer productId,
+                                          @RequestParam(required = false) InteractionType interactionType,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        return interactionService.facets(buildCriteria(customerId, productId, interactionType, startDate, endDate));
+    }
+
     @GetMapping("/{id}")
-    public InteractionLogDto getOne(@PathVariable Long id) {
-        return interactionService.findById(id);
+    public ResponseEntity<InteractionLogDto> getOne(@PathVariable Long id) {
+        InteractionLogDto dto = interactionService.findById(id);
+        if (dto.getVersion() == null) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(dto);
+        }
+
+        // the row version changes on every update, so it is a sufficient validator for a single interaction. It is
+        // weak because the JSON, CBOR and Smile bodies of one version differ byte for byte, as do compressed ones;
+        // Spring answers a matching If-None-Match with 304 and these headers
+        String eTag = "W/\"" + dto.getVersion() + "\"";
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(dto);
+    }
+
+    @PostMapping(value = "/batch-get", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<InteractionLogDto> batchGet(@Valid @RequestBody InteractionBatchGetRequest request) {
+        return interactionService.findAllByIds(request.getIds());
+    }
+
+    /**
+     * Applies partial updates to many interactions; each must carry the version it was read at. Interactions that
+     * changed since, or do not exist, come back as conflicts while the rest are applied.
+     */
+    @PatchMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public InteractionBulkUpdateResult bulkUpdate(@Valid @RequestBody InteractionBulkUpdateRequest request) {
+        return interactionService.updateAll(request.getUpdates());
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
@@ -74,6 +147,17 @@ public class InteractionController {
         return ResponseEntity.badRequest().body(body);
     }
 
+    private static InteractionSearchCriteria buildCriteria(Integer customerId, Integer productId, InteractionType interactionType,
+                                                           LocalDateTime startDate, LocalDateTime endDate) {
+        return InteractionSearchCriteria.builder()
+                .customerId(customerId)
+                .productId(productId)
+                .interactionType(interactionType)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+    }
+
     private ResponseEntity<Map<String, Long>> buildCountResponse(long count) {
         Map<String, Long> body = new HashMap<>();
         body.put("ingested", count);
@@ -0,0 +1,68 @@
+package com.s7fundops.customerworkbench.controller;
+
+import com.s7fundops.customerworkbench.model.UploadSessionRequest;
+import com.s7fundops.customerworkbench.model.UploadStatusDto;
+import com.s7fundops.customerworkbench.uploads.ChunkedUploadManager;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Resumable upload of large interaction CSV files in fixed-size chunks.
+ * <p>
+ * Clients open a session with the file size, then {@code PUT} each chunk with its SHA-256 in
+ * {@value #CHECKSUM_HEADER}, in any order and in parallel. After a failure they ask for the session status and send
+ * only the missing ranges again. Rows are ingested while chunks arrive; the status reports how many so far.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@Validated
+public class UploadController {
+
+    public static final String CHECKSUM_HEADER = "X-Chunk-SHA256";
+
+    private final ChunkedUploadManager uploadManager;
+
+    public UploadController(ChunkedUploadManager uploadManager) {
+        this.uploadManager = uploadManager;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UploadStatusDto> create(@Valid @RequestBody UploadSessionRequest request) {
+        UploadStatusDto created = uploadManager.create(request);
+        URI location = URI.create("/api/uploads/" + created.getUploadId());
+        return ResponseEntity.created(location).body(created);
+    }
+
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public UploadStatusDto putChunk(@PathVariable String uploadId,
+                                    @PathVariable int index,
+                                    @RequestHeader(CHECKSUM_HEADER) String checksum,
+                                    InputStream body) throws IOException {
+        return uploadManager.writeChunk(uploadId, index, checksum, body);
+    }
+
+    @GetMapping("/{uploadId}")
+    public UploadStatusDto status(@PathVariable String uploadId) {
+        return uploadManager.status(uploadId);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abort(@PathVariable String uploadId) {
+        uploadManager.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        Map<String, String> body = Map.of("error", ex.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+}
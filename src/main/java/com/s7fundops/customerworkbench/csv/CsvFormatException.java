@@ -0,0 +1,12 @@
+package com.s7fundops.customerworkbench.csv;
+
+/**
+ * Input the {@link InteractionCsvDecoder} cannot decode: malformed quoting, a cell that does not parse as its
+ * column's type, or a row with the wrong number of fields.
+ */
+public class CsvFormatException extends IllegalArgumentException {
+
+    public CsvFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,452 @@
+package com.s7fundops.customerworkbench.csv;
+
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Decodes interaction CSV files (the {@code DataUtil.interactionCsvHeader()} columns, in any order) into
+ * {@link InteractionLogDto}s without reflection or per-cell strings.
+ * <p>
+ * The header is mapped to columns once. Each record is then split in place in a reusable char buffer, and ints, the
+ * {@link InteractionType} and {@code yyyy-MM-dd HH:mm:ss} timestamps are parsed straight from it; only the free-text
+ * columns become strings. Quoting follows RFC 4180: a quoted field may hold separators, line breaks and doubled
+ * quotes. Unknown columns are ignored, blank lines skipped, and whitespace before an opening quote is dropped, as
+ * OpenCSV does with {@code withIgnoreLeadingWhiteSpace(true)}.
+ * <p>
+ * Anything else, such as text after a closing quote or a timestamp in another format, fails with a
+ * {@link CsvFormatException} naming the row, so callers can retry the file with OpenCSV.
+ */
+public final class InteractionCsvDecoder implements Iterator<InteractionLogDto> {
+
+    /**
+     * Column names in upload order; the position is the column id used while decoding.
+     */
+    static final List<String> COLUMNS = List.of(
+            "product_id",
+            "customer_id",
+            "interaction_type",
+            "customer_rating",
+            "feedback",
+            "timestamp",
+            "responses_from_customer_support");
+
+    private static final int PRODUCT_ID = 0;
+    private static final int CUSTOMER_ID = 1;
+    private static final int INTERACTION_TYPE = 2;
+    private static final int CUSTOMER_RATING = 3;
+    private static final int FEEDBACK = 4;
+    private static final int TIMESTAMP = 5;
+    private static final int RESPONSES = 6;
+    private static final int IGNORED = -1;
+
+    private static final int INITIAL_BUFFER_CHARS = 64 * 1024;
+    private static final int MAX_RECORD_CHARS = 16 * 1024 * 1024;
+    private static final int TIMESTAMP_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+    private static final InteractionType[] TYPES = InteractionType.values();
+
+    private final Reader reader;
+    private char[] buffer = new char[INITIAL_BUFFER_CHARS];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    // bounds of the fields of the current record within the buffer
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private boolean[] fieldEscaped = new boolean[16];
+    private int fieldCount;
+
+    private int[] columns = new int[0];
+    private boolean headerRead;
+    private long row;
+    private InteractionLogDto next;
+    private boolean finished;
+
+    private InteractionCsvDecoder(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the header of {@code reader}; an empty input yields a decoder without rows.
+     *
+     * @throws CsvFormatException when the header is malformed or names a column twice
+     */
+    public static InteractionCsvDecoder open(Reader reader) throws IOException {
+        InteractionCsvDecoder decoder = new InteractionCsvDecoder(reader);
+        decoder.readHeader();
+        return decoder;
+    }
+
+    /**
+     * Number of the current data row: the last one returned, or the one a {@link CsvFormatException} refers to.
+     */
+    public long getRow() {
+        return row;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public InteractionLogDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        InteractionLogDto current = next;
+        next = null;
+        return current;
+    }
+
+    private void readHeader() throws IOException {
+        if (!readRecord()) {
+            headerRead = true;
+            finished = true;
+            return;
+        }
+        columns = new int[fieldCount];
+        boolean[] seen = new boolean[COLUMNS.size()];
+        for (int field = 0; field < fieldCount; field++) {
+            String name = string(field);
+            if (field == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            name = name.strip().toLowerCase(Locale.ROOT);
+            int column = COLUMNS.indexOf(name);
+            if (column != IGNORED) {
+                if (seen[column]) {
+                    throw new CsvFormatException("Header names column " + name + " twice");
+                }
+                seen[column] = true;
+            }
+            columns[field] = column;
+        }
+        headerRead = true;
+    }
+
+    private InteractionLogDto readRow() throws IOException {
+        row++;
+        do {
+            if (!readRecord()) {
+                row--;
+                return null;
+            }
+        } while (isBlankLine());
+
+        if (fieldCount != columns.length) {
+            throw error("has " + fieldCount + " fields, the header has " + columns.length);
+        }
+
+        InteractionLogDto dto = new InteractionLogDto();
+        for (int field = 0; field < fieldCount; field++) {
+            switch (columns[field]) {
+                case PRODUCT_ID -> dto.setProductId(parseInt(field));
+                case CUSTOMER_ID -> dto.setCustomerId(parseInt(field));
+                case INTERACTION_TYPE -> dto.setInteractionType(parseType(field));
+                case CUSTOMER_RATING -> dto.setCustomerRating(parseInt(field));
+                case FEEDBACK -> dto.setFeedback(string(field));
+                case TIMESTAMP -> dto.setInteractionDate(parseTimestamp(field));
+                case RESPONSES -> dto.setResponsesFromCustomerSupport(string(field));
+                default -> {
+                    // column not mapped to the DTO
+                }
+            }
+        }
+        return dto;
+    }
+
+    private boolean isBlankLine() {
+        return fieldCount == 1 && fieldStart[0] == fieldEnd[0] && !isQuoted(0);
+    }
+
+    /**
+     * Splits the next record into fields, reading more input as needed; {@code false} at the end of the input.
+     */
+    private boolean readRecord() throws IOException {
+        while (true) {
+            if (endOfInput && position >= limit) {
+                return false;
+            }
+            int end = scanRecord();
+            if (end >= 0) {
+                position = end;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Field bounds of the record at {@link #position}, returning the index after it, or {@code -1} when the buffer
+     * ends before the record does and more input may follow.
+     */
+    private int scanRecord() {
+        fieldCount = 0;
+        int index = position;
+        while (true) {
+            int quote = index;
+            while (quote < limit && (buffer[quote] == ' ' || buffer[quote] == '\t')) {
+                quote++;
+            }
+            if (quote >= limit && !endOfInput) {
+                return -1;
+            }
+
+            int fieldEndIndex;
+            if (quote < limit && buffer[quote] == '"') {
+                boolean escaped = false;
+                int closing = quote + 1;
+                while (true) {
+                    if (closing >= limit) {
+                        if (endOfInput) {
+                            throw error("has an unterminated quoted field");
+                        }
+                        return -1;
+                    }
+                    if (buffer[closing] == '"') {
+                        if (closing + 1 >= limit && !endOfInput) {
+                            return -1;
+                        }
+                        if (closing + 1 < limit && buffer[closing + 1] == '"') {
+                            escaped = true;
+                            closing += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    closing++;
+                }
+                addField(quote + 1, closing, escaped);
+                fieldEndIndex = closing + 1;
+                if (fieldEndIndex < limit && !isDelimiter(buffer[fieldEndIndex])) {
+                    throw error("has text after a closing quote");
+                }
+            } else {
+                fieldEndIndex = index;
+                while (fieldEndIndex < limit && !isDelimiter(buffer[fieldEndIndex])) {
+                    if (buffer[fieldEndIndex] == '"') {
+                        throw error("has a quote inside an unquoted field");
+                    }
+                    fieldEndIndex++;
+                }
+                if (fieldEndIndex >= limit && !endOfInput) {
+                    return -1;
+                }
+                addField(index, fieldEndIndex, false);
+            }
+
+            if (fieldEndIndex >= limit) {
+                return fieldEndIndex;
+            }
+            char delimiter = buffer[fieldEndIndex];
+            if (delimiter == ',') {
+                index = fieldEndIndex + 1;
+            } else if (delimiter == '\n') {
+                return fieldEndIndex + 1;
+            } else if (fieldEndIndex + 1 < limit) {
+                return buffer[fieldEndIndex + 1] == '\n' ? fieldEndIndex + 2 : fieldEndIndex + 1;
+            } else {
+                // a lone '\r' at the end of the buffer may be the first half of "\r\n"
+                return endOfInput ? fieldEndIndex + 1 : -1;
+            }
+        }
+    }
+
+    /**
+     * Moves the unparsed rest of the buffer to its front and appends more input, growing the buffer when a single
+     * record fills it.
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            if (buffer.length >= MAX_RECORD_CHARS) {
+                throw error("is longer than " + MAX_RECORD_CHARS + " characters");
+            }
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void addField(int start, int end, boolean escaped) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    private boolean isQuoted(int field) {
+        return fieldStart[field] > 0 && buffer[fieldStart[field] - 1] == '"';
+    }
+
+    private Integer parseInt(int field) {
+        int start = skipLeadingSpace(field);
+        int end = skipTrailingSpace(field, start);
+        if (start == end) {
+            return null;
+        }
+        if (fieldEscaped[field]) {
+            throw invalid(field, "a number");
+        }
+
+        boolean negative = buffer[start] == '-';
+        int digit = negative || buffer[start] == '+' ? start + 1 : start;
+        if (digit == end) {
+            throw invalid(field, "a number");
+        }
+        long value = 0;
+        for (; digit < end; digit++) {
+            char c = buffer[digit];
+            if (c < '0' || c > '9') {
+                throw invalid(field, "a number");
+            }
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw invalid(field, "an int");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw invalid(field, "an int");
+        }
+        return (int) value;
+    }
+
+    private InteractionType parseType(int field) {
+        int start = skipLeadingSpace(field);
+        int end = skipTrailingSpace(field, start);
+        if (start == end) {
+            return null;
+        }
+        for (InteractionType type : TYPES) {
+            String name = type.name();
+            if (name.length() == end - start && matchesIgnoringCase(name, start)) {
+                return type;
+            }
+        }
+        throw invalid(field, "an interaction type");
+    }
+
+    private boolean matchesIgnoringCase(String name, int start) {
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toUpperCase(buffer[start + i]) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private LocalDateTime parseTimestamp(int field) {
+        int start = skipLeadingSpace(field);
+        int end = skipTrailingSpace(field, start);
+        if (start == end) {
+            return null;
+        }
+        if (end - start != TIMESTAMP_LENGTH
+                || buffer[start + 4] != '-' || buffer[start + 7] != '-' || buffer[start + 10] != ' '
+                || buffer[start + 13] != ':' || buffer[start + 16] != ':') {
+            throw invalid(field, "a yyyy-MM-dd HH:mm:ss timestamp");
+        }
+        try {
+            return LocalDateTime.of(
+                    digits(field, start, 4),
+                    digits(field, start + 5, 2),
+                    digits(field, start + 8, 2),
+                    digits(field, start + 11, 2),
+                    digits(field, start + 14, 2),
+                    digits(field, start + 17, 2));
+        } catch (DateTimeException e) {
+            throw invalid(field, "a valid timestamp");
+        }
+    }
+
+    private int digits(int field, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                throw invalid(field, "a yyyy-MM-dd HH:mm:ss timestamp");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private String string(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (!fieldEscaped[field]) {
+            return new String(buffer, start, end - start);
+        }
+        StringBuilder unescaped = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            unescaped.append(buffer[i]);
+            if (buffer[i] == '"') {
+                i++;
+            }
+        }
+        return unescaped.toString();
+    }
+
+    private int skipLeadingSpace(int field) {
+        int start = fieldStart[field];
+        while (start < fieldEnd[field] && Character.isWhitespace(buffer[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private int skipTrailingSpace(int field, int start) {
+        int end = fieldEnd[field];
+        while (end > start && Character.isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ',' || c == '\n' || c == '\r';
+    }
+
+    private CsvFormatException invalid(int field, String expected) {
+        String column = columns[field] == IGNORED ? "column " + (field + 1) : COLUMNS.get(columns[field]);
+        return error("has " + column + " '" + string(field) + "', expected " + expected);
+    }
+
+    private CsvFormatException error(String problem) {
+        return new CsvFormatException((headerRead ? "Row " + row + " " : "Header ") + problem);
+    }
+}
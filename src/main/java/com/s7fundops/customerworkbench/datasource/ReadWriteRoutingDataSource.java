@@ -0,0 +1,84 @@
+package com.s7fundops.customerworkbench.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Routes connections of read-only transactions to the replica and everything else to the primary. Reads fall back
+ * to the primary while the {@link ReplicaLagMonitor} reports the replica lagging or down, and when a replica
+ * connection cannot be obtained.
+ * <p>
+ * The read-only flag is only known once the transaction has started, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers fetching the connection to
+ * the first statement. Every connection is counted in {@code workbench.datasource.route}, tagged with the route taken
+ * and why.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor replicaMonitor;
+    private final Counter writes;
+    private final Counter reads;
+    private final Counter replicaLagging;
+    private final Counter replicaFailed;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaLagMonitor replicaMonitor, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicaMonitor = replicaMonitor;
+        this.writes = routeCounter(meterRegistry, Route.PRIMARY, "write");
+        this.reads = routeCounter(meterRegistry, Route.REPLICA, "read");
+        this.replicaLagging = routeCounter(meterRegistry, Route.PRIMARY, "replica_not_usable");
+        this.replicaFailed = routeCounter(meterRegistry, Route.PRIMARY, "replica_connection_failed");
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replicaMonitor.getReplica()));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaMonitor.isUsable()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return primary.getConnection();
+        }
+        if (!replicaMonitor.isUsable()) {
+            replicaLagging.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replicaMonitor.getReplica().getConnection();
+            reads.increment();
+            return connection;
+        } catch (SQLException e) {
+            replicaMonitor.markUnavailable(e);
+            replicaFailed.increment();
+            return primary.getConnection();
+        }
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, Route route, String reason) {
+        return Counter.builder("workbench.datasource.route")
+                .description("Connections handed out per route")
+                .tag("route", route.name().toLowerCase(Locale.ROOT))
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,122 @@
+package com.s7fundops.customerworkbench.datasource;
+
+import com.s7fundops.customerworkbench.config.ReplicaDataSourceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks that the read replica answers and is not lagging more than the configured maximum. Reads are
+ * only routed to the replica while it is usable; the state is exported as the {@code workbench.datasource.replica.lag}
+ * and {@code workbench.datasource.replica.usable} gauges. The monitor owns the replica pool and closes it on shutdown.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements DisposableBean {
+
+    static final String POSTGRES_LAG_QUERY = """
+            select case when pg_is_in_recovery()
+                        then coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)
+                        else 0 end
+            """;
+
+    private final DataSource replica;
+    private final ReplicaDataSourceProperties properties;
+    private final String lagQuery;
+    private final ScheduledExecutorService checker;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaDataSourceProperties properties, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.properties = properties;
+        this.lagQuery = resolveLagQuery(properties);
+        Gauge.builder("workbench.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replica replay lag in seconds")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("workbench.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("Whether reads are currently routed to the replica")
+                .register(meterRegistry);
+
+        this.checker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("replica-lag-monitor")
+                .daemon(true)
+                .factory());
+        long intervalMillis = properties.getLagCheckInterval().toMillis();
+        checker.scheduleWithFixedDelay(this::check, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    /**
+     * Takes the replica out of rotation until the next successful check, e.g. after a failed connection attempt.
+     */
+    public void markUnavailable(SQLException cause) {
+        if (usable) {
+            log.warn("Replica unavailable, routing reads to the primary: {}", cause.getMessage());
+        }
+        usable = false;
+    }
+
+    void check() {
+        boolean wasUsable = usable;
+        try (Connection connection = replica.getConnection()) {
+            double lag = lagQuery != null ? queryLag(connection) : 0;
+            lagSeconds = lag;
+            usable = lag <= properties.getMaxLag().toMillis() / 1000.0;
+            if (wasUsable && !usable) {
+                log.warn("Replica lag {}s exceeds {}, routing reads to the primary", lag, properties.getMaxLag());
+            }
+        } catch (SQLException | RuntimeException e) {
+            usable = false;
+            lagSeconds = Double.NaN;
+            if (wasUsable) {
+                log.warn("Replica check failed, routing reads to the primary: {}", e.getMessage());
+            }
+        }
+        if (!wasUsable && usable) {
+            log.info("Replica usable, routing read-only transactions to it");
+        }
+    }
+
+    private double queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            return result.next() ? result.getDouble(1) : 0;
+        }
+    }
+
+    private static String resolveLagQuery(ReplicaDataSourceProperties properties) {
+        if (StringUtils.hasText(properties.getLagQuery())) {
+            return properties.getLagQuery();
+        }
+        String url = properties.getUrl();
+        return url != null && url.startsWith("jdbc:postgresql:") ? POSTGRES_LAG_QUERY : null;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        checker.shutdownNow();
+        if (replica instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
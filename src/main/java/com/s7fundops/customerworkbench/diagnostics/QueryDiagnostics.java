@@ -0,0 +1,333 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import com.s7fundops.customerworkbench.config.QueryDiagnosticsProperties;
+import com.s7fundops.customerworkbench.services.InteractionsErasedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records every JDBC statement issued through the application data source, whether it comes from Hibernate or from
+ * {@code JdbcTemplate}. Statements are counted globally, exported as Micrometer meters and attributed to the
+ * {@link Scope} open on the executing thread, which is how per-request counts and test assertions are collected.
+ * Statements over {@link QueryDiagnosticsProperties#getSlowQueryThreshold()} are logged with, for SELECTs, the plan
+ * from {@code EXPLAIN}, and with their bind parameters only when {@code log-parameters} is set, since those hold
+ * interaction text.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "workbench.diagnostics", name = "enabled", havingValue = "true")
+public class QueryDiagnostics implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final int MAX_LOGGED_PARAMETER_LENGTH = 200;
+
+    private final QueryDiagnosticsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> explaining = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final Map<StatementType, LongAdder> statementTotals = new EnumMap<>(StatementType.class);
+    private final Map<StatementType, Timer> statementTimers = new EnumMap<>(StatementType.class);
+    private final LongAdder rowsFetchedTotal = new LongAdder();
+    private final LongAdder batchedRowsTotal = new LongAdder();
+    private final DistributionSummary batchSizes;
+    private final Counter slowQueryCounter;
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final Deque<RequestQuerySummary> recentRequests = new ArrayDeque<>();
+
+    public QueryDiagnostics(QueryDiagnosticsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (StatementType type : StatementType.values()) {
+            statementTotals.put(type, new LongAdder());
+            statementTimers.put(type, Timer.builder("workbench.sql.statement")
+                    .description("JDBC statement execution time")
+                    .tag("type", type.tag())
+                    .register(meterRegistry));
+        }
+        this.batchSizes = DistributionSummary.builder("workbench.sql.batch_size")
+                .description("Rows per JDBC batch")
+                .register(meterRegistry);
+        this.slowQueryCounter = Counter.builder("workbench.sql.slow")
+                .description("Statements over the slow query threshold")
+                .register(meterRegistry);
+        FunctionCounter.builder("workbench.sql.rows_fetched", rowsFetchedTotal, LongAdder::doubleValue)
+                .description("Rows read from JDBC result sets")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts attributing statements on the current thread to a new scope until it is closed. Scopes nest; closing
+     * one restores the enclosing scope.
+     */
+    public Scope begin() {
+        Scope scope = new Scope(currentScope.get());
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * Runs {@code work} in its own scope and returns the statements it issued.
+     */
+    public QueryStats capture(Runnable work) {
+        try (Scope scope = begin()) {
+            work.run();
+            return scope.getStats();
+        }
+    }
+
+    void recordRequest(String method, String route, int status, QueryStats stats) {
+        meterRegistry.summary("workbench.sql.statements_per_request", "method", method, "uri", route)
+                .record(stats.getStatements());
+        append(recentRequests, new RequestQuerySummary(Instant.now(), method, route, status, stats.getStatements(),
+                stats.getSelects(), stats.getRowsFetched(), stats.getBatchedRows(), stats.getElapsedMillis()),
+                properties.getRetainedRequests());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (explaining.get() || queryInfoList.isEmpty()) {
+            return;
+        }
+
+        StatementType type = StatementType.of(queryInfoList.getFirst().getQuery());
+        long elapsed = execInfo.getElapsedTime();
+        statementTotals.get(type).increment();
+        statementTimers.get(type).record(elapsed, TimeUnit.MILLISECONDS);
+        if (execInfo.isBatch()) {
+            batchSizes.record(execInfo.getBatchSize());
+            batchedRowsTotal.add(execInfo.getBatchSize());
+        }
+
+        for (Scope scope = currentScope.get(); scope != null; scope = scope.parent) {
+            scope.stats.recordStatement(type, elapsed);
+            if (execInfo.isBatch()) {
+                scope.stats.recordBatch(execInfo.getBatchSize());
+            }
+        }
+
+        if (elapsed >= properties.getSlowQueryThreshold().toMillis()) {
+            recordSlowQuery(execInfo, queryInfoList.getFirst(), type, elapsed);
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())
+                && !explaining.get()) {
+            rowsFetchedTotal.increment();
+            for (Scope scope = currentScope.get(); scope != null; scope = scope.parent) {
+                scope.stats.recordRowFetched();
+            }
+        }
+    }
+
+    /**
+     * Totals since startup or the last {@link #reset()}, plus the recent slow queries and request summaries.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> statements = new LinkedHashMap<>();
+        statementTotals.forEach((type, total) -> statements.put(type.tag(), total.sum()));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("statements", statements);
+        snapshot.put("rowsFetched", rowsFetchedTotal.sum());
+        snapshot.put("batchedRows", batchedRowsTotal.sum());
+        snapshot.put("slowQueryThresholdMillis", properties.getSlowQueryThreshold().toMillis());
+        synchronized (slowQueries) {
+            snapshot.put("slowQueries", List.copyOf(slowQueries));
+        }
+        synchronized (recentRequests) {
+            snapshot.put("recentRequests", List.copyOf(recentRequests));
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        statementTotals.values().forEach(LongAdder::reset);
+        rowsFetchedTotal.reset();
+        batchedRowsTotal.reset();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+        synchronized (recentRequests) {
+            recentRequests.clear();
+        }
+    }
+
+    /**
+     * Drops the retained slow queries that may hold erased text once the erasure's batch has completed: those with
+     * bind parameters, and those with a plan, which can show the parameter values it was planned for. Which entries
+     * held the customer's text cannot be told without reading it back, so all of them go.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onInteractionsErased(InteractionsErasedEvent event) {
+        synchronized (slowQueries) {
+            slowQueries.removeIf(slow -> !slow.parameters().isEmpty() || slow.plan() != null);
+        }
+    }
+
+    private void recordSlowQuery(ExecutionInfo execInfo, QueryInfo queryInfo, StatementType type, long elapsed) {
+        slowQueryCounter.increment();
+        List<List<ParameterSetOperation>> parameterSets = queryInfo.getParametersList();
+        List<ParameterSetOperation> parameters = parameterSets.isEmpty() ? List.of() : parameterSets.getFirst();
+        List<String> renderedParameters = properties.isLogParameters()
+                ? parameters.stream().map(QueryDiagnostics::render).toList()
+                : List.of();
+
+        String plan = null;
+        if (type == StatementType.SELECT && !execInfo.isBatch() && properties.isExplainSlowQueries()) {
+            plan = explain(execInfo, queryInfo.getQuery(), parameters);
+        }
+
+        log.warn("Slow query ({} ms): {}{}{}", elapsed, queryInfo.getQuery(),
+                properties.isLogParameters() ? " parameters=" + renderedParameters : "",
+                plan != null ? System.lineSeparator() + plan : "");
+        append(slowQueries, new SlowQuery(Instant.now(), elapsed, queryInfo.getQuery(), renderedParameters, plan),
+                properties.getRetainedSlowQueries());
+    }
+
+    /**
+     * Re-runs the statement under {@code EXPLAIN} on the same connection with the same bind parameters. Inside a
+     * transaction it runs behind a savepoint that is rolled back when it fails, since PostgreSQL would otherwise mark
+     * the caller's transaction aborted. Failures are logged at debug level only; diagnostics must never break the
+     * request that triggered them.
+     */
+    private String explain(ExecutionInfo execInfo, String sql, List<ParameterSetOperation> parameters) {
+        explaining.set(Boolean.TRUE);
+        Connection connection = null;
+        Savepoint savepoint = null;
+        try {
+            connection = execInfo.getStatement().getConnection();
+            savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+            String plan = explain(connection, sql, parameters);
+            if (savepoint != null) {
+                connection.releaseSavepoint(savepoint);
+            }
+            return plan;
+        } catch (SQLException | ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not explain slow query {}", sql, e);
+            rollback(connection, savepoint);
+            return null;
+        } finally {
+            explaining.set(Boolean.FALSE);
+        }
+    }
+
+    private static String explain(Connection connection, String sql, List<ParameterSetOperation> parameters)
+            throws SQLException, ReflectiveOperationException {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (ParameterSetOperation parameter : parameters) {
+                parameter.getMethod().invoke(explain, parameter.getArgs());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append(System.lineSeparator());
+                    }
+                    plan.append(rows.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static void rollback(Connection connection, Savepoint savepoint) {
+        if (savepoint == null) {
+            return;
+        }
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException e) {
+            log.debug("Could not roll back to the savepoint before EXPLAIN", e);
+        }
+    }
+
+    private static String render(ParameterSetOperation parameter) {
+        Object[] args = parameter.getArgs();
+        if (args == null || args.length < 2) {
+            return String.valueOf(parameter.getMethod().getName());
+        }
+        String value = "setNull".equals(parameter.getMethod().getName())
+                ? "null"
+                : args.length == 2 ? String.valueOf(args[1]) : Arrays.toString(Arrays.copyOfRange(args, 1, args.length));
+        return value.length() > MAX_LOGGED_PARAMETER_LENGTH
+                ? value.substring(0, MAX_LOGGED_PARAMETER_LENGTH) + "..."
+                : value;
+    }
+
+    private static <T> void append(Deque<T> deque, T value, int limit) {
+        synchronized (deque) {
+            deque.addLast(value);
+            while (deque.size() > Math.max(0, limit)) {
+                deque.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Statements issued on the owning thread while this scope is open, including those of nested scopes.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final QueryStats stats = new QueryStats();
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public QueryStats getStats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                currentScope.remove();
+            } else {
+                currentScope.set(parent);
+            }
+        }
+    }
+}
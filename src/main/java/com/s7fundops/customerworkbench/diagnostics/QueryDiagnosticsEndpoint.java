@@ -0,0 +1,70 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/queries}: JDBC statement totals, recent slow queries, recent per-request statement counts and
+ * Hibernate session factory statistics. A DELETE resets the counters.
+ */
+@Component
+@Endpoint(id = "queries")
+@ConditionalOnProperty(prefix = "workbench.diagnostics", name = "enabled", havingValue = "true")
+public class QueryDiagnosticsEndpoint {
+
+    private final QueryDiagnostics queryDiagnostics;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public QueryDiagnosticsEndpoint(QueryDiagnostics queryDiagnostics, EntityManagerFactory entityManagerFactory) {
+        this.queryDiagnostics = queryDiagnostics;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> queries() {
+        Map<String, Object> body = new LinkedHashMap<>(queryDiagnostics.snapshot());
+        body.put("hibernate", hibernateStatistics());
+        return body;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryDiagnostics.reset();
+        statistics().clear();
+    }
+
+    private Map<String, Object> hibernateStatistics() {
+        Statistics statistics = statistics();
+        Map<String, Object> hibernate = new LinkedHashMap<>();
+        hibernate.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return hibernate;
+        }
+        hibernate.put("entitiesLoaded", statistics.getEntityLoadCount());
+        hibernate.put("entitiesFetched", statistics.getEntityFetchCount());
+        hibernate.put("entitiesInserted", statistics.getEntityInsertCount());
+        hibernate.put("entitiesUpdated", statistics.getEntityUpdateCount());
+        hibernate.put("collectionsFetched", statistics.getCollectionFetchCount());
+        hibernate.put("flushes", statistics.getFlushCount());
+        hibernate.put("statementsPrepared", statistics.getPrepareStatementCount());
+        hibernate.put("queriesExecuted", statistics.getQueryExecutionCount());
+        hibernate.put("slowestQueryMillis", statistics.getQueryExecutionMaxTime());
+        hibernate.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        hibernate.put("transactions", statistics.getTransactionCount());
+        hibernate.put("optimisticFailures", statistics.getOptimisticFailureCount());
+        return hibernate;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
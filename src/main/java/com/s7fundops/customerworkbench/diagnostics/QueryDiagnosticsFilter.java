@@ -0,0 +1,49 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Attributes the statements issued while handling an {@code /api} request to that request, and records the totals
+ * under the matched route pattern, so {@code /api/interactions/1} and {@code /api/interactions/2} aggregate together.
+ * Registered by {@link com.s7fundops.customerworkbench.config.QueryDiagnosticsConfig} rather than component scanning,
+ * which keeps it out of MVC test slices.
+ */
+@Slf4j
+public class QueryDiagnosticsFilter extends OncePerRequestFilter {
+
+    private final QueryDiagnostics queryDiagnostics;
+
+    public QueryDiagnosticsFilter(QueryDiagnostics queryDiagnostics) {
+        this.queryDiagnostics = queryDiagnostics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryDiagnostics.Scope scope = queryDiagnostics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String route = pattern != null ? pattern.toString() : "UNKNOWN";
+            QueryStats stats = scope.getStats();
+            queryDiagnostics.recordRequest(request.getMethod(), route, response.getStatus(), stats);
+            log.debug("{} {}: {} statements ({} selects), {} rows fetched, {} ms in SQL", request.getMethod(), route,
+                    stats.getStatements(), stats.getSelects(), stats.getRowsFetched(), stats.getElapsedMillis());
+        }
+    }
+}
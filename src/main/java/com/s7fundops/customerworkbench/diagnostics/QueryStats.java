@@ -0,0 +1,48 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Statement counters for one unit of work, such as an HTTP request or a captured test block. A JDBC batch counts as
+ * one statement of its type; {@link #getBatchedRows()} holds the rows sent in batches. Updated only by the thread
+ * that owns the scope.
+ */
+@Getter
+@ToString
+public class QueryStats {
+
+    private long selects;
+    private long inserts;
+    private long updates;
+    private long deletes;
+    private long others;
+    private long batches;
+    private long batchedRows;
+    private long rowsFetched;
+    private long elapsedMillis;
+
+    public long getStatements() {
+        return selects + inserts + updates + deletes + others;
+    }
+
+    void recordStatement(StatementType type, long elapsedMillis) {
+        switch (type) {
+            case SELECT -> selects++;
+            case INSERT -> inserts++;
+            case UPDATE -> updates++;
+            case DELETE -> deletes++;
+            case OTHER -> others++;
+        }
+        this.elapsedMillis += elapsedMillis;
+    }
+
+    void recordBatch(int rows) {
+        batches++;
+        batchedRows += rows;
+    }
+
+    void recordRowFetched() {
+        rowsFetched++;
+    }
+}
@@ -0,0 +1,17 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import java.time.Instant;
+
+/**
+ * Statement counts of one completed HTTP request.
+ */
+public record RequestQuerySummary(Instant completedAt,
+                                  String method,
+                                  String route,
+                                  int status,
+                                  long statements,
+                                  long selects,
+                                  long rowsFetched,
+                                  long batchedRows,
+                                  long sqlMillis) {
+}
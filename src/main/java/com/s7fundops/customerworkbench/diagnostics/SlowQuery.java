@@ -0,0 +1,10 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement that exceeded the slow query threshold, with its bind parameters and, for SELECTs, its plan.
+ */
+public record SlowQuery(Instant executedAt, long elapsedMillis, String sql, List<String> parameters, String plan) {
+}
@@ -0,0 +1,29 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import java.util.Locale;
+
+/**
+ * Coarse SQL statement classification, by leading keyword.
+ */
+enum StatementType {
+    SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+    static StatementType of(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return switch (trimmed.substring(0, end).toLowerCase(Locale.ROOT)) {
+            case "select", "with" -> SELECT;
+            case "insert" -> INSERT;
+            case "update" -> UPDATE;
+            case "delete" -> DELETE;
+            default -> OTHER;
+        };
+    }
+
+    String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -29,8 +29,8 @@ public class InteractionLog {
     private Integer customerId;
 
     @NotNull
-    @Enumerated(EnumType.STRING)
-    @Column(name = "interaction_type", nullable = false, length = 32)
+    @Convert(converter = InteractionTypeConverter.class)
+    @Column(name = "interaction_type_code", nullable = false)
     private InteractionType interactionType;
 
     @Column(name = "customer_rating")
@@ -43,9 +43,9 @@ public class InteractionLog {
     @Column(name = "interaction_date")
     private LocalDateTime interactionDate;
 
-    @Lob
-    @Column(name = "responses_from_customer_support", columnDefinition = "text")
-    private String responsesFromCustomerSupport;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "support_response_id")
+    private SupportResponse supportResponse;
 
     @Version
     private Long version;
@@ -57,4 +57,11 @@ public class InteractionLog {
     @UpdateTimestamp
     @Column(name = "date_updated")
     private LocalDateTime dateUpdated;
+
+    /**
+     * The support response text, resolved through the {@link SupportResponse} dictionary.
+     */
+    public String getResponsesFromCustomerSupport() {
+        return supportResponse != null ? supportResponse.getContent() : null;
+    }
 }
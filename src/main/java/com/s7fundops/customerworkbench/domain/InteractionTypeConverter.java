@@ -0,0 +1,22 @@
+package com.s7fundops.customerworkbench.domain;
+
+import com.s7fundops.customerworkbench.model.InteractionType;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link InteractionType} as its two-byte code instead of the enum name.
+ */
+@Converter
+public class InteractionTypeConverter implements AttributeConverter<InteractionType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(InteractionType attribute) {
+        return attribute == null ? null : attribute.getCode();
+    }
+
+    @Override
+    public InteractionType convertToEntityAttribute(Short dbData) {
+        return dbData == null ? null : InteractionType.fromCode(dbData);
+    }
+}
@@ -0,0 +1,56 @@
+package com.s7fundops.customerworkbench.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Deduplicated support response text. Interactions reference a row by id, so a templated response is stored once
+ * no matter how many interactions use it. Rows are keyed by the SHA-256 of their content and never change.
+ */
+@Entity
+@Table(name = "support_response")
+@Immutable
+@BatchSize(size = 64)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupportResponse {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "content_hash", nullable = false, length = 64, unique = true, updatable = false)
+    private String contentHash;
+
+    @NotNull
+    @Lob
+    @Column(name = "content", columnDefinition = "text", nullable = false, updatable = false)
+    private String content;
+
+    public static SupportResponse of(String content) {
+        return new SupportResponse(null, contentHash(content), content);
+    }
+
+    public static String contentHash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
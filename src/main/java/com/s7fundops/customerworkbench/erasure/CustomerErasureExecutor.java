@@ -0,0 +1,178 @@
+package com.s7fundops.customerworkbench.erasure;
+
+import com.s7fundops.customerworkbench.config.ErasureProperties;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs erasure jobs in the background, one at a time per instance.
+ * <p>
+ * A job walks the customer's interactions in id order, {@code batch-size} at a time. Each batch is deleted or
+ * redacted through {@link InteractionService#eraseCustomerBatch} in the transaction that moves the job's cursor past
+ * it, so the job resumes after the last committed batch wherever it stopped. Caches and the change feed drop the
+ * batch once that transaction completes. The executor waits {@code pause} after every batch, so a customer with
+ * millions of interactions turns into many short transactions spread out over time rather than one long lock and
+ * WAL burst.
+ */
+@Slf4j
+@Component
+public class CustomerErasureExecutor implements DisposableBean {
+
+    private final ErasureJobQueue queue;
+    private final InteractionService interactionService;
+    private final ErasureProperties properties;
+    private final TransactionTemplate batchTransaction;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+    private volatile boolean running;
+    private volatile boolean stopping;
+    private volatile Thread worker;
+
+    private final Counter erased;
+    private final Counter completed;
+    private final Counter failed;
+
+    public CustomerErasureExecutor(ErasureJobQueue queue, InteractionService interactionService,
+                                   ErasureProperties properties, PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.interactionService = interactionService;
+        this.properties = properties;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+
+        this.erased = Counter.builder("workbench.erasure.interactions")
+                .description("Interactions deleted or redacted by erasure jobs on this instance")
+                .register(meterRegistry);
+        this.completed = jobs(meterRegistry, "completed");
+        this.failed = jobs(meterRegistry, "failed");
+    }
+
+    /**
+     * Starts looking for jobs once the application is ready, which resumes the jobs of stopped instances.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofVirtual().name("customer-erasure").start(this::work);
+    }
+
+    /**
+     * Claims and runs one job, or as much of it as this instance gets to before stopping; {@code false} when none
+     * was waiting.
+     */
+    boolean runOnce() throws InterruptedException {
+        Optional<ErasureJobQueue.Job> claimed = queue.claim(owner);
+        if (claimed.isPresent()) {
+            erase(claimed.get());
+        }
+        return claimed.isPresent();
+    }
+
+    private void work() {
+        long pollMillis = properties.getPollInterval().toMillis();
+        while (!stopping) {
+            try {
+                if (!runOnce()) {
+                    Thread.sleep(pollMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Claiming erasure jobs failed", e);
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void erase(ErasureJobQueue.Job job) throws InterruptedException {
+        log.info("Erasing interactions of customer {} ({}), job {}", job.customerId(), job.mode(), job.id());
+        long lastId = job.lastId();
+        try {
+            while (true) {
+                long after = lastId;
+                List<Long> ids = batchTransaction.execute(status -> {
+                    List<Long> batch = interactionService.eraseCustomerBatch(job.customerId(), after,
+                            properties.getBatchSize(), job.mode());
+                    boolean held = batch.isEmpty()
+                            ? queue.complete(job, owner)
+                            : queue.advance(job, owner, batch.getLast(), batch.size());
+                    if (!held) {
+                        throw new LeaseLostException();
+                    }
+                    return batch;
+                });
+                if (ids.isEmpty()) {
+                    completed.increment();
+                    log.info("Erasure job {} for customer {} completed", job.id(), job.customerId());
+                    return;
+                }
+                erased.increment(ids.size());
+                lastId = ids.getLast();
+                if (stopping) {
+                    queue.release(job, owner);
+                    return;
+                }
+                TimeUnit.MILLISECONDS.sleep(properties.getPause().toMillis());
+            }
+        } catch (LeaseLostException e) {
+            log.warn("Lost the lease on erasure job {}; another instance continues it", job.id());
+        } catch (InterruptedException e) {
+            queue.release(job, owner);
+            throw e;
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Erasure job {} for customer {} failed after id {}", job.id(), job.customerId(), lastId, e);
+            queue.fail(job, owner, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        stopping = true;
+        Thread current = worker;
+        if (current != null) {
+            // not interrupted, so the current batch can commit before the job is handed back
+            current.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private static Counter jobs(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("workbench.erasure.jobs")
+                .description("Erasure jobs finished on this instance, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Thrown in the batch transaction to roll it back when another instance has taken the job over.
+     */
+    private static final class LeaseLostException extends RuntimeException {
+
+        LeaseLostException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.s7fundops.customerworkbench.erasure;
+
+import com.s7fundops.customerworkbench.config.ErasureProperties;
+import com.s7fundops.customerworkbench.model.ErasureJobDto;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.ErasureState;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Erasure jobs in the {@code erasure_job} table.
+ * <p>
+ * A job is {@code PENDING} until an instance claims it with {@code SELECT ... FOR UPDATE SKIP LOCKED}, which makes it
+ * {@code RUNNING} on that instance until {@code lease_expires_at}. Every committed batch moves the job's keyset
+ * cursor {@code last_id} and extends the lease, so a job whose instance stopped is resumed by the next instance that
+ * looks once its lease has run out, after the last batch it committed. Every claim increments {@code attempts}, and
+ * progress only applies while owner and attempt still match, so an instance that lost its lease cannot move the
+ * cursor behind its successor's back.
+ * <p>
+ * Lease times come from the clock of the instance that writes them, so instances should keep their clocks in sync.
+ */
+@Component
+public class ErasureJobQueue {
+
+    /**
+     * Length of the {@code error} column.
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String INSERT_SQL = """
+            insert into erasure_job (customer_id, mode, state, last_id, processed, attempts, date_created, date_updated)
+            values (?, ?, 'PENDING', 0, 0, 0, ?, ?)
+            """;
+
+    private static final String SELECT_SQL = """
+            select id, customer_id, mode, state, processed, error, date_created, date_updated from erasure_job
+            """;
+
+    private static final String FIND_SQL = SELECT_SQL + " where id = ?";
+
+    private static final String LATEST_SQL = SELECT_SQL + """
+             where customer_id = ? and mode = ? and state <> 'COMPLETED'
+            order by id desc
+            fetch first 1 rows only
+            for update
+            """;
+
+    private static final String RETRY_SQL = """
+            update erasure_job set state = 'PENDING', error = null, date_updated = ? where id = ? and state = 'FAILED'
+            """;
+
+    private static final String CLAIM_SQL = """
+            select id, customer_id, mode, last_id, attempts from erasure_job
+            where state = 'PENDING' or state = 'RUNNING' and lease_expires_at < ?
+            order by id
+            fetch first 1 rows only
+            for update skip locked
+            """;
+
+    private static final String LEASE_SQL = """
+            update erasure_job set state = 'RUNNING', lease_owner = ?, lease_expires_at = ?, attempts = attempts + 1,
+                date_updated = ?
+            where id = ?
+            """;
+
+    private static final String ADVANCE_SQL = """
+            update erasure_job set last_id = ?, processed = processed + ?, lease_expires_at = ?, date_updated = ?
+            where id = ? and lease_owner = ? and attempts = ? and state = 'RUNNING'
+            """;
+
+    private static final String FINISH_SQL = """
+            update erasure_job set state = ?, error = ?, lease_owner = null, lease_expires_at = null, date_updated = ?
+            where id = ? and lease_owner = ? and attempts = ? and state = 'RUNNING'
+            """;
+
+    private static final String RELEASE_SQL = """
+            update erasure_job set state = 'PENDING', lease_owner = null, lease_expires_at = null, date_updated = ?
+            where id = ? and lease_owner = ? and attempts = ? and state = 'RUNNING'
+            """;
+
+    private static final RowMapper<ErasureJobDto> JOB_ROW = (rs, rowNum) -> ErasureJobDto.builder()
+            .id(rs.getLong(1))
+            .customerId(rs.getInt(2))
+            .mode(ErasureMode.valueOf(rs.getString(3)))
+            .state(ErasureState.valueOf(rs.getString(4)))
+            .processed(rs.getLong(5))
+            .error(rs.getString(6))
+            .dateCreated(rs.getObject(7, LocalDateTime.class))
+            .dateUpdated(rs.getObject(8, LocalDateTime.class))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ErasureProperties properties;
+    private final TransactionTemplate transaction;
+    private final Clock clock;
+
+    public ErasureJobQueue(JdbcTemplate jdbcTemplate, ErasureProperties properties,
+                           PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, properties, transactionManager, Clock.systemUTC());
+    }
+
+    ErasureJobQueue(JdbcTemplate jdbcTemplate, ErasureProperties properties,
+                    PlatformTransactionManager transactionManager, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    /**
+     * A claimed job and where it continues.
+     */
+    public record Job(long id, int customerId, ErasureMode mode, long lastId, int attempt) {
+    }
+
+    /**
+     * Queues an erasure of the customer's interactions. A job for the same customer and mode that has not completed
+     * is returned instead of a new one; a failed one is queued again and resumes after its last committed batch.
+     */
+    public ErasureJobDto submit(int customerId, ErasureMode mode) {
+        return transaction.execute(status -> {
+            Timestamp now = now();
+            List<ErasureJobDto> open = jdbcTemplate.query(LATEST_SQL, JOB_ROW, customerId, mode.name());
+            if (!open.isEmpty()) {
+                ErasureJobDto job = open.getFirst();
+                if (job.getState() == ErasureState.FAILED) {
+                    jdbcTemplate.update(RETRY_SQL, now, job.getId());
+                }
+                return find(job.getId()).orElseThrow();
+            }
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SQL, new String[]{"id"});
+                ps.setInt(1, customerId);
+                ps.setString(2, mode.name());
+                ps.setTimestamp(3, now);
+                ps.setTimestamp(4, now);
+                return ps;
+            }, keyHolder);
+            return find(keyHolder.getKeyAs(Number.class).longValue()).orElseThrow();
+        });
+    }
+
+    public Optional<ErasureJobDto> find(long id) {
+        return jdbcTemplate.query(FIND_SQL, JOB_ROW, id).stream().findFirst();
+    }
+
+    /**
+     * Leases the oldest job that is pending or whose lease has run out to {@code owner}.
+     */
+    public Optional<Job> claim(String owner) {
+        return transaction.execute(status -> {
+            Timestamp now = now();
+            List<Job> candidates = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new Job(rs.getLong(1), rs.getInt(2),
+                    ErasureMode.valueOf(rs.getString(3)), rs.getLong(4), rs.getInt(5)), now);
+            if (candidates.isEmpty()) {
+                return Optional.<Job>empty();
+            }
+            Job job = candidates.getFirst();
+            jdbcTemplate.update(LEASE_SQL, owner, leaseEnd(), now, job.id());
+            return Optional.of(new Job(job.id(), job.customerId(), job.mode(), job.lastId(), job.attempt() + 1));
+        });
+    }
+
+    /**
+     * Records a committed batch and extends the lease. Meant to run in the transaction that erased the batch, which
+     * must roll back when this returns {@code false} because the lease was lost.
+     */
+    public boolean advance(Job job, String owner, long lastId, int rows) {
+        return jdbcTemplate.update(ADVANCE_SQL, lastId, rows, leaseEnd(), now(), job.id(), owner, job.attempt()) == 1;
+    }
+
+    /**
+     * Marks the job completed; {@code false} when the lease was lost.
+     */
+    public boolean complete(Job job, String owner) {
+        return finish(job, owner, ErasureState.COMPLETED, null);
+    }
+
+    /**
+     * Marks the job failed. Submitting the same erasure again resumes it.
+     */
+    public void fail(Job job, String owner, String error) {
+        finish(job, owner, ErasureState.FAILED, error);
+    }
+
+    /**
+     * Hands the job back, to be resumed by this or another instance without waiting for the lease to run out.
+     */
+    public void release(Job job, String owner) {
+        jdbcTemplate.update(RELEASE_SQL, now(), job.id(), owner, job.attempt());
+    }
+
+    private boolean finish(Job job, String owner, ErasureState state, String error) {
+        String truncated = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        return jdbcTemplate.update(FINISH_SQL, state.name(), truncated, now(), job.id(), owner, job.attempt()) == 1;
+    }
+
+    private Timestamp leaseEnd() {
+        return Timestamp.from(clock.instant().plus(properties.getLeaseDuration()));
+    }
+
+    private Timestamp now() {
+        return Timestamp.from(Instant.now(clock));
+    }
+}
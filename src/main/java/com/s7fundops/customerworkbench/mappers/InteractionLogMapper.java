@@ -1,11 +1,13 @@
 package com.s7fundops.customerworkbench.mappers;
 
 import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
 import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR)
 public interface InteractionLogMapper {
 
     InteractionLogDto toDto(InteractionLog entity);
@@ -13,5 +15,13 @@ public interface InteractionLogMapper {
     @Mapping(target = "version", ignore = true)
     @Mapping(target = "dateCreated", ignore = true)
     @Mapping(target = "dateUpdated", ignore = true)
+    @Mapping(target = "supportResponse", source = "responsesFromCustomerSupport")
     InteractionLog toEntity(InteractionLogDto dto);
+
+    /**
+     * An unresolved dictionary entry; writers set its id through {@code SupportResponseResolver} before inserting.
+     */
+    default SupportResponse toSupportResponse(String content) {
+        return content == null || content.isEmpty() ? null : SupportResponse.of(content);
+    }
 }
@@ -0,0 +1,19 @@
+package com.s7fundops.customerworkbench.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A range of bytes of an uploaded file, {@code start} inclusive and {@code end} exclusive.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ByteRange {
+
+    private long start;
+    private long end;
+}
@@ -0,0 +1,26 @@
+package com.s7fundops.customerworkbench.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerTimelineDto {
+
+    private Integer customerId;
+    private TimelineGranularity granularity;
+    private long totalInteractions;
+    private Double averageRating;
+    private LocalDateTime firstInteraction;
+    private LocalDateTime lastInteraction;
+    private Map<InteractionType, Long> interactionsByType;
+    private List<TimelineBucketDto> buckets;
+}
@@ -0,0 +1,12 @@
+package com.s7fundops.customerworkbench.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Narrow projection of an interaction used to build a customer timeline. Only columns covered by the
+ * {@code idx_interaction_log_customer_timeline} index are selected so the database can answer from the index alone.
+ */
+public record CustomerTimelineEntry(LocalDateTime interactionDate,
+                                    InteractionType interactionType,
+                                    Integer customerRating) {
+}
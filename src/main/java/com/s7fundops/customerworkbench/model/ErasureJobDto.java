@@ -0,0 +1,27 @@
+package com.s7fundops.customerworkbench.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an erasure job: how many of the customer's interactions it has gone through so far.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErasureJobDto {
+
+    private Long id;
+    private Integer customerId;
+    private ErasureMode mode;
+    private ErasureState state;
+    private long processed;
+    private String error;
+    private LocalDateTime dateCreated;
+    private LocalDateTime dateUpdated;
+}
@@ -0,0 +1,15 @@
+package com.s7fundops.customerworkbench.model;
+
+/**
+ * What an erasure job does to a customer's interactions.
+ */
+public enum ErasureMode {
+    /**
+     * Deletes the interactions.
+     */
+    DELETE,
+    /**
+     * Keeps the interactions but clears their free text: {@code feedback} and the link to the support response.
+     */
+    REDACT
+}
@@ -0,0 +1,23 @@
+package com.s7fundops.customerworkbench.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body asking to delete or redact every interaction of a customer.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErasureRequest {
+
+    @NotNull
+    private Integer customerId;
+
+    @NotNull
+    private ErasureMode mode;
+}
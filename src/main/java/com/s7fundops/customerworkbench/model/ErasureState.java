@@ -0,0 +1,12 @@
+package com.s7fundops.customerworkbench.model;
+
+/**
+ * Lifecycle of an erasure job. A {@link #RUNNING} job whose instance stops is picked up again from its last
+ * committed batch.
+ */
+public enum ErasureState {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
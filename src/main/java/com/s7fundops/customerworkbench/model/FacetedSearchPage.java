@@ -0,0 +1,34 @@
+package com.s7fundops.customerworkbench.model;
+
+import org.springframework.data.domain.Page;
+
+import java.util.Objects;
+
+/**
+ * A page of search results together with the facet counts of the same search, so a search screen gets both in one
+ * request. The facets cover every matching interaction, not just the page.
+ */
+public class FacetedSearchPage extends SearchPage<InteractionLogDto> {
+
+    private final InteractionFacetsDto facets;
+
+    public FacetedSearchPage(Page<InteractionLogDto> page, InteractionFacetsDto facets) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements(),
+                !(page instanceof SearchPage<?> searchPage) || searchPage.isTotalExact());
+        this.facets = facets;
+    }
+
+    public InteractionFacetsDto getFacets() {
+        return facets;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof FacetedSearchPage that && Objects.equals(facets, that.facets) && super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), facets);
+    }
+}
@@ -0,0 +1,28 @@
+package com.s7fundops.customerworkbench.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request body for applying partial updates to many interactions in a single round trip.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionBulkUpdateRequest {
+
+    public static final int MAX_UPDATES = 5000;
+
+    @NotEmpty
+    @Size(max = MAX_UPDATES)
+    private List<@NotNull @Valid InteractionPatch> updates;
+}
@@ -0,0 +1,22 @@
+package com.s7fundops.customerworkbench.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk update, in request order: the interactions that were updated with their new version, and the
+ * conflicts, whose version had moved on or which do not exist, with their current version.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionBulkUpdateResult {
+
+    private List<InteractionVersion> updated;
+    private List<InteractionVersion> conflicts;
+}
@@ -0,0 +1,24 @@
+package com.s7fundops.customerworkbench.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Grouped counts for the interactions matching a search, used to annotate filter options.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionFacetsDto {
+
+    private long total;
+    private Map<InteractionType, Long> interactionTypes;
+    private Map<Integer, Long> customerRatings;
+    private Map<LocalDate, Long> interactionDates;
+}
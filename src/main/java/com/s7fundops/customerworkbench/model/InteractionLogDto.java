@@ -44,4 +44,7 @@ public class InteractionLogDto {
 
     @CsvBindByName(column = "responses_from_customer_support")
     private String responsesFromCustomerSupport;
+
+    @CsvIgnore
+    private Long version;
 }
@@ -0,0 +1,33 @@
+package com.s7fundops.customerworkbench.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A partial update of one interaction. It applies only while the interaction still has {@code version}; fields left
+ * {@code null} keep their current value, and a field is emptied by setting its {@code clear} flag instead. A patch must
+ * change at least one field. Interactions stored without a version have version 0.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionPatch {
+
+    @NotNull
+    private Long id;
+
+    @NotNull
+    private Long version;
+
+    private String feedback;
+
+    private String responsesFromCustomerSupport;
+
+    private boolean clearFeedback;
+
+    private boolean clearResponsesFromCustomerSupport;
+}
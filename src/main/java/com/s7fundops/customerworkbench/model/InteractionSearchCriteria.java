@@ -18,4 +18,16 @@ public class InteractionSearchCriteria {
     private InteractionType interactionType;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
+
+    /**
+     * Whether an interaction with these values is found by a search with these criteria.
+     */
+    public boolean matches(Integer customerId, Integer productId, InteractionType interactionType,
+                           LocalDateTime interactionDate) {
+        return (this.customerId == null || this.customerId.equals(customerId))
+                && (this.productId == null || this.productId.equals(productId))
+                && (this.interactionType == null || this.interactionType == interactionType)
+                && (startDate == null || (interactionDate != null && !interactionDate.isBefore(startDate)))
+                && (endDate == null || (interactionDate != null && !interactionDate.isAfter(endDate)));
+    }
 }
\ No newline at end of file
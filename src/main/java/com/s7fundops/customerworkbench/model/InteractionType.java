@@ -2,10 +2,31 @@ package com.s7fundops.customerworkbench.model;
 
 /**
  * Type of customer interaction.
+ * <p>
+ * Each type has a stable numeric code used as its storage representation; codes must never be reused or changed.
  */
 public enum InteractionType {
-    CHAT,
-    EMAIL,
-    TICKET,
-    FORM
+    CHAT((short) 0),
+    EMAIL((short) 1),
+    TICKET((short) 2),
+    FORM((short) 3);
+
+    private final short code;
+
+    InteractionType(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static InteractionType fromCode(short code) {
+        for (InteractionType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown interaction type code " + code);
+    }
 }
@@ -0,0 +1,21 @@
+package com.s7fundops.customerworkbench.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The row version of an interaction after a bulk update. For a conflict it is the version the interaction has now,
+ * and {@code customerId} and {@code version} are {@code null} when the interaction does not exist.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionVersion {
+
+    private Long id;
+    private Integer customerId;
+    private Long version;
+}
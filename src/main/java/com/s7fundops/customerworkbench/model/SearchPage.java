@@ -0,0 +1,35 @@
+package com.s7fundops.customerworkbench.model;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A page of search results that tells whether its total is exact. Estimated or cached totals are close enough for
+ * "page X of about Y", but clients must not rely on them to find the last page.
+ */
+public class SearchPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public SearchPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof SearchPage<?> that && totalExact == that.totalExact && super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), totalExact);
+    }
+}
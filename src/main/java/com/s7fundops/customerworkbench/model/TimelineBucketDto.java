@@ -0,0 +1,21 @@
+package com.s7fundops.customerworkbench.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineBucketDto {
+
+    private LocalDate bucketStart;
+    private long interactions;
+    private Map<InteractionType, Long> interactionsByType;
+    private Double averageRating;
+}
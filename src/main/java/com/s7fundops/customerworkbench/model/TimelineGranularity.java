@@ -0,0 +1,10 @@
+package com.s7fundops.customerworkbench.model;
+
+/**
+ * Bucket size used when summarising a customer timeline.
+ */
+public enum TimelineGranularity {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,31 @@
+package com.s7fundops.customerworkbench.model;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body announcing a file to be uploaded in chunks. A client that may send the same file again after a
+ * failed session passes the same {@code resumeKey} each time, and the new session skips the records the earlier ones
+ * ingested.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+
+    @Size(max = 255)
+    private String fileName;
+
+    @NotNull
+    @Positive
+    private Long size;
+
+    @Size(max = 512)
+    private String resumeKey;
+}
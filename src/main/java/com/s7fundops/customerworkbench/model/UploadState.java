@@ -0,0 +1,12 @@
+package com.s7fundops.customerworkbench.model;
+
+/**
+ * Lifecycle of a chunked upload. Ingestion starts while chunks are still being received, so an upload can be
+ * {@link #RECEIVING} with rows already ingested.
+ */
+public enum UploadState {
+    RECEIVING,
+    INGESTING,
+    COMPLETED,
+    FAILED
+}
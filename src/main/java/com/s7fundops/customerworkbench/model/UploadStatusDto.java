@@ -0,0 +1,32 @@
+package com.s7fundops.customerworkbench.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Progress of a chunked upload: what has been received, which byte ranges are still missing and how many rows
+ * have been ingested so far. {@code skipped} counts the records an earlier upload with the same resume key had
+ * already ingested; they are not ingested again and not part of {@code ingested}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadStatusDto {
+
+    private String uploadId;
+    private String fileName;
+    private long size;
+    private int chunkSize;
+    private int chunkCount;
+    private UploadState state;
+    private long receivedBytes;
+    private List<ByteRange> missingRanges;
+    private long skipped;
+    private long ingested;
+    private String error;
+}
@@ -1,8 +1,54 @@
 package com.s7fundops.customerworkbench.repositories;
 
 import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.model.CustomerTimelineEntry;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface InteractionLogRepository extends JpaRepository<InteractionLog, Long>, JpaSpecificationExecutor<InteractionLog> {
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface InteractionLogRepository extends JpaRepository<InteractionLog, Long>, JpaSpecificationExecutor<InteractionLog>,
+        InteractionLogRepositoryCustom {
+
+    /**
+     * Resolve many interactions with a single {@code IN} query, projecting straight into DTOs so no managed
+     * entities are created for the result.
+     */
+    @Query("""
+            select new com.s7fundops.customerworkbench.model.InteractionLogDto(
+                i.id, i.productId, i.customerId, i.interactionType, i.customerRating,
+                i.feedback, i.interactionDate, r.content, i.version)
+            from InteractionLog i
+            left join i.supportResponse r
+            where i.id in :ids
+            """)
+    List<InteractionLogDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The customer's timeline in date order, fetched 500 rows per round trip so the driver does not buffer a long
+     * history before the first row is read. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<CustomerTimelineEntry> findByCustomerIdOrderByInteractionDateAsc(Integer customerId);
+
+    /**
+     * Customers ordered by their newest interaction, most recent first.
+     */
+    @Query("select i.customerId from InteractionLog i group by i.customerId order by max(i.id) desc")
+    List<Integer> findRecentlyActiveCustomerIds(Pageable pageable);
+
+    /**
+     * Cheap emptiness check: stops at the first row instead of counting the table.
+     */
+    boolean existsByIdIsNotNull();
 }
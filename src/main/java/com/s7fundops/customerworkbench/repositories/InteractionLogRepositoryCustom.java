@@ -0,0 +1,93 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateResult;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * JDBC-level operations on {@code interaction_log} that Spring Data JPA cannot express efficiently.
+ */
+public interface InteractionLogRepositoryCustom {
+
+    /**
+     * Insert all entities with a single batched JDBC statement, bypassing the persistence context. Generated ids,
+     * the initial version and the audit timestamps are written back to the passed instances, which are returned in
+     * the same order. Must be called inside a transaction.
+     */
+    List<InteractionLog> insertBatch(List<InteractionLog> entities);
+
+    /**
+     * Count the interactions matching the specification grouped by type, rating and day. All three facets are
+     * folded from one grouped query, so the filter predicates are evaluated once.
+     */
+    InteractionFacetsDto facetCounts(Specification<InteractionLog> specification);
+
+    /**
+     * Search with a prepared statement for the filter combination and sort, projected directly into DTOs. The
+     * count query only runs when the page alone cannot tell the total. Sorting is limited to the DTO's scalar
+     * properties; anything else is rejected with an {@link IllegalArgumentException}.
+     */
+    Page<InteractionLogDto> searchDtos(InteractionSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * The rows of a {@link #searchDtos} page without its total.
+     */
+    List<InteractionLogDto> searchContent(InteractionSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Exact number of interactions matching the criteria.
+     */
+    long countSearch(InteractionSearchCriteria criteria);
+
+    /**
+     * The planner's estimate of the interactions matching the criteria, read from {@code EXPLAIN} without running
+     * the search. Only PostgreSQL is asked; other databases give an empty result.
+     */
+    OptionalLong estimateSearchCount(InteractionSearchCriteria criteria);
+
+    /**
+     * Run the same search as {@link #searchDtos} as plain SQL and hand each row of the page to the handler while the
+     * forward-only result is read, without building entities or DTOs. Each row holds, in order: id, product id,
+     * customer id, interaction type code, customer rating, feedback, interaction date, support response content and
+     * version. Returns the number of rows handed over; the total is left to the caller's count strategy. An
+     * unsupported sort is rejected with an {@link IllegalArgumentException} before any row is read. Must be called
+     * inside a transaction.
+     */
+    long streamSearch(InteractionSearchCriteria criteria, Pageable pageable, RowCallbackHandler rows);
+
+    /**
+     * Delete or redact the customer's next interactions with an id above {@code afterId}, at most {@code limit} of
+     * them in id order, and return their ids; empty once none are left. Redaction clears {@code feedback} and the
+     * support response link and increments the version of the rows that still had either. Support response texts
+     * that no interaction refers to any more are deleted in the same transaction, and their hashes returned so
+     * listeners can forget them. Must be called inside a transaction.
+     */
+    ErasedBatch eraseCustomerBatch(int customerId, long afterId, int limit, ErasureMode mode);
+
+    /**
+     * Apply the patches with one batched {@code update ... where id = ? and version = ?}, without loading entities.
+     * {@code supportResponseIds} holds the dictionary id of each patch's support response text, or {@code null} to
+     * keep or clear the current one as the patch says. A row without a version counts as version 0. A patch whose
+     * interaction has moved past its version, or does not exist, is reported as a conflict and leaves the others
+     * applied. Must be called inside a transaction.
+     */
+    InteractionBulkUpdateResult updateBatch(List<InteractionPatch> patches, List<Long> supportResponseIds);
+
+    /**
+     * The interactions erased by one batch, in ascending id order, and the content hashes of the support response
+     * texts deleted with them.
+     */
+    record ErasedBatch(List<Long> ids, List<String> supportResponseHashes) {
+    }
+}
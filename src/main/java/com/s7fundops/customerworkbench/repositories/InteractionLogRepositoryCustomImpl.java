@@ -0,0 +1,501 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateResult;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.model.InteractionVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+class InteractionLogRepositoryCustomImpl implements InteractionLogRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            insert into interaction_log (product_id, customer_id, interaction_type_code, customer_rating, feedback,
+                interaction_date, support_response_id, version, date_created, date_updated)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String ERASURE_KEYS_SQL = """
+            select id from interaction_log where customer_id = ? and id > ? order by id fetch first ? rows only
+            """;
+
+    private static final String DELETE_SQL = "delete from interaction_log where customer_id = ? and id in (%s)";
+
+    private static final String REDACT_SQL = """
+            update interaction_log set feedback = null, support_response_id = null,
+                version = coalesce(version, 0) + 1, date_updated = ?
+            where customer_id = ? and id in (%s) and (feedback is not null or support_response_id is not null)
+            """;
+
+    private static final String ERASED_RESPONSES_SQL = """
+            select distinct support_response_id from interaction_log
+            where customer_id = ? and id in (%s) and support_response_id is not null
+            """;
+
+    private static final String LOCK_RESPONSES_SQL = """
+            select id from support_response where id in (%s) order by content_hash for update
+            """;
+
+    private static final String ORPHANED_RESPONSES_SQL = """
+            select r.id, r.content_hash from support_response r
+            where r.id in (%s) and not exists (select 1 from interaction_log l where l.support_response_id = r.id)
+            """;
+
+    private static final String DELETE_ORPHANED_RESPONSES_SQL = """
+            delete from support_response
+            where id in (%s)
+                and not exists (select 1 from interaction_log l where l.support_response_id = support_response.id)
+            """;
+
+    // a null version is version 0: rows written outside JPA before versions were set must still be patchable
+    private static final String UPDATE_SQL = """
+            update interaction_log set feedback = case when ? then null else coalesce(?, feedback) end,
+                support_response_id = case when ? then null else coalesce(?, support_response_id) end,
+                version = coalesce(version, 0) + 1, date_updated = ?
+            where id = ? and coalesce(version, 0) = ?
+            """;
+
+    private static final String VERSIONS_SQL = """
+            select id, customer_id, coalesce(version, 0) from interaction_log where id in (%s)
+            """;
+
+    /**
+     * Upper bound on rows fetched per round trip while streaming, so a large page is not buffered by the driver.
+     */
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Row estimate of the top plan node in PostgreSQL's text {@code EXPLAIN} output.
+     */
+    private static final Pattern PLAN_ROWS = Pattern.compile("\\brows=(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InteractionSearchTemplates searchTemplates = new InteractionSearchTemplates();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    InteractionLogRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<InteractionLog> insertBatch(List<InteractionLog> entities) {
+        return insertRows(jdbcTemplate, entities);
+    }
+
+    /**
+     * Inserts the entities with one batched statement on the given connection source and writes back their
+     * generated ids, initial version and audit timestamps.
+     */
+    static List<InteractionLog> insertRows(JdbcTemplate jdbcTemplate, List<InteractionLog> entities) {
+        if (entities.isEmpty()) {
+            return entities;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        entities.forEach(entity -> {
+            entity.setVersion(0L);
+            entity.setDateCreated(now);
+            entity.setDateUpdated(now);
+        });
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bindInsert(ps, entities.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entities.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < entities.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            entities.get(i).setId(id.longValue());
+        }
+        return entities;
+    }
+
+    @Override
+    public ErasedBatch eraseCustomerBatch(int customerId, long afterId, int limit, ErasureMode mode) {
+        return eraseRows(jdbcTemplate, customerId, afterId, limit, mode);
+    }
+
+    /**
+     * Deletes or redacts the customer's next {@code limit} rows after {@code afterId} through the given connection
+     * source and returns their ids in order, then deletes the support response texts only those rows referred to.
+     * Walking the ids keeps each statement short and lets the caller resume after the last id it committed.
+     * <p>
+     * The texts are locked before the rows are touched, in the hash order writers lock them in: a writer that has
+     * already looked one of them up commits first, and the text stays if it linked it; one that has not waits for this
+     * batch and stores the text again if it was deleted.
+     */
+    static ErasedBatch eraseRows(JdbcTemplate jdbcTemplate, int customerId, long afterId, int limit,
+                                 ErasureMode mode) {
+        List<Long> ids = jdbcTemplate.queryForList(ERASURE_KEYS_SQL, Long.class, customerId, afterId, limit);
+        if (ids.isEmpty()) {
+            return new ErasedBatch(ids, List.of());
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> keys = new ArrayList<>(ids.size() + 1);
+        keys.add(customerId);
+        keys.addAll(ids);
+        List<Long> responseIds = jdbcTemplate.queryForList(ERASED_RESPONSES_SQL.formatted(placeholders), Long.class,
+                keys.toArray());
+        if (!responseIds.isEmpty()) {
+            String responsePlaceholders = String.join(", ", Collections.nCopies(responseIds.size(), "?"));
+            jdbcTemplate.queryForList(LOCK_RESPONSES_SQL.formatted(responsePlaceholders), Long.class,
+                    responseIds.toArray());
+        }
+
+        List<Object> parameters = new ArrayList<>(ids.size() + 2);
+        if (mode == ErasureMode.REDACT) {
+            parameters.add(Timestamp.valueOf(LocalDateTime.now()));
+        }
+        parameters.addAll(keys);
+        String sql = (mode == ErasureMode.DELETE ? DELETE_SQL : REDACT_SQL).formatted(placeholders);
+        jdbcTemplate.update(sql, parameters.toArray());
+        return new ErasedBatch(ids, deleteOrphanedResponses(jdbcTemplate, responseIds));
+    }
+
+    /**
+     * Deletes those of the given support response texts that no interaction refers to any more and returns their
+     * content hashes. Runs after the texts are locked, so it sees every reference committed while waiting for them.
+     */
+    private static List<String> deleteOrphanedResponses(JdbcTemplate jdbcTemplate, List<Long> responseIds) {
+        if (responseIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(responseIds.size(), "?"));
+        Map<Long, String> orphaned = new TreeMap<>();
+        jdbcTemplate.query(ORPHANED_RESPONSES_SQL.formatted(placeholders),
+                (RowCallbackHandler) rs -> orphaned.put(rs.getLong(1), rs.getString(2)), responseIds.toArray());
+        if (orphaned.isEmpty()) {
+            return List.of();
+        }
+        jdbcTemplate.update(DELETE_ORPHANED_RESPONSES_SQL.formatted(
+                String.join(", ", Collections.nCopies(orphaned.size(), "?"))), orphaned.keySet().toArray());
+        return List.copyOf(orphaned.values());
+    }
+
+    @Override
+    public InteractionBulkUpdateResult updateBatch(List<InteractionPatch> patches, List<Long> supportResponseIds) {
+        return toResult(updateRows(jdbcTemplate, patches, supportResponseIds));
+    }
+
+    /**
+     * Applies the patches through the given connection source with one batched statement and reads the customer and
+     * current version of the patched ids back with one query. Returns the outcome of every patch in input order.
+     * Rows are updated in id order, so concurrent bulk updates of overlapping ids lock them in the same order.
+     */
+    static List<UpdateOutcome> updateRows(JdbcTemplate jdbcTemplate, List<InteractionPatch> patches,
+                                          List<Long> supportResponseIds) {
+        if (patches.isEmpty()) {
+            return List.of();
+        }
+
+        int[] order = IntStream.range(0, patches.size())
+                .boxed()
+                .sorted(Comparator.comparing(i -> patches.get(i).getId()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                InteractionPatch patch = patches.get(order[i]);
+                ps.setBoolean(1, patch.isClearFeedback());
+                ps.setString(2, patch.getFeedback());
+                ps.setBoolean(3, patch.isClearResponsesFromCustomerSupport());
+                Long responseId = supportResponseIds.get(order[i]);
+                if (responseId != null) {
+                    ps.setLong(4, responseId);
+                } else {
+                    ps.setNull(4, Types.BIGINT);
+                }
+                ps.setTimestamp(5, now);
+                ps.setLong(6, patch.getId());
+                ps.setLong(7, patch.getVersion());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return patches.size();
+            }
+        });
+        boolean[] applied = new boolean[patches.size()];
+        for (int i = 0; i < order.length; i++) {
+            applied[order[i]] = counts[i] == 1;
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        patches.forEach(patch -> ids.add(patch.getId()));
+        Map<Long, InteractionVersion> current = new HashMap<>();
+        jdbcTemplate.query(VERSIONS_SQL.formatted(String.join(", ", Collections.nCopies(ids.size(), "?"))),
+                (RowCallbackHandler) rs -> current.put(rs.getLong(1),
+                        new InteractionVersion(rs.getLong(1), rs.getInt(2), rs.getLong(3))),
+                ids.toArray());
+
+        List<UpdateOutcome> outcomes = new ArrayList<>(patches.size());
+        for (int i = 0; i < patches.size(); i++) {
+            InteractionPatch patch = patches.get(i);
+            InteractionVersion row = current.get(patch.getId());
+            Integer customerId = row != null ? row.getCustomerId() : null;
+            if (applied[i]) {
+                // the version this update wrote; a later writer may already have moved the row past it
+                outcomes.add(new UpdateOutcome(true,
+                        new InteractionVersion(patch.getId(), customerId, patch.getVersion() + 1)));
+            } else {
+                outcomes.add(new UpdateOutcome(false,
+                        row != null ? row : new InteractionVersion(patch.getId(), null, null)));
+            }
+        }
+        return outcomes;
+    }
+
+    static InteractionBulkUpdateResult toResult(List<UpdateOutcome> outcomes) {
+        List<InteractionVersion> updated = new ArrayList<>();
+        List<InteractionVersion> conflicts = new ArrayList<>();
+        for (UpdateOutcome outcome : outcomes) {
+            (outcome.applied() ? updated : conflicts).add(outcome.version());
+        }
+        return new InteractionBulkUpdateResult(updated, conflicts);
+    }
+
+    @Override
+    public InteractionFacetsDto facetCounts(Specification<InteractionLog> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<InteractionLog> root = query.from(InteractionLog.class);
+
+        Expression<InteractionType> type = root.get("interactionType");
+        Expression<Integer> rating = root.get("customerRating");
+        Expression<LocalDate> day = root.<LocalDateTime>get("interactionDate").cast(LocalDate.class);
+
+        query.multiselect(type, rating, day, cb.count(root))
+                .groupBy(type, rating, day);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        long total = 0;
+        Map<InteractionType, Long> types = new EnumMap<>(InteractionType.class);
+        Map<Integer, Long> ratings = new TreeMap<>();
+        Map<LocalDate, Long> days = new TreeMap<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            long count = row.get(3, Long.class);
+            total += count;
+            types.merge(row.get(0, InteractionType.class), count, Long::sum);
+            Integer ratingValue = row.get(1, Integer.class);
+            if (ratingValue != null) {
+                ratings.merge(ratingValue, count, Long::sum);
+            }
+            LocalDate dayValue = row.get(2, LocalDate.class);
+            if (dayValue != null) {
+                days.merge(dayValue, count, Long::sum);
+            }
+        }
+
+        return InteractionFacetsDto.builder()
+                .total(total)
+                .interactionTypes(types)
+                .customerRatings(ratings)
+                .interactionDates(days)
+                .build();
+    }
+
+    @Override
+    public Page<InteractionLogDto> searchDtos(InteractionSearchCriteria criteria, Pageable pageable) {
+        return PageableExecutionUtils.getPage(searchContent(criteria, pageable), pageable, () -> countSearch(criteria));
+    }
+
+    @Override
+    public List<InteractionLogDto> searchContent(InteractionSearchCriteria criteria, Pageable pageable) {
+        int mask = InteractionSearchTemplates.mask(criteria);
+        InteractionSearchTemplates.Template template = searchTemplates.get(mask, pageable.getSort());
+
+        TypedQuery<InteractionLogDto> select = entityManager.createQuery(template.select(), InteractionLogDto.class);
+        bindSearch(select, mask, criteria);
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        return select.getResultList();
+    }
+
+    @Override
+    public long countSearch(InteractionSearchCriteria criteria) {
+        int mask = InteractionSearchTemplates.mask(criteria);
+        TypedQuery<Long> count = entityManager.createQuery(searchTemplates.get(mask, Sort.unsorted()).count(), Long.class);
+        bindSearch(count, mask, criteria);
+        return count.getSingleResult();
+    }
+
+    @Override
+    public OptionalLong estimateSearchCount(InteractionSearchCriteria criteria) {
+        int mask = InteractionSearchTemplates.mask(criteria);
+        String explain = searchTemplates.get(mask, Sort.unsorted()).nativeEstimate();
+        OptionalLong estimate = jdbcTemplate.execute((Connection con) -> {
+            if (!"PostgreSQL".equals(con.getMetaData().getDatabaseProductName())) {
+                return OptionalLong.empty();
+            }
+            try (PreparedStatement ps = con.prepareStatement(explain)) {
+                bindSearch(ps, mask, criteria);
+                try (ResultSet rs = ps.executeQuery()) {
+                    Matcher rows = rs.next() ? PLAN_ROWS.matcher(rs.getString(1)) : null;
+                    return rows != null && rows.find() ? OptionalLong.of(Long.parseLong(rows.group(1))) : OptionalLong.empty();
+                }
+            }
+        });
+        return estimate != null ? estimate : OptionalLong.empty();
+    }
+
+    @Override
+    public long streamSearch(InteractionSearchCriteria criteria, Pageable pageable, RowCallbackHandler rows) {
+        int mask = InteractionSearchTemplates.mask(criteria);
+        InteractionSearchTemplates.Template template = searchTemplates.get(mask, pageable.getSort());
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+
+        long[] streamed = new long[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(template.nativeSelect(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            int index = bindSearch(ps, mask, criteria);
+            ps.setLong(index++, offset);
+            ps.setInt(index, limit);
+            ps.setFetchSize(Math.min(limit, STREAM_FETCH_SIZE));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            rows.processRow(rs);
+            streamed[0]++;
+        });
+        return streamed[0];
+    }
+
+    private static void bindSearch(TypedQuery<?> query, int mask, InteractionSearchCriteria criteria) {
+        if ((mask & InteractionSearchTemplates.CUSTOMER) != 0) {
+            query.setParameter("customerId", criteria.getCustomerId());
+        }
+        if ((mask & InteractionSearchTemplates.PRODUCT) != 0) {
+            query.setParameter("productId", criteria.getProductId());
+        }
+        if ((mask & InteractionSearchTemplates.TYPE) != 0) {
+            query.setParameter("interactionType", criteria.getInteractionType());
+        }
+        if ((mask & InteractionSearchTemplates.START) != 0) {
+            query.setParameter("startDate", criteria.getStartDate());
+        }
+        if ((mask & InteractionSearchTemplates.END) != 0) {
+            query.setParameter("endDate", criteria.getEndDate());
+        }
+    }
+
+    /**
+     * Binds the filter values present in the mask in bit order and returns the next free parameter index.
+     */
+    static int bindSearch(PreparedStatement ps, int mask, InteractionSearchCriteria criteria) throws SQLException {
+        int index = 1;
+        if ((mask & InteractionSearchTemplates.CUSTOMER) != 0) {
+            ps.setInt(index++, criteria.getCustomerId());
+        }
+        if ((mask & InteractionSearchTemplates.PRODUCT) != 0) {
+            ps.setInt(index++, criteria.getProductId());
+        }
+        if ((mask & InteractionSearchTemplates.TYPE) != 0) {
+            ps.setShort(index++, criteria.getInteractionType().getCode());
+        }
+        if ((mask & InteractionSearchTemplates.START) != 0) {
+            ps.setTimestamp(index++, Timestamp.valueOf(criteria.getStartDate()));
+        }
+        if ((mask & InteractionSearchTemplates.END) != 0) {
+            ps.setTimestamp(index++, Timestamp.valueOf(criteria.getEndDate()));
+        }
+        return index;
+    }
+
+    private static void bindInsert(PreparedStatement ps, InteractionLog entity) throws SQLException {
+        ps.setInt(1, entity.getProductId());
+        ps.setInt(2, entity.getCustomerId());
+        ps.setShort(3, entity.getInteractionType().getCode());
+        setNullableInt(ps, 4, entity.getCustomerRating());
+        ps.setString(5, entity.getFeedback());
+        ps.setTimestamp(6, entity.getInteractionDate() != null ? Timestamp.valueOf(entity.getInteractionDate()) : null);
+        if (entity.getSupportResponse() != null) {
+            ps.setLong(7, entity.getSupportResponse().getId());
+        } else {
+            ps.setNull(7, Types.BIGINT);
+        }
+        ps.setLong(8, entity.getVersion());
+        ps.setTimestamp(9, Timestamp.valueOf(entity.getDateCreated()));
+        ps.setTimestamp(10, Timestamp.valueOf(entity.getDateUpdated()));
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    /**
+     * Whether a patch applied, with the version it wrote, or else the row's current version.
+     */
+    record UpdateOutcome(boolean applied, InteractionVersion version) {
+    }
+}
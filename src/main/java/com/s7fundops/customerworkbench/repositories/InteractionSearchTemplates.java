@@ -0,0 +1,235 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Search statements per filter combination and sort, built once and reused.
+ * <p>
+ * Every filter either appears in the {@code where} clause or not, so the five optional filters give 32 shapes. Each
+ * shape (plus its sort) maps to one constant JPQL string with only the needed predicates, which Hibernate translates
+ * once and then serves from its query plan cache. Results are projected straight into {@link InteractionLogDto},
+ * joining the support response instead of loading it lazily per row. The sort comes from the client, so a sort that
+ * names a property twice is rejected and at most {@value #MAX_TEMPLATES} templates are kept, least recently used
+ * first out.
+ * <p>
+ * Each template also carries the equivalent native SQL for the streaming read path, with positional parameters in
+ * filter bit order followed by the row offset and limit, and an {@code explain} of the filtered rows for planner
+ * estimates of the total. The merge variant orders by {@link #mergeSort(Sort)}, so pages read from several shards
+ * can be merged with {@link #mergeComparator(Sort)}.
+ */
+final class InteractionSearchTemplates {
+
+    static final int CUSTOMER = 1;
+    static final int PRODUCT = 1 << 1;
+    static final int TYPE = 1 << 2;
+    static final int START = 1 << 3;
+    static final int END = 1 << 4;
+
+    static final int MAX_TEMPLATES = 512;
+
+    /**
+     * Sortable DTO properties and the path they sort by; anything else is rejected rather than concatenated.
+     */
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "i.id",
+            "productId", "i.productId",
+            "customerId", "i.customerId",
+            "interactionType", "i.interactionType",
+            "customerRating", "i.customerRating",
+            "interactionDate", "i.interactionDate");
+
+    /**
+     * The same sortable properties mapped to their {@code interaction_log} columns for the native statements.
+     */
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "id", "i.id",
+            "productId", "i.product_id",
+            "customerId", "i.customer_id",
+            "interactionType", "i.interaction_type_code",
+            "customerRating", "i.customer_rating",
+            "interactionDate", "i.interaction_date");
+
+    private static final String SELECT = "select new " + InteractionLogDto.class.getName()
+            + "(i.id, i.productId, i.customerId, i.interactionType, i.customerRating, i.feedback, i.interactionDate,"
+            + " r.content, i.version) from InteractionLog i left join i.supportResponse r";
+
+    private static final String COUNT = "select count(i) from InteractionLog i";
+
+    static final String NATIVE_SELECT = "select i.id, i.product_id, i.customer_id, i.interaction_type_code,"
+            + " i.customer_rating, i.feedback, i.interaction_date, r.content, i.version from interaction_log i"
+            + " left join support_response r on r.id = i.support_response_id";
+
+    private static final String NATIVE_COUNT = "select count(*) from interaction_log i";
+
+    private static final String NATIVE_ESTIMATE = "explain select 1 from interaction_log i";
+
+    private static final String NATIVE_PAGE = " offset ? rows fetch next ? rows only";
+
+    private final Cache<Key, Template> templates = Caffeine.newBuilder()
+            .maximumSize(MAX_TEMPLATES)
+            .build();
+
+    record Template(String select, String count, String nativeSelect, String nativeCount, String nativeEstimate,
+                    String mergeSelect) {
+    }
+
+    private record Key(int mask, Sort sort) {
+    }
+
+    static int mask(InteractionSearchCriteria criteria) {
+        int mask = 0;
+        if (criteria.getCustomerId() != null) {
+            mask |= CUSTOMER;
+        }
+        if (criteria.getProductId() != null) {
+            mask |= PRODUCT;
+        }
+        if (criteria.getInteractionType() != null) {
+            mask |= TYPE;
+        }
+        if (criteria.getStartDate() != null) {
+            mask |= START;
+        }
+        if (criteria.getEndDate() != null) {
+            mask |= END;
+        }
+        return mask;
+    }
+
+    Template get(int mask, Sort sort) {
+        Set<String> properties = new HashSet<>();
+        for (Sort.Order order : sort) {
+            if (!properties.add(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort by " + order.getProperty() + " more than once");
+            }
+        }
+        return templates.get(new Key(mask, sort), key -> build(key.mask(), key.sort()));
+    }
+
+    long size() {
+        templates.cleanUp();
+        return templates.estimatedSize();
+    }
+
+    private static Template build(int mask, Sort sort) {
+        String where = where(mask);
+        String nativeWhere = nativeWhere(mask);
+        return new Template(SELECT + where + orderBy(sort, SORTABLE), COUNT + where,
+                NATIVE_SELECT + nativeWhere + orderBy(sort, SORTABLE_COLUMNS) + NATIVE_PAGE, NATIVE_COUNT + nativeWhere,
+                NATIVE_ESTIMATE + nativeWhere,
+                NATIVE_SELECT + nativeWhere + orderBy(mergeSort(sort), SORTABLE_COLUMNS) + NATIVE_PAGE);
+    }
+
+    private static String where(int mask) {
+        StringBuilder where = new StringBuilder();
+        appendPredicate(where, mask, CUSTOMER, "i.customerId = :customerId");
+        appendPredicate(where, mask, PRODUCT, "i.productId = :productId");
+        appendPredicate(where, mask, TYPE, "i.interactionType = :interactionType");
+        appendPredicate(where, mask, START, "i.interactionDate >= :startDate");
+        appendPredicate(where, mask, END, "i.interactionDate <= :endDate");
+        return where.toString();
+    }
+
+    static String nativeWhere(int mask) {
+        StringBuilder where = new StringBuilder();
+        appendPredicate(where, mask, CUSTOMER, "i.customer_id = ?");
+        appendPredicate(where, mask, PRODUCT, "i.product_id = ?");
+        appendPredicate(where, mask, TYPE, "i.interaction_type_code = ?");
+        appendPredicate(where, mask, START, "i.interaction_date >= ?");
+        appendPredicate(where, mask, END, "i.interaction_date <= ?");
+        return where.toString();
+    }
+
+    private static void appendPredicate(StringBuilder where, int mask, int bit, String predicate) {
+        if ((mask & bit) != 0) {
+            where.append(where.isEmpty() ? " where " : " and ").append(predicate);
+        }
+    }
+
+    /**
+     * The sort with nulls placed last and the id as final tie-breaker, so every database returns the same total
+     * order. The id follows the direction of the first order, ascending when unsorted.
+     */
+    static Sort mergeSort(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            orders.add(order.nullsLast());
+            byId |= order.getProperty().equals("id");
+        }
+        if (!byId) {
+            Sort.Direction direction = orders.isEmpty() ? Sort.Direction.ASC : orders.getFirst().getDirection();
+            orders.add(new Sort.Order(direction, "id").nullsLast());
+        }
+        return Sort.by(orders);
+    }
+
+    /**
+     * Orders rows the way the merge statement of the same sort returns them. Interaction types compare by storage
+     * code, like the {@code interaction_type_code} column.
+     */
+    static Comparator<InteractionLogDto> mergeComparator(Sort sort) {
+        Comparator<InteractionLogDto> comparator = null;
+        for (Sort.Order order : mergeSort(sort)) {
+            Function<InteractionLogDto, Comparable<?>> key = switch (order.getProperty()) {
+                case "id" -> InteractionLogDto::getId;
+                case "productId" -> InteractionLogDto::getProductId;
+                case "customerId" -> InteractionLogDto::getCustomerId;
+                case "interactionType" -> dto -> dto.getInteractionType() != null ? dto.getInteractionType().getCode() : null;
+                case "customerRating" -> InteractionLogDto::getCustomerRating;
+                case "interactionDate" -> InteractionLogDto::getInteractionDate;
+                default -> throw new IllegalArgumentException("Cannot sort by " + order.getProperty());
+            };
+            Comparator<Comparable<Object>> direction = order.isAscending()
+                    ? Comparator.naturalOrder()
+                    : Comparator.reverseOrder();
+            Comparator<InteractionLogDto> next = Comparator.comparing(dto -> comparable(key.apply(dto)),
+                    Comparator.nullsLast(direction));
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> comparable(Comparable<?> value) {
+        return (Comparable<Object>) value;
+    }
+
+    private static String orderBy(Sort sort, Map<String, String> sortable) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        boolean first = true;
+        for (Sort.Order order : sort) {
+            String path = sortable.get(order.getProperty());
+            if (path == null) {
+                throw new IllegalArgumentException("Cannot sort by " + order.getProperty());
+            }
+            if (!first) {
+                orderBy.append(", ");
+            }
+            orderBy.append(path).append(order.isAscending() ? " asc" : " desc");
+            switch (order.getNullHandling()) {
+                case NULLS_FIRST -> orderBy.append(" nulls first");
+                case NULLS_LAST -> orderBy.append(" nulls last");
+                case NATIVE -> {
+                }
+            }
+            first = false;
+        }
+        return orderBy.toString();
+    }
+}
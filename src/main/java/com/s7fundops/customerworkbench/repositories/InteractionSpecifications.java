@@ -0,0 +1,42 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria API form of the search filters, for queries that need a {@link Specification} such as
+ * {@link InteractionLogRepositoryCustom#facetCounts}. Plain searches use the prepared statements of
+ * {@link InteractionLogRepositoryCustom#searchDtos} instead.
+ */
+public final class InteractionSpecifications {
+
+    private InteractionSpecifications() {
+    }
+
+    public static Specification<InteractionLog> matching(InteractionSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(5);
+            if (criteria.getCustomerId() != null) {
+                predicates.add(cb.equal(root.get("customerId"), criteria.getCustomerId()));
+            }
+            if (criteria.getProductId() != null) {
+                predicates.add(cb.equal(root.get("productId"), criteria.getProductId()));
+            }
+            if (criteria.getInteractionType() != null) {
+                predicates.add(cb.equal(root.get("interactionType"), criteria.getInteractionType()));
+            }
+            if (criteria.getStartDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("interactionDate"), criteria.getStartDate()));
+            }
+            if (criteria.getEndDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("interactionDate"), criteria.getEndDate()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.s7fundops.customerworkbench.repositories;
+
+/**
+ * Placement of interactions on shards, and the shard-encoded ids that locate an interaction without a lookup.
+ * <p>
+ * A global id is the shard-local identity value shifted left by {@link #SHARD_BITS}, with the shard index in the
+ * low bits. Ids of one shard keep their relative order, and ids of different shards never collide.
+ */
+final class ShardIds {
+
+    static final int SHARD_BITS = 8;
+    static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private static final long SHARD_MASK = MAX_SHARDS - 1;
+
+    private ShardIds() {
+    }
+
+    /**
+     * The shard holding a customer's interactions. The id is mixed first so that consecutive customer ids spread
+     * evenly instead of following the shard count's residues.
+     */
+    static int shardOf(int customerId, int shardCount) {
+        int hash = customerId * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shardCount);
+    }
+
+    static long encode(long localId, int shard) {
+        return localId << SHARD_BITS | shard;
+    }
+
+    static int shardOfId(long id) {
+        return (int) (id & SHARD_MASK);
+    }
+
+    static long localId(long id) {
+        return id >>> SHARD_BITS;
+    }
+}
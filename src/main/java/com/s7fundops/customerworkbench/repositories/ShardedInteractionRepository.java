@@ -0,0 +1,564 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import com.s7fundops.customerworkbench.config.ShardingProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.CustomerTimelineEntry;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateResult;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.model.InteractionVersion;
+import com.s7fundops.customerworkbench.model.SearchPage;
+import com.s7fundops.customerworkbench.services.SupportResponseResolver;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Interactions spread over several databases by customer, used instead of {@link InteractionLogRepository} when
+ * {@code workbench.sharding.enabled} is set.
+ * <p>
+ * Every interaction of a customer lives on the shard chosen by {@link ShardIds#shardOf}, so writes and customer
+ * searches touch one database. Ids are encoded with their shard, so a lookup by id does too. Searches without a
+ * customer query every shard in parallel, at most {@code max-fan-out} at a time: each shard returns its first
+ * {@code offset + size} rows in the merge order of {@link InteractionSearchTemplates#mergeSort}, and a k-way merge
+ * picks the page. That cost grows with the page depth, so such searches are limited to {@code max-merge-rows}.
+ * <p>
+ * Each shard has its own support response dictionary. A batch spanning several shards commits per shard, so a
+ * failure can leave the other shards' rows written.
+ */
+@Slf4j
+@Repository
+public class ShardedInteractionRepository implements DisposableBean {
+
+    private static final String FACETS_SQL = "select i.interaction_type_code, i.customer_rating,"
+            + " cast(i.interaction_date as date), count(*) from interaction_log i";
+
+    private static final String FACETS_GROUP_BY = " group by i.interaction_type_code, i.customer_rating,"
+            + " cast(i.interaction_date as date)";
+
+    private static final String TIMELINE_SQL = "select interaction_date, interaction_type_code, customer_rating"
+            + " from interaction_log where customer_id = ? order by interaction_date asc";
+
+    private static final String ANY_ROW_SQL = "select id from interaction_log fetch first 1 rows only";
+
+    private static final int TIMELINE_FETCH_SIZE = 500;
+
+    private final ShardingProperties properties;
+    private final List<Shard> shards;
+    private final ExecutorService fanOutExecutor;
+    private final InteractionSearchTemplates searchTemplates = new InteractionSearchTemplates();
+
+    public ShardedInteractionRepository(ShardingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        if (!properties.isEnabled()) {
+            this.shards = List.of();
+            this.fanOutExecutor = null;
+            return;
+        }
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("workbench.sharding.shards must list at least one shard");
+        }
+        if (properties.getShards().size() > ShardIds.MAX_SHARDS) {
+            throw new IllegalStateException("At most %d shards are supported".formatted(ShardIds.MAX_SHARDS));
+        }
+
+        List<Shard> created = new ArrayList<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            created.add(new Shard(created.size(), dataSource(created.size(), shard, meterRegistry)));
+        }
+        this.shards = List.copyOf(created);
+        this.fanOutExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-query-", 0).factory());
+
+        if (properties.isMigrate()) {
+            shards.forEach(Shard::migrate);
+        }
+        log.info("Interactions are sharded over {} databases", shards.size());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Inserts the interactions on their customers' shards, shards in parallel, and returns them in input order with
+     * their shard-encoded ids.
+     */
+    public List<InteractionLog> insert(List<InteractionLogDto> dtos) {
+        List<InteractionLog> entities = new ArrayList<>(dtos.size());
+        Map<Integer, List<InteractionLog>> byShard = new TreeMap<>();
+        for (InteractionLogDto dto : dtos) {
+            InteractionLog entity = toEntity(dto);
+            entities.add(entity);
+            byShard.computeIfAbsent(ShardIds.shardOf(dto.getCustomerId(), shards.size()), shard -> new ArrayList<>())
+                    .add(entity);
+        }
+        fanOut(byShard.entrySet(), entry -> {
+            shards.get(entry.getKey()).insert(entry.getValue());
+            return null;
+        });
+        return entities;
+    }
+
+    public Optional<InteractionLogDto> findById(long id) {
+        Shard shard = shardOfId(id);
+        if (shard == null) {
+            return Optional.empty();
+        }
+        return shard.selectByIds(List.of(ShardIds.localId(id))).stream().findFirst();
+    }
+
+    /**
+     * The interactions with the given ids, in no particular order; unknown ids are omitted.
+     */
+    public List<InteractionLogDto> findAllByIds(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        for (Long id : ids) {
+            Shard shard = shardOfId(id);
+            if (shard != null) {
+                byShard.computeIfAbsent(shard.index, index -> new ArrayList<>()).add(ShardIds.localId(id));
+            }
+        }
+        return fanOut(byShard.entrySet(), entry -> shards.get(entry.getKey()).selectByIds(entry.getValue())).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    /**
+     * A page of the interactions matching the criteria. Totals are always exact: shards that returned fewer rows
+     * than they were asked for are counted from their rows, the others with a {@code count(*)}.
+     */
+    public SearchPage<InteractionLogDto> search(InteractionSearchCriteria criteria, Pageable pageable) {
+        int mask = InteractionSearchTemplates.mask(criteria);
+        InteractionSearchTemplates.Template template = searchTemplates.get(mask, pageable.getSort());
+
+        if (criteria.getCustomerId() != null) {
+            Shard shard = shardFor(criteria.getCustomerId());
+            long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+            int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+            List<InteractionLogDto> content = shard.select(template.mergeSelect(), mask, criteria, offset, limit);
+            Page<InteractionLogDto> page = PageableExecutionUtils.getPage(content, pageable,
+                    () -> shard.count(template.nativeCount(), mask, criteria));
+            return new SearchPage<>(content, pageable, page.getTotalElements(), true);
+        }
+
+        long window = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : Long.MAX_VALUE;
+        if (window > properties.getMaxMergeRows()) {
+            throw new IllegalArgumentException(("Searches across all customers reach at most row %d;"
+                    + " filter by customer to page further").formatted(properties.getMaxMergeRows()));
+        }
+        List<List<InteractionLogDto>> perShard = fanOut(shards,
+                shard -> shard.select(template.mergeSelect(), mask, criteria, 0, (int) window));
+        List<InteractionLogDto> content = merge(perShard, InteractionSearchTemplates.mergeComparator(pageable.getSort()),
+                pageable.getOffset(), pageable.getPageSize());
+
+        long total = 0;
+        List<Shard> truncated = new ArrayList<>();
+        for (int i = 0; i < perShard.size(); i++) {
+            if (perShard.get(i).size() < window) {
+                total += perShard.get(i).size();
+            } else {
+                truncated.add(shards.get(i));
+            }
+        }
+        total += fanOut(truncated, shard -> shard.count(template.nativeCount(), mask, criteria)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        return new SearchPage<>(content, pageable, total, true);
+    }
+
+    public InteractionFacetsDto facets(InteractionSearchCriteria criteria) {
+        int mask = InteractionSearchTemplates.mask(criteria);
+        String sql = FACETS_SQL + InteractionSearchTemplates.nativeWhere(mask) + FACETS_GROUP_BY;
+        List<Shard> targets = criteria.getCustomerId() != null ? List.of(shardFor(criteria.getCustomerId())) : shards;
+
+        long total = 0;
+        Map<InteractionType, Long> types = new EnumMap<>(InteractionType.class);
+        Map<Integer, Long> ratings = new TreeMap<>();
+        Map<LocalDate, Long> days = new TreeMap<>();
+        for (List<FacetRow> rows : fanOut(targets, shard -> shard.facetRows(sql, mask, criteria))) {
+            for (FacetRow row : rows) {
+                total += row.count();
+                types.merge(row.interactionType(), row.count(), Long::sum);
+                if (row.customerRating() != null) {
+                    ratings.merge(row.customerRating(), row.count(), Long::sum);
+                }
+                if (row.day() != null) {
+                    days.merge(row.day(), row.count(), Long::sum);
+                }
+            }
+        }
+
+        return InteractionFacetsDto.builder()
+                .total(total)
+                .interactionTypes(types)
+                .customerRatings(ratings)
+                .interactionDates(days)
+                .build();
+    }
+
+    /**
+     * Streams the customer's timeline entries in date order from the customer's shard.
+     */
+    public void forEachTimelineEntry(int customerId, Consumer<CustomerTimelineEntry> entries) {
+        shardFor(customerId).timeline(customerId, entries);
+    }
+
+    /**
+     * Deletes or redacts the customer's next interactions after {@code afterId} on the customer's shard, in a
+     * transaction of that shard, like {@link InteractionLogRepositoryCustom#eraseCustomerBatch}. Ids in and out are
+     * shard-encoded, which keeps their order within a shard.
+     */
+    public InteractionLogRepositoryCustom.ErasedBatch eraseCustomerBatch(int customerId, long afterId, int limit,
+                                                                         ErasureMode mode) {
+        return shardFor(customerId).erase(customerId, ShardIds.localId(afterId), limit, mode);
+    }
+
+    /**
+     * Applies the patches on their interactions' shards, shards in parallel and each in a transaction of its own,
+     * like {@link InteractionLogRepositoryCustom#updateBatch}. Support response texts go to each shard's dictionary.
+     * Ids that belong to no shard are reported as conflicts.
+     */
+    public InteractionBulkUpdateResult update(List<InteractionPatch> patches) {
+        InteractionLogRepositoryCustomImpl.UpdateOutcome[] outcomes =
+                new InteractionLogRepositoryCustomImpl.UpdateOutcome[patches.size()];
+        Map<Integer, List<Integer>> byShard = new TreeMap<>();
+        for (int i = 0; i < patches.size(); i++) {
+            Shard shard = shardOfId(patches.get(i).getId());
+            if (shard != null) {
+                byShard.computeIfAbsent(shard.index, index -> new ArrayList<>()).add(i);
+            } else {
+                outcomes[i] = new InteractionLogRepositoryCustomImpl.UpdateOutcome(false,
+                        new InteractionVersion(patches.get(i).getId(), null, null));
+            }
+        }
+
+        List<Map.Entry<Integer, List<Integer>>> targets = new ArrayList<>(byShard.entrySet());
+        List<List<InteractionLogRepositoryCustomImpl.UpdateOutcome>> perShard = fanOut(targets, entry ->
+                shards.get(entry.getKey()).update(entry.getValue().stream().map(patches::get).toList()));
+        for (int target = 0; target < targets.size(); target++) {
+            List<Integer> positions = targets.get(target).getValue();
+            for (int i = 0; i < positions.size(); i++) {
+                outcomes[positions.get(i)] = perShard.get(target).get(i);
+            }
+        }
+        return InteractionLogRepositoryCustomImpl.toResult(Arrays.asList(outcomes));
+    }
+
+    public boolean isEmpty() {
+        return fanOut(shards, Shard::isEmpty).stream().allMatch(Boolean::booleanValue);
+    }
+
+    @Override
+    public void destroy() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+        shards.forEach(shard -> shard.dataSource.close());
+    }
+
+    /**
+     * Merges rows that are each sorted by {@code order} into one sorted list, skipping {@code skip} rows and
+     * returning at most {@code limit}.
+     */
+    static List<InteractionLogDto> merge(List<List<InteractionLogDto>> sorted, Comparator<InteractionLogDto> order,
+                                         long skip, int limit) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator.comparing(Cursor::head, order));
+        for (List<InteractionLogDto> rows : sorted) {
+            if (!rows.isEmpty()) {
+                heads.add(new Cursor(rows));
+            }
+        }
+
+        List<InteractionLogDto> merged = new ArrayList<>();
+        long skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Cursor cursor = heads.poll();
+            InteractionLogDto row = cursor.next();
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                merged.add(row);
+            }
+            if (cursor.hasNext()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private Shard shardFor(int customerId) {
+        return shards.get(ShardIds.shardOf(customerId, shards.size()));
+    }
+
+    private Shard shardOfId(Long id) {
+        if (id == null || id < 0) {
+            return null;
+        }
+        int index = ShardIds.shardOfId(id);
+        return index < shards.size() ? shards.get(index) : null;
+    }
+
+    /**
+     * Applies the task to every item, in parallel on virtual threads with at most {@code max-fan-out} running at
+     * once, and returns the results in item order. A single item runs on the calling thread.
+     */
+    private <S, T> List<T> fanOut(Collection<S> items, Function<S, T> task) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        if (items.size() == 1) {
+            List<T> result = new ArrayList<>(1);
+            result.add(task.apply(items.iterator().next()));
+            return result;
+        }
+
+        Semaphore permits = new Semaphore(Math.max(1, properties.getMaxFanOut()));
+        List<Future<T>> futures = new ArrayList<>(items.size());
+        for (S item : items) {
+            futures.add(fanOutExecutor.submit(() -> {
+                permits.acquire();
+                try {
+                    return task.apply(item);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        List<T> results = new ArrayList<>(items.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+        return results;
+    }
+
+    private static InteractionLog toEntity(InteractionLogDto dto) {
+        InteractionLog entity = new InteractionLog();
+        entity.setProductId(dto.getProductId());
+        entity.setCustomerId(dto.getCustomerId());
+        entity.setInteractionType(dto.getInteractionType());
+        entity.setCustomerRating(dto.getCustomerRating());
+        entity.setFeedback(dto.getFeedback());
+        entity.setInteractionDate(dto.getInteractionDate());
+        String response = dto.getResponsesFromCustomerSupport();
+        if (response != null && !response.isEmpty()) {
+            entity.setSupportResponse(SupportResponse.of(response));
+        }
+        return entity;
+    }
+
+    private static HikariDataSource dataSource(int index, ShardingProperties.Shard shard, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + index);
+        dataSource.setJdbcUrl(shard.getUrl());
+        dataSource.setUsername(shard.getUsername());
+        dataSource.setPassword(shard.getPassword());
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    private static final class Shard {
+
+        private final int index;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transaction;
+        private final SupportResponseResolver supportResponseResolver;
+
+        Shard(int index, HikariDataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            this.supportResponseResolver = new SupportResponseResolver(jdbcTemplate);
+        }
+
+        void migrate() {
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+        }
+
+        // support responses are resolved in the insert transaction, on its connection
+        void insert(List<InteractionLog> entities) {
+            transaction.executeWithoutResult(status -> {
+                supportResponseResolver.resolveAll(entities);
+                InteractionLogRepositoryCustomImpl.insertRows(jdbcTemplate, entities);
+            });
+            entities.forEach(entity -> entity.setId(ShardIds.encode(entity.getId(), index)));
+        }
+
+        List<InteractionLogDto> select(String sql, int mask, InteractionSearchCriteria criteria, long offset, int limit) {
+            return jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                int parameter = InteractionLogRepositoryCustomImpl.bindSearch(ps, mask, criteria);
+                ps.setLong(parameter++, offset);
+                ps.setInt(parameter, limit);
+                return ps;
+            }, (rs, rowNum) -> row(rs));
+        }
+
+        List<InteractionLogDto> selectByIds(List<Long> localIds) {
+            String sql = InteractionSearchTemplates.NATIVE_SELECT + " where i.id in ("
+                    + String.join(", ", Collections.nCopies(localIds.size(), "?")) + ")";
+            return jdbcTemplate.query(sql, (rs, rowNum) -> row(rs), localIds.toArray());
+        }
+
+        long count(String sql, int mask, InteractionSearchCriteria criteria) {
+            Long count = jdbcTemplate.query(sql, ps -> InteractionLogRepositoryCustomImpl.bindSearch(ps, mask, criteria),
+                    rs -> rs.next() ? rs.getLong(1) : 0L);
+            return count != null ? count : 0;
+        }
+
+        List<FacetRow> facetRows(String sql, int mask, InteractionSearchCriteria criteria) {
+            return jdbcTemplate.query(sql, ps -> InteractionLogRepositoryCustomImpl.bindSearch(ps, mask, criteria),
+                    (rs, rowNum) -> new FacetRow(InteractionType.fromCode(rs.getShort(1)), rs.getObject(2, Integer.class),
+                            rs.getObject(3, LocalDate.class), rs.getLong(4)));
+        }
+
+        // in a transaction so that PostgreSQL honours the fetch size instead of reading the whole result
+        void timeline(int customerId, Consumer<CustomerTimelineEntry> entries) {
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(TIMELINE_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setInt(1, customerId);
+                ps.setFetchSize(TIMELINE_FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> entries.accept(new CustomerTimelineEntry(
+                    rs.getObject(1, LocalDateTime.class), InteractionType.fromCode(rs.getShort(2)),
+                    rs.getObject(3, Integer.class)))));
+        }
+
+        InteractionLogRepositoryCustom.ErasedBatch erase(int customerId, long afterId, int limit, ErasureMode mode) {
+            InteractionLogRepositoryCustom.ErasedBatch erased = transaction.execute(status ->
+                    InteractionLogRepositoryCustomImpl.eraseRows(jdbcTemplate, customerId, afterId, limit, mode));
+            return new InteractionLogRepositoryCustom.ErasedBatch(
+                    erased.ids().stream().map(id -> ShardIds.encode(id, index)).toList(),
+                    erased.supportResponseHashes());
+        }
+
+        // like inserts, support responses are resolved in the update transaction before it takes its row locks
+        List<InteractionLogRepositoryCustomImpl.UpdateOutcome> update(List<InteractionPatch> patches) {
+            List<InteractionPatch> local = new ArrayList<>(patches.size());
+            for (InteractionPatch patch : patches) {
+                local.add(new InteractionPatch(ShardIds.localId(patch.getId()), patch.getVersion(), patch.getFeedback(),
+                        patch.getResponsesFromCustomerSupport(), patch.isClearFeedback(),
+                        patch.isClearResponsesFromCustomerSupport()));
+            }
+            List<InteractionLogRepositoryCustomImpl.UpdateOutcome> outcomes = transaction.execute(status ->
+                    InteractionLogRepositoryCustomImpl.updateRows(jdbcTemplate, local,
+                            supportResponseResolver.resolveIds(local.stream()
+                                    .map(InteractionPatch::getResponsesFromCustomerSupport)
+                                    .toList())));
+            return outcomes.stream()
+                    .map(outcome -> new InteractionLogRepositoryCustomImpl.UpdateOutcome(outcome.applied(),
+                            new InteractionVersion(ShardIds.encode(outcome.version().getId(), index),
+                                    outcome.version().getCustomerId(), outcome.version().getVersion())))
+                    .toList();
+        }
+
+        boolean isEmpty() {
+            Boolean found = jdbcTemplate.query(ANY_ROW_SQL, (ResultSetExtractor<Boolean>) ResultSet::next);
+            return !Boolean.TRUE.equals(found);
+        }
+
+        private InteractionLogDto row(ResultSet rs) throws SQLException {
+            return InteractionLogDto.builder()
+                    .id(ShardIds.encode(rs.getLong(1), index))
+                    .productId(rs.getInt(2))
+                    .customerId(rs.getInt(3))
+                    .interactionType(InteractionType.fromCode(rs.getShort(4)))
+                    .customerRating(rs.getObject(5, Integer.class))
+                    .feedback(rs.getString(6))
+                    .interactionDate(rs.getObject(7, LocalDateTime.class))
+                    .responsesFromCustomerSupport(rs.getString(8))
+                    .version(rs.getObject(9, Long.class))
+                    .build();
+        }
+    }
+
+    private record FacetRow(InteractionType interactionType, Integer customerRating, LocalDate day, long count) {
+    }
+
+    private static final class Cursor {
+
+        private final List<InteractionLogDto> rows;
+        private int position;
+
+        Cursor(List<InteractionLogDto> rows) {
+            this.rows = rows;
+        }
+
+        InteractionLogDto head() {
+            return rows.get(position);
+        }
+
+        InteractionLogDto next() {
+            return rows.get(position++);
+        }
+
+        boolean hasNext() {
+            return position < rows.size();
+        }
+    }
+}
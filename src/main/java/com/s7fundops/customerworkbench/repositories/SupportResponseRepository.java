@@ -0,0 +1,11 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface SupportResponseRepository extends JpaRepository<SupportResponse, Long> {
+
+    Optional<SupportResponse> findByContentHash(String contentHash);
+}
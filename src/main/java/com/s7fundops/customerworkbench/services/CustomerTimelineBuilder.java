@@ -0,0 +1,117 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.model.CustomerTimelineDto;
+import com.s7fundops.customerworkbench.model.CustomerTimelineEntry;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.model.TimelineBucketDto;
+import com.s7fundops.customerworkbench.model.TimelineGranularity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds a date-ordered stream of {@link CustomerTimelineEntry} rows into buckets and summary statistics in a
+ * single pass, keeping only one open bucket in memory at a time.
+ */
+class CustomerTimelineBuilder {
+
+    private final Integer customerId;
+    private final TimelineGranularity granularity;
+
+    private final Counts totals = new Counts();
+    private final List<TimelineBucketDto> buckets = new ArrayList<>();
+    private LocalDateTime firstInteraction;
+    private LocalDateTime lastInteraction;
+
+    private LocalDate openBucketStart;
+    private Counts openBucket;
+
+    CustomerTimelineBuilder(Integer customerId, TimelineGranularity granularity) {
+        this.customerId = customerId;
+        this.granularity = granularity;
+    }
+
+    void accept(CustomerTimelineEntry entry) {
+        totals.add(entry);
+
+        LocalDateTime date = entry.interactionDate();
+        if (date == null) {
+            return;
+        }
+        if (firstInteraction == null) {
+            firstInteraction = date;
+        }
+        lastInteraction = date;
+
+        LocalDate bucketStart = bucketStart(date.toLocalDate());
+        if (!bucketStart.equals(openBucketStart)) {
+            closeBucket();
+            openBucketStart = bucketStart;
+            openBucket = new Counts();
+        }
+        openBucket.add(entry);
+    }
+
+    CustomerTimelineDto build() {
+        closeBucket();
+        return CustomerTimelineDto.builder()
+                .customerId(customerId)
+                .granularity(granularity)
+                .totalInteractions(totals.interactions)
+                .averageRating(totals.averageRating())
+                .firstInteraction(firstInteraction)
+                .lastInteraction(lastInteraction)
+                .interactionsByType(totals.byType)
+                .buckets(buckets)
+                .build();
+    }
+
+    private void closeBucket() {
+        if (openBucket == null) {
+            return;
+        }
+        buckets.add(TimelineBucketDto.builder()
+                .bucketStart(openBucketStart)
+                .interactions(openBucket.interactions)
+                .interactionsByType(openBucket.byType)
+                .averageRating(openBucket.averageRating())
+                .build());
+        openBucket = null;
+    }
+
+    private LocalDate bucketStart(LocalDate date) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static final class Counts {
+        private final Map<InteractionType, Long> byType = new EnumMap<>(InteractionType.class);
+        private long interactions;
+        private long ratingSum;
+        private long ratingCount;
+
+        void add(CustomerTimelineEntry entry) {
+            interactions++;
+            if (entry.interactionType() != null) {
+                byType.merge(entry.interactionType(), 1L, Long::sum);
+            }
+            if (entry.customerRating() != null) {
+                ratingSum += entry.customerRating();
+                ratingCount++;
+            }
+        }
+
+        Double averageRating() {
+            return ratingCount == 0 ? null : (double) ratingSum / ratingCount;
+        }
+    }
+}
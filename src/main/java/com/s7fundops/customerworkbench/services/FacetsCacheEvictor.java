@@ -0,0 +1,34 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.config.CacheConfig;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Clears the cached facet counts once deleted interactions have committed. New interactions only make the counts
+ * briefly low until the entries expire, but counts that still include erased interactions must not be served.
+ */
+@Component
+public class FacetsCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    public FacetsCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onInteractionsErased(InteractionsErasedEvent event) {
+        if (event.mode() != ErasureMode.DELETE) {
+            return;
+        }
+        Cache facets = cacheManager.getCache(CacheConfig.INTERACTION_FACETS);
+        if (facets != null) {
+            facets.clear();
+        }
+    }
+}
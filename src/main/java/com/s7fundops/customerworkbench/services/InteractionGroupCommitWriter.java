@@ -0,0 +1,236 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.config.GroupCommitProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit for single-interaction creates. Callers enqueue onto a lock-free queue and block until the group
+ * their row was flushed with has committed; a single flusher thread drains the queue every {@code maxDelay} or as
+ * soon as {@code maxBatchSize} rows are waiting, writing each group with one batched insert in one transaction. The
+ * group's support response texts are resolved in that transaction too.
+ * <p>
+ * A caller is only acknowledged after its group commits, so the trade-off is added latency of up to
+ * {@code maxDelay} per create, recorded in the {@code workbench.group_commit.wait} timer. When a group fails, its
+ * rows are retried one per transaction, so only the caller whose row cannot be written gets the error. A caller
+ * whose row is still queued after {@code maxWait} takes it back out and gives up; once the flusher has taken the row,
+ * the caller waits for its group's outcome instead, so a reported failure always means the row was not written. Once
+ * the writer is shutting down creates are written directly.
+ */
+@Slf4j
+@Component
+public class InteractionGroupCommitWriter implements DisposableBean {
+
+    private final InteractionLogRepository repository;
+    private final SupportResponseResolver supportResponseResolver;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitProperties properties;
+
+    private final Queue<PendingInsert> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private volatile boolean stopped;
+
+    private final Timer waitTimer;
+    private final DistributionSummary batchSizes;
+
+    public InteractionGroupCommitWriter(InteractionLogRepository repository,
+                                        SupportResponseResolver supportResponseResolver,
+                                        PlatformTransactionManager transactionManager,
+                                        GroupCommitProperties properties,
+                                        MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.supportResponseResolver = supportResponseResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.waitTimer = Timer.builder("workbench.group_commit.wait")
+                .description("Time a create waits for its group to commit")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("workbench.group_commit.batch_size")
+                .description("Rows written per group commit")
+                .register(meterRegistry);
+
+        if (properties.isEnabled()) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("interaction-group-commit")
+                    .daemon(true)
+                    .factory());
+            long delayNanos = properties.getMaxDelay().toNanos();
+            flusher.scheduleWithFixedDelay(this::flush, delayNanos, delayNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return flusher != null;
+    }
+
+    /**
+     * Queue the entity for the next group and wait until that group has committed.
+     *
+     * @return the persisted entity with its generated id
+     */
+    public InteractionLog write(InteractionLog entity) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Group commit is not enabled");
+        }
+
+        if (stopped) {
+            return insert(List.of(entity)).getFirst();
+        }
+
+        PendingInsert pending = new PendingInsert(entity, new CompletableFuture<>(), System.nanoTime());
+        queue.offer(pending);
+        int waiting = queued.incrementAndGet();
+        if (stopped) {
+            // the final flush may already have run, so nobody else would pick this row up
+            flush();
+        } else if (waiting >= properties.getMaxBatchSize() && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+
+        try {
+            try {
+                return pending.result().get(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (queue.remove(pending)) {
+                    queued.decrementAndGet();
+                    throw new IllegalStateException("Group commit did not complete within " + properties.getMaxWait(),
+                            e);
+                }
+                // the flusher already took the row and its group may still commit, so wait for the real outcome
+                return pending.result().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the group commit", e);
+        }
+    }
+
+    /**
+     * Drain and commit everything currently queued. Runs on the flusher thread, and once the writer is stopped also
+     * on callers that queued a row too late for the final flush.
+     */
+    synchronized void flush() {
+        flushRequested.set(false);
+        int maxBatchSize = properties.getMaxBatchSize();
+        List<PendingInsert> batch;
+        do {
+            batch = drain(maxBatchSize);
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+        } while (batch.size() == maxBatchSize);
+    }
+
+    private List<PendingInsert> drain(int max) {
+        List<PendingInsert> batch = new ArrayList<>(Math.min(max, Math.max(queued.get(), 1)));
+        PendingInsert next;
+        while (batch.size() < max && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        queued.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void commit(List<PendingInsert> batch) {
+        List<InteractionLog> entities = batch.stream().map(PendingInsert::entity).toList();
+        try {
+            List<InteractionLog> saved = insert(entities);
+            batchSizes.record(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), saved.get(i));
+            }
+        } catch (Throwable e) {
+            if (batch.size() == 1) {
+                batch.getFirst().result().completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} interactions failed; retrying them one by one", batch.size(), e);
+            batch.forEach(this::commitAlone);
+        }
+    }
+
+    private void commitAlone(PendingInsert pending) {
+        try {
+            complete(pending, insert(List.of(pending.entity())).getFirst());
+        } catch (Throwable e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private void complete(PendingInsert pending, InteractionLog saved) {
+        waitTimer.record(System.nanoTime() - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        pending.result().complete(saved);
+    }
+
+    private List<InteractionLog> insert(List<InteractionLog> entities) {
+        return transactionTemplate.execute(status -> {
+            // a failed attempt may have resolved ids of dictionary rows that rolled back with it
+            entities.forEach(entity -> {
+                if (entity.getSupportResponse() != null) {
+                    entity.getSupportResponse().setId(null);
+                }
+            });
+            supportResponseResolver.resolveAll(entities);
+            return repository.insertBatch(entities);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (flusher == null) {
+            return;
+        }
+        stopped = true;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // commit whatever arrived after the last scheduled flush so no acknowledged caller is left waiting
+        flush();
+    }
+
+    private record PendingInsert(InteractionLog entity, CompletableFuture<InteractionLog> result, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.s7fundops.customerworkbench.config.SearchProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.SearchPage;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Supplies the totals of search pages according to {@link SearchProperties#getCountStrategy()}.
+ * <p>
+ * An exact {@code count(*)} over a large customer costs as much as the page itself, while the UI only needs "page X
+ * of about Y". The estimated strategy takes PostgreSQL's planner estimate instead, and the cached strategy reuses a
+ * count per filter combination until it expires or a committed interaction matching that filter arrives. Pages
+ * whose total did not come from a fresh count are marked as not exact.
+ */
+@Component
+public class InteractionSearchCounter {
+
+    /**
+     * Above this many filter-and-row checks per commit the whole cache is dropped instead of matched entry by entry.
+     */
+    private static final long MAX_INVALIDATION_CHECKS = 1_000_000;
+
+    private final InteractionLogRepository repository;
+    private final SearchProperties properties;
+    private final Cache<InteractionSearchCriteria, Long> totals;
+
+    private final Counter exact;
+    private final Counter estimated;
+    private final Counter cached;
+
+    public InteractionSearchCounter(InteractionLogRepository repository, SearchProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.totals = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getCountCacheTtl())
+                .maximumSize(properties.getCountCacheMaxSize())
+                .build();
+
+        this.exact = totals(meterRegistry, "exact");
+        this.estimated = totals(meterRegistry, "estimated");
+        this.cached = totals(meterRegistry, "cached");
+    }
+
+    /**
+     * The page for the given content, asking for a total only when the content alone cannot tell it. Must be called
+     * in the transaction that read the content.
+     */
+    public SearchPage<InteractionLogDto> page(InteractionSearchCriteria criteria, Pageable pageable,
+                                              List<InteractionLogDto> content) {
+        Total total = total(criteria, pageable, content.size());
+        return new SearchPage<>(content, pageable, total.value(), total.exact());
+    }
+
+    /**
+     * The total of a page that held {@code rows} rows. Like {@code PageableExecutionUtils}, a partial page (or an
+     * empty page past the start) tells the total by itself; otherwise it comes from the count strategy. Must be called
+     * in the transaction that read the rows.
+     */
+    public Total total(InteractionSearchCriteria criteria, Pageable pageable, long rows) {
+        if (pageable.isUnpaged() || pageable.getOffset() == 0 && rows < pageable.getPageSize()) {
+            return new Total(rows, true);
+        }
+        if (rows != 0 && rows < pageable.getPageSize()) {
+            return new Total(pageable.getOffset() + rows, true);
+        }
+        return total(criteria);
+    }
+
+    /**
+     * Drops cached totals of the filters that match a committed interaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionsCreated(InteractionsCreatedEvent event) {
+        List<InteractionLog> created = event.interactions();
+        if (totals.estimatedSize() * created.size() > MAX_INVALIDATION_CHECKS) {
+            totals.invalidateAll();
+            return;
+        }
+        totals.asMap().keySet().removeIf(criteria -> created.stream().anyMatch(interaction -> criteria.matches(
+                interaction.getCustomerId(), interaction.getProductId(), interaction.getInteractionType(),
+                interaction.getInteractionDate())));
+    }
+
+    /**
+     * Drops cached totals that may have counted deleted interactions: those of the customer and those not filtered
+     * by customer. Redaction leaves every count as it was.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onInteractionsErased(InteractionsErasedEvent event) {
+        if (event.mode() != ErasureMode.DELETE) {
+            return;
+        }
+        totals.asMap().keySet().removeIf(criteria -> criteria.getCustomerId() == null
+                || criteria.getCustomerId() == event.customerId());
+    }
+
+    private Total total(InteractionSearchCriteria criteria) {
+        switch (properties.getCountStrategy()) {
+            case ESTIMATED -> {
+                OptionalLong estimate = repository.estimateSearchCount(criteria);
+                if (estimate.isPresent() && estimate.getAsLong() >= properties.getExactCountBelow()) {
+                    estimated.increment();
+                    return new Total(estimate.getAsLong(), false);
+                }
+            }
+            case CACHED -> {
+                Long total = totals.getIfPresent(criteria);
+                if (total != null) {
+                    cached.increment();
+                    return new Total(total, false);
+                }
+                long counted = count(criteria);
+                totals.put(criteria, counted);
+                return new Total(counted, true);
+            }
+            case EXACT -> {
+            }
+        }
+        return new Total(count(criteria), true);
+    }
+
+    private long count(InteractionSearchCriteria criteria) {
+        exact.increment();
+        return repository.countSearch(criteria);
+    }
+
+    private static Counter totals(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("workbench.search.totals")
+                .description("Search page totals by where they came from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    public record Total(long value, boolean exact) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import com.s7fundops.customerworkbench.repositories.ShardedInteractionRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes a search page as JSON directly from the JDBC result, for clients that ask for large pages.
+ * <p>
+ * {@link InteractionService#search} materializes the page as DTOs in a {@code SearchPage} before Jackson sees it.
+ * Here each row is copied column by column from the forward-only result into the generator and then dropped, so
+ * memory stays flat in the page size and no entity, DTO or persistence-context state is created. The envelope has
+ * the same properties as a serialized {@code SearchPage}, with {@code interactionDate} in the same ISO-8601 form, so
+ * clients parse both responses alike. The total comes from {@link InteractionSearchCounter} under the configured
+ * count strategy, as it does for the materialized page. The hot tier is not consulted: this path always reads the
+ * database (the replica when one is configured). With sharding enabled the merged page is serialized as a whole
+ * instead, since it only exists after the shards were read.
+ */
+@Service
+public class InteractionSearchStreamer {
+
+    private final InteractionLogRepository repository;
+    private final ShardedInteractionRepository shards;
+    private final InteractionSearchCounter searchCounter;
+    private final ObjectWriter writer;
+
+    public InteractionSearchStreamer(InteractionLogRepository repository, ShardedInteractionRepository shards,
+                                     InteractionSearchCounter searchCounter, JsonMapper jsonMapper) {
+        this.repository = repository;
+        this.shards = shards;
+        this.searchCounter = searchCounter;
+        // the servlet container owns the response stream
+        this.writer = jsonMapper.writer().without(StreamWriteFeature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Writes the page of interactions matching the criteria to {@code out}. An unsupported sort is rejected with an
+     * {@link IllegalArgumentException} before anything is written; a failure while rows are streamed leaves the
+     * output truncated.
+     */
+    @Transactional(readOnly = true)
+    public void writeJson(InteractionSearchCriteria criteria, Pageable pageable, OutputStream out) {
+        if (shards.isEnabled()) {
+            writer.writeValue(out, shards.search(criteria, pageable));
+            return;
+        }
+        JsonGenerator gen = writer.createGenerator(out);
+        char[] dateBuffer = new char[29];
+
+        gen.writeStartObject();
+        gen.writeName("content");
+        gen.writeStartArray();
+        long[] rows = new long[1];
+        repository.streamSearch(criteria, pageable, rs -> {
+            writeRow(gen, rs, dateBuffer);
+            rows[0]++;
+        });
+        gen.writeEndArray();
+        InteractionSearchCounter.Total total = searchCounter.total(criteria, pageable, rows[0]);
+
+        int size = pageable.isPaged() ? pageable.getPageSize() : (int) rows[0];
+        int number = pageable.isPaged() ? pageable.getPageNumber() : 0;
+        int totalPages = size == 0 ? 1 : (int) Math.ceil((double) total.value() / size);
+
+        if (pageable.isPaged()) {
+            gen.writeName("pageable");
+            gen.writeStartObject();
+            gen.writeNumberProperty("pageNumber", number);
+            gen.writeNumberProperty("pageSize", size);
+            writeSort(gen, pageable.getSort());
+            gen.writeNumberProperty("offset", pageable.getOffset());
+            gen.writeBooleanProperty("paged", true);
+            gen.writeBooleanProperty("unpaged", false);
+            gen.writeEndObject();
+        }
+        gen.writeNumberProperty("totalElements", total.value());
+        gen.writeNumberProperty("totalPages", totalPages);
+        gen.writeBooleanProperty("last", number + 1 >= totalPages);
+        gen.writeNumberProperty("size", size);
+        gen.writeNumberProperty("number", number);
+        writeSort(gen, pageable.getSort());
+        gen.writeNumberProperty("numberOfElements", rows[0]);
+        gen.writeBooleanProperty("first", number == 0);
+        gen.writeBooleanProperty("empty", rows[0] == 0);
+        gen.writeBooleanProperty("totalExact", total.exact());
+        gen.writeEndObject();
+        gen.close();
+    }
+
+    private static void writeRow(JsonGenerator gen, ResultSet rs, char[] dateBuffer) throws SQLException {
+        gen.writeStartObject();
+        gen.writeNumberProperty("id", rs.getLong(1));
+        gen.writeNumberProperty("productId", rs.getInt(2));
+        gen.writeNumberProperty("customerId", rs.getInt(3));
+        gen.writeStringProperty("interactionType", InteractionType.fromCode(rs.getShort(4)).name());
+        int rating = rs.getInt(5);
+        if (rs.wasNull()) {
+            gen.writeNullProperty("customerRating");
+        } else {
+            gen.writeNumberProperty("customerRating", rating);
+        }
+        gen.writeStringProperty("feedback", rs.getString(6));
+        LocalDateTime interactionDate = rs.getObject(7, LocalDateTime.class);
+        gen.writeName("interactionDate");
+        if (interactionDate == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(dateBuffer, 0, formatIsoDateTime(interactionDate, dateBuffer));
+        }
+        gen.writeStringProperty("responsesFromCustomerSupport", rs.getString(8));
+        long version = rs.getLong(9);
+        if (rs.wasNull()) {
+            gen.writeNullProperty("version");
+        } else {
+            gen.writeNumberProperty("version", version);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeSort(JsonGenerator gen, Sort sort) {
+        gen.writeName("sort");
+        gen.writeStartObject();
+        gen.writeBooleanProperty("empty", sort.isEmpty());
+        gen.writeBooleanProperty("sorted", sort.isSorted());
+        gen.writeBooleanProperty("unsorted", sort.isUnsorted());
+        gen.writeEndObject();
+    }
+
+    /**
+     * Formats like {@code DateTimeFormatter.ISO_LOCAL_DATE_TIME} (seconds always, fraction without trailing zeros)
+     * into the buffer, returning the length, so no string is allocated per row. Years outside 0..9999 are not
+     * produced by this application and are not handled.
+     */
+    static int formatIsoDateTime(LocalDateTime value, char[] buffer) {
+        int pos = digits(buffer, 0, value.getYear(), 4);
+        buffer[pos++] = '-';
+        pos = digits(buffer, pos, value.getMonthValue(), 2);
+        buffer[pos++] = '-';
+        pos = digits(buffer, pos, value.getDayOfMonth(), 2);
+        buffer[pos++] = 'T';
+        pos = digits(buffer, pos, value.getHour(), 2);
+        buffer[pos++] = ':';
+        pos = digits(buffer, pos, value.getMinute(), 2);
+        buffer[pos++] = ':';
+        pos = digits(buffer, pos, value.getSecond(), 2);
+        int nano = value.getNano();
+        if (nano != 0) {
+            int width = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                width--;
+            }
+            buffer[pos++] = '.';
+            pos = digits(buffer, pos, nano, width);
+        }
+        return pos;
+    }
+
+    private static int digits(char[] buffer, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+}
@@ -1,22 +1,75 @@
 package com.s7fundops.customerworkbench.services;
 
+import com.s7fundops.customerworkbench.model.CustomerTimelineDto;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateResult;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
 import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
 import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.TimelineGranularity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 public interface InteractionService {
 
     long ingestCsv(MultipartFile file);
 
+    /**
+     * Ingests a CSV stream as it is read, committing every {@code batchSize} rows in their own transaction and
+     * reporting the running total to {@code progress}. Rows committed before a failure stay ingested.
+     * <p>
+     * The first {@code skipRecords} records are read but not inserted, so a stream an earlier call already ingested
+     * part of continues where that call stopped. {@code checkpoint} gets the number of records up to the end of
+     * each batch, counting the skipped ones, inside the transaction that commits the batch. With sharding enabled the
+     * rows commit on their shards, which cannot share that transaction, so {@code checkpoint} is never called. Returns
+     * the rows inserted, which may be none when records were skipped.
+     */
+    long ingestCsvStream(InputStream csv, int batchSize, long skipRecords, LongConsumer checkpoint,
+                         LongConsumer progress);
+
+    /**
+     * Ingests a CSV stream in the caller's transaction, which must exist, inserting every {@code batchSize} rows.
+     * Either all rows commit with the caller's other work or none do.
+     */
+    long ingestCsvInTransaction(InputStream csv, int batchSize);
+
     long ingestJson(List<InteractionLogDto> payload);
 
     InteractionLogDto create(InteractionLogDto dto);
 
+    /**
+     * A page of matching interactions. The result is a {@link com.s7fundops.customerworkbench.model.SearchPage}
+     * whose total may be estimated or cached, depending on the configured count strategy.
+     */
     Page<InteractionLogDto> search(InteractionSearchCriteria criteria, Pageable pageable);
 
+    InteractionFacetsDto facets(InteractionSearchCriteria criteria);
+
     InteractionLogDto findById(Long id);
+
+    List<InteractionLogDto> findAllByIds(List<Long> ids);
+
+    CustomerTimelineDto customerTimeline(Integer customerId, TimelineGranularity granularity);
+
+    /**
+     * Deletes or redacts the customer's next {@code limit} interactions with an id above {@code afterId}, in id
+     * order, and returns their ids; empty once none are left. Runs in the caller's transaction, except that sharded
+     * rows commit on their shard straight away. Publishes an {@link InteractionsErasedEvent} for the batch.
+     */
+    List<Long> eraseCustomerBatch(int customerId, long afterId, int limit, ErasureMode mode);
+
+    /**
+     * Applies partial updates to many interactions with batched, version-checked statements. A patch whose
+     * interaction has moved past the given version, or does not exist, is reported as a conflict; the others are
+     * applied. Patches that change nothing, or set and clear the same field, are rejected with an
+     * {@link IllegalArgumentException} before any is applied. Publishes an {@link InteractionsUpdatedEvent} for the
+     * updated interactions.
+     */
+    InteractionBulkUpdateResult updateAll(List<InteractionPatch> patches);
 }
\ No newline at end of file
@@ -1,37 +1,97 @@
 package com.s7fundops.customerworkbench.services;
 
 import com.opencsv.bean.CsvToBeanBuilder;
+import com.s7fundops.customerworkbench.config.CacheConfig;
+import com.s7fundops.customerworkbench.config.IngestionProperties;
+import com.s7fundops.customerworkbench.csv.CsvFormatException;
+import com.s7fundops.customerworkbench.csv.InteractionCsvDecoder;
 import com.s7fundops.customerworkbench.domain.InteractionLog;
 import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.CustomerTimelineDto;
+import com.s7fundops.customerworkbench.model.CustomerTimelineEntry;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionBatchGetRequest;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateRequest;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateResult;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
 import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
 import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionVersion;
+import com.s7fundops.customerworkbench.model.TimelineGranularity;
 import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepositoryCustom;
+import com.s7fundops.customerworkbench.repositories.InteractionSpecifications;
+import com.s7fundops.customerworkbench.repositories.ShardedInteractionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @Transactional
 public class InteractionServiceImpl implements InteractionService {
 
     private final InteractionLogRepository repository;
     private final InteractionLogMapper mapper;
+    private final InteractionGroupCommitWriter groupCommitWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecentInteractionsHotTier hotTier;
+    private final InteractionSearchCounter searchCounter;
+    private final ShardedInteractionRepository shards;
+    private final SupportResponseResolver supportResponseResolver;
+    private final IngestionProperties ingestionProperties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
 
-    public InteractionServiceImpl(InteractionLogRepository repository, InteractionLogMapper mapper) {
+    public InteractionServiceImpl(InteractionLogRepository repository, InteractionLogMapper mapper,
+                                  InteractionGroupCommitWriter groupCommitWriter,
+                                  ApplicationEventPublisher eventPublisher,
+                                  RecentInteractionsHotTier hotTier,
+                                  InteractionSearchCounter searchCounter,
+                                  ShardedInteractionRepository shards,
+                                  SupportResponseResolver supportResponseResolver,
+                                  IngestionProperties ingestionProperties,
+                                  PlatformTransactionManager transactionManager) {
         this.repository = repository;
         this.mapper = mapper;
+        this.groupCommitWriter = groupCommitWriter;
+        this.eventPublisher = eventPublisher;
+        this.hotTier = hotTier;
+        this.searchCounter = searchCounter;
+        this.shards = shards;
+        this.supportResponseResolver = supportResponseResolver;
+        this.ingestionProperties = ingestionProperties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -40,17 +100,19 @@ public class InteractionServiceImpl implements InteractionService {
             throw new IllegalArgumentException("CSV file must not be empty");
         }
 
-        List<InteractionLogDto> rows;
-        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
-            rows = new CsvToBeanBuilder<InteractionLogDto>(reader)
-                    .withType(InteractionLogDto.class)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .build()
-                    .parse();
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Unable to read CSV file", e);
-        } catch (RuntimeException e) {
-            throw new IllegalArgumentException("Failed to parse CSV file: " + e.getMessage(), e);
+        List<InteractionLogDto> rows = isFastCsvDecoder() ? decodeCsv(file) : null;
+        if (rows == null) {
+            try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+                rows = new CsvToBeanBuilder<InteractionLogDto>(reader)
+                        .withType(InteractionLogDto.class)
+                        .withIgnoreLeadingWhiteSpace(true)
+                        .build()
+                        .parse();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unable to read CSV file", e);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Failed to parse CSV file: " + e.getMessage(), e);
+            }
         }
 
         if (CollectionUtils.isEmpty(rows)) {
@@ -58,29 +120,89 @@ public class InteractionServiceImpl implements InteractionService {
         }
 
         validateDtos(rows);
-        List<InteractionLog> entities = rows.stream()
-                .map(mapper::toEntity)
-                .toList();
-
-        repository.saveAll(entities);
+        List<InteractionLog> entities = insert(rows);
+        eventPublisher.publishEvent(new InteractionsCreatedEvent(entities));
         return entities.size();
     }
 
+    // no surrounding transaction: each batch commits on its own so a long stream neither holds a connection while it
+    // waits for input nor loses what was committed when it fails later
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public long ingestCsvStream(InputStream csv, int batchSize, long skipRecords, LongConsumer checkpoint,
+                                LongConsumer progress) {
+        if (skipRecords < 0) {
+            throw new IllegalArgumentException("skipRecords must not be negative");
+        }
+        return ingestCsvRows(csv, batchSize, skipRecords, (batch, records) -> insertCommitted(batch, records,
+                checkpoint), progress);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public long ingestCsvInTransaction(InputStream csv, int batchSize) {
+        return ingestCsvRows(csv, batchSize, 0, (batch, records) -> insertInTransaction(batch), rows -> {
+        });
+    }
+
+    private long ingestCsvRows(InputStream csv, int batchSize, long skipRecords, BatchInsert insert,
+                               LongConsumer progress) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+
+        long skipped = 0;
+        long ingested = 0;
+        try (Reader reader = new InputStreamReader(csv, StandardCharsets.UTF_8)) {
+            // a stream cannot be read twice, so there is no OpenCSV retry here; OPENCSV selects it up front
+            Iterator<InteractionLogDto> rows = isFastCsvDecoder()
+                    ? InteractionCsvDecoder.open(reader)
+                    : new CsvToBeanBuilder<InteractionLogDto>(reader)
+                            .withType(InteractionLogDto.class)
+                            .withIgnoreLeadingWhiteSpace(true)
+                            .build()
+                            .iterator();
+            List<InteractionLogDto> batch = new ArrayList<>(batchSize);
+            InteractionLogDto row;
+            while ((row = nextRow(rows, skipped + ingested + batch.size())) != null) {
+                if (skipped < skipRecords) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    ingested += insert.insert(batch, skipped + ingested + batch.size());
+                    progress.accept(ingested);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                ingested += insert.insert(batch, skipped + ingested + batch.size());
+                progress.accept(ingested);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read CSV stream", e);
+        }
+
+        if (ingested == 0 && skipped == 0) {
+            throw new IllegalArgumentException("CSV file is empty or missing required header");
+        }
+        return ingested;
+    }
+
     @Override
     public long ingestJson(List<InteractionLogDto> payload) {
         if (CollectionUtils.isEmpty(payload)) {
             throw new IllegalArgumentException("JSON payload must not be empty");
         }
 
-        List<InteractionLog> entities = payload.stream()
-                .map(mapper::toEntity)
-                .toList();
-
-        repository.saveAll(entities);
+        List<InteractionLog> entities = insert(payload);
+        eventPublisher.publishEvent(new InteractionsCreatedEvent(entities));
         return entities.size();
     }
 
-    @Transactional
+    // no surrounding transaction: a group-commit caller must not hold a connection while it waits for its group
+    @Transactional(propagation = Propagation.SUPPORTS)
     @Override
     public InteractionLogDto create(InteractionLogDto dto) {
         if (dto == null) {
@@ -90,19 +212,48 @@ public class InteractionServiceImpl implements InteractionService {
         //ensure id is null on create
         dto.setId(null);
 
-        InteractionLog entity = mapper.toEntity(dto);
-        InteractionLog saved = repository.save(entity);
+        InteractionLog saved;
+        if (shards.isEnabled()) {
+            saved = shards.insert(List.of(dto)).getFirst();
+        } else if (groupCommitWriter.isEnabled()) {
+            saved = groupCommitWriter.write(mapper.toEntity(dto));
+        } else {
+            InteractionLog entity = mapper.toEntity(dto);
+            saved = writeTransaction.execute(status -> {
+                supportResponseResolver.resolveAll(List.of(entity));
+                return repository.save(entity);
+            });
+        }
+        eventPublisher.publishEvent(new InteractionsCreatedEvent(List.of(saved)));
         return mapper.toDto(saved);
     }
 
+    // no surrounding transaction: pages served from the hot tier must not take a connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     @Override
-    @Transactional(readOnly = true)
     public Page<InteractionLogDto> search(InteractionSearchCriteria criteria, Pageable pageable) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("criteria is required");
+        }
+        if (shards.isEnabled()) {
+            return shards.search(criteria, pageable);
+        }
+        return hotTier.find(criteria, pageable)
+                .orElseGet(() -> readOnlyTransaction.execute(status ->
+                        searchCounter.page(criteria, pageable, repository.searchContent(criteria, pageable))));
+    }
 
-        Specification<InteractionLog> specification = buildSpecification(criteria);
-
-        return repository.findAll(specification, pageable)
-                .map(mapper::toDto);
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.INTERACTION_FACETS, key = "#criteria")
+    public InteractionFacetsDto facets(InteractionSearchCriteria criteria) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("criteria is required");
+        }
+        if (shards.isEnabled()) {
+            return shards.facets(criteria);
+        }
+        return repository.facetCounts(InteractionSpecifications.matching(criteria));
     }
 
     @Override
@@ -111,36 +262,227 @@ public class InteractionServiceImpl implements InteractionService {
         if (id == null) {
             throw new IllegalArgumentException("id is required");
         }
+        if (shards.isEnabled()) {
+            return shards.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Interaction with id %d not found".formatted(id)));
+        }
         InteractionLog entity = repository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Interaction with id %d not found".formatted(id)));
         return mapper.toDto(entity);
     }
 
-    private Specification<InteractionLog> buildSpecification(InteractionSearchCriteria criteria) {
+    @Override
+    @Transactional(readOnly = true)
+    public List<InteractionLogDto> findAllByIds(List<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
 
-        Specification<InteractionLog> spec = Specification.where((root, query, cb) -> {
-            if (criteria.getCustomerId() != null) {
-                return cb.equal(root.get("customerId"), criteria.getCustomerId());
-            }
-            return cb.conjunction();
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        if (uniqueIds.size() > InteractionBatchGetRequest.MAX_IDS) {
+            throw new IllegalArgumentException("At most %d ids may be requested at once".formatted(InteractionBatchGetRequest.MAX_IDS));
+        }
+
+        List<InteractionLogDto> dtos = shards.isEnabled()
+                ? shards.findAllByIds(uniqueIds)
+                : repository.findDtosByIdIn(uniqueIds);
+        Map<Long, InteractionLogDto> found = dtos.stream()
+                .collect(Collectors.toMap(InteractionLogDto::getId, Function.identity()));
+
+        // keep the caller's ordering; ids that do not exist are simply omitted
+        return uniqueIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerTimelineDto customerTimeline(Integer customerId, TimelineGranularity granularity) {
+        if (customerId == null) {
+            throw new IllegalArgumentException("customerId is required");
+        }
+
+        CustomerTimelineBuilder builder = new CustomerTimelineBuilder(customerId,
+                granularity != null ? granularity : TimelineGranularity.DAY);
+        if (shards.isEnabled()) {
+            shards.forEachTimelineEntry(customerId, builder::accept);
+            return builder.build();
+        }
+        try (Stream<CustomerTimelineEntry> entries = repository.findByCustomerIdOrderByInteractionDateAsc(customerId)) {
+            entries.forEach(builder::accept);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public List<Long> eraseCustomerBatch(int customerId, long afterId, int limit, ErasureMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("mode is required");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+
+        InteractionLogRepositoryCustom.ErasedBatch erased = shards.isEnabled()
+                ? shards.eraseCustomerBatch(customerId, afterId, limit, mode)
+                : repository.eraseCustomerBatch(customerId, afterId, limit, mode);
+        if (!erased.ids().isEmpty()) {
+            eventPublisher.publishEvent(new InteractionsErasedEvent(customerId, mode, erased.ids(),
+                    erased.supportResponseHashes()));
+        }
+        return erased.ids();
+    }
+
+    @Override
+    public InteractionBulkUpdateResult updateAll(List<InteractionPatch> patches) {
+        if (CollectionUtils.isEmpty(patches)) {
+            throw new IllegalArgumentException("updates must not be empty");
+        }
+        if (patches.size() > InteractionBulkUpdateRequest.MAX_UPDATES) {
+            throw new IllegalArgumentException("At most %d interactions may be updated at once"
+                    .formatted(InteractionBulkUpdateRequest.MAX_UPDATES));
+        }
+        patches.forEach(InteractionServiceImpl::validatePatch);
+
+        InteractionBulkUpdateResult result;
+        if (shards.isEnabled()) {
+            result = shards.update(patches);
+        } else {
+            // resolved before the update takes its row locks, in the same transaction
+            List<Long> responseIds = supportResponseResolver.resolveIds(patches.stream()
+                    .map(InteractionPatch::getResponsesFromCustomerSupport)
+                    .toList());
+            result = repository.updateBatch(patches, responseIds);
+        }
+        if (!result.getUpdated().isEmpty()) {
+            eventPublisher.publishEvent(new InteractionsUpdatedEvent(result.getUpdated(),
+                    appliedPatches(patches, result.getUpdated())));
+        }
+        return result;
+    }
+
+    private boolean isFastCsvDecoder() {
+        return ingestionProperties.getCsvDecoder() == IngestionProperties.CsvDecoder.FAST;
+    }
+
+    /**
+     * All rows of the file decoded with {@link InteractionCsvDecoder}, or {@code null} when the decoder rejects the
+     * file and OpenCSV should try it.
+     */
+    private static List<InteractionLogDto> decodeCsv(MultipartFile file) {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            List<InteractionLogDto> rows = new ArrayList<>();
+            InteractionCsvDecoder.open(reader).forEachRemaining(rows::add);
+            return rows;
+        } catch (CsvFormatException e) {
+            log.debug("Parsing {} with OpenCSV: {}", file.getOriginalFilename(), e.getMessage());
+            return null;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read CSV file", e);
+        } catch (UncheckedIOException e) {
+            throw new IllegalArgumentException("Unable to read CSV file", e.getCause());
+        }
+    }
+
+    /**
+     * The next parsed row, which follows {@code row} rows already read; {@code null} at the end of the stream.
+     */
+    private static InteractionLogDto nextRow(Iterator<InteractionLogDto> rows, long row) {
+        try {
+            return rows.hasNext() ? rows.next() : null;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Failed to parse CSV row " + (row + 1) + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Inserts and commits a batch that ends with the {@code records}-th record of its stream, and passes that count to
+     * {@code checkpoint} in the batch's transaction. Sharded batches commit on their shards and take no checkpoint.
+     */
+    private int insertCommitted(List<InteractionLogDto> batch, long records, LongConsumer checkpoint) {
+        validateDtos(batch);
+        if (shards.isEnabled()) {
+            List<InteractionLog> entities = shards.insert(batch);
+            eventPublisher.publishEvent(new InteractionsCreatedEvent(entities));
+            return entities.size();
+        }
+        List<InteractionLog> entities = batch.stream()
+                .map(mapper::toEntity)
+                .toList();
+        writeTransaction.executeWithoutResult(status -> {
+            supportResponseResolver.resolveAll(entities);
+            repository.insertBatch(entities);
+            checkpoint.accept(records);
+            eventPublisher.publishEvent(new InteractionsCreatedEvent(entities));
         });
+        return entities.size();
+    }
 
-        if (criteria.getProductId() != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("productId"), criteria.getProductId()));
+    private int insertInTransaction(List<InteractionLogDto> batch) {
+        validateDtos(batch);
+        List<InteractionLog> entities = insert(batch);
+        eventPublisher.publishEvent(new InteractionsCreatedEvent(entities));
+        return entities.size();
+    }
+
+    /**
+     * Inserts the rows on their shards when sharding is enabled, otherwise in the primary with one batched statement.
+     */
+    private List<InteractionLog> insert(List<InteractionLogDto> dtos) {
+        if (shards.isEnabled()) {
+            return shards.insert(dtos);
         }
-        if (criteria.getInteractionType() != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("interactionType"), criteria.getInteractionType()));
+        List<InteractionLog> entities = dtos.stream()
+                .map(mapper::toEntity)
+                .toList();
+        supportResponseResolver.resolveAll(entities);
+        repository.insertBatch(entities);
+        return entities;
+    }
+
+    /**
+     * The patch behind each updated interaction. Both lists are in request order, and an applied patch wrote the
+     * version after its own, which tells repeated patches of one interaction apart.
+     */
+    private static List<InteractionPatch> appliedPatches(List<InteractionPatch> patches,
+                                                         List<InteractionVersion> updated) {
+        List<InteractionPatch> applied = new ArrayList<>(updated.size());
+        Iterator<InteractionPatch> candidates = patches.iterator();
+        for (InteractionVersion version : updated) {
+            InteractionPatch patch = candidates.next();
+            while (!patch.getId().equals(version.getId()) || patch.getVersion() + 1 != version.getVersion()) {
+                patch = candidates.next();
+            }
+            applied.add(patch);
         }
+        return applied;
+    }
 
-        LocalDateTime start = criteria.getStartDate();
-        LocalDateTime end = criteria.getEndDate();
-        if (start != null) {
-            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("interactionDate"), start));
+    /**
+     * Rejects patches that are incomplete, contradict themselves or would bump the version without changing anything.
+     */
+    private static void validatePatch(InteractionPatch patch) {
+        if (patch == null || patch.getId() == null || patch.getVersion() == null) {
+            throw new IllegalArgumentException("Every update needs an id and a version");
+        }
+        if (patch.isClearFeedback() && patch.getFeedback() != null) {
+            throw new IllegalArgumentException("Update of interaction %d both sets and clears feedback"
+                    .formatted(patch.getId()));
+        }
+        if (patch.isClearResponsesFromCustomerSupport() && patch.getResponsesFromCustomerSupport() != null) {
+            throw new IllegalArgumentException("Update of interaction %d both sets and clears %s"
+                    .formatted(patch.getId(), "responsesFromCustomerSupport"));
+        }
+        if ("".equals(patch.getResponsesFromCustomerSupport())) {
+            throw new IllegalArgumentException(("Update of interaction %d has an empty responsesFromCustomerSupport; "
+                    + "use clearResponsesFromCustomerSupport to remove it").formatted(patch.getId()));
         }
-        if (end != null) {
-            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("interactionDate"), end));
+        if (patch.getFeedback() == null && patch.getResponsesFromCustomerSupport() == null && !patch.isClearFeedback()
+                && !patch.isClearResponsesFromCustomerSupport()) {
+            throw new IllegalArgumentException("Update of interaction %d changes nothing".formatted(patch.getId()));
         }
-        return spec;
     }
 
     //todo refactor to use bean validation, not sure if OpenCSV supports it.
@@ -149,9 +491,24 @@ public class InteractionServiceImpl implements InteractionService {
             if (dto == null) {
                 throw new IllegalArgumentException("Interaction entry must not be null");
             }
-            Objects.requireNonNull(dto.getProductId(), "productId is required");
-            Objects.requireNonNull(dto.getCustomerId(), "customerId is required");
-            Objects.requireNonNull(dto.getInteractionType(), "interactionType is required");
+            if (dto.getProductId() == null) {
+                throw new IllegalArgumentException("productId is required");
+            }
+            if (dto.getCustomerId() == null) {
+                throw new IllegalArgumentException("customerId is required");
+            }
+            if (dto.getInteractionType() == null) {
+                throw new IllegalArgumentException("interactionType is required");
+            }
         });
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface BatchInsert {
+
+        /**
+         * Inserts a batch that ends with the {@code records}-th record of its stream and returns the rows inserted.
+         */
+        int insert(List<InteractionLogDto> batch, long records);
+    }
+}
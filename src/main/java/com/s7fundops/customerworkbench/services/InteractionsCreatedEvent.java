@@ -0,0 +1,14 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+
+import java.util.List;
+
+/**
+ * Published for every write that creates interactions. Listeners that must only see committed rows use
+ * {@code @TransactionalEventListener}.
+ *
+ * @param interactions the persisted entities, in insertion order
+ */
+public record InteractionsCreatedEvent(List<InteractionLog> interactions) {
+}
@@ -0,0 +1,19 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.model.ErasureMode;
+
+import java.util.List;
+
+/**
+ * Published for every batch of a customer's interactions that was deleted or redacted. Listeners holding copies or
+ * aggregates of interactions drop them once the batch's transaction has completed, whether it committed or not:
+ * dropping is always safe, and sharded rows are already committed on their shard when the primary rolls back.
+ *
+ * @param customerId            the customer whose interactions were erased
+ * @param mode                  whether the rows were deleted or only had their free text cleared
+ * @param ids                   ids of the erased interactions, in ascending order
+ * @param supportResponseHashes content hashes of the support response texts deleted with them
+ */
+public record InteractionsErasedEvent(int customerId, ErasureMode mode, List<Long> ids,
+                                      List<String> supportResponseHashes) {
+}
@@ -0,0 +1,17 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.model.InteractionPatch;
+import com.s7fundops.customerworkbench.model.InteractionVersion;
+
+import java.util.List;
+
+/**
+ * Published for every bulk update that changed interactions. Like {@link InteractionsErasedEvent}, caches drop their
+ * copies once the transaction has completed, whether it committed or not; the change feed applies the patches to the
+ * copies it holds once the transaction has committed.
+ *
+ * @param interactions the updated interactions with their customer and new version
+ * @param patches      the patch applied to each of {@code interactions}, at the same position
+ */
+public record InteractionsUpdatedEvent(List<InteractionVersion> interactions, List<InteractionPatch> patches) {
+}
@@ -0,0 +1,74 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One customer's newest interactions, newest first, and the customer's total interaction count. Immutable: updates
+ * return a new instance so readers never see a half-merged list.
+ *
+ * @param recent up to the ring size newest interactions, ordered by interaction date then id, both descending
+ * @param total  all interactions of the customer, including those no longer held
+ */
+record RecentInteractions(List<InteractionLogDto> recent, long total) {
+
+    static final Comparator<InteractionLogDto> NEWEST_FIRST = Comparator
+            .comparing(InteractionLogDto::getInteractionDate, Comparator.reverseOrder())
+            .thenComparing(InteractionLogDto::getId, Comparator.reverseOrder());
+
+    /**
+     * Rough heap cost of one held interaction without its strings: the DTO, boxed fields, the date and list slot.
+     */
+    private static final int INTERACTION_OVERHEAD_BYTES = 160;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    /**
+     * Merges newly committed interactions and drops whatever no longer fits. A load that ran between their commit and
+     * this merge already holds and counts them, so interactions already held are skipped. Returns {@code null} when
+     * one would sort after everything held while older interactions are not held: the load may have counted it
+     * without holding it, so the customer has to be read again.
+     */
+    RecentInteractions with(List<InteractionLogDto> added, int capacity) {
+        Set<Long> held = new HashSet<>();
+        recent.forEach(interaction -> held.add(interaction.getId()));
+        List<InteractionLogDto> fresh = added.stream()
+                .filter(interaction -> !held.contains(interaction.getId()))
+                .toList();
+        if (recent.size() < total && fresh.stream()
+                .anyMatch(interaction -> recent.isEmpty() || NEWEST_FIRST.compare(interaction, recent.getLast()) > 0)) {
+            return null;
+        }
+
+        List<InteractionLogDto> merged = new ArrayList<>(recent.size() + fresh.size());
+        merged.addAll(recent);
+        merged.addAll(fresh);
+        merged.sort(NEWEST_FIRST);
+        return new RecentInteractions(List.copyOf(merged.subList(0, Math.min(capacity, merged.size()))),
+                total + fresh.size());
+    }
+
+    /**
+     * Whether rows {@code [offset, offset + size)} of the customer's newest-first list are all known.
+     */
+    boolean covers(long offset, int size) {
+        return offset + size <= recent.size() || recent.size() >= total;
+    }
+
+    int weigh() {
+        int bytes = 64;
+        for (InteractionLogDto interaction : recent) {
+            bytes += INTERACTION_OVERHEAD_BYTES + weigh(interaction.getFeedback())
+                    + weigh(interaction.getResponsesFromCustomerSupport());
+        }
+        return bytes;
+    }
+
+    private static int weigh(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+}
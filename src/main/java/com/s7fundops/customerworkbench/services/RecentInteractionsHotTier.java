@@ -0,0 +1,291 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.s7fundops.customerworkbench.config.HotTierProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionVersion;
+import com.s7fundops.customerworkbench.model.SearchPage;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the newest interactions of active customers in memory so the agent view of a customer (the first pages of
+ * a customer-only search, newest first) needs no database round trip.
+ * <p>
+ * Customers are loaded on first lookup and at startup, then kept current from {@link InteractionsCreatedEvent}s
+ * after each commit. The map is a Caffeine cache bounded by the estimated heap size of the held interactions, so
+ * rarely used customers are evicted first. Loads and updates of customers hashing to the same stripe are ordered
+ * through a per-stripe modification count: a load that raced with a commit for its stripe answers its own request
+ * but is not kept, because its snapshot may predate that commit.
+ * <p>
+ * The order of interactions without a date differs between databases, so customers with undated interactions
+ * among their newest are never held and always searched in the database.
+ */
+@Slf4j
+@Component
+public class RecentInteractionsHotTier {
+
+    private static final int STRIPES = 64;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("interactionDate"), Sort.Order.desc("id"));
+
+    private final InteractionLogRepository repository;
+    private final InteractionLogMapper mapper;
+    private final HotTierProperties properties;
+    private final TransactionTemplate loadTransaction;
+    private final Cache<Integer, RecentInteractions> customers;
+    private final AtomicLongArray modifications = new AtomicLongArray(STRIPES);
+
+    private final Counter hits;
+    private final Counter loads;
+    private final Counter misses;
+
+    public RecentInteractionsHotTier(InteractionLogRepository repository, InteractionLogMapper mapper,
+                                     HotTierProperties properties, PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.properties = properties;
+        // read-write on purpose: loads must come from the primary, a lagging replica would leave rows out for good
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.customers = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxMemory().toBytes())
+                .weigher((Integer customerId, RecentInteractions recent) -> recent.weigh())
+                .build();
+
+        this.hits = lookups(meterRegistry, "hit");
+        this.loads = lookups(meterRegistry, "loaded");
+        this.misses = lookups(meterRegistry, "miss");
+        Gauge.builder("workbench.hot_tier.customers", customers, Cache::estimatedSize)
+                .description("Customers held in the hot tier")
+                .register(meterRegistry);
+        Gauge.builder("workbench.hot_tier.weight", customers, cache -> cache.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L))
+                        .orElse(0L))
+                .description("Estimated heap held by the hot tier")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * The requested page when the search filters on the customer only, sorts newest first and ends within the ring
+     * size; empty when the database has to answer.
+     */
+    public Optional<Page<InteractionLogDto>> find(InteractionSearchCriteria criteria, Pageable pageable) {
+        if (!isServable(criteria, pageable)) {
+            return Optional.empty();
+        }
+
+        Integer customerId = criteria.getCustomerId();
+        RecentInteractions recent = customers.getIfPresent(customerId);
+        Counter outcome = hits;
+        if (recent == null) {
+            recent = load(customerId);
+            outcome = loads;
+        }
+        if (recent == null || !recent.covers(pageable.getOffset(), pageable.getPageSize())) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        outcome.increment();
+        List<InteractionLogDto> held = recent.recent();
+        int from = (int) Math.min(pageable.getOffset(), held.size());
+        int to = Math.min(from + pageable.getPageSize(), held.size());
+        return Optional.of(new SearchPage<>(held.subList(from, to), pageable, recent.total(), true));
+    }
+
+    /**
+     * Merges committed interactions into the customers already held; others are loaded on their next lookup.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionsCreated(InteractionsCreatedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        // bump the stripes before looking at the map, so a load that installs after this point is discarded
+        boolean[] touched = new boolean[STRIPES];
+        for (InteractionLog interaction : event.interactions()) {
+            touched[stripe(interaction.getCustomerId())] = true;
+        }
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            if (touched[stripe]) {
+                modifications.incrementAndGet(stripe);
+            }
+        }
+
+        Map<Integer, List<InteractionLogDto>> heldCustomers = new HashMap<>();
+        for (InteractionLog interaction : event.interactions()) {
+            if (customers.asMap().containsKey(interaction.getCustomerId())) {
+                heldCustomers.computeIfAbsent(interaction.getCustomerId(), id -> new ArrayList<>())
+                        .add(mapper.toDto(interaction));
+            }
+        }
+        heldCustomers.forEach((customerId, added) -> customers.asMap().computeIfPresent(customerId,
+                (id, recent) -> hasUndated(added) ? null : recent.with(added, properties.getRingSize())));
+    }
+
+    /**
+     * Drops the customers whose interactions were deleted or redacted; they are read again on their next lookup.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onInteractionsErased(InteractionsErasedEvent event) {
+        evict(event.customerId());
+    }
+
+    /**
+     * Drops the customers whose interactions were updated; they are read again on their next lookup.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onInteractionsUpdated(InteractionsUpdatedEvent event) {
+        event.interactions().stream()
+                .map(InteractionVersion::getCustomerId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(this::evict);
+    }
+
+    /**
+     * Forgets what is held for the customer. A load that is in flight for the customer's stripe is not kept either,
+     * since it may have read the rows before the change that led to the eviction.
+     */
+    public void evict(int customerId) {
+        modifications.incrementAndGet(stripe(customerId));
+        customers.invalidate(customerId);
+    }
+
+    /**
+     * Loads the most recently active customers in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (isEnabled() && properties.getWarmCustomers() > 0) {
+            Thread.ofVirtual().name("hot-tier-warm-up").start(this::warm);
+        }
+    }
+
+    void warm() {
+        long started = System.nanoTime();
+        try {
+            List<Integer> customerIds = loadTransaction.execute(status ->
+                    repository.findRecentlyActiveCustomerIds(PageRequest.of(0, properties.getWarmCustomers())));
+            int warmed = 0;
+            for (Iterator<Integer> ids = customerIds.iterator(); ids.hasNext() && isBelowCapacity(); ) {
+                Integer customerId = ids.next();
+                if (!customers.asMap().containsKey(customerId) && load(customerId) != null) {
+                    warmed++;
+                }
+            }
+            log.info("Warmed the hot tier with {} customers in {} ms", warmed, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Hot tier warm-up failed; customers will be loaded on first lookup", e);
+        }
+    }
+
+    /**
+     * Reads the customer's newest interactions and keeps them unless a commit for the same stripe happened
+     * meanwhile. Returns {@code null} for customers that cannot be held.
+     */
+    private RecentInteractions load(Integer customerId) {
+        int stripe = stripe(customerId);
+        long modificationsBefore = modifications.get(stripe);
+        InteractionSearchCriteria criteria = InteractionSearchCriteria.builder().customerId(customerId).build();
+        Page<InteractionLogDto> newest = loadTransaction.execute(status ->
+                repository.searchDtos(criteria, PageRequest.of(0, properties.getRingSize(), NEWEST_FIRST)));
+        if (newest == null || hasUndated(newest.getContent())) {
+            return null;
+        }
+
+        RecentInteractions loaded = new RecentInteractions(List.copyOf(newest.getContent()), newest.getTotalElements());
+        customers.asMap().compute(customerId, (id, held) -> {
+            if (held != null) {
+                return held;
+            }
+            return modifications.get(stripe) == modificationsBefore ? loaded : null;
+        });
+        return loaded;
+    }
+
+    private boolean isServable(InteractionSearchCriteria criteria, Pageable pageable) {
+        return isEnabled()
+                && criteria.getCustomerId() != null
+                && criteria.getProductId() == null
+                && criteria.getInteractionType() == null
+                && criteria.getStartDate() == null
+                && criteria.getEndDate() == null
+                && pageable.isPaged()
+                && pageable.getOffset() + pageable.getPageSize() <= properties.getRingSize()
+                && isNewestFirst(pageable.getSort());
+    }
+
+    /**
+     * {@code interactionDate desc}, optionally followed by {@code id desc}; ties on the date are then returned by
+     * descending id, which is one of the orders the database may return.
+     */
+    private static boolean isNewestFirst(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext() || !isDescending(orders.next(), "interactionDate")) {
+            return false;
+        }
+        return !orders.hasNext() || (isDescending(orders.next(), "id") && !orders.hasNext());
+    }
+
+    private static boolean isDescending(Sort.Order order, String property) {
+        return order.getProperty().equals(property)
+                && order.isDescending()
+                && order.getNullHandling() == Sort.NullHandling.NATIVE;
+    }
+
+    private boolean isBelowCapacity() {
+        return customers.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L) < eviction.getMaximum() * 9 / 10)
+                .orElse(true);
+    }
+
+    private static boolean hasUndated(List<InteractionLogDto> interactions) {
+        return interactions.stream().anyMatch(interaction -> interaction.getInteractionDate() == null);
+    }
+
+    private static int stripe(Integer customerId) {
+        int hash = customerId.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("workbench.hot_tier.lookups")
+                .description("Customer searches eligible for the hot tier")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,156 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resolves support response text to the id of its {@link SupportResponse} dictionary row, inserting the rows of texts
+ * not seen before.
+ * <p>
+ * All texts of a batch are looked up with one query and the missing ones inserted with one batched statement, on the
+ * caller's connection and in the caller's transaction, so a writer never needs a second connection from the pool.
+ * On PostgreSQL the insert is {@code on conflict do nothing}: a concurrent writer of the same text waits for the first
+ * one to commit instead of failing, and texts are inserted in hash order so two batches cannot deadlock each other.
+ * Other databases insert where no row exists yet, which is enough for a single writer.
+ * <p>
+ * An erasure deletes texts no interaction refers to any more, so ids are never remembered beyond the caller's
+ * transaction: an id held over from an earlier one may belong to a deleted row and fail the foreign key. On PostgreSQL
+ * the rows found are locked {@code for share}, in hash order, until the caller commits, so an erasure cannot delete a
+ * text between its lookup and the insert or update that links it.
+ */
+@Component
+public class SupportResponseResolver {
+
+    private static final String FIND_SQL = """
+            select content_hash, id from support_response where content_hash in (%s) order by content_hash
+            """;
+
+    private static final String LOCK_SUFFIX = " for share";
+
+    private static final String UPSERT_SQL = """
+            insert into support_response (content_hash, content) values (?, ?) on conflict (content_hash) do nothing
+            """;
+
+    private static final String INSERT_MISSING_SQL = """
+            insert into support_response (content_hash, content)
+            select ?, ? where not exists (select 1 from support_response where content_hash = ?)
+            """;
+
+    /**
+     * Hashes per lookup query, well below the bind parameter limits of the supported databases.
+     */
+    private static final int LOOKUP_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public SupportResponseResolver(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the dictionary id on every entity's unresolved support response.
+     */
+    public void resolveAll(List<InteractionLog> entities) {
+        Map<String, String> contents = new TreeMap<>();
+        for (InteractionLog entity : entities) {
+            SupportResponse response = entity.getSupportResponse();
+            if (response != null && response.getId() == null) {
+                contents.put(response.getContentHash(), response.getContent());
+            }
+        }
+        if (contents.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> ids = ids(contents);
+        for (InteractionLog entity : entities) {
+            SupportResponse response = entity.getSupportResponse();
+            if (response != null && response.getId() == null) {
+                response.setId(ids.get(response.getContentHash()));
+            }
+        }
+    }
+
+    /**
+     * The dictionary id of each text, in order; {@code null} for missing or empty text.
+     */
+    public List<Long> resolveIds(List<String> texts) {
+        Map<String, String> contents = new TreeMap<>();
+        List<String> hashes = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            String hash = text == null || text.isEmpty() ? null : SupportResponse.contentHash(text);
+            hashes.add(hash);
+            if (hash != null) {
+                contents.put(hash, text);
+            }
+        }
+
+        Map<String, Long> ids = contents.isEmpty() ? Map.of() : ids(contents);
+        List<Long> resolved = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            resolved.add(hash != null ? ids.get(hash) : null);
+        }
+        return resolved;
+    }
+
+    /**
+     * The ids of the texts, by hash. The texts come sorted by hash, so inserts lock their rows in a consistent order.
+     */
+    private Map<String, Long> ids(Map<String, String> contents) {
+        List<String> hashes = List.copyOf(contents.keySet());
+        Map<String, Long> ids = find(hashes);
+        List<String> missing = hashes.stream().filter(hash -> !ids.containsKey(hash)).toList();
+        if (!missing.isEmpty()) {
+            insert(missing, contents);
+            ids.putAll(find(missing));
+        }
+        if (ids.size() < hashes.size()) {
+            throw new IllegalStateException("Support response texts could not be stored");
+        }
+        return ids;
+    }
+
+    private Map<String, Long> find(List<String> hashes) {
+        String lock = isPostgres() ? LOCK_SUFFIX : "";
+        Map<String, Long> found = new HashMap<>();
+        for (int from = 0; from < hashes.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = hashes.subList(from, Math.min(hashes.size(), from + LOOKUP_CHUNK));
+            jdbcTemplate.query(FIND_SQL.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?"))) + lock,
+                    (RowCallbackHandler) rs -> found.put(rs.getString(1), rs.getLong(2)), chunk.toArray());
+        }
+        return found;
+    }
+
+    private void insert(List<String> hashes, Map<String, String> contents) {
+        boolean upsert = isPostgres();
+        jdbcTemplate.batchUpdate(upsert ? UPSERT_SQL : INSERT_MISSING_SQL, hashes, hashes.size(), (ps, hash) -> {
+            ps.setString(1, hash);
+            ps.setString(2, contents.get(hash));
+            if (!upsert) {
+                ps.setString(3, hash);
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        Boolean known = postgres;
+        if (known == null) {
+            known = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                    con.getMetaData().getDatabaseProductName()));
+            postgres = known;
+        }
+        return known;
+    }
+}
@@ -0,0 +1,338 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import com.s7fundops.customerworkbench.config.ShardingProperties;
+import com.s7fundops.customerworkbench.config.UploadProperties;
+import com.s7fundops.customerworkbench.model.UploadSessionRequest;
+import com.s7fundops.customerworkbench.model.UploadState;
+import com.s7fundops.customerworkbench.model.UploadStatusDto;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import com.s7fundops.customerworkbench.services.NotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs resumable chunked uploads: opens {@link UploadSession}s, stores their chunks and starts ingesting each upload
+ * as soon as it is opened, so rows are committed while the rest of the file is still on its way.
+ * <p>
+ * Sessions live in memory with their chunks spooled to {@link UploadProperties#getDirectory()}. They survive
+ * client failures for {@link UploadProperties#getSessionTimeout()} of inactivity, but not a restart of the
+ * application; clients then open a new session. Each ingestion runs on its own virtual thread, which costs nothing
+ * while it waits for chunks, and their number is bounded by {@link UploadProperties#getMaxSessions()}. Ingestion
+ * commits in batches, so the rows before a failure stay ingested and the status reports how many there are.
+ * <p>
+ * A client that sends a {@link UploadSessionRequest#getResumeKey() resume key} can send the file again in a new
+ * session after the old one failed, expired or was lost with its instance, without duplicating rows. Ingestion
+ * records in {@link UploadCheckpoints} how many records each batch it commits ends with, in the batch's transaction,
+ * and a new session with the same key skips that many records before it inserts any. Only one session per key may
+ * run on an instance at a time. Sharded rows commit on their shards apart from the checkpoint, so with sharding
+ * enabled resume keys are ignored.
+ * <p>
+ * With distributed ingestion enabled, the receiving instance only cuts the file into work items of whole records as
+ * it arrives and queues them in the database, where the {@link IngestionWorker}s of all instances pick them up. It
+ * then follows their progress until every item is done or one has failed. Other instances answer status requests
+ * for the upload from the work items alone. A distributed upload with a resume key skips the pieces that match the
+ * byte span of an item an earlier upload with that key completed, and queues them as done.
+ */
+@Slf4j
+@Component
+public class ChunkedUploadManager implements DisposableBean {
+
+    private final InteractionService interactionService;
+    private final IngestionWorkQueue workQueue;
+    private final UploadCheckpoints checkpoints;
+    private final UploadProperties properties;
+    private final ShardingProperties sharding;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService ingestion = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+            .name("upload-ingestion-", 0)
+            .factory());
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("upload-session-sweeper")
+            .daemon(true)
+            .factory());
+
+    public ChunkedUploadManager(InteractionService interactionService, IngestionWorkQueue workQueue,
+                                UploadCheckpoints checkpoints, UploadProperties properties,
+                                ShardingProperties sharding, MeterRegistry meterRegistry) {
+        this.interactionService = interactionService;
+        this.workQueue = workQueue;
+        this.checkpoints = checkpoints;
+        this.properties = properties;
+        this.sharding = sharding;
+
+        long sweepMillis = Math.clamp(properties.getSessionTimeout().toMillis() / 4, 1_000, 60_000);
+        sweeper.scheduleWithFixedDelay(this::expireIdleSessions, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        sweeper.scheduleWithFixedDelay(this::purgeCheckpoints, 1, 60, TimeUnit.MINUTES);
+
+        Gauge.builder("workbench.uploads.active", this, ChunkedUploadManager::activeSessions)
+                .description("Chunked uploads receiving or ingesting")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens an upload session and starts its ingestion, which waits for the first chunk.
+     *
+     * @throws TooManyUploadsException when {@link UploadProperties#getMaxSessions()} uploads are already running
+     * @throws UploadConflictException when an upload with the same resume key is still running
+     */
+    public UploadStatusDto create(UploadSessionRequest request) {
+        long size = request.getSize();
+        if (size > properties.getMaxFileSize().toBytes()) {
+            throw new IllegalArgumentException("File must not be larger than " + properties.getMaxFileSize());
+        }
+        String resumeKey = StringUtils.hasText(request.getResumeKey()) && !sharding.isEnabled()
+                ? request.getResumeKey()
+                : null;
+
+        UploadSession session;
+        synchronized (sessions) {
+            if (activeSessions() >= properties.getMaxSessions()) {
+                throw new TooManyUploadsException("Too many uploads in progress, retry later");
+            }
+            if (resumeKey != null && sessions.values().stream()
+                    .anyMatch(running -> !running.isFinished() && resumeKey.equals(running.resumeKey()))) {
+                throw new UploadConflictException("An upload with this resume key is still in progress");
+            }
+            String id = UUID.randomUUID().toString();
+            try {
+                Files.createDirectories(properties.getDirectory());
+                session = new UploadSession(id, request.getFileName(), resumeKey, size,
+                        (int) properties.getChunkSize().toBytes(), properties.getDirectory().resolve(id + ".part"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to create upload spool file", e);
+            }
+            sessions.put(id, session);
+        }
+
+        long skip = 0;
+        if (resumeKey != null) {
+            try {
+                skip = checkpoints.open(session.id(), resumeKey);
+            } catch (RuntimeException e) {
+                sessions.remove(session.id());
+                session.fail(e.getMessage());
+                throw e;
+            }
+        }
+        long skipRecords = skip;
+        ingestion.execute(() -> ingest(session, skipRecords));
+        log.info("Opened upload {} for {} ({} bytes)", session.id(), request.getFileName(), size);
+        return session.status();
+    }
+
+    /**
+     * Stores one chunk and returns the updated status.
+     */
+    public UploadStatusDto writeChunk(String uploadId, int index, String sha256, InputStream body) throws IOException {
+        UploadSession session = find(uploadId);
+        session.write(index, sha256, body);
+        return session.status();
+    }
+
+    public UploadStatusDto status(String uploadId) {
+        if (workQueue.isEnabled() && !sessions.containsKey(uploadId)) {
+            return distributedStatus(uploadId);
+        }
+        UploadSession session = find(uploadId);
+        session.touch();
+        return session.status();
+    }
+
+    /**
+     * Discards the upload and its spooled chunks, and its work items not yet ingested. Rows already committed by its
+     * ingestion stay.
+     */
+    public void abort(String uploadId) {
+        UploadSession session = sessions.remove(uploadId);
+        if (session == null) {
+            throw new NotFoundException("Upload " + uploadId + " not found");
+        }
+        session.fail("Upload was aborted");
+        abortWorkItems(uploadId, "Upload was aborted");
+    }
+
+    private UploadSession find(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new NotFoundException("Upload " + uploadId + " not found");
+        }
+        return session;
+    }
+
+    /**
+     * Ingests the upload, skipping its first {@code skipRecords} records, which earlier uploads with its resume key
+     * committed.
+     */
+    private void ingest(UploadSession session, long skipRecords) {
+        if (session.isFinished()) {
+            return;
+        }
+        try (InputStream csv = session.openStream()) {
+            long ingested;
+            if (workQueue.isEnabled()) {
+                ingested = distribute(session, csv);
+            } else {
+                session.skipped(skipRecords);
+                ingested = interactionService.ingestCsvStream(csv, properties.getIngestBatchSize(), skipRecords,
+                        records -> checkpoint(session, records), session::ingested);
+            }
+            session.complete(ingested);
+            log.info("Ingested {} rows from upload {}", ingested, session.id());
+        } catch (IOException | RuntimeException e) {
+            if (!session.isFinished()) {
+                log.warn("Ingestion of upload {} failed", session.id(), e);
+                session.fail(e.getMessage());
+                abortWorkItems(session.id(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Queues the file's work items while its chunks arrive, then waits until the workers of all instances have
+     * ingested them, reporting their progress to the session.
+     */
+    private long distribute(UploadSession session, InputStream csv) throws IOException {
+        UploadProperties.Distributed distributed = properties.getDistributed();
+        Map<IngestionWorkQueue.Span, Long> ingestedSpans = session.resumeKey() != null
+                ? workQueue.ingestedSpans(session.resumeKey())
+                : Map.of();
+        long[] skipped = new long[1];
+        int items = CsvWorkItemSplitter.split(csv, (int) distributed.getItemSize().toBytes(), (header, piece) -> {
+            Long rows = ingestedSpans.get(new IngestionWorkQueue.Span(piece.start(), piece.end()));
+            if (rows != null) {
+                workQueue.skip(session.id(), header, piece);
+                skipped[0] += rows;
+                session.skipped(skipped[0]);
+                return;
+            }
+            workQueue.enqueue(session.id(), header, piece);
+            session.ingested(workQueue.progress(session.id()).ingested());
+        });
+        if (items == 0) {
+            throw new IllegalArgumentException("CSV file is empty or missing required header");
+        }
+        log.info("Queued upload {} as {} work items", session.id(), items);
+
+        while (true) {
+            IngestionWorkQueue.Progress progress = workQueue.progress(session.id());
+            session.ingested(progress.ingested());
+            if (progress.failed() > 0) {
+                throw new IllegalStateException(progress.error());
+            }
+            if (progress.isComplete()) {
+                return progress.ingested();
+            }
+            if (session.isFinished()) {
+                throw new IOException("Upload " + session.id() + " was closed");
+            }
+            try {
+                Thread.sleep(distributed.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for upload " + session.id());
+            }
+        }
+    }
+
+    /**
+     * The progress of an upload received by another instance, known only from its work items.
+     */
+    private UploadStatusDto distributedStatus(String uploadId) {
+        IngestionWorkQueue.Progress progress = workQueue.progress(uploadId);
+        if (progress.items() == 0) {
+            throw new NotFoundException("Upload " + uploadId + " not found");
+        }
+        UploadState state = progress.failed() > 0 ? UploadState.FAILED
+                : progress.isComplete() ? UploadState.COMPLETED
+                : UploadState.INGESTING;
+        return UploadStatusDto.builder()
+                .uploadId(uploadId)
+                .state(state)
+                .ingested(progress.ingested())
+                .error(progress.error())
+                .build();
+    }
+
+    private void checkpoint(UploadSession session, long records) {
+        if (session.resumeKey() != null) {
+            checkpoints.advance(session.id(), records);
+        }
+    }
+
+    private void purgeCheckpoints() {
+        try {
+            int purged = checkpoints.purge();
+            if (purged > 0) {
+                log.info("Deleted {} expired upload checkpoints", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Deleting expired upload checkpoints failed", e);
+        }
+    }
+
+    private void abortWorkItems(String uploadId, String reason) {
+        if (workQueue.isEnabled()) {
+            workQueue.abort(uploadId, reason);
+        }
+    }
+
+    private void expireIdleSessions() {
+        long idleSince = System.nanoTime() - properties.getSessionTimeout().toNanos();
+        sessions.forEach((id, session) -> {
+            if (session.isIdleSince(idleSince) && sessions.remove(id, session)) {
+                log.info("Discarding upload {} after {} of inactivity", id, properties.getSessionTimeout());
+                session.fail("Upload expired");
+                abortWorkItems(id, "Upload expired");
+            }
+        });
+    }
+
+    private long activeSessions() {
+        return sessions.values().stream()
+                .filter(session -> !session.isFinished())
+                .count();
+    }
+
+    @Override
+    public void destroy() {
+        sweeper.shutdownNow();
+        sessions.values().forEach(session -> {
+            if (session.isFinished()) {
+                return;
+            }
+            session.fail("Application is shutting down");
+            // a fully queued upload is finished by the other instances; a partial one must not be
+            try {
+                if (workQueue.isEnabled() && workQueue.progress(session.id()).total() == null) {
+                    workQueue.abort(session.id(), "Application is shutting down");
+                }
+            } catch (RuntimeException e) {
+                log.warn("Unable to abort the work items of upload {}", session.id(), e);
+            }
+        });
+        sessions.clear();
+        ingestion.shutdown();
+        try {
+            ingestion.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
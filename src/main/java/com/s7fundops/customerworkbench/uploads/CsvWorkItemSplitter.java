@@ -0,0 +1,99 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cuts a CSV file into pieces of whole records that can be ingested independently, each behind a copy of the
+ * header line.
+ * <p>
+ * Records end at a line feed outside quotes. Only the bytes {@code "} and {@code \n} matter for that, and both are
+ * ASCII, so the file is scanned as bytes without decoding it; an escaped quote toggles the quote state twice.
+ * Pieces are handed over one behind the input, so the last one can be marked as such.
+ */
+final class CsvWorkItemSplitter {
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private CsvWorkItemSplitter() {
+    }
+
+    /**
+     * A run of records, {@code start} inclusive and {@code end} exclusive in the file.
+     */
+    record Piece(int sequence, long start, long end, byte[] records, boolean last) {
+    }
+
+    @FunctionalInterface
+    interface PieceSink {
+        void accept(String header, Piece piece);
+    }
+
+    /**
+     * Reads the whole stream and hands each piece of at least {@code targetBytes} (the last may be smaller) to the
+     * sink, returning how many there were. A file without records has none.
+     */
+    static int split(InputStream csv, int targetBytes, PieceSink sink) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        byte[] buffer = new byte[READ_BUFFER_BYTES];
+        boolean inQuotes = false;
+        boolean inHeader = true;
+        boolean blank = true;
+        long position = 0;
+        long pieceStart = 0;
+        Piece pending = null;
+        String headerLine = null;
+        int sequence = 0;
+
+        int read;
+        while ((read = csv.read(buffer)) != -1) {
+            int from = 0;
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    if (inHeader) {
+                        header.write(buffer, from, i + 1 - from);
+                        headerLine = header.toString(StandardCharsets.UTF_8);
+                        inHeader = false;
+                        from = i + 1;
+                        pieceStart = position + i + 1;
+                    } else if (records.size() + i + 1 - from >= targetBytes) {
+                        records.write(buffer, from, i + 1 - from);
+                        from = i + 1;
+                        if (!blank) {
+                            if (pending != null) {
+                                sink.accept(headerLine, pending);
+                            }
+                            pending = new Piece(sequence++, pieceStart, position + i + 1, records.toByteArray(), false);
+                        }
+                        records.reset();
+                        blank = true;
+                        pieceStart = position + i + 1;
+                    }
+                    continue;
+                }
+                if (!inHeader && b != '\n' && b != '\r') {
+                    blank = false;
+                }
+            }
+            (inHeader ? header : records).write(buffer, from, read - from);
+            position += read;
+        }
+
+        if (!blank) {
+            if (pending != null) {
+                sink.accept(headerLine, pending);
+            }
+            pending = new Piece(sequence++, pieceStart, position, records.toByteArray(), false);
+        }
+        if (pending != null) {
+            sink.accept(headerLine, new Piece(pending.sequence(), pending.start(), pending.end(), pending.records(), true));
+        }
+        return sequence;
+    }
+}
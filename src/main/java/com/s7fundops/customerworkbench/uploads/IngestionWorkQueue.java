@@ -0,0 +1,297 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import com.s7fundops.customerworkbench.config.ShardingProperties;
+import com.s7fundops.customerworkbench.config.UploadProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Work items of distributed uploads in the {@code ingestion_work_item} table.
+ * <p>
+ * An item is {@code PENDING} until an instance claims it with {@code SELECT ... FOR UPDATE SKIP LOCKED}, which makes
+ * it {@code LEASED} to that instance until {@code lease_expires_at}. The holder renews the lease while it ingests and
+ * marks the item {@code DONE} in the transaction that inserts its rows. An item whose lease ran out, because its
+ * instance died or stalled, is claimed again by the next instance that looks. Every claim increments
+ * {@code attempts}, and renewals and completion only apply while owner and attempt still match, so an instance that
+ * lost its lease cannot complete the item behind its successor's back.
+ * <p>
+ * Lease times come from the clock of the instance that writes them, so instances should keep their clocks in sync.
+ * Sharded interactions commit on their shards apart from the item, so an item retried after a crash would insert its
+ * rows twice; the queue refuses to start with sharding enabled.
+ */
+@Component
+public class IngestionWorkQueue {
+
+    private static final String DONE = "DONE";
+    private static final String FAILED = "FAILED";
+
+    /**
+     * Length of the {@code error} column.
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String INSERT_SQL = """
+            insert into ingestion_work_item (upload_id, sequence, last_item, start_offset, end_offset, header, payload,
+                state, attempts, rows_ingested, date_created, date_updated)
+            values (?, ?, ?, ?, ?, ?, ?, 'PENDING', 0, 0, ?, ?)
+            """;
+
+    private static final String INSERT_DONE_SQL = """
+            insert into ingestion_work_item (upload_id, sequence, last_item, start_offset, end_offset, header, payload,
+                state, attempts, rows_ingested, date_created, date_updated)
+            values (?, ?, ?, ?, ?, ?, null, 'DONE', 0, 0, ?, ?)
+            """;
+
+    private static final String INGESTED_SPANS_SQL = """
+            select i.start_offset, i.end_offset, max(i.rows_ingested) from ingestion_work_item i
+            join upload_checkpoint c on c.upload_id = i.upload_id
+            where c.resume_key = ? and i.state = 'DONE'
+            group by i.start_offset, i.end_offset
+            """;
+
+    private static final String CLAIM_SQL = """
+            select id, upload_id, sequence, header, payload, attempts from ingestion_work_item
+            where state = 'PENDING' or state = 'LEASED' and lease_expires_at < ?
+            order by id
+            fetch first 1 rows only
+            for update skip locked
+            """;
+
+    private static final String LEASE_SQL = """
+            update ingestion_work_item set state = 'LEASED', lease_owner = ?, lease_expires_at = ?,
+                attempts = attempts + 1, date_updated = ?
+            where id = ?
+            """;
+
+    private static final String RENEW_SQL = """
+            update ingestion_work_item set lease_expires_at = ?, date_updated = ?
+            where id = ? and lease_owner = ? and attempts = ? and state = 'LEASED'
+            """;
+
+    private static final String FINISH_SQL = """
+            update ingestion_work_item set state = ?, rows_ingested = ?, error = ?, payload = null, lease_owner = null,
+                lease_expires_at = null, date_updated = ?
+            where id = ? and lease_owner = ? and attempts = ? and state = 'LEASED'
+            """;
+
+    private static final String RELEASE_SQL = """
+            update ingestion_work_item set state = 'PENDING', lease_owner = null, lease_expires_at = null,
+                date_updated = ?
+            where id = ? and lease_owner = ? and attempts = ? and state = 'LEASED'
+            """;
+
+    private static final String GIVE_UP_SQL = """
+            update ingestion_work_item set state = 'FAILED', error = ?, payload = null, lease_owner = null,
+                lease_expires_at = null, date_updated = ?
+            where id = ?
+            """;
+
+    private static final String ABORT_SQL = """
+            update ingestion_work_item set state = 'FAILED', error = ?, payload = null, lease_owner = null,
+                lease_expires_at = null, date_updated = ?
+            where upload_id = ? and state in ('PENDING', 'LEASED')
+            """;
+
+    private static final String PROGRESS_SQL = """
+            select count(*),
+                max(case when last_item then sequence + 1 end),
+                sum(case when state = 'DONE' then 1 else 0 end),
+                sum(case when state = 'FAILED' then 1 else 0 end),
+                coalesce(sum(rows_ingested), 0),
+                min(case when state = 'FAILED' then error end)
+            from ingestion_work_item
+            where upload_id = ?
+            """;
+
+    private static final String PURGE_SQL = """
+            delete from ingestion_work_item where state in ('DONE', 'FAILED') and date_updated < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UploadProperties.Distributed properties;
+    private final TransactionTemplate claimTransaction;
+    private final Clock clock;
+
+    public IngestionWorkQueue(JdbcTemplate jdbcTemplate, UploadProperties properties, ShardingProperties sharding,
+                              PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, properties, transactionManager, Clock.systemUTC());
+        if (isEnabled() && sharding.isEnabled()) {
+            throw new IllegalStateException(
+                    "workbench.uploads.distributed.enabled cannot be combined with workbench.sharding.enabled");
+        }
+    }
+
+    IngestionWorkQueue(JdbcTemplate jdbcTemplate, UploadProperties properties,
+                       PlatformTransactionManager transactionManager, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties.getDistributed();
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * A claimed item. Its rows are the header followed by the item's records.
+     */
+    public record WorkItem(long id, String uploadId, int sequence, String header, byte[] records, int attempt) {
+
+        public InputStream csv() {
+            return new SequenceInputStream(new ByteArrayInputStream(header.getBytes(StandardCharsets.UTF_8)),
+                    new ByteArrayInputStream(records));
+        }
+    }
+
+    /**
+     * How far the items of one upload are. {@code total} is unknown until the upload's last item was queued.
+     */
+    public record Progress(int items, Integer total, int done, int failed, long ingested, String error) {
+
+        public boolean isComplete() {
+            return total != null && done == total;
+        }
+    }
+
+    void enqueue(String uploadId, String header, CsvWorkItemSplitter.Piece piece) {
+        Timestamp now = now();
+        jdbcTemplate.update(INSERT_SQL, uploadId, piece.sequence(), piece.last(), piece.start(), piece.end(), header,
+                piece.records(), now, now);
+    }
+
+    /**
+     * Queues an item as done without its records, for a piece an earlier upload of the same file already ingested.
+     * It counts towards the upload's items but not its rows.
+     */
+    void skip(String uploadId, String header, CsvWorkItemSplitter.Piece piece) {
+        Timestamp now = now();
+        jdbcTemplate.update(INSERT_DONE_SQL, uploadId, piece.sequence(), piece.last(), piece.start(), piece.end(),
+                header, now, now);
+    }
+
+    /**
+     * The byte spans of the items that uploads under {@code resumeKey} completed, with the rows each ingested. Files
+     * cut with the same item size yield the same spans, so a piece of a new upload with one of them is already in.
+     */
+    Map<Span, Long> ingestedSpans(String resumeKey) {
+        Map<Span, Long> spans = new HashMap<>();
+        jdbcTemplate.query(INGESTED_SPANS_SQL, (RowCallbackHandler) rs ->
+                spans.put(new Span(rs.getLong(1), rs.getLong(2)), rs.getLong(3)), resumeKey);
+        return spans;
+    }
+
+    /**
+     * Leases the oldest item that is pending or whose lease has run out to {@code owner}. Items claimed
+     * {@code max-attempts} times already are failed instead.
+     */
+    public Optional<WorkItem> claim(String owner) {
+        while (true) {
+            ClaimResult result = claimTransaction.execute(status -> {
+                Timestamp now = now();
+                List<WorkItem> candidates = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new WorkItem(rs.getLong(1),
+                        rs.getString(2), rs.getInt(3), rs.getString(4), rs.getBytes(5), rs.getInt(6)), now);
+                if (candidates.isEmpty()) {
+                    return new ClaimResult(null, false);
+                }
+                WorkItem item = candidates.getFirst();
+                if (item.attempt() >= properties.getMaxAttempts()) {
+                    jdbcTemplate.update(GIVE_UP_SQL, "Gave up after %d attempts".formatted(item.attempt()), now, item.id());
+                    return new ClaimResult(null, true);
+                }
+                jdbcTemplate.update(LEASE_SQL, owner, leaseEnd(), now, item.id());
+                return new ClaimResult(new WorkItem(item.id(), item.uploadId(), item.sequence(), item.header(),
+                        item.records(), item.attempt() + 1), false);
+            });
+            if (result == null || !result.gaveUp()) {
+                return Optional.ofNullable(result != null ? result.item() : null);
+            }
+        }
+    }
+
+    /**
+     * Extends the lease; {@code false} when the item is no longer leased to this owner and attempt.
+     */
+    public boolean renew(WorkItem item, String owner) {
+        return jdbcTemplate.update(RENEW_SQL, leaseEnd(), now(), item.id(), owner, item.attempt()) == 1;
+    }
+
+    /**
+     * Marks the item done with its row count. Meant to run in the transaction that inserted the rows, which must
+     * roll back when this returns {@code false} because the lease was lost.
+     */
+    public boolean complete(WorkItem item, String owner, long rows) {
+        return jdbcTemplate.update(FINISH_SQL, DONE, rows, null, now(), item.id(), owner, item.attempt()) == 1;
+    }
+
+    /**
+     * Fails the item for good, and with it its upload.
+     */
+    public void fail(WorkItem item, String owner, String error) {
+        jdbcTemplate.update(FINISH_SQL, FAILED, 0, truncate(error), now(), item.id(), owner, item.attempt());
+    }
+
+    /**
+     * Hands the item back for another attempt, by this or another instance.
+     */
+    public void release(WorkItem item, String owner) {
+        jdbcTemplate.update(RELEASE_SQL, now(), item.id(), owner, item.attempt());
+    }
+
+    /**
+     * Fails the unfinished items of an upload. Items being ingested roll back when their holder completes them.
+     */
+    public void abort(String uploadId, String error) {
+        jdbcTemplate.update(ABORT_SQL, truncate(error), now(), uploadId);
+    }
+
+    public Progress progress(String uploadId) {
+        return jdbcTemplate.queryForObject(PROGRESS_SQL, (rs, rowNum) -> new Progress(rs.getInt(1),
+                rs.getObject(2, Integer.class), rs.getInt(3), rs.getInt(4), rs.getLong(5), rs.getString(6)), uploadId);
+    }
+
+    /**
+     * Deletes items that finished longer than {@code retention} ago.
+     */
+    public int purge() {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.from(clock.instant().minus(properties.getRetention())));
+    }
+
+    private Timestamp leaseEnd() {
+        Duration lease = properties.getLeaseDuration();
+        return Timestamp.from(clock.instant().plus(lease));
+    }
+
+    private Timestamp now() {
+        return Timestamp.from(Instant.now(clock));
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    /**
+     * Bytes {@code start} inclusive to {@code end} exclusive of an uploaded file.
+     */
+    record Span(long start, long end) {
+    }
+
+    private record ClaimResult(WorkItem item, boolean gaveUp) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import com.s7fundops.customerworkbench.config.UploadProperties;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claims work items of distributed uploads, whichever instance received them, and ingests them through
+ * {@link InteractionService#ingestCsvInTransaction}. Only runs with {@code workbench.uploads.distributed.enabled}.
+ * <p>
+ * Each of the {@code workers} loops over claim and ingest, and waits {@code poll-interval} when nothing is pending. An
+ * item's rows and its completion commit in one transaction, so a crash at any point leaves either both or neither,
+ * and the item is claimed again once its lease runs out. The lease is renewed at a third of its duration while the
+ * item is being ingested. Malformed rows fail the item and its upload; other errors hand the item back for another
+ * attempt.
+ */
+@Slf4j
+@Component
+public class IngestionWorker implements DisposableBean {
+
+    private static final long PURGE_INTERVAL_MINUTES = 60;
+
+    private final IngestionWorkQueue queue;
+    private final InteractionService interactionService;
+    private final UploadProperties properties;
+    private final TransactionTemplate itemTransaction;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+            .name("upload-work-item-", 0)
+            .factory());
+    private final ScheduledExecutorService housekeeping = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("upload-work-item-leases")
+            .daemon(true)
+            .factory());
+    private volatile boolean running;
+
+    private final Counter done;
+    private final Counter failed;
+    private final Counter retried;
+    private final Counter lost;
+
+    public IngestionWorker(IngestionWorkQueue queue, InteractionService interactionService,
+                           UploadProperties properties, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.interactionService = interactionService;
+        this.properties = properties;
+        this.itemTransaction = new TransactionTemplate(transactionManager);
+
+        this.done = workItems(meterRegistry, "done");
+        this.failed = workItems(meterRegistry, "failed");
+        this.retried = workItems(meterRegistry, "retried");
+        this.lost = workItems(meterRegistry, "lost");
+    }
+
+    /**
+     * Starts the workers once the application is ready, so the schema has been migrated.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!queue.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        int count = Math.max(1, properties.getDistributed().getWorkers());
+        for (int i = 0; i < count; i++) {
+            workers.execute(this::work);
+        }
+        housekeeping.scheduleWithFixedDelay(this::purge, 0, PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        log.info("Ingesting upload work items as {} with {} workers", owner, count);
+    }
+
+    /**
+     * Claims and ingests one item; {@code false} when none was waiting.
+     */
+    boolean runOnce() {
+        Optional<IngestionWorkQueue.WorkItem> claimed = queue.claim(owner);
+        claimed.ifPresent(this::ingest);
+        return claimed.isPresent();
+    }
+
+    private void work() {
+        long pollMillis = properties.getDistributed().getPollInterval().toMillis();
+        while (running) {
+            try {
+                if (!runOnce()) {
+                    Thread.sleep(pollMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Claiming upload work items failed", e);
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void ingest(IngestionWorkQueue.WorkItem item) {
+        long renewMillis = Math.max(1, properties.getDistributed().getLeaseDuration().toMillis() / 3);
+        ScheduledFuture<?> renewal = housekeeping.scheduleWithFixedDelay(() -> renew(item), renewMillis, renewMillis,
+                TimeUnit.MILLISECONDS);
+        try {
+            Long rows = itemTransaction.execute(status -> {
+                long ingested = interactionService.ingestCsvInTransaction(item.csv(),
+                        properties.getIngestBatchSize());
+                if (!queue.complete(item, owner, ingested)) {
+                    throw new LeaseLostException();
+                }
+                return ingested;
+            });
+            done.increment();
+            log.debug("Ingested {} rows of item {} of upload {}", rows, item.sequence(), item.uploadId());
+        } catch (LeaseLostException e) {
+            lost.increment();
+            log.warn("Lost the lease on item {} of upload {}; its rows were rolled back", item.sequence(),
+                    item.uploadId());
+        } catch (IllegalArgumentException e) {
+            // malformed or incomplete rows, which no retry will fix
+            failed.increment();
+            queue.fail(item, owner, "Work item " + item.sequence() + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            retried.increment();
+            log.warn("Ingesting item {} of upload {} failed, handing it back", item.sequence(), item.uploadId(), e);
+            queue.release(item, owner);
+        } finally {
+            renewal.cancel(false);
+        }
+    }
+
+    private void renew(IngestionWorkQueue.WorkItem item) {
+        try {
+            if (!queue.renew(item, owner)) {
+                log.warn("Item {} of upload {} is no longer leased to {}", item.sequence(), item.uploadId(), owner);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Renewing the lease on item {} of upload {} failed", item.sequence(), item.uploadId(), e);
+        }
+    }
+
+    private void purge() {
+        try {
+            int purged = queue.purge();
+            if (purged > 0) {
+                log.info("Deleted {} finished upload work items", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Deleting finished upload work items failed", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        housekeeping.shutdownNow();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Counter workItems(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("workbench.uploads.work_items")
+                .description("Upload work items ingested by this instance, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Thrown in the item transaction to roll it back when another instance has taken the item over.
+     */
+    private static final class LeaseLostException extends RuntimeException {
+
+        LeaseLostException() {
+            super(null, null, false, false);
+        }
+    }
+}
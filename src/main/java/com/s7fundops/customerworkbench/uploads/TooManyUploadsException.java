@@ -0,0 +1,12 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TooManyUploadsException extends RuntimeException {
+
+    public TooManyUploadsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,81 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import com.s7fundops.customerworkbench.config.UploadProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * How far uploads sent under a resume key have been ingested, in the {@code upload_checkpoint} table.
+ * <p>
+ * Every upload with a resume key gets a row when it opens. Ingestion advances it in the transaction of each batch it
+ * commits, so the row never claims a record that rolled back nor misses one that committed. A later upload with the
+ * same key starts after the furthest checkpoint of its predecessors. Sharded rows cannot commit with the row, so
+ * uploads are not checkpointed while sharding is enabled. Rows are kept for
+ * {@link UploadProperties#getCheckpointRetention()} after their last update.
+ */
+@Component
+public class UploadCheckpoints {
+
+    private static final String INSERT_SQL = """
+            insert into upload_checkpoint (upload_id, resume_key, records_ingested, date_created, date_updated)
+            values (?, ?, ?, ?, ?)
+            """;
+
+    private static final String RECORDS_SQL = """
+            select coalesce(max(records_ingested), 0) from upload_checkpoint where resume_key = ?
+            """;
+
+    private static final String ADVANCE_SQL = """
+            update upload_checkpoint set records_ingested = ?, date_updated = ?
+            where upload_id = ? and records_ingested < ?
+            """;
+
+    private static final String PURGE_SQL = "delete from upload_checkpoint where date_updated < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UploadProperties properties;
+    private final Clock clock;
+
+    public UploadCheckpoints(JdbcTemplate jdbcTemplate, UploadProperties properties) {
+        this(jdbcTemplate, properties, Clock.systemUTC());
+    }
+
+    UploadCheckpoints(JdbcTemplate jdbcTemplate, UploadProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers an upload under its resume key and returns the records earlier uploads with that key committed.
+     */
+    public long open(String uploadId, String resumeKey) {
+        Long records = jdbcTemplate.queryForObject(RECORDS_SQL, Long.class, resumeKey);
+        Timestamp now = now();
+        jdbcTemplate.update(INSERT_SQL, uploadId, resumeKey, records, now, now);
+        return records;
+    }
+
+    /**
+     * Records that the upload's first {@code records} records are ingested. Meant to run in the transaction that
+     * committed the last of them.
+     */
+    public void advance(String uploadId, long records) {
+        jdbcTemplate.update(ADVANCE_SQL, records, now(), uploadId, records);
+    }
+
+    /**
+     * Deletes checkpoints not updated for the retention period.
+     */
+    public int purge() {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.from(clock.instant().minus(properties.getCheckpointRetention())));
+    }
+
+    private Timestamp now() {
+        return Timestamp.from(Instant.now(clock));
+    }
+}
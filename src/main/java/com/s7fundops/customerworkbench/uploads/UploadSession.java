@@ -0,0 +1,353 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import com.s7fundops.customerworkbench.model.ByteRange;
+import com.s7fundops.customerworkbench.model.UploadState;
+import com.s7fundops.customerworkbench.model.UploadStatusDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * One file being uploaded in fixed-size chunks. Chunks may arrive in any order and in parallel; each is written at
+ * its offset of a spool file and only counts as received once its SHA-256 matches the one the client sent.
+ * <p>
+ * {@link #openStream()} reads the file front to back while it is still arriving, blocking whenever it reaches the
+ * first chunk not yet received, so ingestion runs alongside the upload instead of after it. A chunk that has been
+ * received is never rewritten: a repeated chunk with the same checksum is acknowledged as is, a different one is
+ * refused.
+ */
+final class UploadSession {
+
+    private static final Pattern SHA_256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final String id;
+    private final String fileName;
+    private final String resumeKey;
+    private final long size;
+    private final int chunkSize;
+    private final int chunkCount;
+    private final Path file;
+    private final FileChannel channel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    private final BitSet received;
+    private final BitSet inFlight;
+    private final String[] checksums;
+    private long receivedBytes;
+    private long contiguousBytes;
+    private UploadState finalState;
+    private String error;
+    private boolean closed;
+
+    private volatile long skipped;
+    private volatile long ingested;
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    UploadSession(String id, String fileName, String resumeKey, long size, int chunkSize, Path file)
+            throws IOException {
+        this.id = id;
+        this.fileName = fileName;
+        this.resumeKey = resumeKey;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.chunkCount = Math.toIntExact((size + chunkSize - 1) / chunkSize);
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.received = new BitSet(chunkCount);
+        this.inFlight = new BitSet(chunkCount);
+        this.checksums = new String[chunkCount];
+    }
+
+    String id() {
+        return id;
+    }
+
+    /**
+     * The key under which the client resumes this file in a later session; {@code null} when it does not.
+     */
+    String resumeKey() {
+        return resumeKey;
+    }
+
+    /**
+     * Stores chunk {@code index} from {@code body} after checking its length and SHA-256.
+     *
+     * @throws IllegalArgumentException when the index, length or checksum is wrong
+     * @throws UploadConflictException  when the chunk is being written by another request, was received with a
+     *                                  different checksum, or the upload is no longer receiving
+     */
+    void write(int index, String sha256, InputStream body) throws IOException {
+        if (index < 0 || index >= chunkCount) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (chunkCount - 1));
+        }
+        String expected = sha256 == null ? "" : sha256.trim().toLowerCase(Locale.ROOT);
+        if (!SHA_256_HEX.matcher(expected).matches()) {
+            throw new IllegalArgumentException("Chunk checksum must be a hex-encoded SHA-256");
+        }
+        if (!reserve(index, expected)) {
+            return;
+        }
+
+        boolean stored = false;
+        try {
+            long offset = (long) index * chunkSize;
+            int length = chunkLength(index);
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[COPY_BUFFER_BYTES];
+            long written = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (written + read > length) {
+                    throw new IllegalArgumentException("Chunk " + index + " is longer than " + length + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer source = ByteBuffer.wrap(buffer, 0, read);
+                while (source.hasRemaining()) {
+                    written += channel.write(source, offset + written);
+                }
+            }
+            if (written != length) {
+                throw new IllegalArgumentException("Chunk " + index + " must be " + length + " bytes, got " + written);
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equals(expected)) {
+                throw new IllegalArgumentException("Checksum mismatch for chunk " + index);
+            }
+            stored = true;
+        } finally {
+            release(index, expected, stored);
+        }
+    }
+
+    /**
+     * A stream over the whole file that blocks at the first chunk not yet received and fails once the upload is
+     * closed. Meant for a single reader.
+     */
+    InputStream openStream() {
+        return new InputStream() {
+
+            private long position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                Objects.checkFromIndexSize(offset, length, bytes.length);
+                if (length == 0) {
+                    return 0;
+                }
+                long readable = awaitReadable(position);
+                if (readable < 0) {
+                    return -1;
+                }
+                int read = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, readable)), position);
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Records how many of the file's records earlier uploads of it had ingested, which this one skips.
+     */
+    void skipped(long records) {
+        skipped = records;
+    }
+
+    void ingested(long rows) {
+        ingested = rows;
+        touch();
+    }
+
+    void complete(long rows) {
+        ingested = rows;
+        finish(UploadState.COMPLETED, null);
+    }
+
+    void fail(String message) {
+        finish(UploadState.FAILED, message);
+    }
+
+    boolean isFinished() {
+        lock.lock();
+        try {
+            return finalState != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isIdleSince(long nanos) {
+        return lastActivityNanos - nanos < 0;
+    }
+
+    void touch() {
+        lastActivityNanos = System.nanoTime();
+    }
+
+    UploadStatusDto status() {
+        lock.lock();
+        try {
+            List<ByteRange> missing = new ArrayList<>();
+            int from = received.nextClearBit(0);
+            while (from < chunkCount) {
+                int to = received.nextSetBit(from);
+                if (to < 0) {
+                    to = chunkCount;
+                }
+                missing.add(new ByteRange((long) from * chunkSize, Math.min((long) to * chunkSize, size)));
+                from = received.nextClearBit(to);
+            }
+            return UploadStatusDto.builder()
+                    .uploadId(id)
+                    .fileName(fileName)
+                    .size(size)
+                    .chunkSize(chunkSize)
+                    .chunkCount(chunkCount)
+                    .state(state())
+                    .receivedBytes(receivedBytes)
+                    .missingRanges(missing)
+                    .skipped(skipped)
+                    .ingested(ingested)
+                    .error(error)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UploadState state() {
+        if (finalState != null) {
+            return finalState;
+        }
+        return received.cardinality() == chunkCount ? UploadState.INGESTING : UploadState.RECEIVING;
+    }
+
+    /**
+     * Claims the chunk for one writer; {@code false} when it was already received with the same checksum.
+     */
+    private boolean reserve(int index, String checksum) {
+        lock.lock();
+        try {
+            if (finalState != null) {
+                throw new UploadConflictException(finalState == UploadState.FAILED
+                        ? "Upload " + id + " has failed: " + error
+                        : "Upload " + id + " is already complete");
+            }
+            if (received.get(index)) {
+                if (!checksums[index].equals(checksum)) {
+                    throw new UploadConflictException("Chunk " + index + " was already received with a different checksum");
+                }
+                touch();
+                return false;
+            }
+            if (inFlight.get(index)) {
+                throw new UploadConflictException("Chunk " + index + " is already being uploaded");
+            }
+            inFlight.set(index);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(int index, String checksum, boolean stored) {
+        lock.lock();
+        try {
+            inFlight.clear(index);
+            if (!stored || closed) {
+                return;
+            }
+            received.set(index);
+            checksums[index] = checksum;
+            receivedBytes += chunkLength(index);
+            int next = received.nextClearBit(0);
+            contiguousBytes = Math.min((long) next * chunkSize, size);
+            touch();
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bytes that can be read at {@code position} without blocking, waiting for them if there are none yet;
+     * {@code -1} at the end of the file.
+     */
+    private long awaitReadable(long position) throws IOException {
+        lock.lock();
+        try {
+            while (!closed && position >= contiguousBytes && position < size) {
+                advanced.await();
+            }
+            if (closed) {
+                throw new IOException("Upload " + id + " was closed");
+            }
+            return position >= size ? -1 : contiguousBytes - position;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for upload " + id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(UploadState state, String message) {
+        lock.lock();
+        try {
+            if (finalState != null) {
+                return;
+            }
+            finalState = state;
+            error = message;
+            closed = true;
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        touch();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // the spool directory is temporary; a leftover file is not worth failing the upload for
+        }
+    }
+
+    private int chunkLength(int index) {
+        return (int) Math.min(chunkSize, size - (long) index * chunkSize);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Flyway migration: compact storage for interaction_log.
+ * <p>
+ * Replaces the {@code interaction_type} varchar with a smallint code and moves
+ * {@code responses_from_customer_support} into the {@code support_response} dictionary table, keyed by the SHA-256
+ * of the text, so each distinct response is stored once. Written in Java because the hash expression differs between
+ * PostgreSQL and H2; it must produce the same lowercase hex digest of the UTF-8 bytes as
+ * {@code SupportResponse#contentHash}.
+ * <p>
+ * The move is set-based: one {@code insert ... select} fills the dictionary with the first occurrence of each text,
+ * one {@code update} sets the type code and dictionary id of the rows with a response and another the type code of
+ * the rest, so each row is rewritten once. On PostgreSQL the updates still leave a dead copy of every row behind and
+ * the dropped columns keep their space, so after migrating a large table run {@code VACUUM FULL interaction_log} in a
+ * maintenance window, or {@code pg_repack --table=interaction_log} to rebuild it online. Neither can run inside
+ * Flyway's transaction.
+ * <p>
+ * Type codes are frozen here and must match {@code InteractionType#getCode()}.
+ */
+public class V3__compact_interaction_storage extends BaseJavaMigration {
+
+    private static final String POSTGRES_HASH = "encode(sha256(convert_to(%s, 'UTF8')), 'hex')";
+
+    private static final String H2_HASH = "lower(rawtohex(hash('SHA-256', stringtoutf8(%s))))";
+
+    private static final String TYPE_CODE = """
+            case interaction_type
+                when 'CHAT' then 0
+                when 'EMAIL' then 1
+                when 'TICKET' then 2
+                when 'FORM' then 3
+            end""";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        String hash = postgres ? POSTGRES_HASH : H2_HASH;
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("""
+                    create table support_response (
+                        id bigint generated by default as identity primary key,
+                        content_hash varchar(64) not null,
+                        content text not null,
+                        constraint uk_support_response_content_hash unique (content_hash)
+                    )""");
+            ddl.execute("alter table interaction_log add column interaction_type_code smallint");
+            ddl.execute("alter table interaction_log add column support_response_id bigint");
+
+            // texts are picked by hash rather than with distinct, which H2 cannot apply to LOBs
+            ddl.execute("""
+                    insert into support_response (content_hash, content)
+                    select content_hash, content from (
+                        select %s as content_hash, responses_from_customer_support as content,
+                            row_number() over (partition by %s order by id) as occurrence
+                        from interaction_log
+                        where responses_from_customer_support is not null
+                    ) texts
+                    where occurrence = 1""".formatted(
+                    hash.formatted("responses_from_customer_support"),
+                    hash.formatted("responses_from_customer_support")));
+
+            // PostgreSQL joins the dictionary once; H2 has no update ... from and looks each hash up by its index
+            ddl.execute(postgres
+                    ? """
+                    update interaction_log l set interaction_type_code = %s, support_response_id = r.id
+                    from support_response r
+                    where r.content_hash = %s""".formatted(
+                    TYPE_CODE.replace("interaction_type", "l.interaction_type"),
+                    hash.formatted("l.responses_from_customer_support"))
+                    : """
+                    update interaction_log set interaction_type_code = %s, support_response_id = (
+                        select r.id from support_response r where r.content_hash = %s
+                    )
+                    where responses_from_customer_support is not null""".formatted(
+                    TYPE_CODE, hash.formatted("interaction_log.responses_from_customer_support")));
+            ddl.execute("""
+                    update interaction_log set interaction_type_code = %s
+                    where responses_from_customer_support is null""".formatted(TYPE_CODE));
+
+            ddl.execute("drop index if exists idx_interaction_log_customer_timeline");
+            ddl.execute("alter table interaction_log alter column interaction_type_code set not null");
+            ddl.execute("alter table interaction_log drop column interaction_type");
+            ddl.execute("alter table interaction_log drop column responses_from_customer_support");
+            ddl.execute("""
+                    alter table interaction_log add constraint fk_interaction_log_support_response
+                        foreign key (support_response_id) references support_response (id)""");
+            ddl.execute("""
+                    create index idx_interaction_log_customer_timeline
+                        on interaction_log (customer_id, interaction_date, interaction_type_code, customer_rating)""");
+            ddl.execute("create index idx_interaction_log_support_response on interaction_log (support_response_id)");
+        }
+    }
+}
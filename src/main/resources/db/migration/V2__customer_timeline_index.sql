@@ -0,0 +1,3 @@
+-- Covering index for per-customer timelines: lets the timeline query be answered by an index-only scan.
+create index if not exists idx_interaction_log_customer_timeline
+    on interaction_log (customer_id, interaction_date, interaction_type, customer_rating);
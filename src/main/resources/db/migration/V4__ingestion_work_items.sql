@@ -0,0 +1,23 @@
+-- Flyway migration: pieces of uploaded CSV files that any instance can claim and ingest.
+-- Each item holds the file's header and a run of whole records; finished items keep their counts but not their bytes.
+create table ingestion_work_item (
+    id bigint generated by default as identity primary key,
+    upload_id varchar(64) not null,
+    sequence integer not null,
+    last_item boolean not null,
+    start_offset bigint not null,
+    end_offset bigint not null,
+    header text not null,
+    payload bytea,
+    state varchar(16) not null,
+    lease_owner varchar(128),
+    lease_expires_at timestamp,
+    attempts integer not null default 0,
+    rows_ingested bigint not null default 0,
+    error varchar(1000),
+    date_created timestamp not null,
+    date_updated timestamp not null,
+    constraint uk_ingestion_work_item_sequence unique (upload_id, sequence)
+);
+
+create index idx_ingestion_work_item_claim on ingestion_work_item (state, id);
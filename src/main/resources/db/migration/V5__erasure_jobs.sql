@@ -0,0 +1,22 @@
+-- Flyway migration: background jobs deleting or redacting all interactions of a customer in small batches.
+-- last_id is the keyset cursor: every interaction of the customer up to it has been processed.
+create table erasure_job (
+    id bigint generated by default as identity primary key,
+    customer_id integer not null,
+    mode varchar(16) not null,
+    state varchar(16) not null,
+    last_id bigint not null default 0,
+    processed bigint not null default 0,
+    lease_owner varchar(128),
+    lease_expires_at timestamp,
+    attempts integer not null default 0,
+    error varchar(1000),
+    date_created timestamp not null,
+    date_updated timestamp not null
+);
+
+create index idx_erasure_job_claim on erasure_job (state, id);
+create index idx_erasure_job_customer on erasure_job (customer_id);
+
+-- Walks a customer's interactions in id order without sorting them first.
+create index idx_interaction_log_customer_id on interaction_log (customer_id, id);
@@ -0,0 +1,12 @@
+-- Flyway migration: how far each chunked upload has been ingested, under the resume key its client sent, so a new
+-- session for the same file continues after the records an earlier one committed instead of ingesting them again.
+-- records_ingested counts the records of the file up to the last committed batch, including any the upload skipped.
+create table upload_checkpoint (
+    upload_id varchar(64) primary key,
+    resume_key varchar(512) not null,
+    records_ingested bigint not null default 0,
+    date_created timestamp not null,
+    date_updated timestamp not null
+);
+
+create index idx_upload_checkpoint_resume_key on upload_checkpoint (resume_key);
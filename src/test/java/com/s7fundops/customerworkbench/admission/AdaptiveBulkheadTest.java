@@ -0,0 +1,115 @@
+package com.s7fundops.customerworkbench.admission;
+
+import com.s7fundops.customerworkbench.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("rejects immediately once the limit and the queue are full")
+    void tryAcquire_rejectsWhenQueueFull() throws InterruptedException {
+        AdaptiveBulkhead bulkhead = bulkhead(2, 0, Duration.ofSeconds(1));
+
+        assertThat(bulkhead.tryAcquire()).isNotNull();
+        assertThat(bulkhead.tryAcquire()).isNotNull();
+        assertThat(bulkhead.tryAcquire()).isNull();
+        assertThat(meterRegistry.get("workbench.admission.rejected").tag("bulkhead", "test").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("queued requests time out after the maximum wait")
+    void tryAcquire_timesOutInQueue() throws InterruptedException {
+        AdaptiveBulkhead bulkhead = bulkhead(1, 1, Duration.ofMillis(50));
+        bulkhead.tryAcquire();
+
+        long started = System.nanoTime();
+        assertThat(bulkhead.tryAcquire()).isNull();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("a released permit admits a queued request")
+    void tryAcquire_admitsQueuedRequestOnRelease() throws Exception {
+        AdaptiveBulkhead bulkhead = bulkhead(1, 1, Duration.ofSeconds(5));
+        AdaptiveBulkhead.Permit first = bulkhead.tryAcquire();
+
+        CompletableFuture<AdaptiveBulkhead.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.tryAcquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (bulkhead.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        first.release(false);
+
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("limit grows under load while service time holds and shrinks once it rises")
+    void release_followsServiceTime() throws InterruptedException {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead("test", new AdmissionControlProperties.Bulkhead(4, 1, 10, 0,
+                Duration.ofMillis(10), 1.5), meterRegistry, clock::get);
+        bulkhead.tryAcquire();
+        bulkhead.tryAcquire();
+
+        serve(bulkhead, clock, Duration.ofMillis(10), 30);
+        double grown = bulkhead.getLimit();
+        assertThat(grown).isGreaterThan(4);
+
+        serve(bulkhead, clock, Duration.ofMillis(100), 30);
+        assertThat(bulkhead.getLimit()).isLessThan(grown);
+    }
+
+    @Test
+    @DisplayName("a failure backs the limit off")
+    void release_backsOffOnFailure() throws InterruptedException {
+        AdaptiveBulkhead bulkhead = bulkhead(4, 0, Duration.ofMillis(10));
+
+        bulkhead.tryAcquire().release(true);
+
+        assertThat(bulkhead.getLimit()).isEqualTo(4 * AdaptiveBulkhead.BACKOFF_RATIO);
+    }
+
+    @Test
+    @DisplayName("limit never drops below the minimum")
+    void release_respectsMinimum() throws InterruptedException {
+        AdaptiveBulkhead bulkhead = bulkhead(2, 0, Duration.ofMillis(10));
+
+        for (int i = 0; i < 20; i++) {
+            bulkhead.tryAcquire().release(true);
+        }
+
+        assertThat(bulkhead.getLimit()).isEqualTo(1);
+    }
+
+    private AdaptiveBulkhead bulkhead(int initialLimit, int queueSize, Duration maxQueueWait) {
+        return new AdaptiveBulkhead("test", new AdmissionControlProperties.Bulkhead(initialLimit, 1, 10, queueSize,
+                maxQueueWait, 1.5), meterRegistry);
+    }
+
+    private void serve(AdaptiveBulkhead bulkhead, AtomicLong clock, Duration serviceTime, int requests)
+            throws InterruptedException {
+        for (int i = 0; i < requests; i++) {
+            AdaptiveBulkhead.Permit permit = bulkhead.tryAcquire();
+            clock.addAndGet(serviceTime.toNanos());
+            permit.release(false);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.s7fundops.customerworkbench.admission;
+
+import com.s7fundops.customerworkbench.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveBulkhead ingestion = new AdaptiveBulkhead("ingestion",
+            new AdmissionControlProperties.Bulkhead(1, 1, 1, 0, Duration.ofSeconds(3), 1.5), meterRegistry);
+    private final AdaptiveBulkhead interactive = new AdaptiveBulkhead("interactive",
+            new AdmissionControlProperties.Bulkhead(4, 1, 8, 0, Duration.ofMillis(500), 1.5), meterRegistry);
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(ingestion, interactive);
+
+    @Test
+    @DisplayName("uploads beyond the ingestion limit get 429 with Retry-After while reads still pass")
+    void rejectsUploadsButAdmitsReads() throws Exception {
+        AdaptiveBulkhead.Permit held = ingestion.tryAcquire();
+
+        MockHttpServletResponse upload = new MockHttpServletResponse();
+        filter.doFilter(upload(), upload, new MockFilterChain());
+        MockHttpServletResponse search = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/interactions"), search, new MockFilterChain());
+
+        assertThat(upload.getStatus()).isEqualTo(429);
+        assertThat(upload.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(upload.getContentAsString()).contains("ingestion");
+        assertThat(search.getStatus()).isEqualTo(200);
+        held.release(false);
+    }
+
+    @Test
+    @DisplayName("releases the permit after the request completes")
+    void releasesPermit() throws Exception {
+        filter.doFilter(upload(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(ingestion.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("multipart POSTs and upload chunks count as ingestion")
+    void classifiesIngestion() {
+        MockHttpServletRequest json = new MockHttpServletRequest("POST", "/api/interactions");
+        json.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletRequest chunk = new MockHttpServletRequest("PUT", "/api/uploads/abc/chunks/3");
+        chunk.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        MockHttpServletRequest uploadStatus = new MockHttpServletRequest("GET", "/api/uploads/abc");
+
+        assertThat(AdmissionControlFilter.isIngestion(upload())).isTrue();
+        assertThat(AdmissionControlFilter.isIngestion(chunk)).isTrue();
+        assertThat(AdmissionControlFilter.isIngestion(json)).isFalse();
+        assertThat(AdmissionControlFilter.isIngestion(uploadStatus)).isFalse();
+    }
+
+    private static MockHttpServletRequest upload() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/interactions");
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=x");
+        return request;
+    }
+}
@@ -0,0 +1,120 @@
+package com.s7fundops.customerworkbench.bootstrap;
+
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InteractionDataGeneratorTest {
+
+    private static final long ROWS = InteractionDataGenerator.CHUNK_SIZE * 2L + 17;
+
+    private final GeneratorSettings settings = GeneratorSettings.builder()
+            .seed(7L)
+            .customers(1_000)
+            .customerSkew(1.1)
+            .build();
+
+    @Test
+    @DisplayName("same seed produces identical output regardless of thread count")
+    void writeTo_isDeterministicAcrossThreadCounts() throws IOException {
+        byte[] singleThreaded = write(new InteractionDataGenerator(settings), InteractionDataGenerator.Format.CSV, 1);
+        byte[] multiThreaded = write(new InteractionDataGenerator(settings), InteractionDataGenerator.Format.CSV, 4);
+
+        assertThat(multiThreaded).isEqualTo(singleThreaded);
+    }
+
+    @Test
+    @DisplayName("different seeds produce different output")
+    void writeTo_dependsOnSeed() throws IOException {
+        settings.setSeed(8L);
+        byte[] other = write(new InteractionDataGenerator(settings), InteractionDataGenerator.Format.NDJSON, 2);
+        settings.setSeed(7L);
+        byte[] original = write(new InteractionDataGenerator(settings), InteractionDataGenerator.Format.NDJSON, 2);
+
+        assertThat(other).isNotEqualTo(original);
+    }
+
+    @Test
+    @DisplayName("CSV output parses with the upload bindings and matches the batch output")
+    void writeTo_csvMatchesGeneratedBatches() throws IOException {
+        InteractionDataGenerator generator = new InteractionDataGenerator(settings);
+        String csv = new String(write(generator, InteractionDataGenerator.Format.CSV, 3), StandardCharsets.US_ASCII);
+
+        List<InteractionLogDto> parsed = new CsvToBeanBuilder<InteractionLogDto>(new StringReader(csv))
+                .withType(InteractionLogDto.class)
+                .build()
+                .parse();
+        List<InteractionLogDto> generated = new ArrayList<>();
+        generator.generate(ROWS, 1000, generated::addAll);
+
+        assertThat(parsed).hasSize((int) ROWS);
+        assertThat(parsed).usingRecursiveComparison().isEqualTo(generated);
+    }
+
+    @Test
+    @DisplayName("NDJSON output has one object per row")
+    void writeTo_ndjsonWritesOneLinePerRow() throws IOException {
+        String ndjson = new String(write(new InteractionDataGenerator(settings), InteractionDataGenerator.Format.NDJSON, 2),
+                StandardCharsets.US_ASCII);
+
+        assertThat(ndjson.lines()).hasSize((int) ROWS).allMatch(line -> line.startsWith("{\"productId\":"));
+    }
+
+    @Test
+    @DisplayName("batches are bounded by the batch size")
+    void generate_emitsBoundedBatches() {
+        List<Integer> sizes = new ArrayList<>();
+
+        new InteractionDataGenerator(settings).generate(25, 10, batch -> sizes.add(batch.size()));
+
+        assertThat(sizes).containsExactly(10, 10, 5);
+    }
+
+    @Test
+    @DisplayName("customer ids follow the configured skew and ranges")
+    void generate_respectsDistributions() {
+        List<InteractionLogDto> rows = new ArrayList<>();
+        new InteractionDataGenerator(settings).generate(20_000, 5_000, rows::addAll);
+
+        Map<Integer, Long> perCustomer = rows.stream()
+                .collect(Collectors.groupingBy(InteractionLogDto::getCustomerId, Collectors.counting()));
+        assertThat(perCustomer.keySet()).allMatch(id -> id >= 1 && id <= 1_000);
+        assertThat(perCustomer.get(1)).isGreaterThan(perCustomer.getOrDefault(500, 0L) * 10);
+        assertThat(rows).allMatch(row -> row.getFeedback().length() >= settings.getMinFeedbackLength());
+        assertThat(rows).allMatch(row -> !row.getInteractionDate().isBefore(settings.getStartDate().atStartOfDay()));
+        assertThat(rows.stream().map(InteractionLogDto::getResponsesFromCustomerSupport)
+                .collect(Collectors.toMap(Function.identity(), r -> 1, Integer::sum)))
+                .hasSizeLessThanOrEqualTo(settings.getResponseTemplates());
+    }
+
+    @Test
+    @DisplayName("rejects weights with the wrong number of entries")
+    void constructor_rejectsInvalidWeights() {
+        settings.setRatingWeights(new double[] {1, 2});
+
+        assertThatThrownBy(() -> new InteractionDataGenerator(settings))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ratingWeights");
+    }
+
+    private static byte[] write(InteractionDataGenerator generator, InteractionDataGenerator.Format format, int threads)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeTo(out, format, ROWS, threads);
+        return out.toByteArray();
+    }
+}
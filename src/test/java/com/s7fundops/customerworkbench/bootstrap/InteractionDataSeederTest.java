@@ -0,0 +1,84 @@
+package com.s7fundops.customerworkbench.bootstrap;
+
+import com.s7fundops.customerworkbench.config.SeedProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import com.s7fundops.customerworkbench.repositories.ShardedInteractionRepository;
+import com.s7fundops.customerworkbench.services.SupportResponseResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class InteractionDataSeederTest {
+
+    private final InteractionLogRepository repository = mock(InteractionLogRepository.class);
+    private final InteractionLogMapper mapper = mock(InteractionLogMapper.class);
+    private final ShardedInteractionRepository shards = mock(ShardedInteractionRepository.class);
+    private final SeedProperties properties = new SeedProperties();
+
+    private InteractionDataSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        when(mapper.toEntity(any(InteractionLogDto.class))).thenAnswer(invocation -> new InteractionLog());
+        seeder = new InteractionDataSeeder(repository, mapper, shards, mock(SupportResponseResolver.class),
+                mock(PlatformTransactionManager.class),
+                ApplicationStartup.DEFAULT, properties);
+    }
+
+    @Test
+    @DisplayName("seeds an empty table in batches")
+    void run_seedsInBatches() {
+        properties.setRows(25);
+        properties.setBatchSize(10);
+        when(repository.existsByIdIsNotNull()).thenReturn(false);
+
+        seeder.run();
+
+        verify(repository, times(2)).insertBatch(argThat((List<InteractionLog> batch) -> batch.size() == 10));
+        verify(repository, times(1)).insertBatch(argThat((List<InteractionLog> batch) -> batch.size() == 5));
+        verify(repository, never()).count();
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("skips seeding when data exists without scanning the table")
+    void run_skipsWhenDataExists() {
+        when(repository.existsByIdIsNotNull()).thenReturn(true);
+
+        seeder.run();
+
+        verify(repository, never()).insertBatch(anyList());
+        verify(repository, never()).count();
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("seeds the shards instead of the primary when sharding is enabled")
+    void run_seedsShards() {
+        properties.setRows(15);
+        properties.setBatchSize(10);
+        when(shards.isEnabled()).thenReturn(true);
+        when(shards.isEmpty()).thenReturn(true);
+        when(shards.insert(anyList())).thenAnswer(invocation -> invocation.<List<InteractionLogDto>>getArgument(0).stream()
+                .map(dto -> new InteractionLog())
+                .toList());
+
+        seeder.run();
+
+        verify(shards, times(2)).insert(anyList());
+        verify(repository, never()).existsByIdIsNotNull();
+        verify(repository, never()).insertBatch(anyList());
+    }
+}
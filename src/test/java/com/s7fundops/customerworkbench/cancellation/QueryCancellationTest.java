@@ -0,0 +1,108 @@
+package com.s7fundops.customerworkbench.cancellation;
+
+import com.s7fundops.customerworkbench.config.QueryCancellationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs statements through a data source wrapped with {@link QueryCancellation}, against an in-memory H2 database.
+ */
+class QueryCancellationTest {
+
+    // billions of rows, so it only ends when it is cancelled
+    private static final String ENDLESS_SQL =
+            "select count(*) from system_range(1, 100000) a, system_range(1, 100000) b";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCancellationProperties properties = new QueryCancellationProperties();
+    private QueryCancellation cancellation;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        properties.getTimeouts().put("/api/**", Duration.ofSeconds(30));
+        properties.getTimeouts().put("/api/interactions", Duration.ofSeconds(1));
+        properties.getTimeouts().put("/api/interactions/{id}", Duration.ofSeconds(2));
+        properties.getTimeouts().put("/api/interactions/facets", Duration.ofSeconds(5));
+        cancellation = new QueryCancellation(properties, meterRegistry);
+
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:cancellation-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(ProxyDataSourceBuilder.create(h2).listener(cancellation).build());
+    }
+
+    @Test
+    @DisplayName("applies the most specific route timeout to reads and none to writes")
+    void begin_picksMostSpecificTimeout() {
+        assertThat(cancellation.timeoutFor("/api/interactions/facets")).contains(Duration.ofSeconds(5));
+        assertThat(cancellation.timeoutFor("/api/interactions/42")).contains(Duration.ofSeconds(2));
+        assertThat(cancellation.timeoutFor("/api/customers/7/timeline")).contains(Duration.ofSeconds(30));
+        assertThat(cancellation.timeoutFor("/actuator/health")).isEmpty();
+
+        try (QueryCancellation.Scope write = cancellation.begin("POST", "/api/interactions", null)) {
+            assertThat(write.getTimeout()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("stops a statement at the route's time limit and counts it")
+    void beforeQuery_setsTimeout() {
+        try (QueryCancellation.Scope scope = cancellation.begin("GET", "/api/interactions", null)) {
+            assertThatThrownBy(() -> jdbcTemplate.queryForObject(ENDLESS_SQL, Long.class));
+            assertThat(scope.isTimedOut()).isTrue();
+            assertThat(scope.isSuperseded()).isFalse();
+        }
+
+        assertThat(meterRegistry.get("workbench.queries.cancelled").tag("reason", "timeout").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("cancels the running statement of a request that a newer one of its group supersedes")
+    void begin_cancelsSupersededRequest() throws Exception {
+        CompletableFuture<QueryCancellation.Scope> older = CompletableFuture.supplyAsync(() -> {
+            try (QueryCancellation.Scope scope = cancellation.begin("GET", "/api/interactions/facets", "view-1")) {
+                assertThatThrownBy(() -> jdbcTemplate.queryForObject(ENDLESS_SQL, Long.class));
+                return scope;
+            }
+        });
+        Thread.sleep(200);
+
+        try (QueryCancellation.Scope newer = cancellation.begin("GET", "/api/interactions/facets", "view-1")) {
+            assertThat(jdbcTemplate.queryForObject("select 1", Integer.class)).isEqualTo(1);
+            assertThat(newer.isSuperseded()).isFalse();
+        }
+
+        assertThat(older.get().isSuperseded()).isTrue();
+        assertThat(older.get().isTimedOut()).isFalse();
+        assertThat(meterRegistry.get("workbench.queries.cancelled").tag("reason", "superseded").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("answers a request that ran out of time with 503")
+    void filter_reportsTimeouts() throws Exception {
+        QueryCancellationFilter filter = new QueryCancellationFilter(cancellation);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/interactions"), response,
+                (request, ignored) -> jdbcTemplate.queryForObject(ENDLESS_SQL, Long.class));
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getContentAsString()).contains("longer than 1s");
+    }
+}
@@ -0,0 +1,182 @@
+package com.s7fundops.customerworkbench.changefeed;
+
+import com.s7fundops.customerworkbench.config.ChangeFeedProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.model.InteractionVersion;
+import com.s7fundops.customerworkbench.services.InteractionsCreatedEvent;
+import com.s7fundops.customerworkbench.services.InteractionsErasedEvent;
+import com.s7fundops.customerworkbench.services.InteractionsUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InteractionChangeFeedTest {
+
+    private final InteractionLogMapper mapper = mock(InteractionLogMapper.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChangeFeedProperties properties = new ChangeFeedProperties();
+    private InteractionChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        if (feed != null) {
+            feed.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("reads changes after a cursor in commit order")
+    void readAfter_returnsChangesInOrder() {
+        feed = feed(8);
+        feed.append(0, dtos(1, 2, 3));
+
+        assertThat(feed.readAfter(0, 10)).extracting(c -> c.interaction().getId()).containsExactly(1L, 2L, 3L);
+        assertThat(feed.readAfter(1, 1)).extracting(InteractionChangeFeed.InteractionChange::sequence).containsExactly(2L);
+        assertThat(feed.readAfter(3, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a cursor whose next change was overwritten is no longer retained")
+    void readAfter_detectsLappedCursor() {
+        feed = feed(4);
+        feed.append(0, dtos(1, 2, 3, 4, 5, 6));
+
+        assertThat(feed.isRetained(1)).isFalse();
+        assertThat(feed.readAfter(1, 10)).isNull();
+        assertThat(feed.isRetained(2)).isTrue();
+        assertThat(feed.readAfter(2, 10)).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("maps only the newest buffer-size rows of a large write but advances the sequence past all of them")
+    void onInteractionsCreated_keepsNewestRows() {
+        feed = feed(3);
+        when(mapper.toDto(any(InteractionLog.class))).thenAnswer(invocation ->
+                InteractionLogDto.builder().id(invocation.<InteractionLog>getArgument(0).getId()).build());
+
+        feed.onInteractionsCreated(new InteractionsCreatedEvent(LongStream.rangeClosed(1, 5).mapToObj(id -> {
+            InteractionLog entity = new InteractionLog();
+            entity.setId(id);
+            return entity;
+        }).toList()));
+
+        verify(mapper, times(3)).toDto(any(InteractionLog.class));
+        assertThat(feed.head()).isEqualTo(5);
+        assertThat(feed.readAfter(2, 10)).extracting(c -> c.interaction().getId()).containsExactly(3L, 4L, 5L);
+        assertThat(feed.isRetained(0)).isFalse();
+        assertThat(meterRegistry.get("workbench.change_feed.published").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("drops erased rows from the buffer and blanks redacted ones")
+    void onInteractionsErased_scrubsBuffer() {
+        feed = feed(8);
+        feed.append(0, List.of(
+                InteractionLogDto.builder().id(1L).feedback("call me").build(),
+                InteractionLogDto.builder().id(2L).feedback("slow").responsesFromCustomerSupport("sorry").build(),
+                InteractionLogDto.builder().id(3L).feedback("kept").build()));
+
+        feed.onInteractionsErased(new InteractionsErasedEvent(7, ErasureMode.REDACT, List.of(2L), List.of()));
+        feed.onInteractionsErased(new InteractionsErasedEvent(7, ErasureMode.DELETE, List.of(1L), List.of()));
+
+        List<InteractionChangeFeed.InteractionChange> changes = feed.readAfter(0, 10);
+        assertThat(changes).extracting(InteractionChangeFeed.InteractionChange::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(changes.get(0).interaction()).isNull();
+        assertThat(changes.get(1).interaction())
+                .extracting(InteractionLogDto::getId, InteractionLogDto::getFeedback,
+                        InteractionLogDto::getResponsesFromCustomerSupport)
+                .containsExactly(2L, null, null);
+        assertThat(changes.get(2).interaction().getFeedback()).isEqualTo("kept");
+    }
+
+    @Test
+    @DisplayName("applies committed bulk updates to the buffer unless it already holds a newer version")
+    void onInteractionsUpdated_refreshesBuffer() {
+        feed = feed(8);
+        feed.append(0, List.of(
+                InteractionLogDto.builder().id(1L).feedback("slow").responsesFromCustomerSupport("sorry").build(),
+                InteractionLogDto.builder().id(2L).feedback("newer").version(3L).build(),
+                InteractionLogDto.builder().id(3L).feedback("kept").build()));
+
+        feed.onInteractionsUpdated(new InteractionsUpdatedEvent(
+                List.of(new InteractionVersion(1L, 9, 1L), new InteractionVersion(1L, 9, 2L),
+                        new InteractionVersion(2L, 9, 2L)),
+                List.of(InteractionPatch.builder().id(1L).version(0L).feedback("fast").build(),
+                        InteractionPatch.builder().id(1L).version(1L).clearResponsesFromCustomerSupport(true).build(),
+                        InteractionPatch.builder().id(2L).version(1L).feedback("stale").build())));
+
+        List<InteractionChangeFeed.InteractionChange> changes = feed.readAfter(0, 10);
+        assertThat(changes).extracting(InteractionChangeFeed.InteractionChange::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(changes.get(0).interaction())
+                .extracting(InteractionLogDto::getFeedback, InteractionLogDto::getResponsesFromCustomerSupport,
+                        InteractionLogDto::getVersion)
+                .containsExactly("fast", null, 2L);
+        assertThat(changes.get(1).interaction())
+                .extracting(InteractionLogDto::getFeedback, InteractionLogDto::getVersion)
+                .containsExactly("newer", 3L);
+        assertThat(changes.get(2).interaction().getFeedback()).isEqualTo("kept");
+    }
+
+    @Test
+    @DisplayName("refuses subscribers beyond the configured maximum")
+    void subscribe_rejectsBeyondMaxSubscribers() {
+        properties.setMaxSubscribers(1);
+        feed = feed(8);
+        feed.subscribe(new InteractionSearchCriteria(), null);
+
+        assertThat(feed.getSubscriberCount()).isEqualTo(1);
+        assertThatThrownBy(() -> feed.subscribe(new InteractionSearchCriteria(), null))
+                .isInstanceOf(ChangeFeedFullException.class);
+    }
+
+    @Test
+    @DisplayName("filters changes with the search criteria")
+    void matches_appliesSearchFilters() {
+        LocalDateTime date = LocalDateTime.of(2024, 6, 1, 12, 0);
+        InteractionLogDto interaction = InteractionLogDto.builder()
+                .customerId(7)
+                .productId(3)
+                .interactionType(InteractionType.CHAT)
+                .interactionDate(date)
+                .build();
+
+        assertThat(ChangeFeedSubscription.matches(new InteractionSearchCriteria(), interaction)).isTrue();
+        assertThat(ChangeFeedSubscription.matches(InteractionSearchCriteria.builder()
+                .customerId(7).interactionType(InteractionType.CHAT).startDate(date).endDate(date).build(), interaction))
+                .isTrue();
+        assertThat(ChangeFeedSubscription.matches(InteractionSearchCriteria.builder().customerId(8).build(), interaction))
+                .isFalse();
+        assertThat(ChangeFeedSubscription.matches(InteractionSearchCriteria.builder()
+                .startDate(date.plusSeconds(1)).build(), interaction)).isFalse();
+    }
+
+    private InteractionChangeFeed feed(int bufferSize) {
+        properties.setBufferSize(bufferSize);
+        properties.setHeartbeatInterval(Duration.ofMinutes(1));
+        return new InteractionChangeFeed(mapper, properties, meterRegistry);
+    }
+
+    private static List<InteractionLogDto> dtos(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> InteractionLogDto.builder().id(id).build()).toList();
+    }
+}
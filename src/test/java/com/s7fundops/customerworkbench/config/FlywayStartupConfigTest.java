@@ -0,0 +1,45 @@
+package com.s7fundops.customerworkbench.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class FlywayStartupConfigTest {
+
+    private final StartupProperties properties = new StartupProperties();
+    private final FlywayMigrationStrategy strategy = new FlywayStartupConfig().flywayMigrationStrategy(properties);
+    private final Flyway flyway = mock(Flyway.class);
+
+    @Test
+    @DisplayName("migrates by default")
+    void migrate() {
+        strategy.migrate(flyway);
+
+        verify(flyway).migrate();
+    }
+
+    @Test
+    @DisplayName("only validates on instances that must not write the schema")
+    void validate() {
+        properties.setFlyway(StartupProperties.FlywayMode.VALIDATE);
+
+        strategy.migrate(flyway);
+
+        verify(flyway).validate();
+    }
+
+    @Test
+    @DisplayName("leaves Flyway alone when skipped")
+    void skip() {
+        properties.setFlyway(StartupProperties.FlywayMode.SKIP);
+
+        strategy.migrate(flyway);
+
+        verifyNoInteractions(flyway);
+    }
+}
@@ -0,0 +1,51 @@
+package com.s7fundops.customerworkbench.controller;
+
+import com.s7fundops.customerworkbench.model.CustomerTimelineDto;
+import com.s7fundops.customerworkbench.model.TimelineGranularity;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = CustomerController.class)
+class CustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private InteractionService interactionService;
+
+    @Test
+    @DisplayName("timeline defaults to daily buckets")
+    void timeline() throws Exception {
+        when(interactionService.customerTimeline(42, TimelineGranularity.DAY)).thenReturn(CustomerTimelineDto.builder()
+                .customerId(42)
+                .granularity(TimelineGranularity.DAY)
+                .totalInteractions(3)
+                .buckets(List.of())
+                .build());
+
+        mockMvc.perform(get("/api/customers/42/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId").value(42))
+                .andExpect(jsonPath("$.totalInteractions").value(3));
+    }
+
+    @Test
+    @DisplayName("rejects unknown granularity")
+    void timeline_badGranularity() throws Exception {
+        mockMvc.perform(get("/api/customers/42/timeline").param("granularity", "YEAR"))
+                .andExpect(status().isBadRequest());
+    }
+}
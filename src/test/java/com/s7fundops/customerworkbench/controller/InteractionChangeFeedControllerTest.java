@@ -0,0 +1,125 @@
+package com.s7fundops.customerworkbench.controller;
+
+import com.s7fundops.customerworkbench.changefeed.InteractionChangeFeed;
+import com.s7fundops.customerworkbench.config.ChangeFeedProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.services.InteractionsCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@WebMvcTest(controllers = InteractionChangeFeedController.class)
+@Import(InteractionChangeFeedControllerTest.FeedConfig.class)
+class InteractionChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InteractionChangeFeed changeFeed;
+
+    @Test
+    @DisplayName("streams newly published interactions that match the filters")
+    void stream_sendsMatchingInteractions() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/interactions/stream").param("customerId", "7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        publish(interaction(101L, 7), interaction(102L, 8));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(result.getResponse().getContentAsString())
+                .contains("event:interaction")
+                .contains("\"id\":101"));
+        assertThat(result.getResponse().getContentAsString()).doesNotContain("\"id\":102");
+    }
+
+    @Test
+    @DisplayName("resumes after the last event id")
+    void stream_resumesAfterLastEventId() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/interactions/stream").param("customerId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        publish(interaction(201L, 1), interaction(202L, 1));
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(first.getResponse().getContentAsString())
+                .contains("\"id\":202"));
+        String firstEventId = first.getResponse().getContentAsString().lines()
+                .filter(line -> line.startsWith("id:"))
+                .findFirst()
+                .orElseThrow()
+                .substring("id:".length());
+
+        MvcResult result = mockMvc.perform(get("/api/interactions/stream")
+                        .param("customerId", "1")
+                        .header("Last-Event-ID", firstEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(result.getResponse().getContentAsString())
+                .contains("\"id\":202"));
+        assertThat(result.getResponse().getContentAsString()).doesNotContain("\"id\":201");
+    }
+
+    @Test
+    @DisplayName("sends a reset event for an unknown last event id")
+    void stream_resetsUnknownPosition() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/interactions/stream").param("lastEventId", "before-restart-17"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(result.getResponse().getContentAsString())
+                .contains("event:reset"));
+    }
+
+    private void publish(InteractionLog... interactions) {
+        changeFeed.onInteractionsCreated(new InteractionsCreatedEvent(Arrays.asList(interactions)));
+    }
+
+    private static InteractionLog interaction(long id, int customerId) {
+        InteractionLog entity = new InteractionLog();
+        entity.setId(id);
+        entity.setCustomerId(customerId);
+        entity.setProductId(1);
+        entity.setInteractionType(InteractionType.CHAT);
+        return entity;
+    }
+
+    @TestConfiguration
+    static class FeedConfig {
+
+        @Bean
+        InteractionChangeFeed interactionChangeFeed() {
+            InteractionLogMapper mapper = mock(InteractionLogMapper.class);
+            when(mapper.toDto(any(InteractionLog.class))).thenAnswer(invocation -> {
+                InteractionLog entity = invocation.getArgument(0);
+                return InteractionLogDto.builder()
+                        .id(entity.getId())
+                        .customerId(entity.getCustomerId())
+                        .productId(entity.getProductId())
+                        .interactionType(entity.getInteractionType())
+                        .build();
+            });
+            return new InteractionChangeFeed(mapper, new ChangeFeedProperties(), new SimpleMeterRegistry());
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.s7fundops.customerworkbench.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.s7fundops.customerworkbench.model.InteractionBatchGetRequest;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
 import com.s7fundops.customerworkbench.model.InteractionLogDto;
 import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.services.InteractionSearchStreamer;
 import com.s7fundops.customerworkbench.services.InteractionService;
 import com.s7fundops.customerworkbench.services.NotFoundException;
 import net.datafaker.Faker;
@@ -13,18 +16,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -39,6 +53,9 @@ class InteractionControllerTest {
     @MockitoBean
     private InteractionService interactionService;
 
+    @MockitoBean
+    private InteractionSearchStreamer searchStreamer;
+
     private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
     private final Faker faker = new Faker();
 
@@ -110,6 +127,127 @@ class InteractionControllerTest {
                     .andExpect(jsonPath("$.content[0].customerId").value(dto.getCustomerId()));
         }
 
+        @Test
+        @DisplayName("streaming search writes the page from the streamer")
+        void search_streaming() throws Exception {
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(2).write("{\"content\":[],\"totalElements\":0}".getBytes(StandardCharsets.UTF_8));
+                return null;
+            }).when(searchStreamer).writeJson(argThat(c -> c.getCustomerId() == 42),
+                    argThat((Pageable p) -> p.getPageSize() == 500), any());
+
+            mockMvc.perform(get("/api/interactions").param("streaming", "true")
+                            .param("customerId", "42")
+                            .param("size", "500"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.totalElements").value(0));
+
+            verify(interactionService, never()).search(any(), any());
+        }
+
+        @Test
+        @DisplayName("streaming search rejects an unsupported sort with 400")
+        void search_streamingBadSort() throws Exception {
+            doThrow(new IllegalArgumentException("Cannot sort by feedback"))
+                    .when(searchStreamer).writeJson(any(), any(), any());
+
+            mockMvc.perform(get("/api/interactions").param("streaming", "true").param("sort", "feedback"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("Cannot sort by feedback"));
+        }
+
+        @Test
+        @DisplayName("facets returns grouped counts for the filters")
+        void facets() throws Exception {
+            when(interactionService.facets(any())).thenReturn(InteractionFacetsDto.builder()
+                    .total(3)
+                    .interactionTypes(Map.of(InteractionType.CHAT, 3L))
+                    .customerRatings(Map.of(5, 3L))
+                    .interactionDates(Map.of())
+                    .build());
+
+            mockMvc.perform(get("/api/interactions/facets").param("customerId", "42"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(3))
+                    .andExpect(jsonPath("$.interactionTypes.CHAT").value(3));
+        }
+
+        @Test
+        @DisplayName("search with facets=true returns the page and its facets in one response")
+        void getAll_withFacets() throws Exception {
+            when(interactionService.search(argThat(c -> c.getCustomerId() == 42), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(sampleDto()), PageRequest.of(0, 20), 1));
+            when(interactionService.facets(argThat(c -> c.getCustomerId() == 42)))
+                    .thenReturn(InteractionFacetsDto.builder()
+                            .total(1)
+                            .interactionTypes(Map.of(InteractionType.CHAT, 1L))
+                            .build());
+
+            mockMvc.perform(get("/api/interactions").param("customerId", "42").param("facets", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.totalElements").value(1))
+                    .andExpect(jsonPath("$.facets.total").value(1))
+                    .andExpect(jsonPath("$.facets.interactionTypes.CHAT").value(1));
+        }
+
+        @Test
+        @DisplayName("get by id returns the version as weak ETag, varying by Accept")
+        void getOne_etag() throws Exception {
+            InteractionLogDto dto = sampleDto();
+            dto.setId(5L);
+            dto.setVersion(2L);
+            when(interactionService.findById(5L)).thenReturn(dto);
+
+            mockMvc.perform(get("/api/interactions/5"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "W/\"2\""))
+                    .andExpect(header().string("Vary", "Accept"))
+                    .andExpect(jsonPath("$.id").value(5));
+        }
+
+        @Test
+        @DisplayName("get by id returns 304 when the ETag still matches")
+        void getOne_notModified() throws Exception {
+            InteractionLogDto dto = sampleDto();
+            dto.setId(5L);
+            dto.setVersion(2L);
+            when(interactionService.findById(5L)).thenReturn(dto);
+
+            mockMvc.perform(get("/api/interactions/5").header("If-None-Match", "W/\"2\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("Vary", "Accept"))
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("search can be negotiated as CBOR")
+        void search_cbor() throws Exception {
+            InteractionLogDto dto = sampleDto();
+            when(interactionService.search(any(), any())).thenReturn(new PageImpl<>(List.of(dto), PageRequest.of(0, 20), 1));
+
+            mockMvc.perform(get("/api/interactions").accept("application/cbor"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("application/cbor"));
+        }
+
+        @Test
+        @DisplayName("CBOR writes the interaction type by its stable code")
+        void getOne_cborWritesTypeCode() throws Exception {
+            InteractionLogDto dto = sampleDto();
+            dto.setId(5L);
+            dto.setInteractionType(InteractionType.TICKET);
+            when(interactionService.findById(5L)).thenReturn(dto);
+
+            byte[] body = mockMvc.perform(get("/api/interactions/5").accept("application/cbor"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            JsonNode tree = CBORMapper.builder().build().readTree(body);
+            assertThat(tree.get("interactionType").asInt()).isEqualTo(InteractionType.TICKET.getCode());
+        }
+
         @Test
         @DisplayName("returns 404 when not found")
         void getOne_notFound() throws Exception {
@@ -120,6 +258,37 @@ class InteractionControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Batch get")
+    class BatchGetEndpoint {
+
+        @Test
+        @DisplayName("returns interactions for requested ids")
+        void batchGet() throws Exception {
+            InteractionLogDto dto = sampleDto();
+            dto.setId(7L);
+            when(interactionService.findAllByIds(List.of(7L, 8L))).thenReturn(List.of(dto));
+
+            mockMvc.perform(post("/api/interactions/batch-get")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(new InteractionBatchGetRequest(List.of(7L, 8L)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(7))
+                    .andExpect(jsonPath("$.length()").value(1));
+        }
+
+        @Test
+        @DisplayName("rejects an empty id list")
+        void batchGet_empty() throws Exception {
+            mockMvc.perform(post("/api/interactions/batch-get")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ids\":[]}"))
+                    .andExpect(status().isBadRequest());
+
+            verify(interactionService, never()).findAllByIds(anyList());
+        }
+    }
+
     private InteractionLogDto sampleDto() {
         return InteractionLogDto.builder()
                 .productId(faker.number().numberBetween(1, 999))
@@ -0,0 +1,113 @@
+package com.s7fundops.customerworkbench.controller;
+
+import com.s7fundops.customerworkbench.model.ByteRange;
+import com.s7fundops.customerworkbench.model.UploadSessionRequest;
+import com.s7fundops.customerworkbench.model.UploadState;
+import com.s7fundops.customerworkbench.model.UploadStatusDto;
+import com.s7fundops.customerworkbench.services.NotFoundException;
+import com.s7fundops.customerworkbench.uploads.ChunkedUploadManager;
+import com.s7fundops.customerworkbench.uploads.UploadConflictException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = UploadController.class)
+class UploadControllerTest {
+
+    private static final String CHECKSUM = "a".repeat(64);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ChunkedUploadManager uploadManager;
+
+    @Test
+    @DisplayName("opening a session returns its chunk layout and location")
+    void create() throws Exception {
+        when(uploadManager.create(any(UploadSessionRequest.class))).thenReturn(status(UploadState.RECEIVING));
+
+        mockMvc.perform(post("/api/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileName\":\"big.csv\",\"size\":20}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/uploads/u1"))
+                .andExpect(jsonPath("$.chunkSize").value(8))
+                .andExpect(jsonPath("$.chunkCount").value(3))
+                .andExpect(jsonPath("$.missingRanges[0].end").value(8));
+    }
+
+    @Test
+    @DisplayName("a session without a size is rejected")
+    void create_requiresSize() throws Exception {
+        mockMvc.perform(post("/api/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileName\":\"big.csv\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("chunks are passed on with their checksum; bad ones get 400, conflicting ones 409")
+    void putChunk() throws Exception {
+        when(uploadManager.writeChunk(eq("u1"), eq(1), eq(CHECKSUM), any(InputStream.class)))
+                .thenReturn(status(UploadState.RECEIVING));
+        when(uploadManager.writeChunk(eq("u1"), eq(2), eq(CHECKSUM), any(InputStream.class)))
+                .thenThrow(new IllegalArgumentException("Checksum mismatch for chunk 2"));
+        when(uploadManager.writeChunk(eq("u1"), eq(0), eq(CHECKSUM), any(InputStream.class)))
+                .thenThrow(new UploadConflictException("Chunk 0 is already being uploaded"));
+
+        mockMvc.perform(put("/api/uploads/u1/chunks/1")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(UploadController.CHECKSUM_HEADER, CHECKSUM)
+                        .content(new byte[8]))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RECEIVING"));
+        mockMvc.perform(put("/api/uploads/u1/chunks/2")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(UploadController.CHECKSUM_HEADER, CHECKSUM)
+                        .content(new byte[4]))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Checksum mismatch for chunk 2"));
+        mockMvc.perform(put("/api/uploads/u1/chunks/0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(UploadController.CHECKSUM_HEADER, CHECKSUM)
+                        .content(new byte[8]))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("status and abort of an unknown upload return 404")
+    void unknownUpload() throws Exception {
+        when(uploadManager.status("gone")).thenThrow(new NotFoundException("Upload gone not found"));
+        doThrow(new NotFoundException("Upload gone not found")).when(uploadManager).abort("gone");
+
+        mockMvc.perform(get("/api/uploads/gone")).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/uploads/gone")).andExpect(status().isNotFound());
+    }
+
+    private static UploadStatusDto status(UploadState state) {
+        return UploadStatusDto.builder()
+                .uploadId("u1")
+                .fileName("big.csv")
+                .size(20)
+                .chunkSize(8)
+                .chunkCount(3)
+                .state(state)
+                .missingRanges(List.of(new ByteRange(0, 8)))
+                .build();
+    }
+}
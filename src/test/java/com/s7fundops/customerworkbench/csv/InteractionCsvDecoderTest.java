@@ -0,0 +1,136 @@
+package com.s7fundops.customerworkbench.csv;
+
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.s7fundops.customerworkbench.bootstrap.DataUtil;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InteractionCsvDecoderTest {
+
+    private static final String HEADER = DataUtil.interactionCsvHeader();
+
+    @Test
+    @DisplayName("decodes generated files exactly like OpenCSV")
+    void matchesOpenCsv() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 0; i < 200; i++) {
+            csv.append(DataUtil.randomInteractionAsCsv()).append('\n');
+        }
+
+        List<InteractionLogDto> expected = new CsvToBeanBuilder<InteractionLogDto>(new StringReader(csv.toString()))
+                .withType(InteractionLogDto.class)
+                .withIgnoreLeadingWhiteSpace(true)
+                .build()
+                .parse();
+
+        assertThat(decode(new StringReader(csv.toString()))).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("handles RFC 4180 quoting in free text")
+    void decodesQuotedFields() throws IOException {
+        String csv = HEADER + "\r\n"
+                + "1,2,CHAT,5,\"Slow, then \"\"fine\"\"\nthanks\",2024-12-01 10:00:00, \"ok\"\r\n";
+
+        InteractionLogDto dto = decode(new StringReader(csv)).getFirst();
+
+        assertThat(dto.getFeedback()).isEqualTo("Slow, then \"fine\"\nthanks");
+        assertThat(dto.getResponsesFromCustomerSupport()).isEqualTo("ok");
+        assertThat(dto.getInteractionDate()).isEqualTo(LocalDateTime.of(2024, 12, 1, 10, 0));
+    }
+
+    @Test
+    @DisplayName("records split across every buffer refill decode the same")
+    void decodesAcrossRefills() throws IOException {
+        String csv = HEADER + "\n"
+                + "1,2,EMAIL,4,\"a,\"\"b\"\"\",2024-01-02 03:04:05,\r\n"
+                + "\n"
+                + "3,4,ticket,,plain,,\"last\"";
+
+        List<InteractionLogDto> whole = decode(new StringReader(csv));
+
+        assertThat(decode(new OneCharReader(csv))).isEqualTo(whole);
+        assertThat(whole).hasSize(2);
+        assertThat(whole.get(1).getInteractionType()).isEqualTo(InteractionType.TICKET);
+        assertThat(whole.get(1).getCustomerRating()).isNull();
+        assertThat(whole.get(1).getInteractionDate()).isNull();
+        assertThat(whole.get(1).getResponsesFromCustomerSupport()).isEqualTo("last");
+    }
+
+    @Test
+    @DisplayName("maps the header by name, ignoring case, order, unknown columns and a byte order mark")
+    void mapsHeaderByName() throws IOException {
+        String csv = "\uFEFFInteraction_Type,extra,CUSTOMER_ID,product_id\nFORM,x,7,8\n";
+
+        InteractionLogDto dto = decode(new StringReader(csv)).getFirst();
+
+        assertThat(dto.getInteractionType()).isEqualTo(InteractionType.FORM);
+        assertThat(dto.getCustomerId()).isEqualTo(7);
+        assertThat(dto.getProductId()).isEqualTo(8);
+        assertThat(dto.getFeedback()).isNull();
+    }
+
+    @Test
+    @DisplayName("names the row and column of cells it cannot decode")
+    void rejectsMalformedInput() {
+        assertThatThrownBy(() -> decode(new StringReader(HEADER + "\n1,2,CHAT,5,a,,b\nx1,2,CHAT,5,a,,b\n")))
+                .isInstanceOf(CsvFormatException.class)
+                .hasMessage("Row 2 has product_id 'x1', expected a number");
+        assertThatThrownBy(() -> decode(new StringReader(HEADER + "\n1,2,CHAT,5,\"a\"b,,c\n")))
+                .isInstanceOf(CsvFormatException.class)
+                .hasMessageContaining("after a closing quote");
+        assertThatThrownBy(() -> decode(new StringReader(HEADER + "\n1,2,CHAT\n")))
+                .isInstanceOf(CsvFormatException.class)
+                .hasMessageContaining("3 fields");
+        assertThatThrownBy(() -> decode(new StringReader(HEADER + "\n1,2,CHAT,5,a,2024-12-01T10:00:00,b\n")))
+                .isInstanceOf(CsvFormatException.class)
+                .hasMessageContaining("timestamp");
+    }
+
+    @Test
+    @DisplayName("an empty input has no rows")
+    void emptyInput() throws IOException {
+        assertThat(decode(new StringReader(""))).isEmpty();
+        assertThat(decode(new StringReader(HEADER + "\n"))).isEmpty();
+    }
+
+    private static List<InteractionLogDto> decode(Reader reader) throws IOException {
+        List<InteractionLogDto> rows = new ArrayList<>();
+        InteractionCsvDecoder.open(reader).forEachRemaining(rows::add);
+        return rows;
+    }
+
+    /**
+     * Hands out one character per read so every record crosses buffer refills.
+     */
+    private static final class OneCharReader extends Reader {
+
+        private final StringReader delegate;
+
+        OneCharReader(String content) {
+            this.delegate = new StringReader(content);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return delegate.read(buffer, offset, Math.min(length, 1));
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
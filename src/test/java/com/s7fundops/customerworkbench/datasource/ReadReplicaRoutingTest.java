@@ -0,0 +1,67 @@
+package com.s7fundops.customerworkbench.datasource;
+
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Routing with the "replica" being a second pool on the same in-memory H2 database, which is how it can be tried
+ * locally without replication.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "workbench.datasource.replica.enabled=true",
+        "workbench.datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "workbench.datasource.replica.username=sa",
+        "workbench.datasource.replica.lag-check-interval=100ms"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("writes go to the primary and read-only searches to the replica")
+    void routesByTransactionReadOnlyFlag() {
+        await().atMost(5, TimeUnit.SECONDS).until(replicaLagMonitor::isUsable);
+        double writesBefore = count("primary", "write");
+        double readsBefore = count("replica", "read");
+
+        InteractionLogDto created = interactionService.create(InteractionLogDto.builder()
+                .productId(1)
+                .customerId(424242)
+                .interactionType(InteractionType.EMAIL)
+                .interactionDate(LocalDateTime.now())
+                .build());
+        InteractionSearchCriteria criteria = new InteractionSearchCriteria();
+        criteria.setCustomerId(424242);
+        var page = interactionService.search(criteria, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(InteractionLogDto::getId).contains(created.getId());
+        assertThat(count("primary", "write")).isGreaterThan(writesBefore);
+        assertThat(count("replica", "read")).isGreaterThan(readsBefore);
+    }
+
+    private double count(String route, String reason) {
+        return meterRegistry.get("workbench.datasource.route").tag("route", route).tag("reason", reason).counter().count();
+    }
+}
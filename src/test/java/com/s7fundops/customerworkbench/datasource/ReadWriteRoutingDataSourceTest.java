@@ -0,0 +1,88 @@
+package com.s7fundops.customerworkbench.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final ReplicaLagMonitor monitor = mock(ReplicaLagMonitor.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(monitor.getReplica()).thenReturn(replica);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        routing = new ReadWriteRoutingDataSource(primary, monitor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("read-write transactions use the primary")
+    void getConnection_writeUsesPrimary() throws SQLException {
+        when(monitor.isUsable()).thenReturn(true);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(count("primary", "write")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("read-only transactions use a usable replica")
+    void getConnection_readOnlyUsesReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(monitor.isUsable()).thenReturn(true);
+
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+        assertThat(count("replica", "read")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("read-only transactions fall back to the primary while the replica lags")
+    void getConnection_laggingReplicaFallsBack() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(monitor.isUsable()).thenReturn(false);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(count("primary", "replica_not_usable")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a failed replica connection falls back to the primary and marks the replica unavailable")
+    void getConnection_replicaFailureFallsBack() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(monitor.isUsable()).thenReturn(true);
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verify(monitor).markUnavailable(any(SQLException.class));
+        assertThat(count("primary", "replica_connection_failed")).isEqualTo(1);
+    }
+
+    private double count(String route, String reason) {
+        return meterRegistry.get("workbench.datasource.route").tag("route", route).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,113 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import com.s7fundops.customerworkbench.bootstrap.GeneratorSettings;
+import com.s7fundops.customerworkbench.bootstrap.InteractionDataGenerator;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.s7fundops.customerworkbench.diagnostics.QueryCountAssert.assertThatQueries;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budgets for the main read and write paths; a failure here usually means an N+1 select or an insert
+ * that is no longer batched.
+ */
+@SpringBootTest(properties = "workbench.diagnostics.enabled=true")
+class InteractionQueryCountTest {
+
+    private static final AtomicInteger CUSTOMER_IDS = new AtomicInteger(9_100_000);
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @Autowired
+    private QueryDiagnostics queryDiagnostics;
+
+    private int customerId;
+
+    @BeforeEach
+    void setUp() {
+        customerId = CUSTOMER_IDS.incrementAndGet();
+    }
+
+    @Test
+    @DisplayName("ingesting 100 interactions inserts them and their new support responses in one JDBC batch each")
+    void ingestJson_usesOneBatch() {
+        List<InteractionLogDto> rows = generate(100, 1);
+
+        // responses: one lookup, one batched insert of the missing texts, one lookup of their ids
+        assertThatQueries(queryDiagnostics, () -> interactionService.ingestJson(rows))
+                .hasBatchCount(2)
+                .hasInsertCountAtMost(2)
+                .hasStatementCountAtMost(4);
+    }
+
+    @Test
+    @DisplayName("searching a page needs one select for the rows and one for the count")
+    void search_doesNotLoadResponsesPerRow() {
+        interactionService.ingestJson(generate(50, 40));
+        InteractionSearchCriteria criteria = new InteractionSearchCriteria();
+        criteria.setCustomerId(customerId);
+        AtomicReference<Page<InteractionLogDto>> page = new AtomicReference<>();
+
+        assertThatQueries(queryDiagnostics, () -> page.set(interactionService.search(criteria, PageRequest.of(0, 20))))
+                .hasSelectCount(2)
+                .hasNoWrites();
+        assertThat(page.get().getContent()).hasSize(20)
+                .allSatisfy(dto -> assertThat(dto.getResponsesFromCustomerSupport()).isNotBlank());
+    }
+
+    @Test
+    @DisplayName("a customer's newest interactions are served from the hot tier after the first lookup")
+    void search_servesRecentPagesFromHotTier() {
+        interactionService.ingestJson(generate(30, 5));
+        InteractionSearchCriteria criteria = new InteractionSearchCriteria();
+        criteria.setCustomerId(customerId);
+        PageRequest newest = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "interactionDate"));
+        Page<InteractionLogDto> loaded = interactionService.search(criteria, newest);
+        AtomicReference<Page<InteractionLogDto>> page = new AtomicReference<>();
+
+        assertThatQueries(queryDiagnostics, () -> page.set(interactionService.search(criteria, newest)))
+                .hasStatementCountAtMost(0);
+        assertThat(page.get().getContent()).isEqualTo(loaded.getContent());
+        assertThat(page.get().getTotalElements()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("finding by id needs at most the row and its support response")
+    void findById_readsAtMostTwoRows() {
+        interactionService.ingestJson(generate(1, 1));
+        InteractionSearchCriteria criteria = new InteractionSearchCriteria();
+        criteria.setCustomerId(customerId);
+        Long id = interactionService.search(criteria, PageRequest.of(0, 1)).getContent().getFirst().getId();
+
+        assertThatQueries(queryDiagnostics, () -> interactionService.findById(id))
+                .hasSelectCountAtMost(2)
+                .hasNoWrites();
+    }
+
+    private List<InteractionLogDto> generate(int rows, int responseTemplates) {
+        GeneratorSettings settings = GeneratorSettings.builder()
+                .seed(customerId)
+                .responseTemplates(responseTemplates)
+                .build();
+        List<InteractionLogDto> generated = new ArrayList<>();
+        new InteractionDataGenerator(settings).generate(rows, rows, generated::addAll);
+        generated.forEach(dto -> dto.setCustomerId(customerId));
+        return generated;
+    }
+}
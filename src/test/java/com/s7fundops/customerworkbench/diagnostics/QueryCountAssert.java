@@ -0,0 +1,68 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import org.assertj.core.api.AbstractAssert;
+
+/**
+ * AssertJ assertions on the statements issued by a block of code, for catching N+1 selects and unbatched inserts:
+ * <pre>
+ * assertThatQueries(queryDiagnostics, () -> service.findById(id)).hasSelectCountAtMost(2);
+ * </pre>
+ */
+public final class QueryCountAssert extends AbstractAssert<QueryCountAssert, QueryStats> {
+
+    private QueryCountAssert(QueryStats actual) {
+        super(actual, QueryCountAssert.class);
+    }
+
+    public static QueryCountAssert assertThatQueries(QueryDiagnostics queryDiagnostics, Runnable work) {
+        return new QueryCountAssert(queryDiagnostics.capture(work));
+    }
+
+    public QueryCountAssert hasSelectCount(long expected) {
+        isNotNull();
+        if (actual.getSelects() != expected) {
+            failWithMessage("Expected %d selects but found %d: %s", expected, actual.getSelects(), actual);
+        }
+        return this;
+    }
+
+    public QueryCountAssert hasSelectCountAtMost(long limit) {
+        isNotNull();
+        if (actual.getSelects() > limit) {
+            failWithMessage("Expected at most %d selects but found %d: %s", limit, actual.getSelects(), actual);
+        }
+        return this;
+    }
+
+    public QueryCountAssert hasInsertCountAtMost(long limit) {
+        isNotNull();
+        if (actual.getInserts() > limit) {
+            failWithMessage("Expected at most %d inserts but found %d: %s", limit, actual.getInserts(), actual);
+        }
+        return this;
+    }
+
+    public QueryCountAssert hasStatementCountAtMost(long limit) {
+        isNotNull();
+        if (actual.getStatements() > limit) {
+            failWithMessage("Expected at most %d statements but found %d: %s", limit, actual.getStatements(), actual);
+        }
+        return this;
+    }
+
+    public QueryCountAssert hasBatchCount(long expected) {
+        isNotNull();
+        if (actual.getBatches() != expected) {
+            failWithMessage("Expected %d JDBC batches but found %d: %s", expected, actual.getBatches(), actual);
+        }
+        return this;
+    }
+
+    public QueryCountAssert hasNoWrites() {
+        isNotNull();
+        if (actual.getInserts() + actual.getUpdates() + actual.getDeletes() > 0) {
+            failWithMessage("Expected no writes but found %s", actual);
+        }
+        return this;
+    }
+}
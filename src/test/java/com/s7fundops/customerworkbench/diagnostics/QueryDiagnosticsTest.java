@@ -0,0 +1,133 @@
+package com.s7fundops.customerworkbench.diagnostics;
+
+import com.s7fundops.customerworkbench.config.QueryDiagnosticsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryDiagnosticsTest {
+
+    private static final Method SET_OBJECT = setObject();
+
+    private final QueryDiagnosticsProperties properties = new QueryDiagnosticsProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryDiagnostics diagnostics = new QueryDiagnostics(properties, meterRegistry);
+
+    @Test
+    @DisplayName("attributes statements to the open scope and its parents only")
+    void capture_countsStatementsInScope() {
+        execute("select * from interaction_log where id = ?", 1, false, 0);
+
+        QueryStats outer;
+        QueryStats inner;
+        try (QueryDiagnostics.Scope scope = diagnostics.begin()) {
+            inner = diagnostics.capture(() -> {
+                execute("select * from interaction_log where id = ?", 1, false, 0);
+                execute("insert into interaction_log values (?)", 1, true, 50);
+            });
+            execute("update interaction_log set version = ?", 1, false, 0);
+            outer = scope.getStats();
+        }
+
+        assertThat(inner.getSelects()).isEqualTo(1);
+        assertThat(inner.getInserts()).isEqualTo(1);
+        assertThat(inner.getBatchedRows()).isEqualTo(50);
+        assertThat(outer.getStatements()).isEqualTo(3);
+        assertThat(meterRegistry.get("workbench.sql.statement").tag("type", "select").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("workbench.sql.batch_size").summary().totalAmount()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("records statements over the threshold as slow queries without their parameters")
+    void afterQuery_recordsSlowQueries() {
+        properties.setSlowQueryThreshold(Duration.ofMillis(100));
+        properties.setExplainSlowQueries(false);
+
+        execute("select * from interaction_log", 99, false, 0);
+        execute("select * from interaction_log where customer_id = ?", 150, false, 0, "Refund issued");
+
+        @SuppressWarnings("unchecked")
+        List<SlowQuery> slowQueries = (List<SlowQuery>) diagnostics.snapshot().get("slowQueries");
+        assertThat(slowQueries).singleElement()
+                .satisfies(slow -> {
+                    assertThat(slow.sql()).contains("customer_id");
+                    assertThat(slow.elapsedMillis()).isEqualTo(150);
+                    assertThat(slow.plan()).isNull();
+                    assertThat(slow.parameters()).isEmpty();
+                });
+        assertThat(meterRegistry.get("workbench.sql.slow").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("keeps the parameters of slow queries only when asked to")
+    void afterQuery_logsParametersWhenEnabled() {
+        properties.setSlowQueryThreshold(Duration.ofMillis(100));
+        properties.setExplainSlowQueries(false);
+        properties.setLogParameters(true);
+
+        execute("select * from interaction_log where feedback = ?", 150, false, 0, "Refund issued");
+
+        @SuppressWarnings("unchecked")
+        List<SlowQuery> slowQueries = (List<SlowQuery>) diagnostics.snapshot().get("slowQueries");
+        assertThat(slowQueries).singleElement()
+                .satisfies(slow -> assertThat(slow.parameters()).containsExactly("Refund issued"));
+    }
+
+    @Test
+    @DisplayName("reset clears totals")
+    void reset_clearsTotals() {
+        execute("delete from interaction_log", 1, false, 0);
+
+        diagnostics.reset();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> statements = (Map<String, Long>) diagnostics.snapshot().get("statements");
+        assertThat(statements.get("delete")).isZero();
+    }
+
+    @Test
+    @DisplayName("classifies statements by leading keyword")
+    void statementType_classifiesByKeyword() {
+        assertThat(StatementType.of("  SELECT 1")).isEqualTo(StatementType.SELECT);
+        assertThat(StatementType.of("with x as (select 1) select * from x")).isEqualTo(StatementType.SELECT);
+        assertThat(StatementType.of("insert into t values (1)")).isEqualTo(StatementType.INSERT);
+        assertThat(StatementType.of("call next value for seq")).isEqualTo(StatementType.OTHER);
+    }
+
+    private void execute(String sql, long elapsedMillis, boolean batch, int batchSize, Object... parameters) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(elapsedMillis);
+        info.setBatch(batch);
+        info.setBatchSize(batchSize);
+        info.setSuccess(true);
+        QueryInfo query = new QueryInfo(sql);
+        if (parameters.length > 0) {
+            List<ParameterSetOperation> operations = new ArrayList<>();
+            for (int i = 0; i < parameters.length; i++) {
+                operations.add(new ParameterSetOperation(SET_OBJECT, new Object[] {i + 1, parameters[i]}));
+            }
+            query.getParametersList().add(operations);
+        }
+        diagnostics.afterQuery(info, List.of(query));
+    }
+
+    private static Method setObject() {
+        try {
+            return PreparedStatement.class.getMethod("setObject", int.class, Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.s7fundops.customerworkbench.erasure;
+
+import com.s7fundops.customerworkbench.config.ErasureProperties;
+import com.s7fundops.customerworkbench.model.ErasureJobDto;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.ErasureState;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the erasure job queue and executor against an in-memory H2 database migrated by Flyway.
+ */
+class ErasureJobQueueTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T10:00:00Z"));
+    private final ErasureProperties properties = new ErasureProperties();
+    private HikariDataSource dataSource;
+    private DataSourceTransactionManager transactionManager;
+    private ErasureJobQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:erasure-jobs-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+
+        properties.setLeaseDuration(Duration.ofSeconds(30));
+        properties.setBatchSize(2);
+        properties.setPause(Duration.ZERO);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        queue = new ErasureJobQueue(new JdbcTemplate(dataSource), properties, transactionManager, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Nested
+    @DisplayName("Queue")
+    class Queue {
+
+        @Test
+        @DisplayName("returns the open job instead of queuing the same erasure twice")
+        void submit_reusesOpenJob() {
+            ErasureJobDto first = queue.submit(7, ErasureMode.DELETE);
+            ErasureJobDto again = queue.submit(7, ErasureMode.DELETE);
+            ErasureJobDto redaction = queue.submit(7, ErasureMode.REDACT);
+
+            assertThat(first.getState()).isEqualTo(ErasureState.PENDING);
+            assertThat(again.getId()).isEqualTo(first.getId());
+            assertThat(redaction.getId()).isNotEqualTo(first.getId());
+        }
+
+        @Test
+        @DisplayName("resumes an expired job on another instance from its last committed batch")
+        void claim_takesOverExpiredLeases() {
+            long id = queue.submit(7, ErasureMode.REDACT).getId();
+            ErasureJobQueue.Job stalled = queue.claim("a").orElseThrow();
+            assertThat(queue.advance(stalled, "a", 40, 2)).isTrue();
+            assertThat(queue.claim("b")).isEmpty();
+
+            clock.advance(Duration.ofSeconds(31));
+            ErasureJobQueue.Job resumed = queue.claim("b").orElseThrow();
+
+            assertThat(resumed.lastId()).isEqualTo(40);
+            assertThat(resumed.attempt()).isEqualTo(2);
+            assertThat(queue.advance(stalled, "a", 50, 2)).isFalse();
+            assertThat(queue.complete(stalled, "a")).isFalse();
+            assertThat(queue.complete(resumed, "b")).isTrue();
+            assertThat(queue.find(id).orElseThrow())
+                    .extracting(ErasureJobDto::getState, ErasureJobDto::getProcessed)
+                    .containsExactly(ErasureState.COMPLETED, 2L);
+        }
+
+        @Test
+        @DisplayName("hands a released job to the next claim straight away")
+        void release_makesJobClaimable() {
+            queue.submit(7, ErasureMode.DELETE);
+            ErasureJobQueue.Job job = queue.claim("a").orElseThrow();
+
+            queue.release(job, "a");
+
+            assertThat(queue.claim("b")).isPresent();
+        }
+    }
+
+    @Nested
+    @DisplayName("Executor")
+    class Executor {
+
+        private final InteractionService interactionService = mock(InteractionService.class);
+        private CustomerErasureExecutor executor;
+
+        @BeforeEach
+        void setUp() {
+            executor = new CustomerErasureExecutor(queue, interactionService, properties, transactionManager,
+                    new SimpleMeterRegistry());
+        }
+
+        @Test
+        @DisplayName("erases batch after batch from the cursor until none are left")
+        void runOnce_walksBatches() throws Exception {
+            long id = queue.submit(7, ErasureMode.DELETE).getId();
+            when(interactionService.eraseCustomerBatch(eq(7), anyLong(), eq(2), eq(ErasureMode.DELETE)))
+                    .thenReturn(List.of(3L, 5L), List.of(9L), List.of());
+
+            assertThat(executor.runOnce()).isTrue();
+
+            verify(interactionService).eraseCustomerBatch(7, 0, 2, ErasureMode.DELETE);
+            verify(interactionService).eraseCustomerBatch(7, 5, 2, ErasureMode.DELETE);
+            verify(interactionService).eraseCustomerBatch(7, 9, 2, ErasureMode.DELETE);
+            assertThat(queue.find(id).orElseThrow())
+                    .extracting(ErasureJobDto::getState, ErasureJobDto::getProcessed)
+                    .containsExactly(ErasureState.COMPLETED, 3L);
+            assertThat(executor.runOnce()).isFalse();
+        }
+
+        @Test
+        @DisplayName("fails a job on errors and resumes it after its last batch when it is submitted again")
+        void runOnce_failsAndResumes() throws Exception {
+            long id = queue.submit(7, ErasureMode.REDACT).getId();
+            when(interactionService.eraseCustomerBatch(eq(7), anyLong(), eq(2), eq(ErasureMode.REDACT)))
+                    .thenReturn(List.of(3L, 5L))
+                    .thenThrow(new IllegalStateException("connection reset"))
+                    .thenReturn(List.of());
+
+            executor.runOnce();
+            assertThat(queue.find(id).orElseThrow())
+                    .extracting(ErasureJobDto::getState, ErasureJobDto::getError)
+                    .containsExactly(ErasureState.FAILED, "connection reset");
+
+            assertThat(queue.submit(7, ErasureMode.REDACT).getId()).isEqualTo(id);
+            executor.runOnce();
+
+            verify(interactionService, times(2)).eraseCustomerBatch(7, 5, 2, ErasureMode.REDACT);
+            assertThat(queue.find(id).orElseThrow())
+                    .extracting(ErasureJobDto::getState, ErasureJobDto::getProcessed, ErasureJobDto::getError)
+                    .containsExactly(ErasureState.COMPLETED, 2L, null);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
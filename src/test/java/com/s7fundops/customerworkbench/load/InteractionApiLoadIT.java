@@ -0,0 +1,259 @@
+package com.s7fundops.customerworkbench.load;
+
+import com.s7fundops.customerworkbench.bootstrap.GeneratorSettings;
+import com.s7fundops.customerworkbench.bootstrap.InteractionDataGenerator;
+import com.s7fundops.customerworkbench.config.SeedProperties;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load and soak scenarios against a locally started application: mixed searches, concurrent CSV uploads and single
+ * creates. Runs only with the {@code load-test} Maven profile ({@code ./mvnw -P load-test verify}).
+ * <p>
+ * The database is filled through the {@code seed} profile; search filters are drawn from the first generated rows,
+ * so they follow the same customer, product and date skew as the data. Each scenario reports throughput and latency
+ * percentiles and fails when it regresses against the baseline file. A scenario the file has no numbers for yet
+ * passes and has this run's numbers recorded as its baseline, so the first run on a machine sets it up; commit the
+ * file from the reference machine. {@code load.update-baseline} re-records every scenario. Tunable through system
+ * properties:
+ * {@code load.clients}, {@code load.duration} (ISO-8601, e.g. {@code PT30M} for a soak run), {@code load.seed-rows},
+ * {@code load.tolerance}, {@code load.baseline}, {@code load.results} and {@code load.update-baseline}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "workbench.seed.rows=${load.seed-rows:50000}",
+                "workbench.seed.batch-size=5000"
+        })
+@Slf4j
+@ActiveProfiles("seed")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class InteractionApiLoadIT {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 16);
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT30S"));
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("load.tolerance", "0.25"));
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final Path BASELINE = Path.of(System.getProperty("load.baseline", "src/test/resources/load-baseline.properties"));
+    private static final Path RESULTS = Path.of(System.getProperty("load.results", "target/load-results.properties"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("load.update-baseline");
+    private static final String BOUNDARY = "load-test-boundary";
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private SeedProperties seedProperties;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<LoadResult> results = new ArrayList<>();
+    private LoadBaseline baseline;
+    private boolean baselineRecorded;
+    private List<InteractionLogDto> sample;
+
+    @BeforeAll
+    void setUp() throws IOException {
+        baseline = LoadBaseline.load(BASELINE);
+        sample = new ArrayList<>();
+        new InteractionDataGenerator(seedProperties.getGenerator())
+                .generate(Math.min(10_000, seedProperties.getRows()), 10_000, sample::addAll);
+    }
+
+    @AfterAll
+    void tearDown() throws IOException {
+        LoadBaseline measured = new LoadBaseline();
+        results.forEach(measured::put);
+        measured.write(RESULTS);
+        if (UPDATE_BASELINE) {
+            measured.write(BASELINE);
+        } else if (baselineRecorded) {
+            baseline.write(BASELINE);
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("mixed search traffic")
+    void search() throws Exception {
+        run("search", CLIENTS, this::searchRequest);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("concurrent CSV uploads")
+    void upload() throws Exception {
+        List<byte[]> bodies = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            GeneratorSettings settings = seedProperties.getGenerator().toBuilder().seed(1_000L + i).build();
+            bodies.add(multipart(generate(settings, InteractionDataGenerator.Format.CSV, 1_000)));
+        }
+        AtomicLong next = new AtomicLong();
+        run("upload", Math.max(2, CLIENTS / 4), random -> HttpRequest.newBuilder(uri("/api/interactions"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(bodies.get((int) (next.getAndIncrement() % bodies.size()))))
+                .build());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("single creates at high rate")
+    void create() throws Exception {
+        GeneratorSettings settings = seedProperties.getGenerator().toBuilder().seed(2_000L).build();
+        String[] bodies = new String(generate(settings, InteractionDataGenerator.Format.NDJSON, 10_000),
+                StandardCharsets.US_ASCII).split("\n");
+        AtomicLong next = new AtomicLong();
+        run("create", CLIENTS, random -> HttpRequest.newBuilder(uri("/api/interactions"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(bodies[(int) (next.getAndIncrement() % bodies.length)]))
+                .build());
+    }
+
+    /**
+     * Filter mix modelled on the search page: mostly single-customer lookups, then product and date range queries,
+     * occasionally an unfiltered page.
+     */
+    private HttpRequest searchRequest(SplittableRandom random) {
+        InteractionLogDto row = sample.get(random.nextInt(sample.size()));
+        int pick = random.nextInt(100);
+        StringBuilder query = new StringBuilder("?size=20&page=").append(random.nextInt(10) < 8 ? 0 : random.nextInt(1, 4));
+        if (pick < 35) {
+            query.append("&customerId=").append(row.getCustomerId());
+        } else if (pick < 50) {
+            query.append("&customerId=").append(row.getCustomerId()).append("&interactionType=").append(row.getInteractionType());
+        } else if (pick < 65) {
+            query.append("&productId=").append(row.getProductId());
+        } else if (pick < 75) {
+            query.append("&productId=").append(row.getProductId());
+            appendRange(query, row.getInteractionDate(), Duration.ofDays(30));
+        } else if (pick < 85) {
+            appendRange(query, row.getInteractionDate(), Duration.ofDays(7));
+        } else if (pick < 95) {
+            query.append("&interactionType=").append(row.getInteractionType());
+        }
+        return HttpRequest.newBuilder(uri("/api/interactions" + query)).GET().build();
+    }
+
+    private static void appendRange(StringBuilder query, LocalDateTime from, Duration length) {
+        query.append("&startDate=").append(from.withNano(0))
+                .append("&endDate=").append(from.plus(length).withNano(0));
+    }
+
+    /**
+     * Runs one scenario: {@code clients} threads send requests back to back for the warm-up period, then for the
+     * measured duration. Non-2xx responses and I/O failures count as errors.
+     */
+    private void run(String scenario, int clients, Function<SplittableRandom, HttpRequest> requests) throws Exception {
+        drive(clients, WARM_UP, requests, new LatencyRecorder());
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        long started = System.nanoTime();
+        drive(clients, DURATION, requests, recorder);
+        LoadResult result = recorder.summarize(scenario, Duration.ofNanos(System.nanoTime() - started));
+        results.add(result);
+        log.info("{}", result);
+
+        assertThat(result.requests()).as("%s completed requests", scenario).isPositive();
+        assertThat(result.errorRate()).as("%s error rate", scenario).isLessThanOrEqualTo(MAX_ERROR_RATE);
+        if (UPDATE_BASELINE) {
+            return;
+        }
+        if (!baseline.covers(scenario)) {
+            log.warn("No baseline for {} in {}; recorded this run as its baseline", scenario, BASELINE);
+            baseline.put(result);
+            baselineRecorded = true;
+            return;
+        }
+        assertThat(baseline.regressions(result, TOLERANCE)).as("regressions against %s", BASELINE).isEmpty();
+    }
+
+    private void drive(int clients, Duration duration, Function<SplittableRandom, HttpRequest> requests,
+                       LatencyRecorder recorder) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = requests.apply(random);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() / 100 == 2) {
+                            recorder.record(System.nanoTime() - start);
+                        } else {
+                            recorder.error();
+                        }
+                    } catch (IOException e) {
+                        recorder.error();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] generate(GeneratorSettings settings, InteractionDataGenerator.Format format, int rows)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new InteractionDataGenerator(settings).writeTo(out, format, rows, 1);
+        return out.toByteArray();
+    }
+
+    private static byte[] multipart(byte[] csv) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"interactions.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.write(csv);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
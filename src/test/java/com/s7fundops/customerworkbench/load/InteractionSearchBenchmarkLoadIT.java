@@ -0,0 +1,189 @@
+package com.s7fundops.customerworkbench.load;
+
+import com.s7fundops.customerworkbench.bootstrap.InteractionDataGenerator;
+import com.s7fundops.customerworkbench.config.SeedProperties;
+import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import com.s7fundops.customerworkbench.repositories.InteractionSpecifications;
+import com.s7fundops.customerworkbench.services.InteractionSearchStreamer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the prepared search statements ({@code searchDtos}) with the Criteria {@code Specification} path they
+ * replaced, over all 32 filter combinations with values drawn from the seeded data. Reports mean latency and bytes
+ * allocated per search on the calling thread, and checks both paths return the same rows.
+ * <p>
+ * A second benchmark measures whole JSON responses for large pages: entities serialized through the mapper, DTO
+ * pages, and rows streamed from JDBC by {@link InteractionSearchStreamer}.
+ * Runs with the {@code load-test} Maven profile; {@code load.benchmark-iterations} sets the measured searches per path
+ * and {@code load.benchmark-json-iterations} / {@code load.benchmark-page-size} the responses and page size of the JSON
+ * benchmark.
+ */
+@SpringBootTest(properties = {
+        "workbench.seed.rows=${load.seed-rows:50000}",
+        "workbench.seed.batch-size=5000",
+        "workbench.diagnostics.enabled=false"
+})
+@Slf4j
+@ActiveProfiles("seed")
+class InteractionSearchBenchmarkLoadIT {
+
+    private static final int ITERATIONS = Integer.getInteger("load.benchmark-iterations", 20_000);
+    private static final int JSON_ITERATIONS = Integer.getInteger("load.benchmark-json-iterations", 500);
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "interactionDate", "id"));
+    private static final Pageable LARGE_PAGE = PageRequest.of(0, Integer.getInteger("load.benchmark-page-size", 1_000),
+            Sort.by(Sort.Direction.DESC, "interactionDate", "id"));
+
+    @Autowired
+    private InteractionLogRepository repository;
+
+    @Autowired
+    private InteractionLogMapper mapper;
+
+    @Autowired
+    private SeedProperties seedProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InteractionSearchStreamer searchStreamer;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    @DisplayName("prepared statements versus Specification search")
+    void compareSearchPaths() {
+        List<InteractionLogDto> sample = new ArrayList<>();
+        new InteractionDataGenerator(seedProperties.getGenerator()).generate(1_000, 1_000, sample::addAll);
+        List<InteractionSearchCriteria> criteria = criteria(sample);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Function<InteractionSearchCriteria, Page<InteractionLogDto>> prepared = c -> repository.searchDtos(c, PAGE);
+        Function<InteractionSearchCriteria, Page<InteractionLogDto>> specification = c ->
+                repository.findAll(InteractionSpecifications.matching(c), PAGE).map(mapper::toDto);
+
+        for (InteractionSearchCriteria c : criteria) {
+            readOnly.executeWithoutResult(status -> assertThat(ids(prepared.apply(c)))
+                    .as("rows for %s", c)
+                    .isEqualTo(ids(specification.apply(c))));
+        }
+
+        Measurement specificationResult = measure("specification", criteria, specification::apply, readOnly, ITERATIONS);
+        Measurement preparedResult = measure("prepared", criteria, prepared::apply, readOnly, ITERATIONS);
+        log.info("{}", specificationResult);
+        log.info("{}", preparedResult);
+    }
+
+    @Test
+    @DisplayName("streamed JSON versus serialized entity and DTO pages")
+    void compareJsonResponses() {
+        List<InteractionLogDto> sample = new ArrayList<>();
+        new InteractionDataGenerator(seedProperties.getGenerator()).generate(1_000, 1_000, sample::addAll);
+        List<InteractionSearchCriteria> criteria = criteria(sample);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        OutputStream discard = OutputStream.nullOutputStream();
+
+        Consumer<InteractionSearchCriteria> entities = c -> jsonMapper.writeValue(discard,
+                repository.findAll(InteractionSpecifications.matching(c), LARGE_PAGE).map(mapper::toDto));
+        Consumer<InteractionSearchCriteria> dtos = c -> jsonMapper.writeValue(discard, repository.searchDtos(c, LARGE_PAGE));
+        Consumer<InteractionSearchCriteria> streamed = c -> searchStreamer.writeJson(c, LARGE_PAGE, discard);
+
+        for (InteractionSearchCriteria c : criteria.subList(0, 32)) {
+            readOnly.executeWithoutResult(status -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                searchStreamer.writeJson(c, LARGE_PAGE, out);
+                assertThat(jsonMapper.readTree(out.toByteArray()))
+                        .as("page for %s", c)
+                        .isEqualTo(jsonMapper.readTree(jsonMapper.writeValueAsString(repository.searchDtos(c, LARGE_PAGE))));
+            });
+        }
+
+        log.info("{}", measure("entities json", criteria, entities, readOnly, JSON_ITERATIONS));
+        log.info("{}", measure("dtos json", criteria, dtos, readOnly, JSON_ITERATIONS));
+        log.info("{}", measure("streamed json", criteria, streamed, readOnly, JSON_ITERATIONS));
+    }
+
+    private static List<InteractionSearchCriteria> criteria(List<InteractionLogDto> sample) {
+        SplittableRandom random = new SplittableRandom(11);
+        List<InteractionSearchCriteria> criteria = new ArrayList<>();
+        for (int i = 0; i < 320; i++) {
+            int mask = i % 32;
+            InteractionLogDto row = sample.get(random.nextInt(sample.size()));
+            criteria.add(InteractionSearchCriteria.builder()
+                    .customerId((mask & 1) != 0 ? row.getCustomerId() : null)
+                    .productId((mask & 2) != 0 ? row.getProductId() : null)
+                    .interactionType((mask & 4) != 0 ? row.getInteractionType() : null)
+                    .startDate((mask & 8) != 0 ? row.getInteractionDate().minusDays(15) : null)
+                    .endDate((mask & 16) != 0 ? row.getInteractionDate().plusDays(15) : null)
+                    .build());
+        }
+        return criteria;
+    }
+
+    private static Measurement measure(String name, List<InteractionSearchCriteria> criteria,
+                                       Consumer<InteractionSearchCriteria> search, TransactionTemplate readOnly,
+                                       int iterations) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int i = 0; i < iterations / 10; i++) {
+            InteractionSearchCriteria c = criteria.get(i % criteria.size());
+            readOnly.executeWithoutResult(status -> search.accept(c));
+        }
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            InteractionSearchCriteria c = criteria.get(i % criteria.size());
+            readOnly.executeWithoutResult(status -> search.accept(c));
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Measurement(name, elapsed / (double) iterations / 1_000, allocated / (double) iterations);
+    }
+
+    private static List<Long> ids(Page<InteractionLogDto> page) {
+        List<Long> ids = new ArrayList<>(page.getContent().stream().map(InteractionLogDto::getId).toList());
+        ids.add(page.getTotalElements());
+        return ids;
+    }
+
+    private record Measurement(String name, double microsPerSearch, double bytesPerSearch) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-14s %9.1f us/search %12.0f bytes/search", name, microsPerSearch,
+                    bytesPerSearch);
+        }
+    }
+}
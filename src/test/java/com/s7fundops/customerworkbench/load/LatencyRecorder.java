@@ -0,0 +1,48 @@
+package com.s7fundops.customerworkbench.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Collects request latencies and failures for one load scenario, shared by all client threads.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1 << 14];
+    private int count;
+    private int errors;
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized void error() {
+        errors++;
+    }
+
+    synchronized LoadResult summarize(String scenario, Duration elapsed) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double seconds = elapsed.toNanos() / 1e9;
+        return new LoadResult(
+                scenario,
+                count,
+                errors,
+                count / seconds,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.95),
+                percentileMillis(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,80 @@
+package com.s7fundops.customerworkbench.load;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Reference throughput and latency per scenario, stored as a properties file ({@code <scenario>.throughput},
+ * {@code <scenario>.p95}, {@code <scenario>.p99}). A result regresses when its throughput drops, or its p95 or p99
+ * latency grows, by more than the tolerance.
+ */
+class LoadBaseline {
+
+    private final Properties values = new Properties();
+
+    static LoadBaseline load(Path path) throws IOException {
+        LoadBaseline baseline = new LoadBaseline();
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                baseline.values.load(reader);
+            }
+        }
+        return baseline;
+    }
+
+    boolean covers(String scenario) {
+        return values.containsKey(scenario + ".throughput");
+    }
+
+    List<String> regressions(LoadResult result, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        String scenario = result.scenario();
+        double throughput = value(scenario, "throughput");
+        if (result.throughput() < throughput * (1 - tolerance)) {
+            regressions.add(describe(scenario, "throughput", result.throughput(), throughput));
+        }
+        double p95 = value(scenario, "p95");
+        if (result.p95Millis() > p95 * (1 + tolerance)) {
+            regressions.add(describe(scenario, "p95", result.p95Millis(), p95));
+        }
+        double p99 = value(scenario, "p99");
+        if (result.p99Millis() > p99 * (1 + tolerance)) {
+            regressions.add(describe(scenario, "p99", result.p99Millis(), p99));
+        }
+        return regressions;
+    }
+
+    void put(LoadResult result) {
+        values.setProperty(result.scenario() + ".throughput", format(result.throughput()));
+        values.setProperty(result.scenario() + ".p95", format(result.p95Millis()));
+        values.setProperty(result.scenario() + ".p99", format(result.p99Millis()));
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            values.store(writer, "Load test baseline: throughput in requests/s, latencies in ms");
+        }
+    }
+
+    private double value(String scenario, String metric) {
+        return Double.parseDouble(values.getProperty(scenario + "." + metric));
+    }
+
+    private static String describe(String scenario, String metric, double actual, double expected) {
+        return String.format(Locale.ROOT, "%s %s %.1f vs baseline %.1f", scenario, metric, actual, expected);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
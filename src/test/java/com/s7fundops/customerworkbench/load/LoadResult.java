@@ -0,0 +1,28 @@
+package com.s7fundops.customerworkbench.load;
+
+import java.util.Locale;
+
+/**
+ * Throughput and latency percentiles of one load scenario run.
+ */
+record LoadResult(String scenario,
+                  long requests,
+                  long errors,
+                  double throughput,
+                  double p50Millis,
+                  double p95Millis,
+                  double p99Millis,
+                  double maxMillis) {
+
+    double errorRate() {
+        long total = requests + errors;
+        return total == 0 ? 0 : (double) errors / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%-8s %8d req %5d err %9.1f req/s  p50 %7.1f ms  p95 %7.1f ms  p99 %7.1f ms  max %7.1f ms",
+                scenario, requests, errors, throughput, p50Millis, p95Millis, p99Millis, maxMillis);
+    }
+}
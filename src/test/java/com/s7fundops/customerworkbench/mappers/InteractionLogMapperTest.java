@@ -1,10 +1,10 @@
 package com.s7fundops.customerworkbench.mappers;
 
 import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
 import com.s7fundops.customerworkbench.model.InteractionLogDto;
 import com.s7fundops.customerworkbench.model.InteractionType;
 import org.junit.jupiter.api.Test;
-import org.mapstruct.factory.Mappers;
 
 import java.time.LocalDateTime;
 
@@ -12,7 +12,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 class InteractionLogMapperTest {
 
-    private final InteractionLogMapper mapper = Mappers.getMapper(InteractionLogMapper.class);
+    private final InteractionLogMapper mapper = new InteractionLogMapperImpl();
 
     @Test
     void toEntity_mapsAllSimpleFields_andIgnoresEntityOnlyFields() {
@@ -26,6 +26,7 @@ class InteractionLogMapperTest {
                 .feedback("Great support!")
                 .interactionDate(when)
                 .responsesFromCustomerSupport("You're welcome")
+                .version(3L)
                 .build();
 
         InteractionLog entity = mapper.toEntity(dto);
@@ -38,6 +39,10 @@ class InteractionLogMapperTest {
         assertThat(entity.getFeedback()).isEqualTo("Great support!");
         assertThat(entity.getInteractionDate()).isEqualTo(when);
         assertThat(entity.getResponsesFromCustomerSupport()).isEqualTo("You're welcome");
+        // left for the writer to resolve, so mapping never touches the database
+        assertThat(entity.getSupportResponse().getId()).isNull();
+        assertThat(entity.getSupportResponse().getContentHash())
+                .isEqualTo(SupportResponse.contentHash("You're welcome"));
 
         // ignored fields
         assertThat(entity.getVersion()).isNull();
@@ -56,7 +61,7 @@ class InteractionLogMapperTest {
         entity.setCustomerRating(3);
         entity.setFeedback("ok");
         entity.setInteractionDate(when);
-        entity.setResponsesFromCustomerSupport("answer");
+        entity.setSupportResponse(SupportResponse.of("answer"));
         entity.setVersion(1L);
 
         InteractionLogDto dto = mapper.toDto(entity);
@@ -69,5 +74,19 @@ class InteractionLogMapperTest {
         assertThat(dto.getFeedback()).isEqualTo("ok");
         assertThat(dto.getInteractionDate()).isEqualTo(when);
         assertThat(dto.getResponsesFromCustomerSupport()).isEqualTo("answer");
+        assertThat(dto.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void toDto_withoutSupportResponse_mapsNullResponse() {
+        InteractionLog entity = new InteractionLog();
+        entity.setId(8L);
+        entity.setProductId(1);
+        entity.setCustomerId(2);
+        entity.setInteractionType(InteractionType.FORM);
+
+        InteractionLogDto dto = mapper.toDto(entity);
+
+        assertThat(dto.getResponsesFromCustomerSupport()).isNull();
     }
 }
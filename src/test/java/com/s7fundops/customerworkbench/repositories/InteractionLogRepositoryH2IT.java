@@ -1,19 +1,41 @@
 package com.s7fundops.customerworkbench.repositories;
 
+import com.s7fundops.customerworkbench.config.SearchProperties;
+import com.s7fundops.customerworkbench.config.ShardingProperties;
 import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateResult;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
 import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.model.InteractionVersion;
+import com.s7fundops.customerworkbench.services.InteractionSearchCounter;
+import com.s7fundops.customerworkbench.services.InteractionSearchStreamer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.json.JsonMapper;
 
 import jakarta.validation.ConstraintViolationException;
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -22,6 +44,12 @@ class InteractionLogRepositoryH2IT {
     @Autowired
     private InteractionLogRepository repository;
 
+    @Autowired
+    private SupportResponseRepository supportResponseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void savesAndReadsEntity() {
         InteractionLog log = new InteractionLog();
@@ -31,7 +59,7 @@ class InteractionLogRepositoryH2IT {
         log.setCustomerRating(4);
         log.setFeedback("Problem resolved");
         log.setInteractionDate(LocalDateTime.now().withNano(0));
-        log.setResponsesFromCustomerSupport("Resolved via ticket #123");
+        log.setSupportResponse(supportResponseRepository.saveAndFlush(SupportResponse.of("Resolved via ticket #123")));
 
         InteractionLog saved = repository.saveAndFlush(log);
 
@@ -48,6 +76,214 @@ class InteractionLogRepositoryH2IT {
         assertThat(found.getResponsesFromCustomerSupport()).contains("ticket #123");
     }
 
+    @Test
+    void sharesSupportResponseBetweenInteractions() {
+        SupportResponse response = supportResponseRepository.saveAndFlush(SupportResponse.of("Thanks for reaching out"));
+
+        for (int i = 0; i < 2; i++) {
+            InteractionLog log = new InteractionLog();
+            log.setProductId(100);
+            log.setCustomerId(300);
+            log.setInteractionType(InteractionType.EMAIL);
+            log.setSupportResponse(response);
+            repository.saveAndFlush(log);
+        }
+
+        assertThat(supportResponseRepository.findByContentHash(SupportResponse.contentHash("Thanks for reaching out")))
+                .get()
+                .extracting(SupportResponse::getId)
+                .isEqualTo(response.getId());
+        assertThat(repository.findAll())
+                .filteredOn(log -> log.getCustomerId() == 300)
+                .extracting(InteractionLog::getResponsesFromCustomerSupport)
+                .containsExactly("Thanks for reaching out", "Thanks for reaching out");
+    }
+
+    @Test
+    void searchDtosMatchesSpecificationSearch() {
+        SupportResponse response = supportResponseRepository.saveAndFlush(SupportResponse.of("We are on it"));
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 0, 0);
+        for (int i = 0; i < 6; i++) {
+            InteractionLog log = new InteractionLog();
+            log.setProductId(500 + i % 2);
+            log.setCustomerId(400);
+            log.setInteractionType(i % 3 == 0 ? InteractionType.FORM : InteractionType.CHAT);
+            log.setCustomerRating(1 + i % 5);
+            log.setInteractionDate(start.plusDays(i));
+            log.setSupportResponse(i % 2 == 0 ? response : null);
+            repository.saveAndFlush(log);
+        }
+        InteractionSearchCriteria criteria = InteractionSearchCriteria.builder()
+                .customerId(400)
+                .productId(500)
+                .startDate(start.plusDays(1))
+                .build();
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "interactionDate"));
+
+        Page<InteractionLogDto> dtos = repository.searchDtos(criteria, pageable);
+        Page<InteractionLog> entities = repository.findAll(InteractionSpecifications.matching(criteria), pageable);
+
+        assertThat(dtos.getTotalElements()).isEqualTo(entities.getTotalElements()).isEqualTo(2);
+        assertThat(dtos.getContent()).extracting(InteractionLogDto::getId)
+                .containsExactlyElementsOf(entities.getContent().stream().map(InteractionLog::getId).toList());
+        assertThat(dtos.getContent()).extracting(InteractionLogDto::getResponsesFromCustomerSupport)
+                .containsOnly("We are on it");
+        assertThat(repository.countSearch(criteria)).isEqualTo(2);
+        assertThat(repository.estimateSearchCount(criteria)).as("planner estimates are PostgreSQL only").isEmpty();
+    }
+
+    @Test
+    void streamedSearchWritesTheSameJsonAsTheDtoPage() {
+        SupportResponse response = supportResponseRepository.saveAndFlush(SupportResponse.of("Escalated, \"urgent\""));
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 8, 30, 0, 250_000_000);
+        for (int i = 0; i < 7; i++) {
+            InteractionLog log = new InteractionLog();
+            log.setProductId(700);
+            log.setCustomerId(600 + i % 2);
+            log.setInteractionType(InteractionType.values()[i % 4]);
+            log.setCustomerRating(i % 3 == 0 ? null : i % 5);
+            log.setFeedback(i == 2 ? null : "Feedback \u00e9 " + i);
+            log.setInteractionDate(i == 4 ? null : start.plusHours(i));
+            log.setSupportResponse(i % 2 == 0 ? response : null);
+            repository.saveAndFlush(log);
+        }
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        InteractionSearchCounter counter = new InteractionSearchCounter(repository, new SearchProperties(),
+                new SimpleMeterRegistry());
+        InteractionSearchStreamer streamer = new InteractionSearchStreamer(repository,
+                new ShardedInteractionRepository(new ShardingProperties(), new SimpleMeterRegistry()), counter,
+                jsonMapper);
+        InteractionSearchCriteria all = InteractionSearchCriteria.builder().productId(700).build();
+        InteractionSearchCriteria customer = InteractionSearchCriteria.builder()
+                .productId(700)
+                .customerId(600)
+                .interactionType(InteractionType.CHAT)
+                .startDate(start)
+                .build();
+
+        for (PageRequest pageable : new PageRequest[]{
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "interactionDate", "id")),
+                PageRequest.of(1, 3, Sort.by("customerRating", "id")),
+                PageRequest.of(2, 3, Sort.by("id")),
+                PageRequest.of(5, 3, Sort.by("id")),
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "id"))}) {
+            for (InteractionSearchCriteria criteria : new InteractionSearchCriteria[]{all, customer}) {
+                ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+                streamer.writeJson(criteria, pageable, streamed);
+
+                assertThat(jsonMapper.readTree(streamed.toByteArray()))
+                        .as("%s %s", criteria, pageable)
+                        .isEqualTo(jsonMapper.readTree(jsonMapper.writeValueAsString(
+                                counter.page(criteria, pageable, repository.searchContent(criteria, pageable)))));
+            }
+        }
+    }
+
+    @Test
+    void erasesCustomerInKeysetBatches() {
+        SupportResponse response = supportResponseRepository.saveAndFlush(SupportResponse.of("Call me back on 555-0100"));
+        for (int i = 0; i < 5; i++) {
+            InteractionLog log = new InteractionLog();
+            log.setProductId(700);
+            log.setCustomerId(i < 4 ? 600 : 601);
+            log.setInteractionType(InteractionType.CHAT);
+            log.setFeedback("Personal detail " + i);
+            log.setSupportResponse(response);
+            repository.saveAndFlush(log);
+        }
+        InteractionSearchCriteria customer = InteractionSearchCriteria.builder().customerId(600).build();
+        PageRequest byId = PageRequest.of(0, 10, Sort.by("id"));
+        List<Long> ids = repository.searchDtos(customer, byId).getContent().stream()
+                .map(InteractionLogDto::getId)
+                .toList();
+
+        // customer 601 still refers to the response, so redacting customer 600 keeps it
+        assertThat(repository.eraseCustomerBatch(600, 0, 3, ErasureMode.REDACT))
+                .isEqualTo(new InteractionLogRepositoryCustom.ErasedBatch(ids.subList(0, 3), List.of()));
+        assertThat(repository.eraseCustomerBatch(600, ids.get(2), 3, ErasureMode.REDACT).ids())
+                .isEqualTo(ids.subList(3, 4));
+        assertThat(repository.eraseCustomerBatch(600, ids.get(3), 3, ErasureMode.REDACT).ids()).isEmpty();
+        assertThat(supportResponseRepository.existsById(response.getId())).isTrue();
+        assertThat(repository.searchDtos(customer, byId).getContent())
+                .hasSize(4)
+                .allSatisfy(dto -> {
+                    assertThat(dto.getFeedback()).isNull();
+                    assertThat(dto.getResponsesFromCustomerSupport()).isNull();
+                    assertThat(dto.getVersion()).isEqualTo(1L);
+                });
+
+        assertThat(repository.eraseCustomerBatch(600, 0, 10, ErasureMode.DELETE).ids()).isEqualTo(ids);
+        assertThat(repository.countSearch(customer)).isZero();
+        assertThat(repository.searchDtos(InteractionSearchCriteria.builder().customerId(601).build(), byId).getContent())
+                .singleElement()
+                .extracting(InteractionLogDto::getFeedback)
+                .isEqualTo("Personal detail 4");
+
+        // the last interaction referring to the response takes its text with it
+        assertThat(repository.eraseCustomerBatch(601, 0, 10, ErasureMode.REDACT).supportResponseHashes())
+                .containsExactly(response.getContentHash());
+        assertThat(supportResponseRepository.existsById(response.getId())).isFalse();
+    }
+
+    @Test
+    void appliesVersionedUpdatesAndReportsConflicts() {
+        SupportResponse response = supportResponseRepository.saveAndFlush(SupportResponse.of("Refund issued"));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            InteractionLog log = new InteractionLog();
+            log.setProductId(800);
+            log.setCustomerId(900);
+            log.setInteractionType(InteractionType.EMAIL);
+            log.setFeedback("Where is my refund " + i);
+            ids.add(repository.saveAndFlush(log).getId());
+        }
+
+        InteractionBulkUpdateResult result = repository.updateBatch(List.of(
+                InteractionPatch.builder().id(ids.get(2)).version(0L).responsesFromCustomerSupport("Refund issued").build(),
+                InteractionPatch.builder().id(ids.get(0)).version(0L).feedback("Refund received").build(),
+                InteractionPatch.builder().id(ids.get(1)).version(3L).feedback("stale").build(),
+                InteractionPatch.builder().id(-1L).version(0L).feedback("missing").build()),
+                Arrays.asList(response.getId(), null, null, null));
+
+        assertThat(result.getUpdated())
+                .extracting(InteractionVersion::getId, InteractionVersion::getCustomerId, InteractionVersion::getVersion)
+                .containsExactly(tuple(ids.get(2), 900, 1L), tuple(ids.get(0), 900, 1L));
+        assertThat(result.getConflicts())
+                .extracting(InteractionVersion::getId, InteractionVersion::getCustomerId, InteractionVersion::getVersion)
+                .containsExactly(tuple(ids.get(1), 900, 0L), tuple(-1L, null, null));
+        assertThat(repository.findDtosByIdIn(ids))
+                .extracting(InteractionLogDto::getId, InteractionLogDto::getFeedback,
+                        InteractionLogDto::getResponsesFromCustomerSupport, InteractionLogDto::getVersion)
+                .containsExactlyInAnyOrder(
+                        tuple(ids.get(0), "Refund received", null, 1L),
+                        tuple(ids.get(1), "Where is my refund 1", null, 0L),
+                        tuple(ids.get(2), "Where is my refund 2", "Refund issued", 1L));
+    }
+
+    @Test
+    void clearsFieldsAndPatchesRowsStoredWithoutVersion() {
+        SupportResponse response = supportResponseRepository.saveAndFlush(SupportResponse.of("Call me back"));
+        InteractionLog log = new InteractionLog();
+        log.setProductId(801);
+        log.setCustomerId(901);
+        log.setInteractionType(InteractionType.CHAT);
+        log.setFeedback("Please call");
+        log.setSupportResponse(response);
+        Long id = repository.saveAndFlush(log).getId();
+        jdbcTemplate.update("update interaction_log set version = null where id = ?", id);
+
+        InteractionBulkUpdateResult result = repository.updateBatch(List.of(
+                InteractionPatch.builder().id(id).version(0L).clearFeedback(true)
+                        .clearResponsesFromCustomerSupport(true).build()),
+                Arrays.asList((Long) null));
+
+        assertThat(result.getUpdated()).extracting(InteractionVersion::getVersion).containsExactly(1L);
+        assertThat(repository.findDtosByIdIn(List.of(id)))
+                .extracting(InteractionLogDto::getFeedback, InteractionLogDto::getResponsesFromCustomerSupport,
+                        InteractionLogDto::getVersion)
+                .containsExactly(tuple(null, null, 1L));
+    }
+
     @Test
     void violatesNotNullConstraints() {
         InteractionLog log = new InteractionLog();
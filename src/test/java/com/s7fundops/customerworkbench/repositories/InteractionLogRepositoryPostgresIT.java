@@ -1,6 +1,8 @@
 package com.s7fundops.customerworkbench.repositories;
 
 import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
 import com.s7fundops.customerworkbench.model.InteractionType;
 import com.s7fundops.customerworkbench.TestcontainersConfiguration;
 import org.junit.jupiter.api.Test;
@@ -31,6 +33,9 @@ class InteractionLogRepositoryPostgresIT {
     @Autowired
     private InteractionLogRepository repository;
 
+    @Autowired
+    private SupportResponseRepository supportResponseRepository;
+
     @Test
     void savesAndReadsEntity() {
         InteractionLog log = new InteractionLog();
@@ -40,7 +45,7 @@ class InteractionLogRepositoryPostgresIT {
         log.setCustomerRating(4);
         log.setFeedback("Problem resolved");
         log.setInteractionDate(LocalDateTime.now().withNano(0));
-        log.setResponsesFromCustomerSupport("Resolved via ticket #123");
+        log.setSupportResponse(supportResponseRepository.saveAndFlush(SupportResponse.of("Resolved via ticket #123")));
 
         InteractionLog saved = repository.saveAndFlush(log);
 
@@ -57,6 +62,46 @@ class InteractionLogRepositoryPostgresIT {
         assertThat(found.getResponsesFromCustomerSupport()).contains("ticket #123");
     }
 
+    @Test
+    void sharesSupportResponseBetweenInteractions() {
+        SupportResponse response = supportResponseRepository.saveAndFlush(SupportResponse.of("Thanks for reaching out"));
+
+        for (int i = 0; i < 2; i++) {
+            InteractionLog log = new InteractionLog();
+            log.setProductId(100);
+            log.setCustomerId(300);
+            log.setInteractionType(InteractionType.EMAIL);
+            log.setSupportResponse(response);
+            repository.saveAndFlush(log);
+        }
+
+        assertThat(supportResponseRepository.findByContentHash(SupportResponse.contentHash("Thanks for reaching out")))
+                .get()
+                .extracting(SupportResponse::getId)
+                .isEqualTo(response.getId());
+        assertThat(repository.findAll())
+                .filteredOn(log -> log.getCustomerId() == 300)
+                .extracting(InteractionLog::getResponsesFromCustomerSupport)
+                .containsExactly("Thanks for reaching out", "Thanks for reaching out");
+    }
+
+    @Test
+    void estimatesSearchCountsFromThePlanner() {
+        InteractionLog log = new InteractionLog();
+        log.setProductId(100);
+        log.setCustomerId(400);
+        log.setInteractionType(InteractionType.CHAT);
+        repository.saveAndFlush(log);
+
+        InteractionSearchCriteria criteria = InteractionSearchCriteria.builder()
+                .customerId(400)
+                .interactionType(InteractionType.CHAT)
+                .build();
+
+        assertThat(repository.estimateSearchCount(criteria)).isPresent();
+        assertThat(repository.countSearch(criteria)).isEqualTo(1);
+    }
+
     @Test
     void violatesNotNullConstraints() {
         InteractionLog log = new InteractionLog();
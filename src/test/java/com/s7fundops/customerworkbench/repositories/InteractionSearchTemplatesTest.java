@@ -0,0 +1,127 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InteractionSearchTemplatesTest {
+
+    private final InteractionSearchTemplates templates = new InteractionSearchTemplates();
+
+    @Test
+    @DisplayName("builds one distinct statement per filter combination")
+    void get_distinctPerMask() {
+        Set<String> selects = new HashSet<>();
+        for (int mask = 0; mask < 32; mask++) {
+            selects.add(templates.get(mask, Sort.unsorted()).select());
+        }
+
+        assertThat(selects).hasSize(32);
+        assertThat(templates.get(0, Sort.unsorted()).select()).doesNotContain("where");
+        assertThat(templates.get(0, Sort.unsorted()).count()).isEqualTo("select count(i) from InteractionLog i");
+    }
+
+    @Test
+    @DisplayName("only includes predicates for the filters present")
+    void get_includesOnlyPresentFilters() {
+        InteractionSearchCriteria criteria = InteractionSearchCriteria.builder()
+                .customerId(1)
+                .interactionType(InteractionType.CHAT)
+                .endDate(LocalDateTime.now())
+                .build();
+
+        InteractionSearchTemplates.Template template = templates.get(InteractionSearchTemplates.mask(criteria),
+                Sort.by(Sort.Direction.DESC, "interactionDate"));
+
+        assertThat(template.select())
+                .contains(" where i.customerId = :customerId and i.interactionType = :interactionType"
+                        + " and i.interactionDate <= :endDate order by i.interactionDate desc")
+                .doesNotContain(":productId", ":startDate");
+        assertThat(template.count()).doesNotContain("order by");
+    }
+
+    @Test
+    @DisplayName("reuses the cached template for the same shape and sort")
+    void get_caches() {
+        Sort sort = Sort.by("customerRating").ascending().and(Sort.by("id").descending());
+
+        InteractionSearchTemplates.Template first = templates.get(3, sort);
+
+        assertThat(templates.get(3, Sort.by("customerRating").ascending().and(Sort.by("id").descending()))).isSameAs(first);
+        assertThat(first.select()).endsWith(" order by i.customerRating asc, i.id desc");
+        assertThat(templates.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("rejects a sort that names a property twice")
+    void get_rejectsDuplicateSortProperty() {
+        Sort sort = Sort.by("customerRating").ascending().and(Sort.by("customerRating").descending());
+
+        assertThatThrownBy(() -> templates.get(0, sort))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("customerRating");
+        assertThat(templates.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("keeps a bounded number of templates")
+    void get_boundsCache() {
+        String[] properties = {"id", "productId", "customerId", "interactionType", "customerRating",
+                "interactionDate"};
+        for (int mask = 0; mask < 32; mask++) {
+            for (String first : properties) {
+                for (String second : properties) {
+                    if (!first.equals(second)) {
+                        templates.get(mask, Sort.by(first).and(Sort.by(second).descending()));
+                    }
+                }
+            }
+        }
+
+        assertThat(templates.size()).isLessThanOrEqualTo(InteractionSearchTemplates.MAX_TEMPLATES);
+    }
+
+    @Test
+    @DisplayName("builds matching native statements with positional parameters and paging")
+    void get_nativeStatements() {
+        InteractionSearchTemplates.Template template = templates.get(
+                InteractionSearchTemplates.PRODUCT | InteractionSearchTemplates.START,
+                Sort.by(Sort.Direction.DESC, "interactionType").and(Sort.by("id")));
+
+        assertThat(template.nativeSelect())
+                .contains("left join support_response r on r.id = i.support_response_id")
+                .endsWith(" where i.product_id = ? and i.interaction_date >= ?"
+                        + " order by i.interaction_type_code desc, i.id asc offset ? rows fetch next ? rows only");
+        assertThat(template.nativeCount())
+                .isEqualTo("select count(*) from interaction_log i where i.product_id = ? and i.interaction_date >= ?");
+        assertThat(template.nativeEstimate())
+                .isEqualTo("explain select 1 from interaction_log i where i.product_id = ? and i.interaction_date >= ?");
+    }
+
+    @Test
+    @DisplayName("rejects sorting by unknown properties")
+    void get_rejectsUnknownSort() {
+        assertThatThrownBy(() -> templates.get(0, Sort.by("feedback; drop table interaction_log")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("merge statements order nulls last with the id as tie-breaker")
+    void get_mergeSelectIsTotallyOrdered() {
+        InteractionSearchTemplates.Template template = templates.get(InteractionSearchTemplates.PRODUCT,
+                Sort.by(Sort.Direction.DESC, "interactionDate"));
+
+        assertThat(template.mergeSelect()).endsWith(" where i.product_id = ?"
+                + " order by i.interaction_date desc nulls last, i.id desc nulls last offset ? rows fetch next ? rows only");
+        assertThat(InteractionSearchTemplates.mergeSort(Sort.unsorted())).isEqualTo(Sort.by(Sort.Order.asc("id").nullsLast()));
+    }
+}
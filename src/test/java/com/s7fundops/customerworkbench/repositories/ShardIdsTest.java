@@ -0,0 +1,34 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardIdsTest {
+
+    @Test
+    @DisplayName("global ids carry their shard and local id")
+    void encode_roundTrips() {
+        long id = ShardIds.encode(123_456_789L, 7);
+
+        assertThat(ShardIds.shardOfId(id)).isEqualTo(7);
+        assertThat(ShardIds.localId(id)).isEqualTo(123_456_789L);
+        assertThat(ShardIds.encode(2, 0)).isGreaterThan(ShardIds.encode(1, ShardIds.MAX_SHARDS - 1));
+    }
+
+    @Test
+    @DisplayName("spreads consecutive customers evenly")
+    void shardOf_isBalanced() {
+        int[] customers = new int[3];
+        for (int customerId = 1; customerId <= 30_000; customerId++) {
+            customers[ShardIds.shardOf(customerId, 3)]++;
+        }
+
+        for (int count : customers) {
+            assertThat(count).isBetween(9_000, 11_000);
+        }
+        assertThat(ShardIds.shardOf(-5, 3)).isBetween(0, 2);
+        assertThat(ShardIds.shardOf(42, 1)).isZero();
+    }
+}
@@ -0,0 +1,240 @@
+package com.s7fundops.customerworkbench.repositories;
+
+import com.s7fundops.customerworkbench.config.ShardingProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import com.s7fundops.customerworkbench.model.CustomerTimelineEntry;
+import com.s7fundops.customerworkbench.model.ErasureMode;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.model.SearchPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the sharded repository against three in-memory H2 databases migrated by Flyway.
+ */
+class ShardedInteractionRepositoryTest {
+
+    private static final int SHARDS = 3;
+
+    private static ShardedInteractionRepository repository;
+    private static List<InteractionLogDto> stored;
+
+    @BeforeAll
+    static void setUp() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setMaxFanOut(2);
+        properties.setMaxMergeRows(100);
+        String run = UUID.randomUUID().toString();
+        for (int i = 0; i < SHARDS; i++) {
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setUrl("jdbc:h2:mem:shard-%s-%d;DB_CLOSE_DELAY=-1".formatted(run, i));
+            shard.setUsername("sa");
+            shard.setPassword("");
+            shard.setMaximumPoolSize(4);
+            properties.getShards().add(shard);
+        }
+        repository = new ShardedInteractionRepository(properties, new SimpleMeterRegistry());
+
+        Random random = new Random(7);
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 8, 0);
+        List<InteractionLogDto> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rows.add(InteractionLogDto.builder()
+                    .productId(1 + random.nextInt(4))
+                    .customerId(1 + random.nextInt(40))
+                    .interactionType(InteractionType.values()[random.nextInt(InteractionType.values().length)])
+                    .customerRating(i % 7 == 0 ? null : 1 + random.nextInt(5))
+                    .feedback("Feedback " + i)
+                    // a few rows without a date and many sharing one, so nulls and ties are merged too
+                    .interactionDate(i % 23 == 0 ? null : start.plusHours(random.nextInt(120)))
+                    .responsesFromCustomerSupport(i % 3 == 0 ? null : "Template " + i % 5)
+                    .build());
+        }
+
+        List<InteractionLog> inserted = repository.insert(rows);
+        stored = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            InteractionLogDto row = rows.get(i);
+            stored.add(new InteractionLogDto(inserted.get(i).getId(), row.getProductId(), row.getCustomerId(),
+                    row.getInteractionType(), row.getCustomerRating(), row.getFeedback(), row.getInteractionDate(),
+                    row.getResponsesFromCustomerSupport(), 0L));
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        repository.destroy();
+    }
+
+    @Nested
+    @DisplayName("Writes and lookups")
+    class WritesAndLookups {
+
+        @Test
+        @DisplayName("places each customer on one shard and encodes that shard in the ids")
+        void insert_routesByCustomer() {
+            assertThat(stored).allSatisfy(dto -> assertThat(ShardIds.shardOfId(dto.getId()))
+                    .isEqualTo(ShardIds.shardOf(dto.getCustomerId(), SHARDS)));
+            assertThat(stored).extracting(dto -> ShardIds.shardOfId(dto.getId())).containsOnly(0, 1, 2);
+            assertThat(stored).extracting(InteractionLogDto::getId).doesNotHaveDuplicates();
+            assertThat(repository.isEmpty()).isFalse();
+        }
+
+        @Test
+        @DisplayName("finds interactions by id on their shard")
+        void findById_readsEncodedShard() {
+            InteractionLogDto expected = stored.get(42);
+
+            assertThat(repository.findById(expected.getId())).contains(expected);
+            assertThat(repository.findById(ShardIds.encode(1_000_000, 1))).isEmpty();
+            assertThat(repository.findById(ShardIds.encode(1, 200))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("fetches ids spread over several shards")
+        void findAllByIds_collectsFromEveryShard() {
+            List<InteractionLogDto> expected = List.of(stored.get(0), stored.get(1), stored.get(2), stored.get(3));
+
+            assertThat(repository.findAllByIds(expected.stream().map(InteractionLogDto::getId).toList()))
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+
+        @Test
+        @DisplayName("stores a support response again once an erasure has deleted it from the shard")
+        void insert_afterErasureStoresResponseAgain() {
+            InteractionLogDto row = InteractionLogDto.builder()
+                    .productId(1)
+                    .customerId(900)
+                    .interactionType(InteractionType.EMAIL)
+                    .responsesFromCustomerSupport("Only for customer 900")
+                    .build();
+            repository.insert(List.of(row));
+            assertThat(repository.eraseCustomerBatch(900, 0, 10, ErasureMode.DELETE).supportResponseHashes())
+                    .containsExactly(SupportResponse.contentHash("Only for customer 900"));
+
+            Long id = repository.insert(List.of(row)).getFirst().getId();
+
+            assertThat(repository.findById(id)).get()
+                    .extracting(InteractionLogDto::getResponsesFromCustomerSupport)
+                    .isEqualTo("Only for customer 900");
+            // leave the shards as the other tests expect them
+            assertThat(repository.eraseCustomerBatch(900, 0, 10, ErasureMode.DELETE).ids()).containsExactly(id);
+        }
+    }
+
+    @Nested
+    @DisplayName("Search")
+    class Search {
+
+        @Test
+        @DisplayName("merges pages across shards in the requested order")
+        void search_mergesShards() {
+            InteractionSearchCriteria criteria = InteractionSearchCriteria.builder().productId(2).build();
+            Sort sort = Sort.by(Sort.Direction.DESC, "interactionDate");
+            List<InteractionLogDto> expected = stored.stream()
+                    .filter(dto -> dto.getProductId() == 2)
+                    .sorted(Comparator.comparing(InteractionLogDto::getInteractionDate,
+                                    Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                            .thenComparing(InteractionLogDto::getId, Comparator.reverseOrder()))
+                    .toList();
+
+            List<InteractionLogDto> paged = new ArrayList<>();
+            for (int page = 0; page < 4; page++) {
+                SearchPage<InteractionLogDto> result = repository.search(criteria, PageRequest.of(page, 25, sort));
+                assertThat(result.getTotalElements()).isEqualTo(expected.size());
+                assertThat(result.isTotalExact()).isTrue();
+                paged.addAll(result.getContent());
+            }
+
+            assertThat(paged).containsExactlyElementsOf(expected.subList(0, Math.min(100, expected.size())));
+        }
+
+        @Test
+        @DisplayName("counts shards whose rows did not fit the merge window")
+        void search_countsTruncatedShards() {
+            SearchPage<InteractionLogDto> result = repository.search(InteractionSearchCriteria.builder().build(),
+                    PageRequest.of(0, 10, Sort.by("customerRating")));
+
+            assertThat(result.getTotalElements()).isEqualTo(stored.size());
+            assertThat(result.getContent()).extracting(InteractionLogDto::getCustomerRating).containsOnly(1);
+        }
+
+        @Test
+        @DisplayName("answers customer searches from the customer's shard alone")
+        void search_singleShardForCustomer() {
+            InteractionLogDto sample = stored.get(10);
+            InteractionSearchCriteria criteria = InteractionSearchCriteria.builder()
+                    .customerId(sample.getCustomerId())
+                    .build();
+            List<InteractionLogDto> expected = stored.stream()
+                    .filter(dto -> dto.getCustomerId().equals(sample.getCustomerId()))
+                    .sorted(Comparator.comparing(InteractionLogDto::getId))
+                    .toList();
+
+            SearchPage<InteractionLogDto> result = repository.search(criteria, PageRequest.of(0, 3, Sort.by("id")));
+
+            assertThat(result.getTotalElements()).isEqualTo(expected.size());
+            assertThat(result.getContent()).containsExactlyElementsOf(expected.subList(0, Math.min(3, expected.size())));
+        }
+
+        @Test
+        @DisplayName("rejects cross-shard pages deeper than the merge limit")
+        void search_rejectsDeepPages() {
+            assertThatThrownBy(() -> repository.search(InteractionSearchCriteria.builder().build(),
+                    PageRequest.of(10, 10)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("at most row 100");
+        }
+
+        @Test
+        @DisplayName("adds up facet counts of all shards")
+        void facets_sumShards() {
+            InteractionFacetsDto facets = repository.facets(InteractionSearchCriteria.builder()
+                    .interactionType(InteractionType.EMAIL)
+                    .build());
+
+            long emails = stored.stream().filter(dto -> dto.getInteractionType() == InteractionType.EMAIL).count();
+            assertThat(facets.getTotal()).isEqualTo(emails);
+            assertThat(facets.getInteractionTypes()).containsOnlyKeys(InteractionType.EMAIL);
+            assertThat(facets.getCustomerRatings().values().stream().mapToLong(Long::longValue).sum())
+                    .isEqualTo(stored.stream()
+                            .filter(dto -> dto.getInteractionType() == InteractionType.EMAIL)
+                            .filter(dto -> dto.getCustomerRating() != null)
+                            .count());
+        }
+
+        @Test
+        @DisplayName("streams a customer's timeline in date order")
+        void timeline_inDateOrder() {
+            int customerId = stored.get(5).getCustomerId();
+            List<CustomerTimelineEntry> entries = new ArrayList<>();
+
+            repository.forEachTimelineEntry(customerId, entries::add);
+
+            assertThat(entries).hasSize((int) stored.stream().filter(dto -> dto.getCustomerId() == customerId).count());
+            assertThat(entries.stream().map(CustomerTimelineEntry::interactionDate).filter(date -> date != null).toList())
+                    .isSorted();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.config.GroupCommitProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class InteractionGroupCommitWriterTest {
+
+    private final InteractionLogRepository repository = mock(InteractionLogRepository.class);
+    private final SupportResponseResolver supportResponseResolver = mock(SupportResponseResolver.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AtomicLong ids = new AtomicLong();
+
+    private InteractionGroupCommitWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.destroy();
+        }
+    }
+
+    private InteractionGroupCommitWriter writer(boolean enabled, int maxBatchSize, Duration maxDelay) {
+        return writer(enabled, maxBatchSize, maxDelay, Duration.ofSeconds(30));
+    }
+
+    private InteractionGroupCommitWriter writer(boolean enabled, int maxBatchSize, Duration maxDelay,
+                                                Duration maxWait) {
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setEnabled(enabled);
+        properties.setMaxBatchSize(maxBatchSize);
+        properties.setMaxDelay(maxDelay);
+        properties.setMaxWait(maxWait);
+        writer = new InteractionGroupCommitWriter(repository, supportResponseResolver, transactionManager, properties,
+                new SimpleMeterRegistry());
+        return writer;
+    }
+
+    private static InteractionLog entity() {
+        InteractionLog entity = new InteractionLog();
+        entity.setProductId(1);
+        entity.setCustomerId(2);
+        entity.setInteractionType(InteractionType.CHAT);
+        return entity;
+    }
+
+    @Nested
+    @DisplayName("When enabled")
+    class Enabled {
+
+        @Test
+        @DisplayName("groups concurrent writes and acknowledges each with its id")
+        void write_groupsConcurrentCreates() throws Exception {
+            when(repository.insertBatch(anyList())).thenAnswer(invocation -> {
+                List<InteractionLog> batch = invocation.getArgument(0);
+                batch.forEach(e -> e.setId(ids.incrementAndGet()));
+                return batch;
+            });
+            InteractionGroupCommitWriter writer = writer(true, 100, Duration.ofMillis(50));
+
+            int callers = 20;
+            List<Future<InteractionLog>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+                for (int i = 0; i < callers; i++) {
+                    results.add(executor.submit(() -> writer.write(entity())));
+                }
+                for (Future<InteractionLog> result : results) {
+                    assertThat(result.get().getId()).isNotNull();
+                }
+            }
+
+            verify(repository, atMost(callers - 1)).insertBatch(anyList());
+        }
+
+        @Test
+        @DisplayName("flushes immediately once a full batch is queued")
+        void write_flushesFullBatch() {
+            when(repository.insertBatch(anyList())).thenAnswer(invocation -> {
+                List<InteractionLog> batch = invocation.getArgument(0);
+                batch.forEach(e -> e.setId(ids.incrementAndGet()));
+                return batch;
+            });
+            InteractionGroupCommitWriter writer = writer(true, 1, Duration.ofSeconds(30));
+
+            InteractionLog saved = writer.write(entity());
+
+            assertThat(saved.getId()).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("resolves support responses afresh in the group's transaction")
+        void write_resolvesResponsesInGroupTransaction() {
+            doAnswer(invocation -> {
+                List<InteractionLog> batch = invocation.getArgument(0);
+                batch.forEach(e -> {
+                    if (e.getSupportResponse().getId() == null) {
+                        e.getSupportResponse().setId(7L);
+                    }
+                });
+                return null;
+            }).when(supportResponseResolver).resolveAll(anyList());
+            when(repository.insertBatch(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            InteractionGroupCommitWriter writer = writer(true, 1, Duration.ofSeconds(30));
+            InteractionLog entity = entity();
+            entity.setSupportResponse(SupportResponse.of("Thanks"));
+            // left over from an attempt that rolled back
+            entity.getSupportResponse().setId(99L);
+
+            InteractionLog saved = writer.write(entity);
+
+            assertThat(saved.getSupportResponse().getId()).isEqualTo(7L);
+        }
+
+        @Test
+        @DisplayName("propagates a failed commit to every caller in the group")
+        void write_propagatesFailure() {
+            when(repository.insertBatch(anyList())).thenThrow(new IllegalStateException("boom"));
+            InteractionGroupCommitWriter writer = writer(true, 1, Duration.ofSeconds(30));
+
+            assertThatThrownBy(() -> writer.write(entity()))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("boom");
+        }
+
+        @Test
+        @DisplayName("retries a failed group row by row, so only the bad row fails")
+        void write_retriesFailedGroupRowByRow() throws Exception {
+            when(repository.insertBatch(anyList())).thenAnswer(invocation -> {
+                List<InteractionLog> batch = invocation.getArgument(0);
+                if (batch.stream().anyMatch(e -> e.getCustomerId() < 0)) {
+                    throw new IllegalStateException("constraint violated");
+                }
+                batch.forEach(e -> e.setId(ids.incrementAndGet()));
+                return batch;
+            });
+            InteractionGroupCommitWriter writer = writer(true, 2, Duration.ofSeconds(30));
+            InteractionLog bad = entity();
+            bad.setCustomerId(-1);
+
+            try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+                Future<InteractionLog> good = executor.submit(() -> writer.write(entity()));
+                Future<InteractionLog> failed = executor.submit(() -> writer.write(bad));
+
+                assertThat(good.get().getId()).isNotNull();
+                assertThatThrownBy(failed::get).hasRootCauseMessage("constraint violated");
+            }
+        }
+
+        @Test
+        @DisplayName("fails a caller whose group does not commit in time")
+        void write_timesOut() {
+            InteractionGroupCommitWriter writer = writer(true, 100, Duration.ofSeconds(30), Duration.ofMillis(50));
+
+            assertThatThrownBy(() -> writer.write(entity()))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("did not complete");
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        @DisplayName("waits for the outcome of a group that already took the row when the wait runs out")
+        void write_waitsForDrainedGroup() {
+            when(repository.insertBatch(anyList())).thenAnswer(invocation -> {
+                Thread.sleep(200);
+                List<InteractionLog> batch = invocation.getArgument(0);
+                batch.forEach(e -> e.setId(ids.incrementAndGet()));
+                return batch;
+            });
+            InteractionGroupCommitWriter writer = writer(true, 1, Duration.ofSeconds(30), Duration.ofMillis(50));
+
+            assertThat(writer.write(entity()).getId()).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("writes directly once shut down")
+        void write_afterDestroyWritesDirectly() {
+            when(repository.insertBatch(anyList())).thenAnswer(invocation -> {
+                List<InteractionLog> batch = invocation.getArgument(0);
+                batch.forEach(e -> e.setId(ids.incrementAndGet()));
+                return batch;
+            });
+            InteractionGroupCommitWriter writer = writer(true, 100, Duration.ofSeconds(30));
+            writer.destroy();
+
+            assertThat(writer.write(entity()).getId()).isEqualTo(1L);
+        }
+    }
+
+    @Nested
+    @DisplayName("When disabled")
+    class Disabled {
+
+        @Test
+        @DisplayName("rejects writes")
+        void write_disabledThrows() {
+            InteractionGroupCommitWriter writer = writer(false, 10, Duration.ofMillis(5));
+
+            assertThat(writer.isEnabled()).isFalse();
+            assertThatThrownBy(() -> writer.write(entity()))
+                    .isInstanceOf(IllegalStateException.class);
+            verifyNoInteractions(repository);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.config.SearchProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.model.SearchPage;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InteractionSearchCounterTest {
+
+    private static final Pageable PAGE = PageRequest.of(1, 2);
+    private static final List<InteractionLogDto> FULL_PAGE = Collections.nCopies(2, new InteractionLogDto());
+
+    private final InteractionLogRepository repository = mock(InteractionLogRepository.class);
+    private final SearchProperties properties = new SearchProperties();
+    private final InteractionSearchCriteria customer = InteractionSearchCriteria.builder().customerId(7).build();
+
+    @Test
+    @DisplayName("counts exactly by default")
+    void exact() {
+        when(repository.countSearch(customer)).thenReturn(40L);
+
+        SearchPage<InteractionLogDto> page = counter().page(customer, PAGE, FULL_PAGE);
+
+        assertThat(page.getTotalElements()).isEqualTo(40);
+        assertThat(page.isTotalExact()).isTrue();
+    }
+
+    @Test
+    @DisplayName("needs no count when the page is the last one")
+    void partialPage() {
+        properties.setCountStrategy(SearchProperties.CountStrategy.ESTIMATED);
+
+        SearchPage<InteractionLogDto> page = counter().page(customer, PAGE, FULL_PAGE.subList(0, 1));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.isTotalExact()).isTrue();
+        verify(repository, never()).estimateSearchCount(any());
+        verify(repository, never()).countSearch(any());
+    }
+
+    @Test
+    @DisplayName("applies the count strategy to streamed pages by their row count")
+    void streamedTotal() {
+        properties.setCountStrategy(SearchProperties.CountStrategy.ESTIMATED);
+        when(repository.estimateSearchCount(customer)).thenReturn(OptionalLong.of(250_000));
+        InteractionSearchCounter counter = counter();
+
+        assertThat(counter.total(customer, PAGE, 2))
+                .isEqualTo(new InteractionSearchCounter.Total(250_000, false));
+        assertThat(counter.total(customer, PAGE, 1))
+                .isEqualTo(new InteractionSearchCounter.Total(3, true));
+        verify(repository, never()).countSearch(any());
+    }
+
+    @Test
+    @DisplayName("uses the planner estimate for large results and counts small or unknown ones")
+    void estimated() {
+        properties.setCountStrategy(SearchProperties.CountStrategy.ESTIMATED);
+        properties.setExactCountBelow(1_000);
+        InteractionSearchCriteria small = InteractionSearchCriteria.builder().customerId(8).build();
+        InteractionSearchCriteria unknown = InteractionSearchCriteria.builder().customerId(9).build();
+        when(repository.estimateSearchCount(customer)).thenReturn(OptionalLong.of(250_000));
+        when(repository.estimateSearchCount(small)).thenReturn(OptionalLong.of(900));
+        when(repository.estimateSearchCount(unknown)).thenReturn(OptionalLong.empty());
+        when(repository.countSearch(small)).thenReturn(870L);
+        when(repository.countSearch(unknown)).thenReturn(12L);
+        InteractionSearchCounter counter = counter();
+
+        SearchPage<InteractionLogDto> estimated = counter.page(customer, PAGE, FULL_PAGE);
+        SearchPage<InteractionLogDto> counted = counter.page(small, PAGE, FULL_PAGE);
+        SearchPage<InteractionLogDto> fallback = counter.page(unknown, PAGE, FULL_PAGE);
+
+        assertThat(estimated.getTotalElements()).isEqualTo(250_000);
+        assertThat(estimated.isTotalExact()).isFalse();
+        assertThat(counted.getTotalElements()).isEqualTo(870);
+        assertThat(counted.isTotalExact()).isTrue();
+        assertThat(fallback.getTotalElements()).isEqualTo(12);
+        assertThat(fallback.isTotalExact()).isTrue();
+        verify(repository, never()).countSearch(customer);
+    }
+
+    @Test
+    @DisplayName("reuses cached totals until a matching interaction commits")
+    void cached() {
+        properties.setCountStrategy(SearchProperties.CountStrategy.CACHED);
+        InteractionSearchCriteria chats = InteractionSearchCriteria.builder().interactionType(InteractionType.CHAT).build();
+        when(repository.countSearch(customer)).thenReturn(40L, 41L);
+        when(repository.countSearch(chats)).thenReturn(90L);
+        InteractionSearchCounter counter = counter();
+
+        SearchPage<InteractionLogDto> first = counter.page(customer, PAGE, FULL_PAGE);
+        counter.page(chats, PAGE, FULL_PAGE);
+        SearchPage<InteractionLogDto> reused = counter.page(customer, PAGE, FULL_PAGE);
+        counter.onInteractionsCreated(new InteractionsCreatedEvent(List.of(interaction(7, InteractionType.EMAIL))));
+        SearchPage<InteractionLogDto> recounted = counter.page(customer, PAGE, FULL_PAGE);
+        SearchPage<InteractionLogDto> unaffected = counter.page(chats, PAGE, FULL_PAGE);
+
+        assertThat(first.isTotalExact()).isTrue();
+        assertThat(reused.getTotalElements()).isEqualTo(40);
+        assertThat(reused.isTotalExact()).isFalse();
+        assertThat(recounted.getTotalElements()).isEqualTo(41);
+        assertThat(recounted.isTotalExact()).isTrue();
+        assertThat(unaffected.getTotalElements()).isEqualTo(90);
+        assertThat(unaffected.isTotalExact()).isFalse();
+        verify(repository, times(2)).countSearch(customer);
+        verify(repository, times(1)).countSearch(chats);
+    }
+
+    private InteractionSearchCounter counter() {
+        return new InteractionSearchCounter(repository, properties, new SimpleMeterRegistry());
+    }
+
+    private static InteractionLog interaction(int customerId, InteractionType type) {
+        InteractionLog interaction = new InteractionLog();
+        interaction.setCustomerId(customerId);
+        interaction.setProductId(1);
+        interaction.setInteractionType(type);
+        return interaction;
+    }
+}
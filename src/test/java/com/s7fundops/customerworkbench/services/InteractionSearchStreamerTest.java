@@ -0,0 +1,27 @@
+package com.s7fundops.customerworkbench.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InteractionSearchStreamerTest {
+
+    @Test
+    @DisplayName("formats timestamps exactly like ISO_LOCAL_DATE_TIME")
+    void formatIsoDateTime() {
+        char[] buffer = new char[29];
+        for (String text : new String[]{"2024-12-01T10:00:00", "0999-01-09T00:00:59", "2024-02-29T23:59:59.5",
+                "2024-06-15T06:07:08.000120", "2024-06-15T06:07:08.123456789"}) {
+            LocalDateTime value = LocalDateTime.parse(text);
+
+            int length = InteractionSearchStreamer.formatIsoDateTime(value, buffer);
+
+            assertThat(new String(buffer, 0, length)).as(text)
+                    .isEqualTo(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+}
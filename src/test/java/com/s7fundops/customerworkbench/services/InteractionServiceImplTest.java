@@ -1,11 +1,21 @@
 package com.s7fundops.customerworkbench.services;
 
+import com.s7fundops.customerworkbench.config.IngestionProperties;
 import com.s7fundops.customerworkbench.domain.InteractionLog;
 import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.CustomerTimelineDto;
+import com.s7fundops.customerworkbench.model.CustomerTimelineEntry;
+import com.s7fundops.customerworkbench.model.InteractionBulkUpdateResult;
+import com.s7fundops.customerworkbench.model.InteractionFacetsDto;
 import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionPatch;
 import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
 import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.model.InteractionVersion;
+import com.s7fundops.customerworkbench.model.SearchPage;
+import com.s7fundops.customerworkbench.model.TimelineGranularity;
 import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import com.s7fundops.customerworkbench.repositories.ShardedInteractionRepository;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -13,17 +23,28 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -41,6 +62,30 @@ class InteractionServiceImplTest {
     @Mock
     private InteractionLogMapper mapper;
 
+    @Mock
+    private InteractionGroupCommitWriter groupCommitWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RecentInteractionsHotTier hotTier;
+
+    @Mock
+    private InteractionSearchCounter searchCounter;
+
+    @Mock
+    private ShardedInteractionRepository shards;
+
+    @Mock
+    private SupportResponseResolver supportResponseResolver;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private IngestionProperties ingestionProperties = new IngestionProperties();
+
     @InjectMocks
     private InteractionServiceImpl service;
 
@@ -67,7 +112,23 @@ class InteractionServiceImplTest {
             long ingested = service.ingestCsv(file);
 
             assertThat(ingested).isEqualTo(1);
-            verify(repository).saveAll(anyList());
+            verify(supportResponseResolver).resolveAll(anyList());
+            verify(repository).insertBatch(anyList());
+            verify(eventPublisher).publishEvent(any(InteractionsCreatedEvent.class));
+        }
+
+        @Test
+        @DisplayName("parses files the fast decoder rejects with OpenCSV")
+        void ingestCsv_fallsBackToOpenCsv() {
+            String csv = "product_id,customer_id,interaction_type,feedback\n" +
+                    "10,20,CHAT,\"Great\"!";
+            MockMultipartFile file = new MockMultipartFile("file", "interactions.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+            when(mapper.toEntity(any(InteractionLogDto.class))).thenReturn(new InteractionLog());
+
+            long ingested = service.ingestCsv(file);
+
+            assertThat(ingested).isEqualTo(1);
+            verify(mapper).toEntity(argThat(dto -> "Great!".equals(dto.getFeedback())));
         }
 
         @Test
@@ -77,7 +138,94 @@ class InteractionServiceImplTest {
 
             assertThatThrownBy(() -> service.ingestCsv(file))
                     .isInstanceOf(IllegalArgumentException.class);
-            verify(repository, never()).saveAll(anyList());
+            verify(repository, never()).insertBatch(anyList());
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("streams rows in batches, each committed on its own")
+        void ingestCsvStream_commitsEachBatch() {
+            String csv = "product_id,customer_id,interaction_type\n" +
+                    "10,20,CHAT\n" +
+                    "11,21,EMAIL\n" +
+                    "12,22,TICKET";
+            when(mapper.toEntity(any(InteractionLogDto.class))).thenReturn(new InteractionLog());
+            List<Long> checkpoints = new ArrayList<>();
+            List<Long> progress = new ArrayList<>();
+
+            long ingested = service.ingestCsvStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 2,
+                    0, checkpoints::add, progress::add);
+
+            assertThat(ingested).isEqualTo(3);
+            assertThat(checkpoints).containsExactly(2L, 3L);
+            assertThat(progress).containsExactly(2L, 3L);
+            verify(repository, times(2)).insertBatch(anyList());
+            verify(transactionManager, times(2)).commit(any());
+            verify(eventPublisher, times(2)).publishEvent(any(InteractionsCreatedEvent.class));
+        }
+
+        @Test
+        @DisplayName("keeps the batches committed before a malformed row")
+        void ingestCsvStream_failsOnMalformedRowAfterEarlierBatches() {
+            String csv = "product_id,customer_id,interaction_type\n" +
+                    "10,20,CHAT\n" +
+                    "not-a-number,21,EMAIL";
+            when(mapper.toEntity(any(InteractionLogDto.class))).thenReturn(new InteractionLog());
+
+            assertThatThrownBy(() -> service.ingestCsvStream(
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 1, 0, records -> { },
+                    ingested -> { }))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("row 2");
+            verify(repository, times(1)).insertBatch(anyList());
+        }
+
+        @Test
+        @DisplayName("skips the records an earlier stream committed and checkpoints the records read")
+        void ingestCsvStream_skipsCommittedRecords() {
+            String csv = "product_id,customer_id,interaction_type\n" +
+                    "10,20,CHAT\n" +
+                    "11,21,EMAIL\n" +
+                    "12,22,TICKET";
+            when(mapper.toEntity(any(InteractionLogDto.class))).thenReturn(new InteractionLog());
+            List<Long> checkpoints = new ArrayList<>();
+            List<Long> progress = new ArrayList<>();
+
+            long ingested = service.ingestCsvStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 2,
+                    1, checkpoints::add, progress::add);
+
+            assertThat(ingested).isEqualTo(2);
+            assertThat(checkpoints).containsExactly(3L);
+            assertThat(progress).containsExactly(2L);
+            verify(mapper, never()).toEntity(argThat(dto -> Integer.valueOf(10).equals(dto.getProductId())));
+            verify(repository, times(1)).insertBatch(anyList());
+        }
+
+        @Test
+        @DisplayName("ingests nothing once every record was committed before")
+        void ingestCsvStream_nothingLeftToIngest() {
+            String csv = "product_id,customer_id,interaction_type\n" +
+                    "10,20,CHAT";
+
+            long ingested = service.ingestCsvStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 2,
+                    1, records -> { }, rows -> { });
+
+            assertThat(ingested).isZero();
+            verify(repository, never()).insertBatch(anyList());
+        }
+
+        @Test
+        @DisplayName("rejects a row without a required field as malformed input")
+        void ingestCsvStream_missingRequiredFieldIsMalformed() {
+            String csv = "product_id,customer_id,interaction_type\n" +
+                    "10,,CHAT";
+
+            assertThatThrownBy(() -> service.ingestCsvStream(
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 1, 0, records -> { },
+                    ingested -> { }))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("customerId is required");
+            verify(repository, never()).insertBatch(anyList());
         }
     }
 
@@ -90,7 +238,7 @@ class InteractionServiceImplTest {
         void ingestJson_emptyListThrows() {
             assertThatThrownBy(() -> service.ingestJson(List.of()))
                     .isInstanceOf(IllegalArgumentException.class);
-            verify(repository, never()).saveAll(anyList());
+            verify(repository, never()).insertBatch(anyList());
         }
     }
 
@@ -126,6 +274,32 @@ class InteractionServiceImplTest {
 
             assertThat(saved.getId()).isEqualTo(5L);
             verify(repository).save(entity);
+            verify(eventPublisher).publishEvent(new InteractionsCreatedEvent(List.of(entity)));
+        }
+
+        @Test
+        @DisplayName("hands the entity to the group-commit writer when enabled")
+        void create_usesGroupCommitWhenEnabled() {
+            InteractionLogDto dto = InteractionLogDto.builder()
+                    .productId(faker.number().numberBetween(1, 99))
+                    .customerId(faker.number().numberBetween(1, 99))
+                    .interactionType(InteractionType.EMAIL)
+                    .build();
+
+            InteractionLog entity = new InteractionLog();
+            entity.setId(6L);
+
+            when(groupCommitWriter.isEnabled()).thenReturn(true);
+            when(mapper.toEntity(dto)).thenReturn(entity);
+            when(groupCommitWriter.write(entity)).thenReturn(entity);
+            when(mapper.toDto(entity)).thenReturn(InteractionLogDto.builder().id(6L).build());
+
+            InteractionLogDto saved = service.create(dto);
+
+            assertThat(saved.getId()).isEqualTo(6L);
+            verify(repository, never()).save(any(InteractionLog.class));
+            // the writer resolves them in the group's transaction
+            verify(supportResponseResolver, never()).resolveAll(anyList());
         }
 
         @Test
@@ -150,7 +324,7 @@ class InteractionServiceImplTest {
         }
 
         @Test
-        @DisplayName("delegates to repository with specification")
+        @DisplayName("delegates to the prepared search query and the configured count")
         void search_delegates() {
             InteractionSearchCriteria criteria = InteractionSearchCriteria.builder()
                     .customerId(123)
@@ -159,12 +333,238 @@ class InteractionServiceImplTest {
                     .endDate(LocalDateTime.now())
                     .build();
 
-            when(repository.findAll(any(Specification.class), any(Pageable.class)))
-                    .thenReturn(new PageImpl<>(List.of()));
+            List<InteractionLogDto> content = List.of(InteractionLogDto.builder().id(1L).build());
+            SearchPage<InteractionLogDto> counted = new SearchPage<>(content, PageRequest.of(0, 5), 1, true);
+            when(repository.searchContent(criteria, PageRequest.of(0, 5))).thenReturn(content);
+            when(searchCounter.page(criteria, PageRequest.of(0, 5), content)).thenReturn(counted);
+
+            assertThat(service.search(criteria, PageRequest.of(0, 5))).isSameAs(counted);
+            verify(repository, never()).findAll(any(Specification.class), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("answers from the hot tier without querying when it holds the page")
+        void search_servedFromHotTier() {
+            InteractionSearchCriteria criteria = InteractionSearchCriteria.builder().customerId(123).build();
+            Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "interactionDate"));
+            Page<InteractionLogDto> held = new PageImpl<>(List.of(InteractionLogDto.builder().id(1L).build()), pageable, 1);
+            when(hotTier.find(criteria, pageable)).thenReturn(Optional.of(held));
+
+            assertThat(service.search(criteria, pageable)).isSameAs(held);
+            verify(repository, never()).searchContent(any(InteractionSearchCriteria.class), any(Pageable.class));
+            verifyNoInteractions(searchCounter);
+            verifyNoInteractions(transactionManager);
+        }
 
-            service.search(criteria, PageRequest.of(0, 5));
+        @Test
+        @DisplayName("facets reuse the search specification")
+        void facets_delegates() {
+            InteractionSearchCriteria criteria = InteractionSearchCriteria.builder()
+                    .customerId(123)
+                    .build();
+            InteractionFacetsDto facets = InteractionFacetsDto.builder().total(4).build();
+            when(repository.facetCounts(any(Specification.class))).thenReturn(facets);
+
+            assertThat(service.facets(criteria)).isSameAs(facets);
+        }
+
+        @Test
+        @DisplayName("facets require criteria")
+        void facets_requiresCriteria() {
+            assertThatThrownBy(() -> service.facets(null))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(repository, never()).facetCounts(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch get")
+    class BatchGet {
+
+        @Test
+        @DisplayName("resolves ids with one query and keeps request order")
+        void findAllByIds_keepsOrder() {
+            InteractionLogDto first = InteractionLogDto.builder().id(1L).customerId(10).build();
+            InteractionLogDto third = InteractionLogDto.builder().id(3L).customerId(30).build();
+            when(repository.findDtosByIdIn(anyCollection())).thenReturn(List.of(first, third));
+
+            List<InteractionLogDto> result = service.findAllByIds(List.of(3L, 2L, 1L, 3L));
+
+            assertThat(result).extracting(InteractionLogDto::getId).containsExactly(3L, 1L);
+            verify(repository, times(1)).findDtosByIdIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("rejects empty id list")
+        void findAllByIds_emptyThrows() {
+            assertThatThrownBy(() -> service.findAllByIds(List.of()))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(repository, never()).findDtosByIdIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("rejects too many ids")
+        void findAllByIds_tooManyThrows() {
+            List<Long> ids = LongStream.rangeClosed(1, 5001).boxed().toList();
+
+            assertThatThrownBy(() -> service.findAllByIds(ids))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Customer timeline")
+    class Timeline {
+
+        @Test
+        @DisplayName("buckets entries by day and computes summary statistics")
+        void customerTimeline_bucketsByDay() {
+            LocalDateTime day1 = LocalDateTime.of(2025, 1, 6, 9, 0);
+            LocalDateTime day2 = LocalDateTime.of(2025, 1, 7, 9, 0);
+            when(repository.findByCustomerIdOrderByInteractionDateAsc(42)).thenReturn(Stream.of(
+                    new CustomerTimelineEntry(day1, InteractionType.CHAT, 5),
+                    new CustomerTimelineEntry(day1.plusHours(2), InteractionType.EMAIL, 3),
+                    new CustomerTimelineEntry(day2, InteractionType.CHAT, null)));
+
+            CustomerTimelineDto timeline = service.customerTimeline(42, TimelineGranularity.DAY);
+
+            assertThat(timeline.getTotalInteractions()).isEqualTo(3);
+            assertThat(timeline.getAverageRating()).isEqualTo(4.0);
+            assertThat(timeline.getFirstInteraction()).isEqualTo(day1);
+            assertThat(timeline.getLastInteraction()).isEqualTo(day2);
+            assertThat(timeline.getInteractionsByType()).containsEntry(InteractionType.CHAT, 2L);
+            assertThat(timeline.getBuckets()).hasSize(2);
+            assertThat(timeline.getBuckets().getFirst().getBucketStart()).isEqualTo(LocalDate.of(2025, 1, 6));
+            assertThat(timeline.getBuckets().getFirst().getInteractions()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("collapses a week into a single bucket")
+        void customerTimeline_bucketsByWeek() {
+            when(repository.findByCustomerIdOrderByInteractionDateAsc(42)).thenReturn(Stream.of(
+                    new CustomerTimelineEntry(LocalDateTime.of(2025, 1, 6, 9, 0), InteractionType.CHAT, 5),
+                    new CustomerTimelineEntry(LocalDateTime.of(2025, 1, 12, 9, 0), InteractionType.FORM, 1)));
+
+            CustomerTimelineDto timeline = service.customerTimeline(42, TimelineGranularity.WEEK);
+
+            assertThat(timeline.getBuckets()).hasSize(1);
+            assertThat(timeline.getBuckets().getFirst().getBucketStart()).isEqualTo(LocalDate.of(2025, 1, 6));
+        }
+
+        @Test
+        @DisplayName("requires customerId")
+        void customerTimeline_requiresCustomerId() {
+            assertThatThrownBy(() -> service.customerTimeline(null, TimelineGranularity.DAY))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk update")
+    class BulkUpdate {
+
+        @Test
+        @DisplayName("resolves support responses once and publishes only the updated interactions")
+        void updateAll_resolvesResponsesAndPublishesUpdates() {
+            List<InteractionPatch> patches = List.of(
+                    InteractionPatch.builder().id(1L).version(0L).responsesFromCustomerSupport("Refund issued").build(),
+                    InteractionPatch.builder().id(2L).version(4L).feedback("Thanks").build());
+            InteractionVersion updated = new InteractionVersion(1L, 9, 1L);
+            InteractionBulkUpdateResult result = new InteractionBulkUpdateResult(List.of(updated),
+                    List.of(new InteractionVersion(2L, 9, 5L)));
+            when(supportResponseResolver.resolveIds(Arrays.asList("Refund issued", null)))
+                    .thenReturn(Arrays.asList(31L, null));
+            when(repository.updateBatch(patches, Arrays.asList(31L, null))).thenReturn(result);
+
+            assertThat(service.updateAll(patches)).isSameAs(result);
+            verify(eventPublisher)
+                    .publishEvent(new InteractionsUpdatedEvent(List.of(updated), List.of(patches.get(0))));
+        }
+
+        @Test
+        @DisplayName("publishes nothing when every update conflicts")
+        void updateAll_allConflicts() {
+            List<InteractionPatch> patches = List.of(InteractionPatch.builder().id(1L).version(2L).feedback("x").build());
+            when(repository.updateBatch(eq(patches), any()))
+                    .thenReturn(new InteractionBulkUpdateResult(List.of(), List.of(new InteractionVersion(1L, 9, 3L))));
+
+            assertThat(service.updateAll(patches).getConflicts()).hasSize(1);
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("requires a version for every update")
+        void updateAll_requiresVersion() {
+            assertThatThrownBy(() -> service.updateAll(List.of(InteractionPatch.builder().id(1L).feedback("x").build())))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(repository, shards);
+        }
+
+        @Test
+        @DisplayName("rejects updates that change nothing or both set and clear a field")
+        void updateAll_rejectsNoOpAndContradictoryPatches() {
+            InteractionPatch valid = InteractionPatch.builder().id(1L).version(0L).clearFeedback(true).build();
+
+            assertThatThrownBy(() -> service.updateAll(List.of(valid,
+                    InteractionPatch.builder().id(2L).version(0L).build())))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Update of interaction 2 changes nothing");
+            assertThatThrownBy(() -> service.updateAll(List.of(
+                    InteractionPatch.builder().id(3L).version(0L).responsesFromCustomerSupport("").build())))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("clearResponsesFromCustomerSupport");
+            assertThatThrownBy(() -> service.updateAll(List.of(
+                    InteractionPatch.builder().id(4L).version(0L).feedback("x").clearFeedback(true).build())))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Update of interaction 4 both sets and clears feedback");
+            verifyNoInteractions(repository, shards);
+        }
+    }
+
+    @Nested
+    @DisplayName("Sharding")
+    class Sharding {
+
+        @Test
+        @DisplayName("writes JSON payloads to the shards instead of the primary")
+        void ingestJson_writesToShards() {
+            List<InteractionLogDto> payload = List.of(InteractionLogDto.builder()
+                    .productId(1)
+                    .customerId(2)
+                    .interactionType(InteractionType.FORM)
+                    .build());
+            InteractionLog stored = new InteractionLog();
+            stored.setId(257L);
+            when(shards.isEnabled()).thenReturn(true);
+            when(shards.insert(payload)).thenReturn(List.of(stored));
+
+            assertThat(service.ingestJson(payload)).isEqualTo(1);
+            verify(eventPublisher).publishEvent(new InteractionsCreatedEvent(List.of(stored)));
+            verifyNoInteractions(repository, mapper);
+        }
+
+        @Test
+        @DisplayName("searches the shards without the hot tier or the count strategy")
+        void search_queriesShards() {
+            InteractionSearchCriteria criteria = InteractionSearchCriteria.builder().productId(7).build();
+            Pageable pageable = PageRequest.of(1, 20);
+            SearchPage<InteractionLogDto> merged = new SearchPage<>(List.of(), pageable, 20, true);
+            when(shards.isEnabled()).thenReturn(true);
+            when(shards.search(criteria, pageable)).thenReturn(merged);
+
+            assertThat(service.search(criteria, pageable)).isSameAs(merged);
+            verifyNoInteractions(hotTier, searchCounter, repository);
+        }
+
+        @Test
+        @DisplayName("looks ids up on the shard encoded in them")
+        void findById_readsShard() {
+            InteractionLogDto found = InteractionLogDto.builder().id(513L).build();
+            when(shards.isEnabled()).thenReturn(true);
+            when(shards.findById(513L)).thenReturn(Optional.of(found));
 
-            verify(repository).findAll(any(Specification.class), any(Pageable.class));
+            assertThat(service.findById(513L)).isSameAs(found);
+            verifyNoInteractions(repository);
         }
     }
-}
\ No newline at end of file
+}
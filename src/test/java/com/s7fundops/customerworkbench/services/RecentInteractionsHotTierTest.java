@@ -0,0 +1,197 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.config.HotTierProperties;
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.mappers.InteractionLogMapper;
+import com.s7fundops.customerworkbench.model.InteractionLogDto;
+import com.s7fundops.customerworkbench.model.InteractionSearchCriteria;
+import com.s7fundops.customerworkbench.model.InteractionType;
+import com.s7fundops.customerworkbench.repositories.InteractionLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecentInteractionsHotTierTest {
+
+    private static final int CUSTOMER = 77;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private static final Pageable NEWEST_PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "interactionDate"));
+
+    private final InteractionLogRepository repository = mock(InteractionLogRepository.class);
+    private final InteractionLogMapper mapper = mock(InteractionLogMapper.class);
+    private final HotTierProperties properties = new HotTierProperties();
+    private final RecentInteractionsHotTier hotTier = new RecentInteractionsHotTier(repository, mapper, properties,
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+    private final InteractionSearchCriteria customerOnly = InteractionSearchCriteria.builder().customerId(CUSTOMER).build();
+
+    @Test
+    @DisplayName("loads a customer on the first lookup and answers later lookups from memory")
+    void find_loadsOnceThenServesFromMemory() {
+        stubNewest(interactions(30), 30);
+
+        Optional<Page<InteractionLogDto>> first = hotTier.find(customerOnly, NEWEST_PAGE);
+        Optional<Page<InteractionLogDto>> second = hotTier.find(customerOnly, PageRequest.of(2, 10, NEWEST_PAGE.getSort()));
+
+        assertThat(first).get().satisfies(page -> {
+            assertThat(page.getContent()).extracting(InteractionLogDto::getId).startsWith(30L, 29L);
+            assertThat(page.getTotalElements()).isEqualTo(30);
+        });
+        assertThat(second).get().satisfies(page ->
+                assertThat(page.getContent()).extracting(InteractionLogDto::getId).startsWith(10L).endsWith(1L));
+        verify(repository, times(1)).searchDtos(any(InteractionSearchCriteria.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("leaves other filters, sorts and deep pages to the database")
+    void find_bypassesUnservableSearches() {
+        InteractionSearchCriteria withType = InteractionSearchCriteria.builder()
+                .customerId(CUSTOMER)
+                .interactionType(InteractionType.CHAT)
+                .build();
+
+        assertThat(hotTier.find(withType, NEWEST_PAGE)).isEmpty();
+        assertThat(hotTier.find(customerOnly, PageRequest.of(0, 10))).isEmpty();
+        assertThat(hotTier.find(customerOnly, PageRequest.of(0, 10, Sort.by("interactionDate")))).isEmpty();
+        assertThat(hotTier.find(customerOnly, PageRequest.of(5, 10, NEWEST_PAGE.getSort()))).isEmpty();
+        verify(repository, never()).searchDtos(any(InteractionSearchCriteria.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("pages ending beyond the ring size go to the database")
+    void find_bypassesPagesBeyondRing() {
+        properties.setRingSize(20);
+        stubNewest(interactions(20), 500);
+
+        assertThat(hotTier.find(customerOnly, PageRequest.of(1, 10, NEWEST_PAGE.getSort()))).isPresent();
+        assertThat(hotTier.find(customerOnly, PageRequest.of(0, 25, NEWEST_PAGE.getSort()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("merges committed interactions into held customers")
+    void onInteractionsCreated_mergesIntoHeldCustomer() {
+        stubNewest(interactions(5), 5);
+        hotTier.find(customerOnly, NEWEST_PAGE);
+
+        hotTier.onInteractionsCreated(new InteractionsCreatedEvent(List.of(entity(100L, NOW.plusDays(1)))));
+
+        assertThat(hotTier.find(customerOnly, NEWEST_PAGE)).get().satisfies(page -> {
+            assertThat(page.getContent()).extracting(InteractionLogDto::getId).startsWith(100L, 5L);
+            assertThat(page.getTotalElements()).isEqualTo(6);
+        });
+        verify(repository, times(1)).searchDtos(any(InteractionSearchCriteria.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("does not merge or count twice an interaction a load after its commit already holds")
+    void onInteractionsCreated_skipsInteractionsAlreadyLoaded() {
+        List<InteractionLogDto> newest = interactions(5);
+        newest.addFirst(dto(100L, NOW.plusDays(1)));
+        stubNewest(newest, 6);
+        hotTier.find(customerOnly, NEWEST_PAGE);
+
+        hotTier.onInteractionsCreated(new InteractionsCreatedEvent(List.of(entity(100L, NOW.plusDays(1)))));
+
+        assertThat(hotTier.find(customerOnly, NEWEST_PAGE)).get().satisfies(page -> {
+            assertThat(page.getContent()).extracting(InteractionLogDto::getId)
+                    .containsExactly(100L, 5L, 4L, 3L, 2L, 1L);
+            assertThat(page.getTotalElements()).isEqualTo(6);
+        });
+        verify(repository, times(1)).searchDtos(any(InteractionSearchCriteria.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("reads a customer again when a commit is older than everything held and older rows are not held")
+    void onInteractionsCreated_dropsCustomerWhenCountIsUncertain() {
+        properties.setRingSize(5);
+        stubNewest(interactions(5), 50);
+        Pageable ring = PageRequest.of(0, 5, NEWEST_PAGE.getSort());
+        hotTier.find(customerOnly, ring);
+
+        hotTier.onInteractionsCreated(new InteractionsCreatedEvent(List.of(entity(100L, NOW.minusYears(1)))));
+        hotTier.find(customerOnly, ring);
+
+        verify(repository, times(2)).searchDtos(any(InteractionSearchCriteria.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("does not keep a load that raced with a commit for the same customer")
+    void find_discardsLoadRacingWithCommit() {
+        when(repository.searchDtos(any(InteractionSearchCriteria.class), any(Pageable.class))).thenAnswer(invocation -> {
+            hotTier.onInteractionsCreated(new InteractionsCreatedEvent(List.of(entity(100L, NOW.plusDays(1)))));
+            return new PageImpl<>(interactions(5), invocation.getArgument(1), 5);
+        });
+
+        assertThat(hotTier.find(customerOnly, NEWEST_PAGE)).isPresent();
+        assertThat(hotTier.find(customerOnly, NEWEST_PAGE)).isPresent();
+
+        verify(repository, times(2)).searchDtos(any(InteractionSearchCriteria.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("customers with undated interactions are not held")
+    void find_skipsUndatedInteractions() {
+        List<InteractionLogDto> newest = interactions(3);
+        newest.getFirst().setInteractionDate(null);
+        stubNewest(newest, 3);
+
+        assertThat(hotTier.find(customerOnly, NEWEST_PAGE)).isEmpty();
+    }
+
+    private void stubNewest(List<InteractionLogDto> newest, long total) {
+        when(repository.searchDtos(any(InteractionSearchCriteria.class), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(newest, invocation.getArgument(1), total));
+        when(mapper.toDto(any(InteractionLog.class))).thenAnswer(invocation -> {
+            InteractionLog entity = invocation.getArgument(0);
+            return dto(entity.getId(), entity.getInteractionDate());
+        });
+    }
+
+    /**
+     * Interactions with ids {@code count} down to 1, one day apart, newest first.
+     */
+    private static List<InteractionLogDto> interactions(int count) {
+        List<InteractionLogDto> newest = new ArrayList<>();
+        for (long id = count; id >= 1; id--) {
+            newest.add(dto(id, NOW.minusDays(count - id)));
+        }
+        return newest;
+    }
+
+    private static InteractionLogDto dto(long id, LocalDateTime date) {
+        return InteractionLogDto.builder()
+                .id(id)
+                .customerId(CUSTOMER)
+                .productId(1)
+                .interactionType(InteractionType.EMAIL)
+                .interactionDate(date)
+                .build();
+    }
+
+    private static InteractionLog entity(long id, LocalDateTime date) {
+        InteractionLog entity = new InteractionLog();
+        entity.setId(id);
+        entity.setCustomerId(CUSTOMER);
+        entity.setInteractionDate(date);
+        return entity;
+    }
+}
@@ -0,0 +1,118 @@
+package com.s7fundops.customerworkbench.services;
+
+import com.s7fundops.customerworkbench.domain.InteractionLog;
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the resolver against an in-memory H2 database migrated by Flyway.
+ */
+class SupportResponseResolverTest {
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+    private SupportResponseResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:support-responses-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        // one connection: resolving must never need a second one while the caller holds its own
+        dataSource.setMaximumPoolSize(1);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        resolver = new SupportResponseResolver(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("returns null for missing text")
+    void resolveIds_null() {
+        assertThat(resolver.resolveIds(Arrays.asList(null, ""))).containsExactly(null, null);
+        assertThat(count()).isZero();
+    }
+
+    @Test
+    @DisplayName("stores each text once and reuses existing rows")
+    void resolveIds_deduplicates() {
+        List<Long> first = transaction.execute(status ->
+                resolver.resolveIds(List.of("Thanks", "Refund issued", "Thanks")));
+        List<Long> second = transaction.execute(status -> resolver.resolveIds(List.of("Refund issued", "New text")));
+
+        assertThat(first.get(0)).isEqualTo(first.get(2));
+        assertThat(second.get(0)).isEqualTo(first.get(1));
+        assertThat(count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("resolves the entities of a batch inside the caller's transaction")
+    void resolveAll_setsIds() {
+        InteractionLog withResponse = new InteractionLog();
+        withResponse.setSupportResponse(SupportResponse.of("Thanks"));
+        InteractionLog sameResponse = new InteractionLog();
+        sameResponse.setSupportResponse(SupportResponse.of("Thanks"));
+        InteractionLog withoutResponse = new InteractionLog();
+
+        transaction.executeWithoutResult(status ->
+                resolver.resolveAll(List.of(withResponse, sameResponse, withoutResponse)));
+
+        assertThat(withResponse.getSupportResponse().getId()).isNotNull()
+                .isEqualTo(sameResponse.getSupportResponse().getId());
+        assertThat(withoutResponse.getSupportResponse()).isNull();
+        assertThat(count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("does not cache the ids of rows whose transaction rolled back")
+    void resolveIds_rollbackLeavesNoStaleId() {
+        transaction.executeWithoutResult(status -> {
+            resolver.resolveIds(List.of("Rolled back"));
+            status.setRollbackOnly();
+        });
+        assertThat(count()).isZero();
+
+        Long id = transaction.execute(status -> resolver.resolveIds(List.of("Rolled back")).getFirst());
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from support_response where id = ?", Long.class, id))
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("stores a text again once an erasure has deleted it, on any instance")
+    void resolveIds_afterErasure() {
+        Long erased = transaction.execute(status -> resolver.resolveIds(List.of("Call me back")).getFirst());
+        jdbcTemplate.update("delete from support_response where id = ?", erased);
+
+        Long id = transaction.execute(status -> resolver.resolveIds(List.of("Call me back")).getFirst());
+
+        assertThat(id).isNotEqualTo(erased);
+        assertThat(count()).isEqualTo(1);
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("select count(*) from support_response", Long.class);
+    }
+}
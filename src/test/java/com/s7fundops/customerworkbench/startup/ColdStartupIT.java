@@ -0,0 +1,164 @@
+package com.s7fundops.customerworkbench.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times cold starts of the extracted jar built by the {@code fast-start} Maven profile
+ * ({@code ./mvnw -P fast-start verify}): plain, with the AOT-processed context ({@code -Dspring.aot.enabled=true}) and
+ * with the AOT context plus the AOT cache recorded in the training run. Each mode starts {@code startup.runs} times;
+ * the median time from launching the JVM until the application reports it has started is compared with the baseline.
+ * A mode without a baseline passes and has this run's time recorded as its baseline, so the first run sets it up.
+ * <p>
+ * Record the baseline for each release with {@code -Dstartup.update-baseline=true} on the reference machine and commit
+ * it, so the file's history tracks startup time per release. Tunable through system properties:
+ * {@code startup.runs}, {@code startup.tolerance}, {@code startup.baseline}, {@code startup.results} and
+ * {@code startup.update-baseline}.
+ */
+@Slf4j
+class ColdStartupIT {
+
+    private static final Path DIRECTORY = Path.of(System.getProperty("startup.directory", "target/fast-start"));
+    private static final String JAR = System.getProperty("startup.jar", "customer-workbench-0.0.1-SNAPSHOT.jar");
+    private static final String RELEASE = System.getProperty("startup.release", "unknown");
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("startup.tolerance", "0.25"));
+    private static final Path BASELINE = Path.of(System.getProperty("startup.baseline", "src/test/resources/startup-baseline.properties"));
+    private static final Path RESULTS = Path.of(System.getProperty("startup.results", "target/startup-results.properties"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("startup.update-baseline");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final String AOT_CACHE = "app.aot";
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in [\\d.]+ seconds");
+
+    @Test
+    void coldStartIsNotSlowerThanBaseline() throws Exception {
+        assertThat(DIRECTORY.resolve(JAR)).as("extracted jar, built by the fast-start profile").exists();
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("jar", List.of());
+        modes.put("aot", List.of("-Dspring.aot.enabled=true"));
+        if (Files.exists(DIRECTORY.resolve(AOT_CACHE))) {
+            modes.put("aot-cache", List.of("-Dspring.aot.enabled=true", "-XX:AOTCache=" + AOT_CACHE));
+        }
+
+        Properties baseline = load(BASELINE);
+        Properties results = new Properties();
+        results.setProperty("release", RELEASE);
+        List<String> regressions = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            long millis = medianStartMillis(mode.getValue());
+            log.info("{} median start {} ms over {} runs", mode.getKey(), millis, RUNS);
+            results.setProperty(mode.getKey() + ".millis", Long.toString(millis));
+
+            String expected = baseline.getProperty(mode.getKey() + ".millis");
+            if (expected == null) {
+                missing.add(mode.getKey());
+            } else if (millis > Long.parseLong(expected) * (1 + TOLERANCE)) {
+                regressions.add(String.format(Locale.ROOT, "%s %d ms vs baseline %s ms (release %s)", mode.getKey(),
+                        millis, expected, baseline.getProperty("release", "unknown")));
+            }
+        }
+
+        write(results, RESULTS);
+        if (UPDATE_BASELINE) {
+            write(results, BASELINE);
+        } else if (!missing.isEmpty()) {
+            log.warn("No baseline for {} in {}; recorded this run as their baseline", missing, BASELINE);
+            missing.forEach(mode -> baseline.setProperty(mode + ".millis", results.getProperty(mode + ".millis")));
+            baseline.putIfAbsent("release", RELEASE);
+            write(baseline, BASELINE);
+        }
+        assertThat(regressions).as("startup regressions beyond %.0f%%", TOLERANCE * 100).isEmpty();
+    }
+
+    private static long medianStartMillis(List<String> jvmArguments) throws Exception {
+        List<Long> times = new ArrayList<>();
+        for (int run = 0; run < RUNS; run++) {
+            times.add(startMillis(jvmArguments));
+        }
+        times.sort(null);
+        return times.get(times.size() / 2);
+    }
+
+    /**
+     * Starts the application on a random port with the in-memory database and returns the milliseconds until it logs
+     * that it has started.
+     */
+    private static long startMillis(List<String> jvmArguments) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        command.addAll(List.of("-Dspring.docker.compose.enabled=false", "-jar", JAR, "--server.port=0"));
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(DIRECTORY.toFile())
+                .redirectErrorStream(true)
+                .start();
+        try {
+            CompletableFuture<Long> ready = CompletableFuture.supplyAsync(() -> awaitStarted(process, started));
+            return ready.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static long awaitStarted(Process process, long started) {
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (STARTED.matcher(line).find()) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Reading the application output failed", e);
+        }
+        throw new IllegalStateException("Application exited before it started");
+    }
+
+    private static Properties load(Path path) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+        }
+        return properties;
+    }
+
+    private static void write(Properties properties, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            properties.store(writer, "Cold start: median milliseconds from JVM launch until started, per mode");
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import com.s7fundops.customerworkbench.config.ShardingProperties;
+import com.s7fundops.customerworkbench.config.UploadProperties;
+import com.s7fundops.customerworkbench.model.ByteRange;
+import com.s7fundops.customerworkbench.model.UploadSessionRequest;
+import com.s7fundops.customerworkbench.model.UploadState;
+import com.s7fundops.customerworkbench.model.UploadStatusDto;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import com.s7fundops.customerworkbench.services.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkedUploadManagerTest {
+
+    private static final int CHUNK_SIZE = 8;
+    private static final byte[] CSV = "product_id,customer_id,interaction_type\n1,2,CHAT\n3,4,EMAIL\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    private final InteractionService interactionService = mock(InteractionService.class);
+    private final IngestionWorkQueue workQueue = mock(IngestionWorkQueue.class);
+    private final UploadCheckpoints checkpoints = mock(UploadCheckpoints.class);
+    private final UploadProperties properties = new UploadProperties();
+    private final ShardingProperties sharding = new ShardingProperties();
+    private final CompletableFuture<String> ingestedCsv = new CompletableFuture<>();
+    private ChunkedUploadManager manager;
+
+    @BeforeEach
+    void setUp() {
+        properties.setDirectory(directory);
+        properties.setChunkSize(DataSize.ofBytes(CHUNK_SIZE));
+        properties.setMaxSessions(2);
+        properties.setSessionTimeout(Duration.ofHours(1));
+        manager = new ChunkedUploadManager(interactionService, workQueue, checkpoints, properties, sharding,
+                new SimpleMeterRegistry());
+
+        // reads the whole stream the way the CSV parser would, then reports two rows
+        when(interactionService.ingestCsvStream(any(InputStream.class), anyInt(), anyLong(), any(LongConsumer.class),
+                any(LongConsumer.class)))
+                .thenAnswer(invocation -> {
+                    InputStream csv = invocation.getArgument(0);
+                    ingestedCsv.complete(new String(csv.readAllBytes(), StandardCharsets.UTF_8));
+                    return 2L;
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.destroy();
+    }
+
+    @Test
+    @DisplayName("chunks arriving out of order are ingested as one file once the gaps are filled")
+    void outOfOrderChunks_areIngestedInFileOrder() throws Exception {
+        UploadStatusDto created = open();
+        int chunkCount = created.getChunkCount();
+
+        for (int index = chunkCount - 1; index >= 1; index--) {
+            put(created.getUploadId(), index);
+        }
+        assertThat(ingestedCsv).isNotDone();
+        assertThat(manager.status(created.getUploadId()).getMissingRanges())
+                .containsExactly(new ByteRange(0, CHUNK_SIZE));
+
+        put(created.getUploadId(), 0);
+
+        assertThat(ingestedCsv.get(5, TimeUnit.SECONDS)).isEqualTo(new String(CSV, StandardCharsets.UTF_8));
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            UploadStatusDto status = manager.status(created.getUploadId());
+            assertThat(status.getState()).isEqualTo(UploadState.COMPLETED);
+            assertThat(status.getIngested()).isEqualTo(2);
+            assertThat(status.getReceivedBytes()).isEqualTo(CSV.length);
+            assertThat(status.getMissingRanges()).isEmpty();
+        });
+        try (var spooled = Files.list(directory)) {
+            assertThat(spooled).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("reports every gap as a byte range, with a short last chunk")
+    void status_reportsMissingRanges() throws Exception {
+        UploadStatusDto created = open();
+        put(created.getUploadId(), 1);
+        put(created.getUploadId(), 3);
+
+        UploadStatusDto status = manager.status(created.getUploadId());
+
+        assertThat(status.getState()).isEqualTo(UploadState.RECEIVING);
+        assertThat(status.getReceivedBytes()).isEqualTo(2 * CHUNK_SIZE);
+        assertThat(status.getMissingRanges()).containsExactly(
+                new ByteRange(0, 8),
+                new ByteRange(16, 24),
+                new ByteRange(32, CSV.length));
+    }
+
+    @Test
+    @DisplayName("refuses chunks with a wrong checksum or length and keeps them missing")
+    void writeChunk_rejectsCorruptChunks() throws Exception {
+        UploadStatusDto created = open();
+        byte[] chunk = chunk(0);
+        byte[] corrupt = chunk.clone();
+        corrupt[0] ^= 1;
+
+        assertThatThrownBy(() -> manager.writeChunk(created.getUploadId(), 0, sha256(chunk), new ByteArrayInputStream(corrupt)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Checksum mismatch");
+        assertThatThrownBy(() -> manager.writeChunk(created.getUploadId(), 0, sha256(chunk),
+                new ByteArrayInputStream(Arrays.copyOf(chunk, 4))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be 8 bytes");
+        assertThat(manager.status(created.getUploadId()).getReceivedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("acknowledges a repeated chunk but refuses different content for it")
+    void writeChunk_isIdempotentPerChecksum() throws Exception {
+        UploadStatusDto created = open();
+        put(created.getUploadId(), 2);
+        put(created.getUploadId(), 2);
+
+        byte[] other = new byte[CHUNK_SIZE];
+        assertThatThrownBy(() -> manager.writeChunk(created.getUploadId(), 2, sha256(other), new ByteArrayInputStream(other)))
+                .isInstanceOf(UploadConflictException.class);
+        assertThat(manager.status(created.getUploadId()).getReceivedBytes()).isEqualTo(CHUNK_SIZE);
+    }
+
+    @Test
+    @DisplayName("limits concurrent uploads and forgets aborted ones")
+    void create_limitsSessionsAndAbortFrees() {
+        UploadStatusDto first = open();
+        open();
+
+        assertThatThrownBy(this::open).isInstanceOf(TooManyUploadsException.class);
+
+        manager.abort(first.getUploadId());
+        assertThatThrownBy(() -> manager.status(first.getUploadId())).isInstanceOf(NotFoundException.class);
+        assertThat(open().getState()).isEqualTo(UploadState.RECEIVING);
+    }
+
+    @Test
+    @DisplayName("queues whole records as work items and reports their progress when ingestion is distributed")
+    void distributed_queuesWorkItemsAndFollowsThem() throws Exception {
+        properties.getDistributed().setItemSize(DataSize.ofBytes(1));
+        properties.getDistributed().setPollInterval(Duration.ofMillis(10));
+        List<CsvWorkItemSplitter.Piece> queued = new CopyOnWriteArrayList<>();
+        when(workQueue.isEnabled()).thenReturn(true);
+        doAnswer(invocation -> queued.add(invocation.getArgument(2)))
+                .when(workQueue).enqueue(anyString(), eq("product_id,customer_id,interaction_type\n"),
+                        any(CsvWorkItemSplitter.Piece.class));
+        when(workQueue.progress(anyString())).thenAnswer(invocation -> {
+            int items = queued.size();
+            return queued.stream().anyMatch(CsvWorkItemSplitter.Piece::last)
+                    ? new IngestionWorkQueue.Progress(items, items, items, 0, 2, null)
+                    : new IngestionWorkQueue.Progress(items, null, 0, 0, 0, null);
+        });
+
+        UploadStatusDto created = open();
+        for (int index = 0; index < created.getChunkCount(); index++) {
+            put(created.getUploadId(), index);
+        }
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            UploadStatusDto status = manager.status(created.getUploadId());
+            assertThat(status.getState()).isEqualTo(UploadState.COMPLETED);
+            assertThat(status.getIngested()).isEqualTo(2);
+        });
+        assertThat(queued).extracting(piece -> new String(piece.records(), StandardCharsets.UTF_8))
+                .containsExactly("1,2,CHAT\n", "3,4,EMAIL\n");
+        verify(interactionService, never()).ingestCsvStream(any(InputStream.class), anyInt(), anyLong(),
+                any(LongConsumer.class), any(LongConsumer.class));
+    }
+
+    @Test
+    @DisplayName("a new session for a file sent with a resume key skips the records an earlier one committed")
+    void resumeKey_skipsCommittedRecordsAndCheckpointsBatches() throws Exception {
+        when(checkpoints.open(anyString(), eq("interactions.csv:59"))).thenReturn(1L);
+        doAnswer(invocation -> {
+            LongConsumer checkpoint = invocation.getArgument(3);
+            LongConsumer progress = invocation.getArgument(4);
+            ingestedCsv.complete(new String(invocation.<InputStream>getArgument(0).readAllBytes(),
+                    StandardCharsets.UTF_8));
+            checkpoint.accept(2);
+            progress.accept(1);
+            return 1L;
+        }).when(interactionService).ingestCsvStream(any(InputStream.class), anyInt(), eq(1L),
+                any(LongConsumer.class), any(LongConsumer.class));
+
+        UploadStatusDto created = open("interactions.csv:59");
+        assertThatThrownBy(() -> open("interactions.csv:59")).isInstanceOf(UploadConflictException.class);
+        for (int index = 0; index < created.getChunkCount(); index++) {
+            put(created.getUploadId(), index);
+        }
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            UploadStatusDto status = manager.status(created.getUploadId());
+            assertThat(status.getState()).isEqualTo(UploadState.COMPLETED);
+            assertThat(status.getSkipped()).isEqualTo(1);
+            assertThat(status.getIngested()).isEqualTo(1);
+        });
+        verify(checkpoints).advance(created.getUploadId(), 2);
+    }
+
+    @Test
+    @DisplayName("ignores resume keys while sharded rows cannot commit with their checkpoint")
+    void resumeKey_ignoredWhenSharded() {
+        sharding.setEnabled(true);
+
+        UploadStatusDto first = open("interactions.csv:59");
+        UploadStatusDto second = open("interactions.csv:59");
+
+        assertThat(second.getUploadId()).isNotEqualTo(first.getUploadId());
+        verify(checkpoints, never()).open(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("a distributed upload with a resume key queues the pieces an earlier one completed as done")
+    void resumeKey_distributedSkipsCompletedPieces() throws Exception {
+        properties.getDistributed().setItemSize(DataSize.ofBytes(1));
+        properties.getDistributed().setPollInterval(Duration.ofMillis(10));
+        List<CsvWorkItemSplitter.Piece> queued = new CopyOnWriteArrayList<>();
+        List<CsvWorkItemSplitter.Piece> skipped = new CopyOnWriteArrayList<>();
+        when(workQueue.isEnabled()).thenReturn(true);
+        when(workQueue.ingestedSpans("interactions.csv:59"))
+                .thenReturn(Map.of(new IngestionWorkQueue.Span(40, 49), 1L));
+        doAnswer(invocation -> queued.add(invocation.getArgument(2)))
+                .when(workQueue).enqueue(anyString(), anyString(), any(CsvWorkItemSplitter.Piece.class));
+        doAnswer(invocation -> skipped.add(invocation.getArgument(2)))
+                .when(workQueue).skip(anyString(), anyString(), any(CsvWorkItemSplitter.Piece.class));
+        when(workQueue.progress(anyString())).thenAnswer(invocation -> {
+            int items = queued.size() + skipped.size();
+            return queued.stream().anyMatch(CsvWorkItemSplitter.Piece::last)
+                    ? new IngestionWorkQueue.Progress(items, items, items, 0, 1, null)
+                    : new IngestionWorkQueue.Progress(items, null, 0, 0, 0, null);
+        });
+
+        UploadStatusDto created = open("interactions.csv:59");
+        for (int index = 0; index < created.getChunkCount(); index++) {
+            put(created.getUploadId(), index);
+        }
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            UploadStatusDto status = manager.status(created.getUploadId());
+            assertThat(status.getState()).isEqualTo(UploadState.COMPLETED);
+            assertThat(status.getSkipped()).isEqualTo(1);
+            assertThat(status.getIngested()).isEqualTo(1);
+        });
+        assertThat(skipped).extracting(piece -> new String(piece.records(), StandardCharsets.UTF_8))
+                .containsExactly("1,2,CHAT\n");
+        assertThat(queued).extracting(piece -> new String(piece.records(), StandardCharsets.UTF_8))
+                .containsExactly("3,4,EMAIL\n");
+    }
+
+    private UploadStatusDto open() {
+        return open(null);
+    }
+
+    private UploadStatusDto open(String resumeKey) {
+        return manager.create(UploadSessionRequest.builder()
+                .fileName("interactions.csv")
+                .size((long) CSV.length)
+                .resumeKey(resumeKey)
+                .build());
+    }
+
+    private void put(String uploadId, int index) throws Exception {
+        byte[] chunk = chunk(index);
+        manager.writeChunk(uploadId, index, sha256(chunk), new ByteArrayInputStream(chunk));
+    }
+
+    private static byte[] chunk(int index) {
+        int from = index * CHUNK_SIZE;
+        return Arrays.copyOfRange(CSV, from, Math.min(from + CHUNK_SIZE, CSV.length));
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
@@ -0,0 +1,80 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWorkItemSplitterTest {
+
+    @Test
+    @DisplayName("cuts only at line feeds outside quotes and repeats the header for every piece")
+    void split_keepsRecordsWhole() throws IOException {
+        String csv = "\uFEFFproduct_id,feedback\r\n"
+                + "1,\"two\nlines\"\r\n"
+                + "2,\"quoted \"\"\n\"\" too\"\n"
+                + "3,plain\n"
+                + "4,no newline at the end";
+        List<String> headers = new ArrayList<>();
+        List<CsvWorkItemSplitter.Piece> pieces = new ArrayList<>();
+
+        int count = CsvWorkItemSplitter.split(stream(csv), 8, (header, piece) -> {
+            headers.add(header);
+            pieces.add(piece);
+        });
+
+        assertThat(count).isEqualTo(4);
+        assertThat(headers).containsOnly("\uFEFFproduct_id,feedback\r\n");
+        assertThat(pieces).extracting(piece -> new String(piece.records(), StandardCharsets.UTF_8)).containsExactly(
+                "1,\"two\nlines\"\r\n",
+                "2,\"quoted \"\"\n\"\" too\"\n",
+                "3,plain\n",
+                "4,no newline at the end");
+        assertThat(pieces).extracting(CsvWorkItemSplitter.Piece::sequence).containsExactly(0, 1, 2, 3);
+        assertThat(pieces).extracting(CsvWorkItemSplitter.Piece::last).containsExactly(false, false, false, true);
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        assertThat(pieces.getLast().end()).isEqualTo(bytes.length);
+        for (int i = 1; i < pieces.size(); i++) {
+            assertThat(pieces.get(i).start()).isEqualTo(pieces.get(i - 1).end());
+        }
+    }
+
+    @Test
+    @DisplayName("fills pieces up to the target size")
+    void split_groupsRecords() throws IOException {
+        StringBuilder csv = new StringBuilder("a,b\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append(i).append(",x\n");
+        }
+        List<CsvWorkItemSplitter.Piece> pieces = new ArrayList<>();
+
+        CsvWorkItemSplitter.split(stream(csv.toString()), 100, (header, piece) -> pieces.add(piece));
+
+        assertThat(pieces).hasSizeBetween(4, 6);
+        assertThat(pieces.subList(0, pieces.size() - 1))
+                .allSatisfy(piece -> assertThat(piece.records().length).isBetween(100, 105));
+        assertThat(pieces.stream().mapToInt(piece -> piece.records().length).sum())
+                .isEqualTo(csv.length() - "a,b\n".length());
+    }
+
+    @Test
+    @DisplayName("a file without records has no pieces")
+    void split_emptyFiles() throws IOException {
+        assertThat(CsvWorkItemSplitter.split(stream(""), 10, (header, piece) -> {
+        })).isZero();
+        assertThat(CsvWorkItemSplitter.split(stream("a,b"), 10, (header, piece) -> {
+        })).isZero();
+        assertThat(CsvWorkItemSplitter.split(stream("a,b\n\r\n\n"), 1, (header, piece) -> {
+        })).isZero();
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
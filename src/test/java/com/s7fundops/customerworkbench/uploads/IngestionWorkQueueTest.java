@@ -0,0 +1,321 @@
+package com.s7fundops.customerworkbench.uploads;
+
+import com.s7fundops.customerworkbench.config.ShardingProperties;
+import com.s7fundops.customerworkbench.config.UploadProperties;
+import com.s7fundops.customerworkbench.services.InteractionService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the work queue, upload checkpoints and worker against an in-memory H2 database migrated by Flyway.
+ */
+class IngestionWorkQueueTest {
+
+    private static final String HEADER = "product_id,customer_id,interaction_type\n";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T10:00:00Z"));
+    private final UploadProperties properties = new UploadProperties();
+    private HikariDataSource dataSource;
+    private DataSourceTransactionManager transactionManager;
+    private IngestionWorkQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:work-items-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+
+        properties.getDistributed().setEnabled(true);
+        properties.getDistributed().setLeaseDuration(Duration.ofSeconds(30));
+        properties.getDistributed().setMaxAttempts(2);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        queue = new IngestionWorkQueue(new JdbcTemplate(dataSource), properties, transactionManager, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("refuses to run alongside sharding, whose rows would commit apart from their item")
+    void constructor_rejectsSharding() {
+        ShardingProperties sharding = new ShardingProperties();
+        sharding.setEnabled(true);
+
+        assertThatThrownBy(() -> new IngestionWorkQueue(new JdbcTemplate(dataSource), properties, sharding,
+                transactionManager))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("workbench.sharding.enabled");
+    }
+
+    @Nested
+    @DisplayName("Queue")
+    class Queue {
+
+        @Test
+        @DisplayName("hands out items oldest first and each to one owner")
+        void claim_leasesEachItemOnce() {
+            enqueue("upload", 0, "1,2,CHAT\n", false);
+            enqueue("upload", 1, "3,4,EMAIL\n", true);
+
+            IngestionWorkQueue.WorkItem first = queue.claim("a").orElseThrow();
+            IngestionWorkQueue.WorkItem second = queue.claim("b").orElseThrow();
+
+            assertThat(first.sequence()).isZero();
+            assertThat(first.attempt()).isEqualTo(1);
+            assertThat(new String(first.records(), StandardCharsets.UTF_8)).isEqualTo("1,2,CHAT\n");
+            assertThat(second.sequence()).isEqualTo(1);
+            assertThat(queue.claim("c")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("reassigns an item whose lease ran out and fences off its former owner")
+        void claim_takesOverExpiredLeases() {
+            enqueue("upload", 0, "1,2,CHAT\n", true);
+            IngestionWorkQueue.WorkItem crashed = queue.claim("a").orElseThrow();
+
+            clock.advance(Duration.ofSeconds(20));
+            assertThat(queue.renew(crashed, "a")).isTrue();
+            clock.advance(Duration.ofSeconds(20));
+            assertThat(queue.claim("b")).isEmpty();
+
+            clock.advance(Duration.ofSeconds(11));
+            IngestionWorkQueue.WorkItem retried = queue.claim("b").orElseThrow();
+
+            assertThat(retried.attempt()).isEqualTo(2);
+            assertThat(queue.renew(crashed, "a")).isFalse();
+            assertThat(queue.complete(crashed, "a", 1)).isFalse();
+            assertThat(queue.complete(retried, "b", 1)).isTrue();
+            assertThat(queue.progress("upload")).isEqualTo(new IngestionWorkQueue.Progress(1, 1, 1, 0, 1, null));
+        }
+
+        @Test
+        @DisplayName("fails items that were claimed too often")
+        void claim_givesUpAfterMaxAttempts() {
+            enqueue("upload", 0, "1,2,CHAT\n", true);
+            queue.claim("a").orElseThrow();
+            clock.advance(Duration.ofMinutes(1));
+            queue.claim("b").orElseThrow();
+            clock.advance(Duration.ofMinutes(1));
+
+            assertThat(queue.claim("c")).isEmpty();
+            IngestionWorkQueue.Progress progress = queue.progress("upload");
+            assertThat(progress.failed()).isEqualTo(1);
+            assertThat(progress.error()).isEqualTo("Gave up after 2 attempts");
+        }
+
+        @Test
+        @DisplayName("reports progress per upload and knows the total once the last item is queued")
+        void progress_aggregatesItems() {
+            enqueue("upload", 0, "1,2,CHAT\n", false);
+            enqueue("other", 0, "5,6,FORM\n", true);
+            IngestionWorkQueue.WorkItem item = queue.claim("a").orElseThrow();
+            queue.complete(item, "a", 1);
+
+            assertThat(queue.progress("upload")).isEqualTo(new IngestionWorkQueue.Progress(1, null, 1, 0, 1, null));
+            enqueue("upload", 1, "3,4,EMAIL\n", true);
+            assertThat(queue.progress("upload").isComplete()).isFalse();
+            assertThat(queue.progress("missing").items()).isZero();
+        }
+
+        @Test
+        @DisplayName("aborting an upload fails its unfinished items only")
+        void abort_failsUnfinishedItems() {
+            enqueue("upload", 0, "1,2,CHAT\n", false);
+            enqueue("upload", 1, "3,4,EMAIL\n", true);
+            IngestionWorkQueue.WorkItem item = queue.claim("a").orElseThrow();
+            queue.complete(item, "a", 1);
+
+            queue.abort("upload", "Upload was aborted");
+
+            assertThat(queue.claim("a")).isEmpty();
+            assertThat(queue.progress("upload")).isEqualTo(
+                    new IngestionWorkQueue.Progress(2, 2, 1, 1, 1, "Upload was aborted"));
+        }
+
+        @Test
+        @DisplayName("a resumed upload skips the spans earlier uploads with its key completed, across restarts")
+        void ingestedSpans_followResumeKey() {
+            UploadCheckpoints checkpoints = new UploadCheckpoints(new JdbcTemplate(dataSource), properties, clock);
+            checkpoints.open("first", "file");
+            checkpoints.open("unrelated", "other");
+            queue.enqueue("first", HEADER, piece(0, 0, "1,2,CHAT\n", false));
+            queue.enqueue("first", HEADER, piece(1, 9, "3,4,EMAIL\n", true));
+            queue.enqueue("unrelated", HEADER, piece(0, 19, "5,6,FORM\n", true));
+            queue.complete(queue.claim("a").orElseThrow(), "a", 1);
+            queue.abort("first", "Upload expired");
+            queue.complete(queue.claim("a").orElseThrow(), "a", 1);
+
+            checkpoints.open("second", "file");
+            assertThat(queue.ingestedSpans("file")).isEqualTo(Map.of(new IngestionWorkQueue.Span(0, 9), 1L));
+            queue.skip("second", HEADER, piece(0, 0, "1,2,CHAT\n", false));
+            queue.enqueue("second", HEADER, piece(1, 9, "3,4,EMAIL\n", true));
+
+            assertThat(queue.progress("second")).isEqualTo(new IngestionWorkQueue.Progress(2, 2, 1, 0, 0, null));
+            checkpoints.open("third", "file");
+            assertThat(queue.ingestedSpans("file")).isEqualTo(Map.of(new IngestionWorkQueue.Span(0, 9), 1L));
+        }
+
+        @Test
+        @DisplayName("a new upload starts after the furthest checkpoint of its resume key until it expires")
+        void checkpoints_resumeAfterFurthestRecord() {
+            UploadCheckpoints checkpoints = new UploadCheckpoints(new JdbcTemplate(dataSource), properties, clock);
+
+            assertThat(checkpoints.open("first", "file")).isZero();
+            checkpoints.advance("first", 5000);
+            checkpoints.advance("first", 3000);
+            assertThat(checkpoints.open("second", "file")).isEqualTo(5000);
+            assertThat(checkpoints.open("unrelated", "other")).isZero();
+
+            clock.advance(properties.getCheckpointRetention().plusSeconds(1));
+            assertThat(checkpoints.purge()).isEqualTo(3);
+            assertThat(checkpoints.open("third", "file")).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Worker")
+    class Worker {
+
+        private final InteractionService interactionService = mock(InteractionService.class);
+        private IngestionWorker worker;
+
+        @BeforeEach
+        void setUp() {
+            worker = new IngestionWorker(queue, interactionService, properties, transactionManager,
+                    new SimpleMeterRegistry());
+        }
+
+        @AfterEach
+        void tearDown() {
+            worker.destroy();
+        }
+
+        @Test
+        @DisplayName("ingests the header and records of an item and completes it with the row count")
+        void runOnce_ingestsItem() {
+            enqueue("upload", 0, "1,2,CHAT\n3,4,EMAIL\n", true);
+            when(interactionService.ingestCsvInTransaction(any(InputStream.class), anyInt())).thenAnswer(invocation -> {
+                String csv = new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8);
+                assertThat(csv).isEqualTo(HEADER + "1,2,CHAT\n3,4,EMAIL\n");
+                return 2L;
+            });
+
+            assertThat(worker.runOnce()).isTrue();
+            assertThat(worker.runOnce()).isFalse();
+            assertThat(queue.progress("upload")).isEqualTo(new IngestionWorkQueue.Progress(1, 1, 1, 0, 2, null));
+        }
+
+        @Test
+        @DisplayName("fails items with malformed rows")
+        void runOnce_failsMalformedItems() {
+            enqueue("upload", 0, "x,2,CHAT\n", true);
+            when(interactionService.ingestCsvInTransaction(any(InputStream.class), anyInt()))
+                    .thenThrow(new IllegalArgumentException("Failed to parse CSV row 1"));
+
+            worker.runOnce();
+
+            assertThat(queue.progress("upload").error()).isEqualTo("Work item 0: Failed to parse CSV row 1");
+        }
+
+        @Test
+        @DisplayName("hands items back after other errors")
+        void runOnce_releasesOnOtherErrors() {
+            enqueue("upload", 0, "1,2,CHAT\n", true);
+            when(interactionService.ingestCsvInTransaction(any(InputStream.class), anyInt()))
+                    .thenThrow(new IllegalStateException("connection reset"))
+                    .thenReturn(1L);
+
+            worker.runOnce();
+            worker.runOnce();
+
+            assertThat(queue.progress("upload").isComplete()).isTrue();
+        }
+
+        @Test
+        @DisplayName("rolls back the completion of an item it no longer holds")
+        void runOnce_lostLease() {
+            enqueue("upload", 0, "1,2,CHAT\n", true);
+            when(interactionService.ingestCsvInTransaction(any(InputStream.class), anyInt())).thenAnswer(invocation -> {
+                // another instance takes the item over, in its own transaction, while this one is still ingesting
+                clock.advance(Duration.ofMinutes(1));
+                CompletableFuture.supplyAsync(() -> queue.claim("other")).join().orElseThrow();
+                return 1L;
+            });
+
+            worker.runOnce();
+
+            IngestionWorkQueue.Progress progress = queue.progress("upload");
+            assertThat(progress.done()).isZero();
+            assertThat(progress.ingested()).isZero();
+            assertThat(progress.error()).isNull();
+        }
+    }
+
+    private void enqueue(String uploadId, int sequence, String records, boolean last) {
+        byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+        queue.enqueue(uploadId, HEADER, new CsvWorkItemSplitter.Piece(sequence, 0, bytes.length, bytes, last));
+    }
+
+    private static CsvWorkItemSplitter.Piece piece(int sequence, long start, String records, boolean last) {
+        byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+        return new CsvWorkItemSplitter.Piece(sequence, start, start + bytes.length, bytes, last);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
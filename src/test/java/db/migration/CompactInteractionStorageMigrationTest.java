@@ -0,0 +1,73 @@
+package db.migration;
+
+import com.s7fundops.customerworkbench.domain.SupportResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs V3 against rows written under the V2 schema in an in-memory H2 database.
+ */
+class CompactInteractionStorageMigrationTest {
+
+    private static final String INSERT_V2_SQL = """
+            insert into interaction_log (product_id, customer_id, interaction_type, feedback,
+                responses_from_customer_support)
+            values (1, ?, ?, 'feedback', ?)
+            """;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:compact-storage-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("stores each response once under the hash the application computes and links every row to it")
+    void migrate_movesResponsesToDictionary() {
+        flyway("2").migrate();
+        jdbcTemplate.update(INSERT_V2_SQL, 1, "CHAT", "Refund issued \u2013 merci");
+        jdbcTemplate.update(INSERT_V2_SQL, 2, "TICKET", "Refund issued \u2013 merci");
+        jdbcTemplate.update(INSERT_V2_SQL, 3, "FORM", "Call me back");
+        jdbcTemplate.update(INSERT_V2_SQL, 4, "EMAIL", null);
+
+        flyway("3").migrate();
+
+        assertThat(jdbcTemplate.queryForList("select content_hash from support_response", String.class))
+                .containsExactlyInAnyOrder(SupportResponse.contentHash("Call me back"),
+                        SupportResponse.contentHash("Refund issued \u2013 merci"));
+        assertThat(jdbcTemplate.queryForList("""
+                select l.interaction_type_code, cast(r.content as varchar(100)) as content from interaction_log l
+                left join support_response r on r.id = l.support_response_id
+                order by l.customer_id"""))
+                .extracting(row -> row.get("INTERACTION_TYPE_CODE") + " " + row.get("CONTENT"))
+                .containsExactly("0 Refund issued \u2013 merci", "2 Refund issued \u2013 merci", "3 Call me back", "1 null");
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .target(target)
+                .load();
+    }
+}